@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,16 +22,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.startup.StartupEndpoint;
 import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup.Mode;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.metrics.StartupStep;
+import org.springframework.http.MediaType;
 import org.springframework.restdocs.payload.FieldDescriptor;
 import org.springframework.restdocs.payload.JsonFieldType;
 import org.springframework.restdocs.payload.PayloadDocumentation;
 
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
 import static org.springframework.restdocs.payload.PayloadDocumentation.fieldWithPath;
+import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
+import static org.springframework.restdocs.request.RequestDocumentation.requestParameters;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -66,6 +70,37 @@ class StartupEndpointDocumentationTests extends MockMvcEndpointDocumentationTest
 				.andDo(document("startup", PayloadDocumentation.responseFields(responseFields())));
 	}
 
+	@Test
+	void startupAnalysis() throws Exception {
+		this.mockMvc.perform(get("/actuator/startup/analysis").param("limit", "2").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andDo(document("startup-analysis/json",
+						requestParameters(parameterWithName("limit")
+								.description("Maximum number of hot spots to return. Defaults to 20.").optional()),
+						PayloadDocumentation.responseFields(
+								fieldWithPath("springBootVersion").type(JsonFieldType.STRING)
+										.description("Spring Boot version for this application.").optional(),
+								fieldWithPath("hotSpots").description(
+										"An array of the steps with the highest self time, in descending order."),
+								fieldWithPath("hotSpots.[].name").description("The name of the StartupStep."),
+								fieldWithPath("hotSpots.[].detail").type(JsonFieldType.STRING)
+										.description(
+												"The value of the tag that identifies the step, such as the bean name.")
+										.optional(),
+								fieldWithPath("hotSpots.[].count")
+										.description("The number of steps aggregated in this hot spot."),
+								fieldWithPath("hotSpots.[].selfTime")
+										.description("The time spent in the steps, excluding their children."),
+								fieldWithPath("hotSpots.[].totalTime")
+										.description("The time spent in the steps, including their children."))));
+	}
+
+	@Test
+	void textStartupAnalysis() throws Exception {
+		this.mockMvc.perform(get("/actuator/startup/analysis").accept(MediaType.TEXT_PLAIN)).andExpect(status().isOk())
+				.andDo(document("startup-analysis/text"));
+	}
+
 	private FieldDescriptor[] responseFields() {
 		return new FieldDescriptor[] {
 				fieldWithPath("springBootVersion").type(JsonFieldType.STRING)
@@ -99,7 +134,7 @@ class StartupEndpointDocumentationTests extends MockMvcEndpointDocumentationTest
 
 		@Bean
 		BufferingApplicationStartup bufferingApplicationStartup() {
-			return new BufferingApplicationStartup(16);
+			return new BufferingApplicationStartup(16, Mode.BUFFER, true);
 		}
 
 	}
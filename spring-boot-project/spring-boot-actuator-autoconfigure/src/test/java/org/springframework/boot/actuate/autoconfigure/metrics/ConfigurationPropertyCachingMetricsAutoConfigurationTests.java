@@ -0,0 +1,72 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.autoconfigure.metrics;
+
+import io.micrometer.core.instrument.Tags;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.actuate.autoconfigure.metrics.test.MetricsRun;
+import org.springframework.boot.actuate.metrics.env.ConfigurationPropertyCachingMetrics;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.StandardEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ConfigurationPropertyCachingMetricsAutoConfiguration}.
+ *
+ * @author Andy Wilkinson
+ */
+class ConfigurationPropertyCachingMetricsAutoConfigurationTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner().with(MetricsRun.simple())
+			.withConfiguration(AutoConfigurations.of(ConfigurationPropertyCachingMetricsAutoConfiguration.class));
+
+	@Test
+	void autoConfiguresConfigurationPropertyCachingMetrics() {
+		this.contextRunner
+				.run((context) -> assertThat(context).hasSingleBean(ConfigurationPropertyCachingMetrics.class));
+	}
+
+	@Test
+	void allowsCustomConfigurationPropertyCachingMetricsToBeUsed() {
+		this.contextRunner.withUserConfiguration(CustomConfigurationPropertyCachingMetricsConfiguration.class)
+				.run((context) -> assertThat(context).hasSingleBean(ConfigurationPropertyCachingMetrics.class)
+						.hasBean("customConfigurationPropertyCachingMetrics"));
+	}
+
+	@Test
+	void backsOffWithoutMeterRegistry() {
+		new ApplicationContextRunner()
+				.withConfiguration(AutoConfigurations.of(ConfigurationPropertyCachingMetricsAutoConfiguration.class))
+				.run((context) -> assertThat(context).doesNotHaveBean(ConfigurationPropertyCachingMetrics.class));
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	static class CustomConfigurationPropertyCachingMetricsConfiguration {
+
+		@Bean
+		ConfigurationPropertyCachingMetrics customConfigurationPropertyCachingMetrics() {
+			return new ConfigurationPropertyCachingMetrics(new StandardEnvironment(), Tags.empty());
+		}
+
+	}
+
+}
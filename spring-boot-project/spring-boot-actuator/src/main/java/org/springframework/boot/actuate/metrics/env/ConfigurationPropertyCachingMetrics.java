@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.env;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.boot.context.properties.source.ConfigurationPropertyCacheStatistics;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyCaching;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link MeterBinder} that binds the {@link ConfigurationPropertyCacheStatistics
+ * statistics} of each {@link ConfigurationPropertyCaching configuration property cache}
+ * in an {@link Environment}. Meters are tagged with the name of the property source.
+ * <p>
+ * Binding enables the recording of statistics for each cache that is bound. Only the
+ * property sources that are in the environment when {@link #bindTo(MeterRegistry)} is
+ * called are bound. Property sources that are added later have no meters and do not
+ * record statistics.
+ *
+ * @author Andy Wilkinson
+ * @since 2.6.14
+ */
+public class ConfigurationPropertyCachingMetrics implements MeterBinder {
+
+	private static final String METRIC_PREFIX = "configuration.properties.cache.";
+
+	private final Environment environment;
+
+	private final Iterable<Tag> tags;
+
+	/**
+	 * Create a new {@link ConfigurationPropertyCachingMetrics} instance.
+	 * @param environment the environment whose caches should be bound
+	 * @param tags additional tags to add to each meter
+	 */
+	public ConfigurationPropertyCachingMetrics(Environment environment, Iterable<Tag> tags) {
+		Assert.notNull(environment, "Environment must not be null");
+		this.environment = environment;
+		this.tags = tags;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (ConfigurationPropertySource source : ConfigurationPropertySources.get(this.environment)) {
+			Object underlyingSource = source.getUnderlyingSource();
+			ConfigurationPropertyCaching caching = getCaching(underlyingSource);
+			if (caching != null) {
+				bindTo(registry, caching, Tags.of(this.tags).and("source", getName(underlyingSource)));
+			}
+		}
+	}
+
+	private void bindTo(MeterRegistry registry, ConfigurationPropertyCaching caching, Tags tags) {
+		caching.enableStatistics();
+		bindCounter(registry, "gets", caching, ConfigurationPropertyCacheStatistics::getHitCount,
+				"The number of times that cached mappings were used", tags.and("result", "hit"));
+		bindCounter(registry, "gets", caching, ConfigurationPropertyCacheStatistics::getMissCount,
+				"The number of times that mappings were created because they were not cached",
+				tags.and("result", "miss"));
+		bindCounter(registry, "refreshes", caching, ConfigurationPropertyCacheStatistics::getRefreshCount,
+				"The number of times that expired mappings were refreshed", tags);
+		bindCounter(registry, "changes", caching, ConfigurationPropertyCacheStatistics::getChangeCount,
+				"The number of refreshes that found changed property names", tags);
+		FunctionTimer
+				.builder(METRIC_PREFIX + "refresh.time", caching, this::getRefreshCount,
+						(cache) -> cache.getStatistics().getRefreshTime().toNanos(), TimeUnit.NANOSECONDS)
+				.description("Time spent creating and refreshing mappings").tags(tags).register(registry);
+	}
+
+	private void bindCounter(MeterRegistry registry, String name, ConfigurationPropertyCaching caching,
+			ToDoubleFunction<ConfigurationPropertyCacheStatistics> count, String description, Tags tags) {
+		FunctionCounter.builder(METRIC_PREFIX + name, caching, (cache) -> getStatistics(cache, count))
+				.description(description).tags(tags).register(registry);
+	}
+
+	private double getStatistics(ConfigurationPropertyCaching caching,
+			ToDoubleFunction<ConfigurationPropertyCacheStatistics> count) {
+		return count.applyAsDouble(caching.getStatistics());
+	}
+
+	private long getRefreshCount(ConfigurationPropertyCaching caching) {
+		ConfigurationPropertyCacheStatistics statistics = caching.getStatistics();
+		return statistics.getMissCount() + statistics.getRefreshCount();
+	}
+
+	private ConfigurationPropertyCaching getCaching(Object underlyingSource) {
+		try {
+			return ConfigurationPropertyCaching.get(this.environment, underlyingSource);
+		}
+		catch (IllegalStateException ex) {
+			return null;
+		}
+	}
+
+	private String getName(Object underlyingSource) {
+		return (underlyingSource instanceof PropertySource) ? ((PropertySource<?>) underlyingSource).getName()
+				: underlyingSource.toString();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,18 @@
 
 package org.springframework.boot.actuate.startup;
 
+import java.util.List;
+
 import org.springframework.boot.SpringBootVersion;
 import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
 import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
 import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupAnalysis;
+import org.springframework.boot.context.metrics.buffering.StartupAnalysis.HotSpot;
 import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.lang.Nullable;
 
 /**
  * {@link Endpoint @Endpoint} to expose the timeline of the
@@ -35,6 +41,10 @@ import org.springframework.boot.context.metrics.buffering.StartupTimeline;
 @Endpoint(id = "startup")
 public class StartupEndpoint {
 
+	private static final String ANALYSIS = "analysis";
+
+	private static final int DEFAULT_HOT_SPOTS_LIMIT = 20;
+
 	private final BufferingApplicationStartup applicationStartup;
 
 	/**
@@ -58,6 +68,44 @@ public class StartupEndpoint {
 		return new StartupResponse(startupTimeline);
 	}
 
+	/**
+	 * Return the steps with the highest self time, aggregated from all the recorded steps
+	 * including those that have been drained.
+	 * @param analysis the name of the analysis, must be {@code analysis}
+	 * @param limit the maximum number of hot spots or {@code null} to use the default
+	 * @return the analysis or {@code null} if the name is not supported or the analysis
+	 * is not enabled
+	 * @since 2.6.14
+	 */
+	@ReadOperation
+	public StartupAnalysisResponse startupAnalysis(@Selector String analysis, @Nullable Integer limit) {
+		StartupAnalysis startupAnalysis = getAnalysis(analysis);
+		if (startupAnalysis == null) {
+			return null;
+		}
+		int hotSpotsLimit = (limit != null) ? limit : DEFAULT_HOT_SPOTS_LIMIT;
+		return new StartupAnalysisResponse(startupAnalysis.getHotSpots(hotSpotsLimit));
+	}
+
+	/**
+	 * Return all the recorded steps, including those that have been drained, in the
+	 * folded stack format that is used to render flame graphs.
+	 * @param analysis the name of the analysis, must be {@code analysis}
+	 * @return the folded stacks or {@code null} if the name is not supported or the
+	 * analysis is not enabled
+	 * @since 2.6.14
+	 * @see StartupAnalysis#getFoldedStacks()
+	 */
+	@ReadOperation(produces = "text/plain;charset=UTF-8")
+	public String textStartupAnalysis(@Selector String analysis) {
+		StartupAnalysis startupAnalysis = getAnalysis(analysis);
+		return (startupAnalysis != null) ? startupAnalysis.getFoldedStacks() : null;
+	}
+
+	private StartupAnalysis getAnalysis(String analysis) {
+		return ANALYSIS.equals(analysis) ? this.applicationStartup.getAnalysis() : null;
+	}
+
 	/**
 	 * A description of an application startup, primarily intended for serialization to
 	 * JSON.
@@ -83,4 +131,31 @@ public class StartupEndpoint {
 
 	}
 
+	/**
+	 * A description of the hot spots of an application startup, primarily intended for
+	 * serialization to JSON.
+	 *
+	 * @since 2.6.14
+	 */
+	public static final class StartupAnalysisResponse {
+
+		private final String springBootVersion;
+
+		private final List<HotSpot> hotSpots;
+
+		private StartupAnalysisResponse(List<HotSpot> hotSpots) {
+			this.hotSpots = hotSpots;
+			this.springBootVersion = SpringBootVersion.getVersion();
+		}
+
+		public String getSpringBootVersion() {
+			return this.springBootVersion;
+		}
+
+		public List<HotSpot> getHotSpots() {
+			return this.hotSpots;
+		}
+
+	}
+
 }
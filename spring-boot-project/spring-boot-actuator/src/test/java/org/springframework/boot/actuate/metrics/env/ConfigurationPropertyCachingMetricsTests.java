@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.env;
+
+import java.util.Collections;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ConfigurationPropertyCachingMetrics}.
+ *
+ * @author Andy Wilkinson
+ */
+class ConfigurationPropertyCachingMetricsTests {
+
+	@Test
+	void bindToRegistersMetersForEachCachingSource() {
+		StandardEnvironment environment = createEnvironment();
+		MeterRegistry registry = new SimpleMeterRegistry();
+		new ConfigurationPropertyCachingMetrics(environment, Tags.empty()).bindTo(registry);
+		Tags tags = Tags.of("source", "test");
+		assertThat(
+				registry.get("configuration.properties.cache.gets").tags(tags.and("result", "hit")).functionCounter())
+						.isNotNull();
+		assertThat(
+				registry.get("configuration.properties.cache.gets").tags(tags.and("result", "miss")).functionCounter())
+						.isNotNull();
+		assertThat(registry.get("configuration.properties.cache.refreshes").tags(tags).functionCounter()).isNotNull();
+		assertThat(registry.get("configuration.properties.cache.changes").tags(tags).functionCounter()).isNotNull();
+		assertThat(registry.get("configuration.properties.cache.refresh.time").tags(tags).functionTimer()).isNotNull();
+		assertThat(registry.find("configuration.properties.cache.refreshes").tag("source", "configurationProperties")
+				.functionCounter()).isNull();
+	}
+
+	@Test
+	void metersReportCacheStatistics() {
+		StandardEnvironment environment = createEnvironment();
+		MeterRegistry registry = new SimpleMeterRegistry();
+		new ConfigurationPropertyCachingMetrics(environment, Tags.of("app", "test")).bindTo(registry);
+		environment.getProperty("missing");
+		environment.getProperty("missing");
+		Tags tags = Tags.of("app", "test", "source", "test");
+		assertThat(registry.get("configuration.properties.cache.gets").tags(tags.and("result", "miss"))
+				.functionCounter().count()).isEqualTo(1);
+		assertThat(registry.get("configuration.properties.cache.refreshes").tags(tags).functionCounter().count())
+				.isEqualTo(1);
+		assertThat(registry.get("configuration.properties.cache.refresh.time").tags(tags).functionTimer().count())
+				.isEqualTo(2);
+	}
+
+	@Test
+	void bindToDoesNotBindPropertySourcesThatAreAddedLater() {
+		StandardEnvironment environment = createEnvironment();
+		MeterRegistry registry = new SimpleMeterRegistry();
+		new ConfigurationPropertyCachingMetrics(environment, Tags.empty()).bindTo(registry);
+		environment.getPropertySources()
+				.addFirst(new MapPropertySource("late", Collections.singletonMap("spring", "boot")));
+		environment.getProperty("spring");
+		assertThat(registry.find("configuration.properties.cache.refreshes").tag("source", "late").functionCounter())
+				.isNull();
+	}
+
+	private StandardEnvironment createEnvironment() {
+		StandardEnvironment environment = new StandardEnvironment();
+		PropertySource<?> propertySource = new MapPropertySource("test", Collections.singletonMap("spring", "boot"));
+		environment.getPropertySources().addFirst(propertySource);
+		ConfigurationPropertySources.attach(environment);
+		return environment;
+	}
+
+}
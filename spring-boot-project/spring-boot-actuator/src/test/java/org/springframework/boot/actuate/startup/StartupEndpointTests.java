@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,8 +21,11 @@ import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.boot.SpringBootVersion;
+import org.springframework.boot.actuate.startup.StartupEndpoint.StartupAnalysisResponse;
 import org.springframework.boot.actuate.startup.StartupEndpoint.StartupResponse;
 import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup.Mode;
+import org.springframework.boot.context.metrics.buffering.StartupAnalysis.HotSpot;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -69,6 +72,46 @@ class StartupEndpointTests {
 		});
 	}
 
+	@Test
+	void analysisIncludesDrainedSteps() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(256, Mode.BUFFER, true);
+		testStartupEndpoint(applicationStartup, (startupEndpoint) -> {
+			startupEndpoint.startup();
+			StartupAnalysisResponse analysis = startupEndpoint.startupAnalysis("analysis", 3);
+			assertThat(analysis.getSpringBootVersion()).isEqualTo(SpringBootVersion.getVersion());
+			assertThat(analysis.getHotSpots()).hasSize(3);
+			assertThat(analysis.getHotSpots()).extracting(HotSpot::getName).contains("spring.beans.instantiate");
+		});
+	}
+
+	@Test
+	void textAnalysisProvidesFoldedStacks() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(256, Mode.BUFFER, true);
+		testStartupEndpoint(applicationStartup, (startupEndpoint) -> {
+			String foldedStacks = startupEndpoint.textStartupAnalysis("analysis");
+			assertThat(foldedStacks).contains("spring.beans.instantiate[endpoint]");
+			assertThat(foldedStacks.split("\n")).allMatch((line) -> line.matches("\\S.* \\d+"));
+		});
+	}
+
+	@Test
+	void analysisWithUnknownNameReturnsNull() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(256);
+		testStartupEndpoint(applicationStartup, (startupEndpoint) -> {
+			assertThat(startupEndpoint.startupAnalysis("unknown", null)).isNull();
+			assertThat(startupEndpoint.textStartupAnalysis("unknown")).isNull();
+		});
+	}
+
+	@Test
+	void analysisWhenNotEnabledReturnsNull() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(256);
+		testStartupEndpoint(applicationStartup, (startupEndpoint) -> {
+			assertThat(startupEndpoint.startupAnalysis("analysis", null)).isNull();
+			assertThat(startupEndpoint.textStartupAnalysis("analysis")).isNull();
+		});
+	}
+
 	private void testStartupEndpoint(ApplicationStartup applicationStartup, Consumer<StartupEndpoint> startupEndpoint) {
 		ApplicationContextRunner contextRunner = new ApplicationContextRunner()
 				.withInitializer((context) -> context.setApplicationStartup(applicationStartup))
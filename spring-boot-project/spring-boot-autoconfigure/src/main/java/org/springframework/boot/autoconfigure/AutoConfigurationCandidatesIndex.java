@@ -0,0 +1,314 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.JarURLConnection;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Index of the auto-configuration classes that are rejected by the
+ * {@link AutoConfigurationImportFilter import filters}. The index is created at build
+ * time, against the class path that the application is packaged with, by running this
+ * class' {@link #main(String[]) main method}. The result is written to
+ * {@value #LOCATION}.
+ * <p>
+ * At runtime, the index is only used when it is loaded from a packaged archive, when it
+ * was created with the same import filters and when the fingerprint of the class path,
+ * made of the name and size of each jar, has not changed. In that case, the import
+ * filters are not invoked. The size of a nested jar is read from the central directory of
+ * the archive that contains it so that no jar has to be read. An exploded class path,
+ * such as the one of an application that is run from its build output, does not use the
+ * index as its classes may have been recompiled since the index was created. As a
+ * consequence, the import filters must only depend on the class path. The index can be
+ * ignored by setting the {@value #IGNORE_PROPERTY} system property to {@code true}.
+ *
+ * @author Phillip Webb
+ * @since 2.6.14
+ */
+public final class AutoConfigurationCandidatesIndex {
+
+	/**
+	 * The location of the index.
+	 */
+	public static final String LOCATION = "META-INF/spring-autoconfigure-candidates.properties";
+
+	/**
+	 * System property that instructs Spring Boot to ignore the index.
+	 */
+	public static final String IGNORE_PROPERTY = "spring.autoconfigure.candidates.ignore";
+
+	private static final String FINGERPRINT = "fingerprint";
+
+	private static final String FILTERS = "filters";
+
+	private static final String FILTERED = "filtered";
+
+	private static final String JAR_MODE_LIBRARY_PREFIX = "spring-boot-jarmode-";
+
+	private static final Log logger = LogFactory.getLog(AutoConfigurationCandidatesIndex.class);
+
+	private final Set<String> filtered;
+
+	private AutoConfigurationCandidatesIndex(Set<String> filtered) {
+		this.filtered = filtered;
+	}
+
+	/**
+	 * Return if the given class was rejected by the import filters.
+	 * @param className the class name
+	 * @return {@code true} if the class was rejected
+	 */
+	boolean isFiltered(String className) {
+		return this.filtered.contains(className);
+	}
+
+	/**
+	 * Load the index for the given import filters if it exists and matches the class
+	 * path.
+	 * @param classLoader the class loader used to find the index
+	 * @param filters the import filters that would otherwise be used
+	 * @return the index or {@code null}
+	 */
+	static AutoConfigurationCandidatesIndex load(ClassLoader classLoader, List<AutoConfigurationImportFilter> filters) {
+		if (SpringProperties.getFlag(IGNORE_PROPERTY)) {
+			return null;
+		}
+		classLoader = (classLoader != null) ? classLoader : ClassUtils.getDefaultClassLoader();
+		URL url = (classLoader != null) ? classLoader.getResource(LOCATION) : ClassLoader.getSystemResource(LOCATION);
+		if (url == null) {
+			return null;
+		}
+		if (!"jar".equals(url.getProtocol())) {
+			logger.debug("Ignoring auto-configuration candidates index as the application is not packaged");
+			return null;
+		}
+		Properties properties = new Properties();
+		try (InputStream inputStream = url.openStream()) {
+			properties.load(inputStream);
+		}
+		catch (IOException ex) {
+			logger.debug("Unable to load auto-configuration candidates index from " + url, ex);
+			return null;
+		}
+		if (!getFilterNames(filters).equals(properties.getProperty(FILTERS))) {
+			logger.debug("Ignoring auto-configuration candidates index as the import filters have changed");
+			return null;
+		}
+		if (!getClassPathFingerprint(classLoader).equals(properties.getProperty(FINGERPRINT))) {
+			logger.debug("Ignoring auto-configuration candidates index as the class path has changed");
+			return null;
+		}
+		String[] filtered = StringUtils.commaDelimitedListToStringArray(properties.getProperty(FILTERED));
+		return new AutoConfigurationCandidatesIndex(new HashSet<>(Arrays.asList(filtered)));
+	}
+
+	/**
+	 * Create the content of an index by applying the given import filters to the given
+	 * classes.
+	 * @param classLoader the class loader whose class path is indexed
+	 * @param classNames the names of the classes to filter
+	 * @param metadata the auto-configuration metadata
+	 * @param filters the import filters
+	 * @return the content of the index
+	 */
+	static String create(ClassLoader classLoader, Collection<String> classNames, AutoConfigurationMetadata metadata,
+			List<AutoConfigurationImportFilter> filters) {
+		String[] candidates = StringUtils.toStringArray(new TreeSet<>(classNames));
+		List<String> filtered = new ArrayList<>();
+		boolean[] matches = new boolean[candidates.length];
+		Arrays.fill(matches, true);
+		for (AutoConfigurationImportFilter filter : filters) {
+			boolean[] match = filter.match(candidates, metadata);
+			for (int i = 0; i < match.length; i++) {
+				matches[i] &= match[i];
+			}
+		}
+		for (int i = 0; i < candidates.length; i++) {
+			if (!matches[i]) {
+				filtered.add(candidates[i]);
+			}
+		}
+		StringBuilder content = new StringBuilder();
+		content.append(FINGERPRINT).append('=').append(getClassPathFingerprint(classLoader)).append('\n');
+		content.append(FILTERS).append('=').append(getFilterNames(filters)).append('\n');
+		content.append(FILTERED).append('=').append(String.join(",", filtered)).append('\n');
+		return content.toString();
+	}
+
+	private static String getFilterNames(List<AutoConfigurationImportFilter> filters) {
+		return filters.stream().map((filter) -> filter.getClass().getName()).collect(Collectors.joining(","));
+	}
+
+	/**
+	 * Return a fingerprint of the class path of the given class loader. Each jar
+	 * contributes its file name and size. The fingerprint is therefore the same for the
+	 * class path that the index is created with and for the packaged application where
+	 * the jars are nested in {@code BOOT-INF/lib}. Directories do not contribute as the
+	 * application classes are packaged with the index. Jar mode libraries, such as the
+	 * layer tools, are added to the archive when it is packaged and are ignored. Jars
+	 * that cannot be read are recorded as such so that the fingerprint is unlikely to
+	 * match the one of a complete class path.
+	 * @param classLoader the class loader
+	 * @return the fingerprint
+	 */
+	static String getClassPathFingerprint(ClassLoader classLoader) {
+		Set<String> entries = new TreeSet<>();
+		for (URL url : getClassPathUrls(classLoader)) {
+			String location = getLocation(url.toString());
+			String name = getFileName(location);
+			if (name.endsWith(".jar") && !name.startsWith(JAR_MODE_LIBRARY_PREFIX)) {
+				try {
+					entries.add(name + " " + getSize(url, location));
+				}
+				catch (IOException | URISyntaxException | RuntimeException ex) {
+					entries.add(name + " unreadable");
+				}
+			}
+		}
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (String entry : entries) {
+				digest.update(entry.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) '\n');
+			}
+			StringBuilder fingerprint = new StringBuilder();
+			for (byte b : digest.digest()) {
+				fingerprint.append(String.format("%02x", b));
+			}
+			return fingerprint.toString();
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static long getSize(URL url, String location) throws IOException, URISyntaxException {
+		if ("jar".equals(url.getProtocol())) {
+			JarURLConnection connection = (JarURLConnection) new URL(location).openConnection();
+			return connection.getJarEntry().getSize();
+		}
+		File file = new File(url.toURI());
+		if (!file.isFile()) {
+			throw new FileNotFoundException(file.toString());
+		}
+		return file.length();
+	}
+
+	private static List<URL> getClassPathUrls(ClassLoader classLoader) {
+		for (ClassLoader candidate = classLoader; candidate != null; candidate = candidate.getParent()) {
+			if (candidate instanceof URLClassLoader) {
+				return Arrays.asList(((URLClassLoader) candidate).getURLs());
+			}
+		}
+		List<URL> urls = new ArrayList<>();
+		String classPath = System.getProperty("java.class.path", "");
+		for (String entry : StringUtils.tokenizeToStringArray(classPath, File.pathSeparator)) {
+			try {
+				urls.add(new File(entry).toURI().toURL());
+			}
+			catch (MalformedURLException ex) {
+				// Ignore
+			}
+		}
+		return urls;
+	}
+
+	private static String getLocation(String url) {
+		String location = url;
+		while (location.endsWith("!/") || location.endsWith("/")) {
+			location = location.substring(0, location.length() - ((location.endsWith("!/")) ? 2 : 1));
+		}
+		return location;
+	}
+
+	private static String getFileName(String location) {
+		return location.substring(location.lastIndexOf('/') + 1);
+	}
+
+	/**
+	 * Create an index for the class path of this class and write it to the file given as
+	 * the first argument.
+	 * @param args the application arguments
+	 * @throws IOException if the index cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			throw new IllegalArgumentException(
+					"Usage: " + AutoConfigurationCandidatesIndex.class.getName() + " <file>");
+		}
+		ClassLoader classLoader = AutoConfigurationCandidatesIndex.class.getClassLoader();
+		List<AutoConfigurationImportFilter> filters = SpringFactoriesLoader
+				.loadFactories(AutoConfigurationImportFilter.class, classLoader);
+		for (AutoConfigurationImportFilter filter : filters) {
+			if (filter instanceof BeanClassLoaderAware) {
+				((BeanClassLoaderAware) filter).setBeanClassLoader(classLoader);
+			}
+		}
+		Properties metadata = PropertiesLoaderUtils.loadAllProperties(AutoConfigurationMetadataLoader.PATH,
+				classLoader);
+		Set<String> classNames = new TreeSet<>(
+				SpringFactoriesLoader.loadFactoryNames(EnableAutoConfiguration.class, classLoader));
+		for (String key : metadata.stringPropertyNames()) {
+			int lastDot = key.lastIndexOf('.');
+			if (lastDot != -1) {
+				classNames.add(key.substring(0, lastDot));
+			}
+		}
+		String content = create(classLoader, classNames, AutoConfigurationMetadataLoader.loadMetadata(metadata),
+				filters);
+		File file = new File(args[0]);
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null) {
+			parent.mkdirs();
+		}
+		try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.ISO_8859_1)) {
+			writer.write(content);
+		}
+	}
+
+}
@@ -335,7 +335,9 @@ public class AutoConfigurationImportSelector implements DeferredImportSelector,
 				invokeAwareMethods(filter);
 			}
 			// 往下
-			this.configurationClassFilter = new ConfigurationClassFilter(this.beanClassLoader, filters);
+			AutoConfigurationCandidatesIndex index = AutoConfigurationCandidatesIndex.load(this.beanClassLoader,
+					filters);
+			this.configurationClassFilter = new ConfigurationClassFilter(this.beanClassLoader, filters, index);
 		}
 		return this.configurationClassFilter;
 	}
@@ -431,13 +433,21 @@ public class AutoConfigurationImportSelector implements DeferredImportSelector,
 
 		private final List<AutoConfigurationImportFilter> filters;
 
-		ConfigurationClassFilter(ClassLoader classLoader, List<AutoConfigurationImportFilter> filters) {
+		private final AutoConfigurationCandidatesIndex index;
+
+		ConfigurationClassFilter(ClassLoader classLoader, List<AutoConfigurationImportFilter> filters,
+				AutoConfigurationCandidatesIndex index) {
 			// 会去加载META-INF/spring-autoconfigure-metadata.properties文件中的内容
-			this.autoConfigurationMetadata = AutoConfigurationMetadataLoader.loadMetadata(classLoader);
+			this.autoConfigurationMetadata = (index != null) ? null
+					: AutoConfigurationMetadataLoader.loadMetadata(classLoader);
 			this.filters = filters;
+			this.index = index;
 		}
 
 		List<String> filter(List<String> configurations) {
+			if (this.index != null) {
+				return filterUsingIndex(configurations);
+			}
 			long startTime = System.nanoTime();
 			String[] candidates = StringUtils.toStringArray(configurations);
 			boolean skipped = false;
@@ -478,6 +488,20 @@ public class AutoConfigurationImportSelector implements DeferredImportSelector,
 			return result;
 		}
 
+		private List<String> filterUsingIndex(List<String> configurations) {
+			List<String> result = new ArrayList<>(configurations.size());
+			for (String configuration : configurations) {
+				if (!this.index.isFiltered(configuration)) {
+					result.add(configuration);
+				}
+			}
+			if (logger.isTraceEnabled()) {
+				logger.trace("Filtered " + (configurations.size() - result.size())
+						+ " auto configuration class using the candidates index");
+			}
+			return (result.size() != configurations.size()) ? result : configurations;
+		}
+
 	}
 
 	private static class AutoConfigurationGroup
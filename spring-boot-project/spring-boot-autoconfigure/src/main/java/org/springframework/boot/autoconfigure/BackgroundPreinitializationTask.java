@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure;
+
+/**
+ * A time-consuming task, such as class loading or the creation of expensive objects, that
+ * is run by the {@link BackgroundPreinitializer} in a background thread while the
+ * application starts. Tasks are loaded from {@code META-INF/spring.factories} and may run
+ * concurrently with each other and with the refresh of the application context.
+ * <p>
+ * Implementations must not depend on the state of the application context. Any exception
+ * thrown by a task is ignored so that the work happens again, in the foreground, when it
+ * is needed.
+ *
+ * @author Phillip Webb
+ * @since 2.6.14
+ * @see BackgroundPreinitializer
+ */
+@FunctionalInterface
+public interface BackgroundPreinitializationTask {
+
+	/**
+	 * Perform the pre-initialization.
+	 * @throws Exception on failure
+	 */
+	void preinitialize() throws Exception;
+
+}
@@ -17,27 +17,49 @@
 package org.springframework.boot.autoconfigure;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import javax.validation.Configuration;
 import javax.validation.Validation;
 
+import org.springframework.boot.SpringApplication;
 import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
 import org.springframework.boot.context.event.ApplicationFailedEvent;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.boot.context.event.SpringApplicationEvent;
 import org.springframework.boot.context.logging.LoggingApplicationListener;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.NativeDetector;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.format.support.DefaultFormattingConversionService;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.support.AllEncompassingFormHttpMessageConverter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
- * {@link ApplicationListener} to trigger early initialization in a background thread of
- * time-consuming tasks.
+ * {@link ApplicationListener} to trigger early initialization in background threads of
+ * time-consuming tasks. The {@link BackgroundPreinitializationTask tasks} are loaded from
+ * {@code META-INF/spring.factories} and run on a small thread pool whose size can be
+ * configured with the {@value #THREADS_PROPERTY_NAME} property. Each task is timed and,
+ * once the tasks have been joined, recorded as a
+ * {@code spring.boot.application.preinitialization} step of the application's
+ * {@link ApplicationStartup} with {@code task} and {@code duration} tags.
+ * <p>
+ * The tasks are joined before the {@link ApplicationReadyEvent} is published or, when the
+ * {@value #JOIN_PROPERTY_NAME} property is set to {@code started}, before the
+ * application's runners are called.
  * <p>
  * Set the {@link #IGNORE_BACKGROUNDPREINITIALIZER_PROPERTY_NAME} system property to
  * {@code true} to disable this mechanism and let such initialization happen in the
@@ -61,6 +83,21 @@ public class BackgroundPreinitializer implements ApplicationListener<SpringAppli
 	 */
 	public static final String IGNORE_BACKGROUNDPREINITIALIZER_PROPERTY_NAME = "spring.backgroundpreinitializer.ignore";
 
+	/**
+	 * Property that configures the maximum number of threads used to run the
+	 * pre-initialization tasks.
+	 * @since 2.6.14
+	 */
+	public static final String THREADS_PROPERTY_NAME = "spring.backgroundpreinitializer.threads";
+
+	/**
+	 * Property that configures when the pre-initialization tasks are joined. Either
+	 * {@code ready} (default) to join them before the {@link ApplicationReadyEvent} or
+	 * {@code started} to join them before the application's runners are called.
+	 * @since 2.6.14
+	 */
+	public static final String JOIN_PROPERTY_NAME = "spring.backgroundpreinitializer.join";
+
 	private static final AtomicBoolean preinitializationStarted = new AtomicBoolean();
 
 	private static final CountDownLatch preinitializationComplete = new CountDownLatch(1);
@@ -72,19 +109,30 @@ public class BackgroundPreinitializer implements ApplicationListener<SpringAppli
 				&& Runtime.getRuntime().availableProcessors() > 1;
 	}
 
+	private boolean joinWhenStarted;
+
+	private Preinitialization preinitialization;
+
 	@Override
 	public void onApplicationEvent(SpringApplicationEvent event) {
 		if (!ENABLED) {
 			return;
 		}
-		if (event instanceof ApplicationEnvironmentPreparedEvent
-				&& preinitializationStarted.compareAndSet(false, true)) {
-			performPreinitialization();
+		if (event instanceof ApplicationEnvironmentPreparedEvent) {
+			ConfigurableEnvironment environment = ((ApplicationEnvironmentPreparedEvent) event).getEnvironment();
+			this.joinWhenStarted = "started".equalsIgnoreCase(environment.getProperty(JOIN_PROPERTY_NAME));
+			if (preinitializationStarted.compareAndSet(false, true)) {
+				performPreinitialization(event.getSpringApplication(), environment);
+			}
 		}
-		if ((event instanceof ApplicationReadyEvent || event instanceof ApplicationFailedEvent)
+		if ((event instanceof ApplicationReadyEvent || event instanceof ApplicationFailedEvent
+				|| (event instanceof ApplicationStartedEvent && this.joinWhenStarted))
 				&& preinitializationStarted.get()) {
 			try {
 				preinitializationComplete.await();
+				if (this.preinitialization != null) {
+					this.preinitialization.recordSteps();
+				}
 			}
 			catch (InterruptedException ex) {
 				Thread.currentThread().interrupt();
@@ -92,47 +140,120 @@ public class BackgroundPreinitializer implements ApplicationListener<SpringAppli
 		}
 	}
 
-	private void performPreinitialization() {
-		try {
-			Thread thread = new Thread(new Runnable() {
-
-				@Override
-				public void run() {
-					runSafely(new ConversionServiceInitializer());
-					runSafely(new ValidationInitializer());
-					runSafely(new MessageConverterInitializer());
-					runSafely(new JacksonInitializer());
-					runSafely(new CharsetInitializer());
-					preinitializationComplete.countDown();
-				}
+	private void performPreinitialization(SpringApplication application, ConfigurableEnvironment environment) {
+		int threads = environment.getProperty(THREADS_PROPERTY_NAME, Integer.class,
+				Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+		List<BackgroundPreinitializationTask> tasks = SpringFactoriesLoader
+				.loadFactories(BackgroundPreinitializationTask.class, application.getClassLoader());
+		this.preinitialization = new Preinitialization(tasks, threads, application.getApplicationStartup());
+		this.preinitialization.start(preinitializationComplete::countDown);
+	}
 
-				public void runSafely(Runnable runnable) {
-					try {
-						runnable.run();
-					}
-					catch (Throwable ex) {
-						// Ignore
+	/**
+	 * Runs {@link BackgroundPreinitializationTask tasks} on a thread pool that is shut
+	 * down once they have completed. Startup steps are not started on the pool threads as
+	 * an {@link ApplicationStartup} tracks the current step of the main thread. Each task
+	 * is timed instead and its step is recorded by {@link #recordSteps()}.
+	 */
+	static class Preinitialization {
+
+		private static final String STEP_NAME = "spring.boot.application.preinitialization";
+
+		private final List<BackgroundPreinitializationTask> tasks;
+
+		private final int threads;
+
+		private final ApplicationStartup applicationStartup;
+
+		private final AtomicLongArray durations;
+
+		private final AtomicBoolean stepsRecorded = new AtomicBoolean();
+
+		Preinitialization(List<BackgroundPreinitializationTask> tasks, int threads,
+				ApplicationStartup applicationStartup) {
+			this.tasks = tasks;
+			this.threads = Math.max(1, Math.min(threads, tasks.size()));
+			this.applicationStartup = applicationStartup;
+			this.durations = new AtomicLongArray(tasks.size());
+			for (int i = 0; i < tasks.size(); i++) {
+				this.durations.set(i, -1);
+			}
+		}
+
+		void start(Runnable onComplete) {
+			if (this.tasks.isEmpty()) {
+				onComplete.run();
+				return;
+			}
+			AtomicInteger remaining = new AtomicInteger(this.tasks.size());
+			try {
+				ExecutorService executor = Executors.newFixedThreadPool(this.threads,
+						new CustomizableThreadFactory("background-preinit-"));
+				try {
+					for (int i = 0; i < this.tasks.size(); i++) {
+						int index = i;
+						executor.execute(() -> {
+							runSafely(index);
+							if (remaining.decrementAndGet() == 0) {
+								onComplete.run();
+							}
+						});
 					}
 				}
+				finally {
+					executor.shutdown();
+				}
+			}
+			catch (Exception ex) {
+				// This will fail on GAE where creating threads is prohibited. We can
+				// safely continue but startup will be slightly slower as the
+				// initialization will now happen on the main thread.
+				onComplete.run();
+			}
+		}
 
-			}, "background-preinit");
-			thread.start();
+		private void runSafely(int index) {
+			long startTime = System.nanoTime();
+			try {
+				this.tasks.get(index).preinitialize();
+			}
+			catch (Throwable ex) {
+				// Ignore
+			}
+			finally {
+				this.durations.set(index, System.nanoTime() - startTime);
+			}
 		}
-		catch (Exception ex) {
-			// This will fail on GAE where creating threads is prohibited. We can safely
-			// continue but startup will be slightly slower as the initialization will now
-			// happen on the main thread.
-			preinitializationComplete.countDown();
+
+		/**
+		 * Record a step for each task that has run. Must be called once the tasks have
+		 * completed, from the thread that runs the application, so that the steps are
+		 * children of its current step. Steps are only recorded once.
+		 */
+		void recordSteps() {
+			if (!this.stepsRecorded.compareAndSet(false, true)) {
+				return;
+			}
+			for (int i = 0; i < this.tasks.size(); i++) {
+				long duration = this.durations.get(i);
+				if (duration >= 0) {
+					StartupStep step = this.applicationStartup.start(STEP_NAME);
+					step.tag("task", this.tasks.get(i).getClass().getName());
+					step.tag("duration", Duration.ofNanos(duration).toString());
+					step.end();
+				}
+			}
 		}
+
 	}
 
 	/**
 	 * Early initializer for Spring MessageConverters.
 	 */
-	private static class MessageConverterInitializer implements Runnable {
+	static class MessageConverterInitializer implements BackgroundPreinitializationTask {
 
 		@Override
-		public void run() {
+		public void preinitialize() {
 			new AllEncompassingFormHttpMessageConverter();
 		}
 
@@ -141,10 +262,10 @@ public class BackgroundPreinitializer implements ApplicationListener<SpringAppli
 	/**
 	 * Early initializer for javax.validation.
 	 */
-	private static class ValidationInitializer implements Runnable {
+	static class ValidationInitializer implements BackgroundPreinitializationTask {
 
 		@Override
-		public void run() {
+		public void preinitialize() {
 			Configuration<?> configuration = Validation.byDefaultProvider().configure();
 			configuration.buildValidatorFactory().getValidator();
 		}
@@ -154,10 +275,10 @@ public class BackgroundPreinitializer implements ApplicationListener<SpringAppli
 	/**
 	 * Early initializer for Jackson.
 	 */
-	private static class JacksonInitializer implements Runnable {
+	static class JacksonInitializer implements BackgroundPreinitializationTask {
 
 		@Override
-		public void run() {
+		public void preinitialize() {
 			Jackson2ObjectMapperBuilder.json().build();
 		}
 
@@ -166,19 +287,22 @@ public class BackgroundPreinitializer implements ApplicationListener<SpringAppli
 	/**
 	 * Early initializer for Spring's ConversionService.
 	 */
-	private static class ConversionServiceInitializer implements Runnable {
+	static class ConversionServiceInitializer implements BackgroundPreinitializationTask {
 
 		@Override
-		public void run() {
+		public void preinitialize() {
 			new DefaultFormattingConversionService();
 		}
 
 	}
 
-	private static class CharsetInitializer implements Runnable {
+	/**
+	 * Early initializer for charsets.
+	 */
+	static class CharsetInitializer implements BackgroundPreinitializationTask {
 
 		@Override
-		public void run() {
+		public void preinitialize() {
 			StandardCharsets.UTF_8.name();
 		}
 
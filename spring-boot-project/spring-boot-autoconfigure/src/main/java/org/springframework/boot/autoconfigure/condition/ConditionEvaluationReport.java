@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2019 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.boot.autoconfigure.condition;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -27,6 +28,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
@@ -63,6 +67,10 @@ public final class ConditionEvaluationReport {
 
 	private final Set<String> unconditionalClasses = new HashSet<>();
 
+	private final ConcurrentMap<String, TimeRecorder> conditionEvaluationTimes = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, TimeRecorder> importFilterTimes = new ConcurrentHashMap<>();
+
 	/**
 	 * Private constructor.
 	 * @see #get(ConfigurableListableBeanFactory)
@@ -107,6 +115,63 @@ public final class ConditionEvaluationReport {
 		this.unconditionalClasses.addAll(evaluationCandidates);
 	}
 
+	/**
+	 * Record the time taken to evaluate a condition.
+	 * @param condition the condition evaluated
+	 * @param timeNanos the time taken in nanoseconds
+	 * @since 2.6.14
+	 */
+	public void recordConditionEvaluationTime(Condition condition, long timeNanos) {
+		Assert.notNull(condition, "Condition must not be null");
+		record(this.conditionEvaluationTimes, condition, 1, timeNanos);
+	}
+
+	/**
+	 * Record the time taken by a condition to filter auto-configuration candidates when
+	 * used as an
+	 * {@link org.springframework.boot.autoconfigure.AutoConfigurationImportFilter import
+	 * filter}.
+	 * @param condition the condition used as an import filter
+	 * @param candidates the number of candidates that were filtered
+	 * @param timeNanos the time taken in nanoseconds
+	 * @since 2.6.14
+	 */
+	public void recordImportFilterTime(Condition condition, int candidates, long timeNanos) {
+		Assert.notNull(condition, "Condition must not be null");
+		record(this.importFilterTimes, condition, candidates, timeNanos);
+	}
+
+	private void record(ConcurrentMap<String, TimeRecorder> times, Condition condition, long count, long timeNanos) {
+		times.computeIfAbsent(condition.getClass().getName(), (key) -> new TimeRecorder()).record(count, timeNanos);
+	}
+
+	/**
+	 * Returns the time taken to evaluate conditions, grouped by the name of the condition
+	 * class.
+	 * @return the condition evaluation times
+	 * @since 2.6.14
+	 */
+	public Map<String, ConditionEvaluationTime> getConditionEvaluationTimes() {
+		return getTimes(this.conditionEvaluationTimes);
+	}
+
+	/**
+	 * Returns the time taken by conditions to filter auto-configuration candidates,
+	 * grouped by the name of the condition class. The count of each entry is the number
+	 * of candidates that were filtered.
+	 * @return the import filter times
+	 * @since 2.6.14
+	 */
+	public Map<String, ConditionEvaluationTime> getImportFilterTimes() {
+		return getTimes(this.importFilterTimes);
+	}
+
+	private Map<String, ConditionEvaluationTime> getTimes(ConcurrentMap<String, TimeRecorder> times) {
+		SortedMap<String, ConditionEvaluationTime> result = new TreeMap<>();
+		times.forEach((condition, recorder) -> result.put(condition, recorder.get()));
+		return Collections.unmodifiableSortedMap(result);
+	}
+
 	/**
 	 * Returns condition outcomes from this report, grouped by the source.
 	 * @return the condition outcomes
@@ -295,6 +360,62 @@ public final class ConditionEvaluationReport {
 
 	}
 
+	/**
+	 * The time taken by a condition.
+	 *
+	 * @since 2.6.14
+	 */
+	public static final class ConditionEvaluationTime {
+
+		private final long count;
+
+		private final Duration time;
+
+		ConditionEvaluationTime(long count, Duration time) {
+			this.count = count;
+			this.time = time;
+		}
+
+		/**
+		 * Return the number of evaluations.
+		 * @return the count
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * Return the total time taken by the evaluations.
+		 * @return the time
+		 */
+		public Duration getTime() {
+			return this.time;
+		}
+
+		@Override
+		public String toString() {
+			return this.count + " in " + this.time.toMillis() + "ms";
+		}
+
+	}
+
+	private static final class TimeRecorder {
+
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder timeNanos = new LongAdder();
+
+		void record(long count, long timeNanos) {
+			this.count.add(count);
+			this.timeNanos.add(timeNanos);
+		}
+
+		ConditionEvaluationTime get() {
+			return new ConditionEvaluationTime(this.count.sum(), Duration.ofNanos(this.timeNanos.sum()));
+		}
+
+	}
+
 	private static class AncestorsMatchedCondition implements Condition {
 
 		@Override
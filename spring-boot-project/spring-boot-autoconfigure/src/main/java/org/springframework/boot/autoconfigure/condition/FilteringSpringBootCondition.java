@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2019 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanClassLoaderAware;
@@ -27,27 +28,40 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
 import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
 
 /**
  * Abstract base class for a {@link SpringBootCondition} that also implements
- * {@link AutoConfigurationImportFilter}.
+ * {@link AutoConfigurationImportFilter}. Subclasses whose outcomes are expensive to
+ * resolve can resolve them in parallel, using up to the number of threads, including the
+ * calling thread, configured by the {@value #PARALLELISM_PROPERTY} property. It defaults
+ * to a single additional thread when more than one processor is available.
  *
  * @author Phillip Webb
  */
 abstract class FilteringSpringBootCondition extends SpringBootCondition
-		implements AutoConfigurationImportFilter, BeanFactoryAware, BeanClassLoaderAware {
+		implements AutoConfigurationImportFilter, BeanFactoryAware, BeanClassLoaderAware, EnvironmentAware {
+
+	static final String PARALLELISM_PROPERTY = "spring.autoconfigure.filter-parallelism";
 
 	private BeanFactory beanFactory;
 
 	private ClassLoader beanClassLoader;
 
+	private int parallelism = (Runtime.getRuntime().availableProcessors() > 1) ? 2 : 1;
+
 	@Override
 	public boolean[] match(String[] autoConfigurationClasses, AutoConfigurationMetadata autoConfigurationMetadata) {
 		ConditionEvaluationReport report = ConditionEvaluationReport.find(this.beanFactory);
 		// getOutcomes 重点, 看子类 比如 OnClassCondition
+		long startTime = System.nanoTime();
 		ConditionOutcome[] outcomes = getOutcomes(autoConfigurationClasses, autoConfigurationMetadata);
+		if (report != null) {
+			report.recordImportFilterTime(this, autoConfigurationClasses.length, System.nanoTime() - startTime);
+		}
 		boolean[] match = new boolean[outcomes.length];
 		for (int i = 0; i < outcomes.length; i++) {
 			match[i] = (outcomes[i] == null || outcomes[i].isMatch());
@@ -64,6 +78,33 @@ abstract class FilteringSpringBootCondition extends SpringBootCondition
 	protected abstract ConditionOutcome[] getOutcomes(String[] autoConfigurationClasses,
 			AutoConfigurationMetadata autoConfigurationMetadata);
 
+	/**
+	 * Resolve the outcomes of the given auto-configuration classes on the calling thread.
+	 * @param autoConfigurationClasses the auto-configuration classes
+	 * @param outcomeResolver the function used to resolve the outcome of a single
+	 * auto-configuration class
+	 * @return the outcomes
+	 */
+	protected final ConditionOutcome[] resolveOutcomes(String[] autoConfigurationClasses,
+			Function<String, ConditionOutcome> outcomeResolver) {
+		return new ParallelOutcomesResolver(1, this.beanClassLoader).resolveOutcomes(autoConfigurationClasses,
+				outcomeResolver);
+	}
+
+	/**
+	 * Resolve the outcomes of the given auto-configuration classes, in parallel if there
+	 * are enough of them and the configured parallelism allows it.
+	 * @param autoConfigurationClasses the auto-configuration classes
+	 * @param outcomeResolver the function used to resolve the outcome of a single
+	 * auto-configuration class. Must be thread-safe
+	 * @return the outcomes
+	 */
+	protected final ConditionOutcome[] resolveOutcomesInParallel(String[] autoConfigurationClasses,
+			Function<String, ConditionOutcome> outcomeResolver) {
+		return new ParallelOutcomesResolver(this.parallelism, this.beanClassLoader)
+				.resolveOutcomes(autoConfigurationClasses, outcomeResolver);
+	}
+
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
 		this.beanFactory = beanFactory;
@@ -82,6 +123,11 @@ abstract class FilteringSpringBootCondition extends SpringBootCondition
 		this.beanClassLoader = classLoader;
 	}
 
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.parallelism = environment.getProperty(PARALLELISM_PROPERTY, Integer.class, this.parallelism);
+	}
+
 	protected final List<String> filter(Collection<String> classNames, ClassNameFilter classNameFilter,
 			ClassLoader classLoader) {
 		if (CollectionUtils.isEmpty(classNames)) {
@@ -84,28 +84,26 @@ class OnBeanCondition extends FilteringSpringBootCondition implements Configurat
 	@Override
 	protected final ConditionOutcome[] getOutcomes(String[] autoConfigurationClasses,
 			AutoConfigurationMetadata autoConfigurationMetadata) {
-		ConditionOutcome[] outcomes = new ConditionOutcome[autoConfigurationClasses.length];
-
-		// 遍历处理每个自动配置类
-		for (int i = 0; i < outcomes.length; i++) {
-			String autoConfigurationClass = autoConfigurationClasses[i];
-			if (autoConfigurationClass != null) {
+		// 处理每个自动配置类
+		return resolveOutcomes(autoConfigurationClasses,
+				(autoConfigurationClass) -> getOutcome(autoConfigurationClass, autoConfigurationMetadata));
+	}
 
-				// 当前自动配置中@ConditionalOnBean所依赖的类
-				Set<String> onBeanTypes = autoConfigurationMetadata.getSet(autoConfigurationClass, "ConditionalOnBean");
+	private ConditionOutcome getOutcome(String autoConfigurationClass,
+			AutoConfigurationMetadata autoConfigurationMetadata) {
+		// 当前自动配置中@ConditionalOnBean所依赖的类
+		Set<String> onBeanTypes = autoConfigurationMetadata.getSet(autoConfigurationClass, "ConditionalOnBean");
 
-				// 如果onBeanTypes都存在，则返回null
-				outcomes[i] = getOutcome(onBeanTypes, ConditionalOnBean.class);
-				if (outcomes[i] == null) {
+		// 如果onBeanTypes都存在，则返回null
+		ConditionOutcome outcome = getOutcome(onBeanTypes, ConditionalOnBean.class);
+		if (outcome == null) {
 
-					// 继续判断@ConditionalOnSingleCandidate所依赖的类
-					Set<String> onSingleCandidateTypes = autoConfigurationMetadata.getSet(autoConfigurationClass,
-							"ConditionalOnSingleCandidate");
-					outcomes[i] = getOutcome(onSingleCandidateTypes, ConditionalOnSingleCandidate.class);
-				}
-			}
+			// 继续判断@ConditionalOnSingleCandidate所依赖的类
+			Set<String> onSingleCandidateTypes = autoConfigurationMetadata.getSet(autoConfigurationClass,
+					"ConditionalOnSingleCandidate");
+			outcome = getOutcome(onSingleCandidateTypes, ConditionalOnSingleCandidate.class);
 		}
-		return outcomes;
+		return outcome;
 	}
 
 	private ConditionOutcome getOutcome(Set<String> requiredBeanTypes, Class<? extends Annotation> annotation) {
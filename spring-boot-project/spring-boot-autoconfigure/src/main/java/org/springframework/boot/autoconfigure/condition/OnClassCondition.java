@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2020 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,6 @@
 
 package org.springframework.boot.autoconfigure.condition;
 
-import java.security.AccessControlException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -46,51 +45,9 @@ class OnClassCondition extends FilteringSpringBootCondition {
 	@Override
 	protected final ConditionOutcome[] getOutcomes(String[] autoConfigurationClasses,
 			AutoConfigurationMetadata autoConfigurationMetadata) {
-		// Split the work and perform half in a background thread if more than one
-		// processor is available. Using a single additional thread seems to offer the
-		// best performance. More threads make things worse.
-		// 判断是不是多核
-		if (autoConfigurationClasses.length > 1 && Runtime.getRuntime().availableProcessors() > 1) {
-			// 多核走这
-			return resolveOutcomesThreaded(autoConfigurationClasses, autoConfigurationMetadata);
-		}
-		else {
-			OutcomesResolver outcomesResolver = new StandardOutcomesResolver(autoConfigurationClasses, 0,
-					autoConfigurationClasses.length, autoConfigurationMetadata, getBeanClassLoader());
-			return outcomesResolver.resolveOutcomes();
-		}
-	}
-
-	private ConditionOutcome[] resolveOutcomesThreaded(String[] autoConfigurationClasses,
-			AutoConfigurationMetadata autoConfigurationMetadata) {
-		// 所有配置项除以2, 分开来
-		int split = autoConfigurationClasses.length / 2;
-		// 处理, 里面有多线程, 第一半开启一个线程处理
-		OutcomesResolver firstHalfResolver = createOutcomesResolver(autoConfigurationClasses, 0, split,
-				autoConfigurationMetadata);
-		// 另一半就当前线程处理了
-		OutcomesResolver secondHalfResolver = new StandardOutcomesResolver(autoConfigurationClasses, split,
-				autoConfigurationClasses.length, autoConfigurationMetadata, getBeanClassLoader());
-		// resolveOutcomes 方法里面有 join线程等待
-		ConditionOutcome[] secondHalf = secondHalfResolver.resolveOutcomes();
-		ConditionOutcome[] firstHalf = firstHalfResolver.resolveOutcomes();
-		ConditionOutcome[] outcomes = new ConditionOutcome[autoConfigurationClasses.length];
-		System.arraycopy(firstHalf, 0, outcomes, 0, firstHalf.length);
-		System.arraycopy(secondHalf, 0, outcomes, split, secondHalf.length);
-		return outcomes;
-	}
-
-	private OutcomesResolver createOutcomesResolver(String[] autoConfigurationClasses, int start, int end,
-			AutoConfigurationMetadata autoConfigurationMetadata) {
-		OutcomesResolver outcomesResolver = new StandardOutcomesResolver(autoConfigurationClasses, start, end,
-				autoConfigurationMetadata, getBeanClassLoader());
-		try {
-			// 开启线程处理了
-			return new ThreadedOutcomesResolver(outcomesResolver);
-		}
-		catch (AccessControlException ex) {
-			return outcomesResolver;
-		}
+		// 多核的时候用ForkJoin线程池并行处理
+		return resolveOutcomesInParallel(autoConfigurationClasses,
+				(autoConfigurationClass) -> getOutcome(autoConfigurationClass, autoConfigurationMetadata));
 	}
 
 	@Override
@@ -148,109 +105,38 @@ class OnClassCondition extends FilteringSpringBootCondition {
 		}
 	}
 
-	private interface OutcomesResolver {
-		// 可以看下子类 ThreadedOutcomesResolver
-		ConditionOutcome[] resolveOutcomes();
-
+	private ConditionOutcome getOutcome(String autoConfigurationClass,
+			AutoConfigurationMetadata autoConfigurationMetadata) {
+		// 从autoConfigurationMetadata中获取当前自动配置的ConditionalOnClass的属性，拿到的就是当前自动配置所需要的类
+		String candidates = autoConfigurationMetadata.get(autoConfigurationClass, "ConditionalOnClass");
+		// 判断需要的类存不存在
+		return (candidates != null) ? getOutcome(candidates) : null;
 	}
 
-	private static final class ThreadedOutcomesResolver implements OutcomesResolver {
-
-		private final Thread thread;
-
-		private volatile ConditionOutcome[] outcomes;
-
-		private ThreadedOutcomesResolver(OutcomesResolver outcomesResolver) {
-			this.thread = new Thread(() -> this.outcomes = outcomesResolver.resolveOutcomes());
-			this.thread.start();
-		}
-
-		@Override
-		public ConditionOutcome[] resolveOutcomes() {
-			try {
-				this.thread.join();
-			}
-			catch (InterruptedException ex) {
-				Thread.currentThread().interrupt();
+	private ConditionOutcome getOutcome(String candidates) {
+		try {
+			if (!candidates.contains(",")) {
+				return getOutcome(candidates, getBeanClassLoader());
 			}
-			return this.outcomes;
-		}
-
-	}
-
-	private static final class StandardOutcomesResolver implements OutcomesResolver {
-
-		private final String[] autoConfigurationClasses;
-
-		private final int start;
-
-		private final int end;
-
-		private final AutoConfigurationMetadata autoConfigurationMetadata;
-
-		private final ClassLoader beanClassLoader;
-
-		private StandardOutcomesResolver(String[] autoConfigurationClasses, int start, int end,
-				AutoConfigurationMetadata autoConfigurationMetadata, ClassLoader beanClassLoader) {
-			this.autoConfigurationClasses = autoConfigurationClasses;
-			this.start = start;
-			this.end = end;
-			this.autoConfigurationMetadata = autoConfigurationMetadata;
-			this.beanClassLoader = beanClassLoader;
-		}
-
-		@Override
-		public ConditionOutcome[] resolveOutcomes() {
-			return getOutcomes(this.autoConfigurationClasses, this.start, this.end, this.autoConfigurationMetadata);
-		}
-
-		private ConditionOutcome[] getOutcomes(String[] autoConfigurationClasses, int start, int end,
-				AutoConfigurationMetadata autoConfigurationMetadata) {
-
-			// 记录每个自动配置的匹配结果
-			ConditionOutcome[] outcomes = new ConditionOutcome[end - start];
-
-			// 遍历每个自动配置进行匹配
-			for (int i = start; i < end; i++) {
-				String autoConfigurationClass = autoConfigurationClasses[i];
-				if (autoConfigurationClass != null) {
-					// 从autoConfigurationMetadata中获取当前自动配置的ConditionalOnClass的属性，拿到的就是当前自动配置所需要的类
-					String candidates = autoConfigurationMetadata.get(autoConfigurationClass, "ConditionalOnClass");
-					if (candidates != null) {
-						// 判断需要的类存不存在
-						outcomes[i - start] = getOutcome(candidates);
-					}
+			for (String candidate : StringUtils.commaDelimitedListToStringArray(candidates)) {
+				ConditionOutcome outcome = getOutcome(candidate, getBeanClassLoader());
+				if (outcome != null) {
+					return outcome;
 				}
 			}
-			return outcomes;
 		}
-
-		private ConditionOutcome getOutcome(String candidates) {
-			try {
-				if (!candidates.contains(",")) {
-					return getOutcome(candidates, this.beanClassLoader);
-				}
-				for (String candidate : StringUtils.commaDelimitedListToStringArray(candidates)) {
-					ConditionOutcome outcome = getOutcome(candidate, this.beanClassLoader);
-					if (outcome != null) {
-						return outcome;
-					}
-				}
-			}
-			catch (Exception ex) {
-				// We'll get another chance later
-			}
-			return null;
+		catch (Exception ex) {
+			// We'll get another chance later
 		}
+		return null;
+	}
 
-		private ConditionOutcome getOutcome(String className, ClassLoader classLoader) {
-			if (ClassNameFilter.MISSING.matches(className, classLoader)) {
-				return ConditionOutcome.noMatch(ConditionMessage.forCondition(ConditionalOnClass.class)
-						.didNotFind("required class").items(Style.QUOTE, className));
-			}
-			return null;
+	private ConditionOutcome getOutcome(String className, ClassLoader classLoader) {
+		if (ClassNameFilter.MISSING.matches(className, classLoader)) {
+			return ConditionOutcome.noMatch(ConditionMessage.forCondition(ConditionalOnClass.class)
+					.didNotFind("required class").items(Style.QUOTE, className));
 		}
-
+		return null;
 	}
 
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.condition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Function;
+
+/**
+ * Resolves the {@link ConditionOutcome outcomes} of auto-configuration candidates in
+ * parallel. The candidates are split into batches that are claimed in turn by the calling
+ * thread and by the worker threads of a {@link ForkJoinPool}. The parallelism includes
+ * the calling thread, so the pool has one thread fewer and is bounded by the number of
+ * batches. It is created for each resolution and shut down afterwards so that its threads
+ * do not outlive, or keep a reference to, the class loader that they used.
+ *
+ * @author Phillip Webb
+ */
+final class ParallelOutcomesResolver {
+
+	/**
+	 * Maximum number of candidates in a batch.
+	 */
+	static final int BATCH_SIZE = 32;
+
+	private final int parallelism;
+
+	private final ClassLoader classLoader;
+
+	ParallelOutcomesResolver(int parallelism, ClassLoader classLoader) {
+		this.parallelism = parallelism;
+		this.classLoader = classLoader;
+	}
+
+	ConditionOutcome[] resolveOutcomes(String[] autoConfigurationClasses,
+			Function<String, ConditionOutcome> outcomeResolver) {
+		ConditionOutcome[] outcomes = new ConditionOutcome[autoConfigurationClasses.length];
+		Batches batches = new Batches(autoConfigurationClasses, outcomes, outcomeResolver);
+		int workers = Math.min(this.parallelism, batches.size()) - 1;
+		ForkJoinPool pool = (workers > 0) ? createPool(workers) : null;
+		if (pool == null) {
+			batches.resolveRemaining();
+			return outcomes;
+		}
+		try {
+			List<Future<?>> futures = new ArrayList<>(workers);
+			for (int i = 0; i < workers; i++) {
+				futures.add(pool.submit(batches::resolveRemaining));
+			}
+			batches.resolveRemaining();
+			for (Future<?> future : futures) {
+				if (!getResult(future)) {
+					batches.resolveUnresolved();
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+		return outcomes;
+	}
+
+	private boolean getResult(Future<?> future) {
+		try {
+			future.get();
+			return true;
+		}
+		catch (InterruptedException ex) {
+			return false;
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private ForkJoinPool createPool(int parallelism) {
+		try {
+			return new ForkJoinPool(parallelism, new WorkerThreadFactory(this.classLoader), null, false);
+		}
+		catch (SecurityException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * {@link ForkJoinWorkerThreadFactory} that creates daemon threads that use the bean
+	 * class loader as their context class loader.
+	 */
+	private static final class WorkerThreadFactory implements ForkJoinWorkerThreadFactory {
+
+		private final ClassLoader classLoader;
+
+		WorkerThreadFactory(ClassLoader classLoader) {
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+			ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {
+			};
+			thread.setName("condition-evaluation-" + thread.getPoolIndex());
+			thread.setDaemon(true);
+			if (this.classLoader != null) {
+				thread.setContextClassLoader(this.classLoader);
+			}
+			return thread;
+		}
+
+	}
+
+	/**
+	 * The batches of candidates whose outcomes are resolved. Each batch is claimed by a
+	 * single thread unless the calling thread has to resolve the batches that have not
+	 * been resolved yet.
+	 */
+	private static final class Batches {
+
+		private final String[] autoConfigurationClasses;
+
+		private final ConditionOutcome[] outcomes;
+
+		private final Function<String, ConditionOutcome> outcomeResolver;
+
+		private final AtomicInteger next = new AtomicInteger();
+
+		private final AtomicIntegerArray resolved;
+
+		Batches(String[] autoConfigurationClasses, ConditionOutcome[] outcomes,
+				Function<String, ConditionOutcome> outcomeResolver) {
+			this.autoConfigurationClasses = autoConfigurationClasses;
+			this.outcomes = outcomes;
+			this.outcomeResolver = outcomeResolver;
+			this.resolved = new AtomicIntegerArray((autoConfigurationClasses.length + BATCH_SIZE - 1) / BATCH_SIZE);
+		}
+
+		int size() {
+			return this.resolved.length();
+		}
+
+		void resolveRemaining() {
+			int batch;
+			while ((batch = this.next.getAndIncrement()) < size()) {
+				resolve(batch);
+			}
+		}
+
+		void resolveUnresolved() {
+			for (int batch = 0; batch < size(); batch++) {
+				if (this.resolved.get(batch) == 0) {
+					resolve(batch);
+				}
+			}
+		}
+
+		private void resolve(int batch) {
+			int end = Math.min((batch + 1) * BATCH_SIZE, this.autoConfigurationClasses.length);
+			for (int i = batch * BATCH_SIZE; i < end; i++) {
+				String autoConfigurationClass = this.autoConfigurationClasses[i];
+				if (autoConfigurationClass != null) {
+					this.outcomes[i] = this.outcomeResolver.apply(autoConfigurationClass);
+				}
+			}
+			this.resolved.set(batch, 1);
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2019 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -48,14 +48,16 @@ public abstract class SpringBootCondition implements Condition {
 		String classOrMethodName = getClassOrMethodName(metadata);
 		try {
 			// 条件的判断结果
+			long startTime = System.nanoTime();
 			ConditionOutcome outcome = getMatchOutcome(context, metadata);
+			long timeNanos = System.nanoTime() - startTime;
 
 			// 如果log的日志级别为trace，那就直接记录当前条件的判断结果
 			logOutcome(classOrMethodName, outcome);
 
 			// 将判断结果记录到ConditionEvaluationReport中
 			//ConditionEvaluationReportLoggingListener会在收到ContextRefreshedEvent事件后把判断结果用日志的方式打印出来
-			recordEvaluation(context, classOrMethodName, outcome);
+			recordEvaluation(context, classOrMethodName, outcome, timeNanos);
 			return outcome.isMatch();
 		}
 		catch (NoClassDefFoundError ex) {
@@ -110,11 +112,13 @@ public abstract class SpringBootCondition implements Condition {
 		return message;
 	}
 
-	private void recordEvaluation(ConditionContext context, String classOrMethodName, ConditionOutcome outcome) {
+	private void recordEvaluation(ConditionContext context, String classOrMethodName, ConditionOutcome outcome,
+			long timeNanos) {
 		if (context.getBeanFactory() != null) {
 			// 获取条件评估报告器，并将匹配结果添加到报告器中
-			ConditionEvaluationReport.get(context.getBeanFactory()).recordConditionEvaluation(classOrMethodName, this,
-					outcome);
+			ConditionEvaluationReport report = ConditionEvaluationReport.get(context.getBeanFactory());
+			report.recordConditionEvaluation(classOrMethodName, this, outcome);
+			report.recordConditionEvaluationTime(this, timeNanos);
 		}
 	}
 
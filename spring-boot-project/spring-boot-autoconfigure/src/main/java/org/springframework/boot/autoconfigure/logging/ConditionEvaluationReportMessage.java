@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2019 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import java.util.stream.Collectors;
 import org.springframework.boot.autoconfigure.condition.ConditionEvaluationReport;
 import org.springframework.boot.autoconfigure.condition.ConditionEvaluationReport.ConditionAndOutcome;
 import org.springframework.boot.autoconfigure.condition.ConditionEvaluationReport.ConditionAndOutcomes;
+import org.springframework.boot.autoconfigure.condition.ConditionEvaluationReport.ConditionEvaluationTime;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -67,6 +68,7 @@ public class ConditionEvaluationReportMessage {
 		logNegativeMatches(message, shortOutcomes);
 		logExclusions(report, message);
 		logUnconditionalClasses(report, message);
+		logTimes(report, message);
 		message.append(String.format("%n%n"));
 		return message;
 	}
@@ -126,6 +128,27 @@ public class ConditionEvaluationReportMessage {
 		}
 	}
 
+	private void logTimes(ConditionEvaluationReport report, StringBuilder message) {
+		Map<String, ConditionEvaluationTime> importFilterTimes = report.getImportFilterTimes();
+		Map<String, ConditionEvaluationTime> conditionEvaluationTimes = report.getConditionEvaluationTimes();
+		if (importFilterTimes.isEmpty() && conditionEvaluationTimes.isEmpty()) {
+			return;
+		}
+		message.append(String.format("%n%n"));
+		message.append(String.format("Condition evaluation times:%n"));
+		message.append(String.format("---------------------------%n"));
+		for (Entry<String, ConditionEvaluationTime> entry : importFilterTimes.entrySet()) {
+			ConditionEvaluationTime time = entry.getValue();
+			message.append(String.format("%n    %s filtered %d candidates in %dms%n",
+					ClassUtils.getShortName(entry.getKey()), time.getCount(), time.getTime().toMillis()));
+		}
+		for (Entry<String, ConditionEvaluationTime> entry : conditionEvaluationTimes.entrySet()) {
+			ConditionEvaluationTime time = entry.getValue();
+			message.append(String.format("%n    %s evaluated %d times in %dms%n",
+					ClassUtils.getShortName(entry.getKey()), time.getCount(), time.getTime().toMillis()));
+		}
+	}
+
 	private Map<String, ConditionAndOutcomes> orderByName(Map<String, ConditionAndOutcomes> outcomes) {
 		MultiValueMap<String, String> map = mapToFullyQualifiedNames(outcomes.keySet());
 		List<String> shortNames = new ArrayList<>(map.keySet());
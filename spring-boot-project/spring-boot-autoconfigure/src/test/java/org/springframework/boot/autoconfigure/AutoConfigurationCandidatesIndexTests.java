@@ -0,0 +1,269 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AutoConfigurationCandidatesIndex}.
+ *
+ * @author Phillip Webb
+ */
+class AutoConfigurationCandidatesIndexTests {
+
+	@TempDir
+	File temp;
+
+	@Test
+	void createAppliesFilters() {
+		String content = create(getClass().getClassLoader());
+		assertThat(content).contains("filters=" + TestAutoConfigurationImportFilter.class.getName() + "\n");
+		assertThat(content).contains("filtered=com.example.A\n");
+		assertThat(content).contains(
+				"fingerprint=" + AutoConfigurationCandidatesIndex.getClassPathFingerprint(getClass().getClassLoader()));
+	}
+
+	@Test
+	void loadWhenIndexMatchesReturnsIndex() throws IOException {
+		ClassLoader classLoader = createIndexClassLoader(create(getClass().getClassLoader()));
+		AutoConfigurationCandidatesIndex index = AutoConfigurationCandidatesIndex.load(classLoader, createFilters());
+		assertThat(index).isNotNull();
+		assertThat(index.isFiltered("com.example.A")).isTrue();
+		assertThat(index.isFiltered("com.example.B")).isFalse();
+	}
+
+	@Test
+	void loadWhenIndexIsMissingReturnsNull() {
+		assertThat(AutoConfigurationCandidatesIndex.load(getClass().getClassLoader(), createFilters())).isNull();
+	}
+
+	@Test
+	void loadWhenFiltersHaveChangedReturnsNull() throws IOException {
+		ClassLoader classLoader = createIndexClassLoader(create(getClass().getClassLoader()));
+		assertThat(AutoConfigurationCandidatesIndex.load(classLoader, Collections.emptyList())).isNull();
+	}
+
+	@Test
+	void loadWhenClassPathHasChangedReturnsNull() throws IOException {
+		URLClassLoader otherClassLoader = new URLClassLoader(new URL[] { new URL("file:/libs/other-1.0.jar") });
+		ClassLoader classLoader = createIndexClassLoader(create(otherClassLoader));
+		assertThat(AutoConfigurationCandidatesIndex.load(classLoader, createFilters())).isNull();
+	}
+
+	@Test
+	void loadWhenIgnoredReturnsNull() throws IOException {
+		ClassLoader classLoader = createIndexClassLoader(create(getClass().getClassLoader()));
+		SpringProperties.setFlag(AutoConfigurationCandidatesIndex.IGNORE_PROPERTY);
+		try {
+			assertThat(AutoConfigurationCandidatesIndex.load(classLoader, createFilters())).isNull();
+		}
+		finally {
+			SpringProperties.setProperty(AutoConfigurationCandidatesIndex.IGNORE_PROPERTY, null);
+		}
+	}
+
+	@Test
+	void loadWhenIndexIsNotPackagedReturnsNull() throws IOException {
+		File file = write("classes/" + AutoConfigurationCandidatesIndex.LOCATION, create(getClass().getClassLoader()));
+		ClassLoader classLoader = createIndexClassLoader(getClass().getClassLoader(), file.toURI().toURL());
+		assertThat(AutoConfigurationCandidatesIndex.load(classLoader, createFilters())).isNull();
+	}
+
+	@Test
+	void loadWhenPackagedInLayeredJarReturnsIndex() throws IOException {
+		File one = write("repository/one-1.0.jar", "one");
+		File two = write("repository/two-1.0.jar", "two");
+		File classes = new File(this.temp, "classes");
+		write("classes/com/example/App.class", "app");
+		URLClassLoader build = new URLClassLoader(
+				new URL[] { classes.toURI().toURL(), one.toURI().toURL(), two.toURI().toURL() });
+		URLClassLoader packaged = createLayeredJar(create(build), one, two);
+		ClassLoader classLoader = createIndexClassLoader(packaged,
+				packaged.findResource(AutoConfigurationCandidatesIndex.LOCATION));
+		AutoConfigurationCandidatesIndex index = AutoConfigurationCandidatesIndex.load(classLoader, createFilters());
+		assertThat(index).isNotNull();
+		assertThat(index.isFiltered("com.example.A")).isTrue();
+	}
+
+	@Test
+	void getClassPathFingerprintIsSameForBuildAndLayeredPackagedClassPath() throws IOException {
+		File one = write("repository/one-1.0.jar", "one");
+		File two = write("repository/two-1.0.jar", "two");
+		File classes = new File(this.temp, "classes");
+		write("classes/com/example/App.class", "app");
+		URLClassLoader build = new URLClassLoader(
+				new URL[] { one.toURI().toURL(), two.toURI().toURL(), classes.toURI().toURL() });
+		URLClassLoader packaged = createLayeredJar("", one, two);
+		assertThat(AutoConfigurationCandidatesIndex.getClassPathFingerprint(build))
+				.isEqualTo(AutoConfigurationCandidatesIndex.getClassPathFingerprint(packaged));
+	}
+
+	@Test
+	void getClassPathFingerprintChangesWhenJarChanges() throws IOException {
+		File jar = write("repository/one-1.0.jar", "one");
+		File classes = new File(this.temp, "classes");
+		write("classes/com/example/App.class", "app");
+		URLClassLoader classLoader = new URLClassLoader(new URL[] { jar.toURI().toURL(), classes.toURI().toURL() });
+		String fingerprint = AutoConfigurationCandidatesIndex.getClassPathFingerprint(classLoader);
+		write("classes/com/example/Other.class", "other");
+		assertThat(AutoConfigurationCandidatesIndex.getClassPathFingerprint(classLoader)).isEqualTo(fingerprint);
+		write("repository/one-1.0.jar", "one-changed");
+		assertThat(AutoConfigurationCandidatesIndex.getClassPathFingerprint(classLoader)).isNotEqualTo(fingerprint);
+	}
+
+	@Test
+	void mainWritesIndexForClassPath() throws IOException {
+		File file = new File(this.temp, "classes/" + AutoConfigurationCandidatesIndex.LOCATION);
+		AutoConfigurationCandidatesIndex.main(new String[] { file.getPath() });
+		Properties index = new Properties();
+		try (InputStream inputStream = new FileInputStream(file)) {
+			index.load(inputStream);
+		}
+		assertThat(index.getProperty("fingerprint")).isEqualTo(AutoConfigurationCandidatesIndex
+				.getClassPathFingerprint(AutoConfigurationCandidatesIndex.class.getClassLoader()));
+		assertThat(index.getProperty("filters"))
+				.contains("org.springframework.boot.autoconfigure.condition.OnClassCondition");
+		assertThat(index).containsKey("filtered");
+	}
+
+	private String create(ClassLoader classLoader) {
+		Properties metadata = new Properties();
+		metadata.setProperty("com.example.A.ConditionalOnClass", "com.example.DoesNotExist");
+		metadata.setProperty("com.example.B.ConditionalOnClass", String.class.getName());
+		return AutoConfigurationCandidatesIndex.create(classLoader, Arrays.asList("com.example.A", "com.example.B"),
+				AutoConfigurationMetadataLoader.loadMetadata(metadata), createFilters());
+	}
+
+	private File write(String path, String content) throws IOException {
+		File file = new File(this.temp, path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private void putEntry(JarOutputStream jar, String name, byte[] content) throws IOException {
+		jar.putNextEntry(new JarEntry(name));
+		if (content != null) {
+			jar.write(content);
+		}
+		jar.closeEntry();
+	}
+
+	private List<AutoConfigurationImportFilter> createFilters() {
+		return Collections.singletonList(new TestAutoConfigurationImportFilter());
+	}
+
+	private URLClassLoader createLayeredJar(String index, File... libraries) throws IOException {
+		File app = new File(this.temp, "app.jar");
+		String layersIndex = "- \"dependencies\":\n";
+		try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(app))) {
+			putEntry(jar, "BOOT-INF/", null);
+			putEntry(jar, "BOOT-INF/classes/", null);
+			putEntry(jar, "BOOT-INF/classes/com/example/App.class", "app".getBytes(StandardCharsets.UTF_8));
+			putEntry(jar, "BOOT-INF/classes/" + AutoConfigurationCandidatesIndex.LOCATION,
+					index.getBytes(StandardCharsets.ISO_8859_1));
+			putEntry(jar, "BOOT-INF/lib/", null);
+			for (File library : libraries) {
+				putEntry(jar, "BOOT-INF/lib/" + library.getName(), Files.readAllBytes(library.toPath()));
+				layersIndex += "  - \"BOOT-INF/lib/" + library.getName() + "\"\n";
+			}
+			putEntry(jar, "BOOT-INF/lib/spring-boot-jarmode-layertools-2.6.14.jar",
+					"layertools".getBytes(StandardCharsets.UTF_8));
+			layersIndex += "  - \"BOOT-INF/lib/spring-boot-jarmode-layertools-2.6.14.jar\"\n";
+			putEntry(jar, "BOOT-INF/layers.idx", layersIndex.getBytes(StandardCharsets.UTF_8));
+		}
+		String root = "jar:" + app.toURI() + "!/";
+		List<URL> urls = new ArrayList<>();
+		urls.add(new URL(root + "BOOT-INF/classes!/"));
+		for (int i = libraries.length - 1; i >= 0; i--) {
+			urls.add(new URL(root + "BOOT-INF/lib/" + libraries[i].getName() + "!/"));
+		}
+		urls.add(new URL(root + "BOOT-INF/lib/spring-boot-jarmode-layertools-2.6.14.jar!/"));
+		return new URLClassLoader(urls.toArray(new URL[0]), null) {
+
+			@Override
+			public URL findResource(String name) {
+				try {
+					return new URL(root + "BOOT-INF/classes/" + name);
+				}
+				catch (MalformedURLException ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+
+		};
+	}
+
+	private ClassLoader createIndexClassLoader(String content) throws IOException {
+		File file = new File(this.temp, "index.jar");
+		try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file))) {
+			putEntry(jar, AutoConfigurationCandidatesIndex.LOCATION, content.getBytes(StandardCharsets.ISO_8859_1));
+		}
+		URL url = new URL("jar:" + file.toURI() + "!/" + AutoConfigurationCandidatesIndex.LOCATION);
+		return createIndexClassLoader(getClass().getClassLoader(), url);
+	}
+
+	private ClassLoader createIndexClassLoader(ClassLoader parent, URL url) {
+		return new ClassLoader(parent) {
+
+			@Override
+			public URL getResource(String name) {
+				return AutoConfigurationCandidatesIndex.LOCATION.equals(name) ? url : super.getResource(name);
+			}
+
+		};
+	}
+
+	static class TestAutoConfigurationImportFilter implements AutoConfigurationImportFilter {
+
+		@Override
+		public boolean[] match(String[] autoConfigurationClasses, AutoConfigurationMetadata autoConfigurationMetadata) {
+			boolean[] result = new boolean[autoConfigurationClasses.length];
+			for (int i = 0; i < result.length; i++) {
+				String onClass = autoConfigurationMetadata.get(autoConfigurationClasses[i], "ConditionalOnClass");
+				result[i] = onClass == null || ClassUtils.isPresent(onClass, null);
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,24 @@
 
 package org.springframework.boot.autoconfigure;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Properties;
 import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
@@ -37,6 +47,7 @@ import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.support.SpringFactoriesLoader;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.StringUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
@@ -209,6 +220,37 @@ class AutoConfigurationImportSelectorTests {
 		assertThat(this.importSelector.getExclusionFilter().test("com.example.C")).isTrue();
 	}
 
+	@Test
+	void filterUsesCandidatesIndexWhenItMatches(@TempDir File temp) throws IOException {
+		String[] defaultImports = StringUtils.toStringArray(getAutoConfigurationClassNames());
+		this.filters.add(new TestAutoConfigurationImportFilter(defaultImports));
+		AutoConfigurationMetadata metadata = AutoConfigurationMetadataLoader.loadMetadata(new Properties());
+		List<AutoConfigurationImportFilter> indexFilters = Collections
+				.singletonList(new TestAutoConfigurationImportFilter(defaultImports, 1, 2));
+		String index = AutoConfigurationCandidatesIndex.create(getClass().getClassLoader(),
+				Arrays.asList(defaultImports), metadata, indexFilters);
+		File file = new File(temp, "index.jar");
+		try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file))) {
+			jar.putNextEntry(new JarEntry(AutoConfigurationCandidatesIndex.LOCATION));
+			jar.write(index.getBytes(StandardCharsets.ISO_8859_1));
+			jar.closeEntry();
+		}
+		URL url = new URL("jar:" + file.toURI() + "!/" + AutoConfigurationCandidatesIndex.LOCATION);
+		this.importSelector.setBeanClassLoader(new ClassLoader(getClass().getClassLoader()) {
+
+			@Override
+			public URL getResource(String name) {
+				return AutoConfigurationCandidatesIndex.LOCATION.equals(name) ? url : super.getResource(name);
+			}
+
+		});
+		String[] filtered = selectImports(BasicEnableAutoConfiguration.class);
+		assertThat(filtered).hasSize(defaultImports.length - 2);
+		assertThat(filtered).doesNotContain(defaultImports[1], defaultImports[2]);
+		assertThat(this.importSelector.getExclusionFilter().test(defaultImports[1])).isTrue();
+		assertThat(this.importSelector.getExclusionFilter().test(defaultImports[3])).isFalse();
+	}
+
 	private String[] selectImports(Class<?> source) {
 		return this.importSelector.selectImports(AnnotationMetadata.introspect(source));
 	}
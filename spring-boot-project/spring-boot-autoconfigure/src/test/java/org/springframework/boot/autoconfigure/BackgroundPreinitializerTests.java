@@ -0,0 +1,130 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.autoconfigure.BackgroundPreinitializer.Preinitialization;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.core.metrics.StartupStep.Tag;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BackgroundPreinitializer}.
+ *
+ * @author Phillip Webb
+ */
+class BackgroundPreinitializerTests {
+
+	@Test
+	void defaultTasksAreRegistered() {
+		assertThat(SpringFactoriesLoader.loadFactoryNames(BackgroundPreinitializationTask.class, null)).contains(
+				BackgroundPreinitializer.ConversionServiceInitializer.class.getName(),
+				BackgroundPreinitializer.CharsetInitializer.class.getName());
+	}
+
+	@Test
+	void preinitializationRunsTasksInBackgroundThreads() throws InterruptedException {
+		Set<String> threadNames = ConcurrentHashMap.newKeySet();
+		BackgroundPreinitializationTask task = () -> threadNames.add(Thread.currentThread().getName());
+		runAndAwait(new Preinitialization(Arrays.asList(task, task, task), 2, ApplicationStartup.DEFAULT));
+		assertThat(threadNames).isNotEmpty().hasSizeLessThanOrEqualTo(2)
+				.allMatch((name) -> name.startsWith("background-preinit-"));
+	}
+
+	@Test
+	void preinitializationIgnoresFailingTasks() throws InterruptedException {
+		Set<String> completed = ConcurrentHashMap.newKeySet();
+		List<BackgroundPreinitializationTask> tasks = new ArrayList<>();
+		tasks.add(() -> {
+			throw new IllegalStateException("Failure");
+		});
+		tasks.add(() -> completed.add("second"));
+		runAndAwait(new Preinitialization(tasks, 1, ApplicationStartup.DEFAULT));
+		assertThat(completed).containsExactly("second");
+	}
+
+	@Test
+	void preinitializationRecordsStartupStepForEachTask() throws InterruptedException {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+		Preinitialization preinitialization = new Preinitialization(
+				Collections.singletonList(new BackgroundPreinitializer.CharsetInitializer()), 1, applicationStartup);
+		runAndAwait(preinitialization);
+		assertThat(applicationStartup.getBufferedTimeline().getEvents()).isEmpty();
+		preinitialization.recordSteps();
+		preinitialization.recordSteps();
+		List<TimelineEvent> events = applicationStartup.getBufferedTimeline().getEvents();
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getStartupStep().getName()).isEqualTo("spring.boot.application.preinitialization");
+		Iterator<Tag> tags = events.get(0).getStartupStep().getTags().iterator();
+		Tag tag = tags.next();
+		assertThat(tag.getKey()).isEqualTo("task");
+		assertThat(tag.getValue()).isEqualTo(BackgroundPreinitializer.CharsetInitializer.class.getName());
+		tag = tags.next();
+		assertThat(tag.getKey()).isEqualTo("duration");
+		assertThat(Duration.parse(tag.getValue()).isNegative()).isFalse();
+	}
+
+	@Test
+	void preinitializationRecordsStepsAsChildrenOfCurrentStep() throws InterruptedException {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+		StartupStep parent = applicationStartup.start("parent");
+		Preinitialization preinitialization = new Preinitialization(
+				Arrays.asList(new BackgroundPreinitializer.CharsetInitializer(), () -> {
+				}), 2, applicationStartup);
+		runAndAwait(preinitialization);
+		preinitialization.recordSteps();
+		StartupStep sibling = applicationStartup.start("sibling");
+		sibling.end();
+		parent.end();
+		List<TimelineEvent> events = applicationStartup.getBufferedTimeline().getEvents();
+		assertThat(events).hasSize(4);
+		for (TimelineEvent event : events.subList(0, 3)) {
+			assertThat(event.getStartupStep().getParentId()).isEqualTo(parent.getId());
+		}
+	}
+
+	@Test
+	void preinitializationWithNoTasksCompletesImmediately() {
+		CountDownLatch latch = new CountDownLatch(1);
+		new Preinitialization(Collections.emptyList(), 2, ApplicationStartup.DEFAULT).start(latch::countDown);
+		assertThat(latch.getCount()).isZero();
+	}
+
+	private void runAndAwait(Preinitialization preinitialization) throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(1);
+		preinitialization.start(latch::countDown);
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+	}
+
+}
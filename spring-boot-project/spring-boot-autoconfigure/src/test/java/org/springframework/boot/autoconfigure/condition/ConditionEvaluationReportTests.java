@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2020 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,6 +31,7 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionEvaluationReport.ConditionAndOutcome;
 import org.springframework.boot.autoconfigure.condition.ConditionEvaluationReport.ConditionAndOutcomes;
+import org.springframework.boot.autoconfigure.condition.ConditionEvaluationReport.ConditionEvaluationTime;
 import org.springframework.boot.autoconfigure.logging.ConditionEvaluationReportMessage;
 import org.springframework.boot.autoconfigure.web.servlet.MultipartAutoConfiguration;
 import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
@@ -167,6 +168,41 @@ class ConditionEvaluationReportTests {
 		assertThat(report.getConditionAndOutcomesBySource().size()).isNotEqualTo(0);
 	}
 
+	@Test
+	void springBootConditionRecordsEvaluationTime() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(NegativeOuterConfig.class);
+		ConditionEvaluationReport report = ConditionEvaluationReport.get(context.getBeanFactory());
+		Map<String, ConditionEvaluationTime> times = report.getConditionEvaluationTimes();
+		assertThat(times).containsKeys(MatchParseCondition.class.getName(), NoMatchBeanCondition.class.getName());
+		assertThat(times.get(NoMatchBeanCondition.class.getName()).getCount()).isPositive();
+		context.close();
+	}
+
+	@Test
+	void recordConditionEvaluationTimes() {
+		this.report.recordConditionEvaluationTime(this.condition1, 1000000);
+		this.report.recordConditionEvaluationTime(this.condition1, 2000000);
+		this.report.recordImportFilterTime(this.condition1, 10, 3000000);
+		ConditionEvaluationTime evaluationTime = this.report.getConditionEvaluationTimes()
+				.get(this.condition1.getClass().getName());
+		assertThat(evaluationTime.getCount()).isEqualTo(2);
+		assertThat(evaluationTime.getTime().toMillis()).isEqualTo(3);
+		ConditionEvaluationTime importFilterTime = this.report.getImportFilterTimes()
+				.get(this.condition1.getClass().getName());
+		assertThat(importFilterTime.getCount()).isEqualTo(10);
+		assertThat(importFilterTime.getTime().toMillis()).isEqualTo(3);
+	}
+
+	@Test
+	void reportMessageIncludesTimes() {
+		this.report.recordConditionEvaluationTime(new MatchParseCondition(), 1000000);
+		this.report.recordImportFilterTime(new OnClassCondition(), 10, 2000000);
+		String reportMessage = new ConditionEvaluationReportMessage(this.report).toString();
+		assertThat(reportMessage).contains("Condition evaluation times:",
+				"ConditionEvaluationReportTests.MatchParseCondition evaluated 1 times in 1ms",
+				"OnClassCondition filtered 10 candidates in 2ms");
+	}
+
 	@Test
 	void testDuplicateConditionAndOutcomes() {
 		ConditionAndOutcome outcome1 = new ConditionAndOutcome(this.condition1,
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2019 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
 import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
 import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.mock.env.MockEnvironment;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
@@ -66,6 +67,30 @@ class OnClassConditionAutoConfigurationImportFilterTests {
 		assertThat(report.getConditionAndOutcomesBySource()).hasSize(1).containsKey("test.nomatch");
 	}
 
+	@Test
+	void matchShouldRecordImportFilterTime() {
+		String[] autoConfigurationClasses = new String[] { "test.match", "test.nomatch" };
+		this.filter.match(autoConfigurationClasses, getAutoConfigurationMetadata());
+		ConditionEvaluationReport report = ConditionEvaluationReport.get(this.beanFactory);
+		assertThat(report.getImportFilterTimes()).containsOnlyKeys(OnClassCondition.class.getName());
+		assertThat(report.getImportFilterTimes().get(OnClassCondition.class.getName()).getCount()).isEqualTo(2);
+	}
+
+	@Test
+	void matchWhenResolvedInParallelShouldMatchClasses() {
+		MockEnvironment environment = new MockEnvironment();
+		environment.setProperty(FilteringSpringBootCondition.PARALLELISM_PROPERTY, "4");
+		this.filter.setEnvironment(environment);
+		String[] autoConfigurationClasses = new String[ParallelOutcomesResolver.BATCH_SIZE * 8];
+		boolean[] expected = new boolean[autoConfigurationClasses.length];
+		for (int i = 0; i < autoConfigurationClasses.length; i++) {
+			autoConfigurationClasses[i] = (i % 3 != 0) ? "test.match" : "test.nomatch";
+			expected[i] = (i % 3 != 0);
+		}
+		boolean[] result = this.filter.match(autoConfigurationClasses, getAutoConfigurationMetadata());
+		assertThat(result).containsExactly(expected);
+	}
+
 	private AutoConfigurationMetadata getAutoConfigurationMetadata() {
 		AutoConfigurationMetadata metadata = mock(AutoConfigurationMetadata.class);
 		given(metadata.wasProcessed("test.match")).willReturn(true);
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.condition;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ParallelOutcomesResolver}.
+ *
+ * @author Phillip Webb
+ */
+class ParallelOutcomesResolverTests {
+
+	@Test
+	void resolveOutcomesResolvesEachCandidate() {
+		String[] candidates = createCandidates(ParallelOutcomesResolver.BATCH_SIZE * 4);
+		candidates[5] = null;
+		ConditionOutcome[] outcomes = new ParallelOutcomesResolver(4, null).resolveOutcomes(candidates,
+				ConditionOutcome::noMatch);
+		assertThat(outcomes).hasSize(candidates.length);
+		for (int i = 0; i < candidates.length; i++) {
+			if (candidates[i] == null) {
+				assertThat(outcomes[i]).isNull();
+			}
+			else {
+				assertThat(outcomes[i].getMessage()).isEqualTo(candidates[i]);
+			}
+		}
+	}
+
+	@Test
+	void resolveOutcomesWhenFewCandidatesUsesCallingThread() {
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		new ParallelOutcomesResolver(4, null).resolveOutcomes(createCandidates(ParallelOutcomesResolver.BATCH_SIZE),
+				(candidate) -> {
+					threads.add(Thread.currentThread());
+					return null;
+				});
+		assertThat(threads).containsExactly(Thread.currentThread());
+	}
+
+	@Test
+	void resolveOutcomesWhenParallelismIsOneUsesCallingThread() {
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		new ParallelOutcomesResolver(1, null).resolveOutcomes(createCandidates(ParallelOutcomesResolver.BATCH_SIZE * 4),
+				(candidate) -> {
+					threads.add(Thread.currentThread());
+					return null;
+				});
+		assertThat(threads).containsExactly(Thread.currentThread());
+	}
+
+	@Test
+	void resolveOutcomesUsesDaemonWorkerThreadsWithBeanClassLoader() throws Exception {
+		Thread caller = Thread.currentThread();
+		Set<ClassLoader> classLoaders = ConcurrentHashMap.newKeySet();
+		Set<Thread> workers = ConcurrentHashMap.newKeySet();
+		CountDownLatch workerStarted = new CountDownLatch(1);
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader())) {
+			new ParallelOutcomesResolver(4, classLoader)
+					.resolveOutcomes(createCandidates(ParallelOutcomesResolver.BATCH_SIZE * 8), (candidate) -> {
+						Thread thread = Thread.currentThread();
+						if (thread != caller) {
+							workers.add(thread);
+							classLoaders.add(thread.getContextClassLoader());
+							workerStarted.countDown();
+						}
+						else {
+							awaitUninterruptibly(workerStarted);
+						}
+						return null;
+					});
+			assertThat(workers).isNotEmpty().allMatch(Thread::isDaemon)
+					.allMatch((worker) -> worker.getName().startsWith("condition-evaluation-"));
+			assertThat(classLoaders).containsExactly(classLoader);
+		}
+	}
+
+	@Test
+	void resolveOutcomesWhenParallelismIsTwoUsesCallingThreadAndOneWorker() {
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		new ParallelOutcomesResolver(2, null).resolveOutcomes(createCandidates(ParallelOutcomesResolver.BATCH_SIZE * 8),
+				(candidate) -> {
+					threads.add(Thread.currentThread());
+					return null;
+				});
+		assertThat(threads).contains(Thread.currentThread()).hasSizeLessThanOrEqualTo(2);
+	}
+
+	@Test
+	void resolveOutcomesWhenInterruptedResolvesRemainingCandidatesAndRestoresInterruption() {
+		Thread caller = Thread.currentThread();
+		String[] candidates = createCandidates(ParallelOutcomesResolver.BATCH_SIZE * 8);
+		try {
+			ConditionOutcome[] outcomes = new ParallelOutcomesResolver(4, null).resolveOutcomes(candidates,
+					(candidate) -> {
+						if (Thread.currentThread() == caller) {
+							caller.interrupt();
+						}
+						return ConditionOutcome.noMatch(candidate);
+					});
+			assertThat(outcomes).doesNotContainNull();
+			assertThat(caller.isInterrupted()).isTrue();
+		}
+		finally {
+			Thread.interrupted();
+		}
+	}
+
+	private void awaitUninterruptibly(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private String[] createCandidates(int count) {
+		String[] candidates = new String[count];
+		for (int i = 0; i < count; i++) {
+			candidates[i] = "com.example.Candidate" + i;
+		}
+		return candidates;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,16 @@
 
 package org.springframework.boot.buildpack.platform.io;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Enumeration;
+import java.util.zip.ZipEntry;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
@@ -29,7 +34,6 @@ import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 
 import org.springframework.util.Assert;
-import org.springframework.util.StreamUtils;
 
 /**
  * Adapter class to convert a ZIP file to a {@link TarArchive}.
@@ -42,6 +46,8 @@ public class ZipFileTarArchive implements TarArchive {
 
 	static final long NORMALIZED_MOD_TIME = TarArchive.NORMALIZED_TIME.toEpochMilli();
 
+	private static final int BUFFER_SIZE = 64 * 1024;
+
 	private final File zip;
 
 	private final Owner owner;
@@ -64,11 +70,13 @@ public class ZipFileTarArchive implements TarArchive {
 	public void writeTo(OutputStream outputStream) throws IOException {
 		TarArchiveOutputStream tar = new TarArchiveOutputStream(outputStream);
 		tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
-		try (ZipFile zipFile = new ZipFile(this.zip)) {
+		try (FileChannel channel = FileChannel.open(this.zip.toPath(), StandardOpenOption.READ);
+				ZipFile zipFile = new ZipFile(channel)) {
+			byte[] buffer = new byte[BUFFER_SIZE];
 			Enumeration<ZipArchiveEntry> entries = zipFile.getEntries();
 			while (entries.hasMoreElements()) {
 				ZipArchiveEntry zipEntry = entries.nextElement();
-				copy(zipEntry, zipFile.getInputStream(zipEntry), tar);
+				copy(zipEntry, zipFile, channel, tar, buffer);
 			}
 		}
 		tar.finish();
@@ -83,15 +91,58 @@ public class ZipFileTarArchive implements TarArchive {
 		}
 	}
 
-	private void copy(ZipArchiveEntry zipEntry, InputStream zip, TarArchiveOutputStream tar) throws IOException {
+	private void copy(ZipArchiveEntry zipEntry, ZipFile zipFile, FileChannel channel, TarArchiveOutputStream tar,
+			byte[] buffer) throws IOException {
 		TarArchiveEntry tarEntry = convert(zipEntry);
 		tar.putArchiveEntry(tarEntry);
 		if (tarEntry.isFile()) {
-			StreamUtils.copyRange(zip, tar, 0, tarEntry.getSize());
+			if (isStoredAndContiguous(zipEntry)) {
+				// Read stored content straight from the file rather than through the zip
+				// entry streams
+				copy(channel, zipEntry.getDataOffset(), tarEntry.getSize(), tar, buffer);
+			}
+			else {
+				try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+					copy(inputStream, tarEntry.getSize(), tar, buffer);
+				}
+			}
 		}
 		tar.closeArchiveEntry();
 	}
 
+	private boolean isStoredAndContiguous(ZipArchiveEntry zipEntry) {
+		return zipEntry.getMethod() == ZipEntry.STORED && zipEntry.getDataOffset() >= 0
+				&& zipEntry.isStreamContiguous();
+	}
+
+	private void copy(FileChannel channel, long position, long size, OutputStream outputStream, byte[] buffer)
+			throws IOException {
+		ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+		long remaining = size;
+		while (remaining > 0) {
+			byteBuffer.clear();
+			byteBuffer.limit((int) Math.min(buffer.length, remaining));
+			int read = channel.read(byteBuffer, position + size - remaining);
+			if (read == -1) {
+				throw new EOFException("Unexpected end of zip file '" + this.zip + "'");
+			}
+			outputStream.write(buffer, 0, read);
+			remaining -= read;
+		}
+	}
+
+	private void copy(InputStream inputStream, long size, OutputStream outputStream, byte[] buffer) throws IOException {
+		long remaining = size;
+		while (remaining > 0) {
+			int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+			if (read == -1) {
+				break;
+			}
+			outputStream.write(buffer, 0, read);
+			remaining -= read;
+		}
+	}
+
 	private TarArchiveEntry convert(ZipArchiveEntry zipEntry) {
 		byte linkFlag = (zipEntry.isDirectory()) ? TarConstants.LF_DIR : TarConstants.LF_NORMAL;
 		TarArchiveEntry tarEntry = new TarArchiveEntry(zipEntry.getName(), linkFlag, true);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
@@ -29,6 +32,8 @@ import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import org.springframework.util.StreamUtils;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
@@ -81,6 +86,46 @@ class ZipFileTarArchiveTests {
 		}
 	}
 
+	@Test
+	void writeToCopiesStoredAndDeflatedContent() throws Exception {
+		byte[] content = new byte[200 * 1024];
+		new Random(1).nextBytes(content);
+		File file = new File(this.tempDir, "test.zip");
+		try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(file)) {
+			ZipArchiveEntry storedEntry = new ZipArchiveEntry("stored");
+			storedEntry.setMethod(ZipEntry.STORED);
+			storedEntry.setSize(content.length);
+			storedEntry.setCrc(crc(content));
+			zip.putArchiveEntry(storedEntry);
+			zip.write(content);
+			zip.closeArchiveEntry();
+			zip.putArchiveEntry(new ZipArchiveEntry("deflated"));
+			zip.write(content);
+			zip.closeArchiveEntry();
+		}
+		TarArchive tarArchive = TarArchive.fromZip(file, Owner.ROOT);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		tarArchive.writeTo(outputStream);
+		try (TarArchiveInputStream tarStream = new TarArchiveInputStream(
+				new ByteArrayInputStream(outputStream.toByteArray()))) {
+			TarArchiveEntry storedEntry = tarStream.getNextTarEntry();
+			assertThat(storedEntry.getName()).isEqualTo("stored");
+			assertThat(storedEntry.getSize()).isEqualTo(content.length);
+			assertThat(StreamUtils.copyToByteArray(tarStream)).isEqualTo(content);
+			TarArchiveEntry deflatedEntry = tarStream.getNextTarEntry();
+			assertThat(deflatedEntry.getName()).isEqualTo("deflated");
+			assertThat(deflatedEntry.getSize()).isEqualTo(content.length);
+			assertThat(StreamUtils.copyToByteArray(tarStream)).isEqualTo(content);
+			assertThat(tarStream.getNextTarEntry()).isNull();
+		}
+	}
+
+	private long crc(byte[] content) {
+		CRC32 crc = new CRC32();
+		crc.update(content);
+		return crc.getValue();
+	}
+
 	private void writeTestZip(File file) throws IOException {
 		try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(file)) {
 			ZipArchiveEntry dirEntry = new ZipArchiveEntry("spring/");
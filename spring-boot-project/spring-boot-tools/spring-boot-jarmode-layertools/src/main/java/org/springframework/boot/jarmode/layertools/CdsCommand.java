@@ -0,0 +1,307 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.jarmode.layertools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * The {@code 'cds'} tools command. Extracts the application into a plain class path
+ * layout that the JVM can use with class data sharing (CDS), performs a training run to
+ * create a dynamic shared archive and writes a launch script that uses it. Libraries are
+ * added to the class path in the order of the class path index, if there is one, so that
+ * the application sees its classes in the same order as when it is launched as a jar.
+ *
+ * @author Phillip Webb
+ */
+class CdsCommand extends Command {
+
+	static final Option DESTINATION_OPTION = Option.of("destination", "string",
+			"The destination to write the application to");
+
+	static final Option NO_TRAINING_OPTION = Option.flag("no-training",
+			"Skip the training run that creates the shared archive");
+
+	static final String APPLICATION_JAR = "application.jar";
+
+	static final String LIB_DIRECTORY = "lib/";
+
+	static final String SHARED_ARCHIVE = "application.jsa";
+
+	static final String LAUNCH_SCRIPT = "run.sh";
+
+	private static final String START_CLASS_ATTRIBUTE = "Start-Class";
+
+	private static final String CLASSES_ATTRIBUTE = "Spring-Boot-Classes";
+
+	private static final String LIB_ATTRIBUTE = "Spring-Boot-Lib";
+
+	private static final String CLASSPATH_INDEX_ATTRIBUTE = "Spring-Boot-Classpath-Index";
+
+	private static final int MINIMUM_DYNAMIC_ARCHIVE_JAVA_VERSION = 13;
+
+	private final Context context;
+
+	CdsCommand(Context context) {
+		super("cds", "Extracts the application for class data sharing and creates a shared archive",
+				Options.of(DESTINATION_OPTION, NO_TRAINING_OPTION), Parameters.none());
+		this.context = context;
+	}
+
+	@Override
+	protected void run(Map<Option, String> options, List<String> parameters) {
+		try {
+			File destination = options.containsKey(DESTINATION_OPTION) ? new File(options.get(DESTINATION_OPTION))
+					: this.context.getWorkingDir();
+			mkDirs(new File(destination, LIB_DIRECTORY));
+			String startClass = extract(destination);
+			writeLaunchScript(destination);
+			if (!options.containsKey(NO_TRAINING_OPTION)) {
+				train(destination, startClass);
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private String extract(File destination) throws IOException {
+		try (JarFile jarFile = new JarFile(this.context.getArchiveFile())) {
+			Manifest manifest = jarFile.getManifest();
+			Attributes attributes = (manifest != null) ? manifest.getMainAttributes() : new Attributes();
+			String startClass = attributes.getValue(START_CLASS_ATTRIBUTE);
+			String classesLocation = attributes.getValue(CLASSES_ATTRIBUTE);
+			String libLocation = attributes.getValue(LIB_ATTRIBUTE);
+			Assert.state(startClass != null && classesLocation != null && libLocation != null,
+					() -> "File '" + this.context.getArchiveFile()
+							+ "' is not compatible with cds; ensure that it is an executable jar file");
+			List<String> classPathIndex = getClassPathIndex(jarFile, attributes.getValue(CLASSPATH_INDEX_ATTRIBUTE));
+			List<String> libraries = extractLibraries(jarFile, libLocation, classPathIndex, destination);
+			writeApplicationJar(jarFile, classesLocation, createManifest(attributes, startClass, libraries),
+					new File(destination, APPLICATION_JAR));
+			return startClass;
+		}
+	}
+
+	private List<String> getClassPathIndex(JarFile jarFile, String location) throws IOException {
+		ZipEntry entry = (location != null) ? jarFile.getEntry(location) : null;
+		if (entry == null) {
+			return Collections.emptyList();
+		}
+		List<String> classPathIndex = new ArrayList<>();
+		try (InputStream inputStream = jarFile.getInputStream(entry)) {
+			String content = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+			for (String line : content.split("\n")) {
+				line = line.replace("\r", "");
+				if (line.startsWith("- \"") && line.endsWith("\"")) {
+					classPathIndex.add(line.substring(3, line.length() - 1));
+				}
+			}
+		}
+		return classPathIndex;
+	}
+
+	private List<String> extractLibraries(JarFile jarFile, String libLocation, List<String> classPathIndex,
+			File destination) throws IOException {
+		Map<String, JarEntry> libraryEntries = new LinkedHashMap<>();
+		Enumeration<JarEntry> entries = jarFile.entries();
+		while (entries.hasMoreElements()) {
+			JarEntry entry = entries.nextElement();
+			String name = entry.getName();
+			if (!entry.isDirectory() && name.startsWith(libLocation) && name.indexOf('/', libLocation.length()) == -1) {
+				libraryEntries.put(name, entry);
+			}
+		}
+		List<JarEntry> orderedEntries = new ArrayList<>(libraryEntries.size());
+		for (String name : classPathIndex) {
+			JarEntry entry = libraryEntries.remove(name);
+			if (entry != null) {
+				orderedEntries.add(entry);
+			}
+		}
+		orderedEntries.addAll(libraryEntries.values());
+		List<String> libraries = new ArrayList<>(orderedEntries.size());
+		for (JarEntry entry : orderedEntries) {
+			String library = LIB_DIRECTORY + entry.getName().substring(libLocation.length());
+			try (InputStream inputStream = jarFile.getInputStream(entry);
+					OutputStream outputStream = new FileOutputStream(new File(destination, library))) {
+				StreamUtils.copy(inputStream, outputStream);
+			}
+			libraries.add(library);
+		}
+		return libraries;
+	}
+
+	private Manifest createManifest(Attributes sourceAttributes, String startClass, List<String> libraries) {
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.put(Attributes.Name.MAIN_CLASS, startClass);
+		copyAttribute(sourceAttributes, attributes, Attributes.Name.IMPLEMENTATION_TITLE);
+		copyAttribute(sourceAttributes, attributes, Attributes.Name.IMPLEMENTATION_VERSION);
+		if (!libraries.isEmpty()) {
+			StringBuilder classPath = new StringBuilder();
+			for (String library : libraries) {
+				classPath.append((classPath.length() > 0) ? " " : "").append(library.replace(" ", "%20"));
+			}
+			attributes.put(Attributes.Name.CLASS_PATH, classPath.toString());
+		}
+		return manifest;
+	}
+
+	private void copyAttribute(Attributes source, Attributes destination, Attributes.Name name) {
+		String value = source.getValue(name);
+		if (value != null) {
+			destination.put(name, value);
+		}
+	}
+
+	private void writeApplicationJar(JarFile jarFile, String classesLocation, Manifest manifest, File file)
+			throws IOException {
+		try (JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(file), manifest)) {
+			Enumeration<JarEntry> entries = jarFile.entries();
+			while (entries.hasMoreElements()) {
+				JarEntry entry = entries.nextElement();
+				String name = entry.getName();
+				if (name.startsWith(classesLocation) && name.length() > classesLocation.length()
+						&& !JarFile.MANIFEST_NAME.equals(name.substring(classesLocation.length()))) {
+					JarEntry target = new JarEntry(name.substring(classesLocation.length()));
+					target.setTime(entry.getTime());
+					outputStream.putNextEntry(target);
+					if (!entry.isDirectory()) {
+						try (InputStream inputStream = jarFile.getInputStream(entry)) {
+							StreamUtils.copy(inputStream, outputStream);
+						}
+					}
+					outputStream.closeEntry();
+				}
+			}
+			writeTrainingRunClass(outputStream);
+		}
+	}
+
+	private void writeTrainingRunClass(JarOutputStream outputStream) throws IOException {
+		// Keep the class path used for training identical to the one used at runtime
+		String name = TrainingRun.class.getName().replace('.', '/') + ".class";
+		outputStream.putNextEntry(new JarEntry(name));
+		try (InputStream inputStream = TrainingRun.class.getClassLoader().getResourceAsStream(name)) {
+			Assert.state(inputStream != null, "Unable to locate " + name);
+			StreamUtils.copy(inputStream, outputStream);
+		}
+		outputStream.closeEntry();
+	}
+
+	private void writeLaunchScript(File destination) throws IOException {
+		File script = new File(destination, LAUNCH_SCRIPT);
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(script), StandardCharsets.UTF_8)) {
+			writer.write("#!/bin/sh\n");
+			writer.write("# The shared archive records the class path relative to this directory\n");
+			writer.write("cd \"$(dirname \"$0\")\" || exit 1\n");
+			writer.write("if [ -f " + SHARED_ARCHIVE + " ]; then\n");
+			writer.write("  exec java -XX:SharedArchiveFile=" + SHARED_ARCHIVE + " $JAVA_OPTS -jar " + APPLICATION_JAR
+					+ " \"$@\"\n");
+			writer.write("fi\n");
+			writer.write("exec java $JAVA_OPTS -jar " + APPLICATION_JAR + " \"$@\"\n");
+		}
+		script.setExecutable(true);
+	}
+
+	private void train(File destination, String startClass) throws IOException, InterruptedException {
+		int javaVersion = getJavaVersion();
+		if (javaVersion < MINIMUM_DYNAMIC_ARCHIVE_JAVA_VERSION) {
+			System.out.println("Skipping training run as Java " + MINIMUM_DYNAMIC_ARCHIVE_JAVA_VERSION
+					+ " or later is required to create a shared archive");
+			return;
+		}
+		List<String> command = new ArrayList<>();
+		command.add(getJavaExecutable());
+		command.add("-XX:ArchiveClassesAtExit=" + SHARED_ARCHIVE);
+		command.add("-cp");
+		command.add(APPLICATION_JAR);
+		command.add(TrainingRun.class.getName());
+		command.add(startClass);
+		int exitCode = runTraining(destination, command);
+		Assert.state(exitCode == 0, () -> "Training run failed with exit code " + exitCode);
+		Assert.state(new File(destination, SHARED_ARCHIVE).isFile(),
+				"Training run completed but no shared archive was created");
+	}
+
+	/**
+	 * Run the training process from the destination directory, inheriting the IO of the
+	 * current process.
+	 * @param destination the destination directory
+	 * @param command the command to run
+	 * @return the exit code of the process
+	 * @throws IOException on IO error
+	 * @throws InterruptedException if interrupted while waiting for the process
+	 */
+	int runTraining(File destination, List<String> command) throws IOException, InterruptedException {
+		Process process = new ProcessBuilder(command).directory(destination).inheritIO().start();
+		return process.waitFor();
+	}
+
+	int getJavaVersion() {
+		String version = System.getProperty("java.specification.version", "1.8");
+		if (version.startsWith("1.")) {
+			version = version.substring(2);
+		}
+		try {
+			return Integer.parseInt(version);
+		}
+		catch (NumberFormatException ex) {
+			return 0;
+		}
+	}
+
+	private String getJavaExecutable() {
+		File javaHome = new File(System.getProperty("java.home"));
+		File java = new File(new File(javaHome, "bin"), "java");
+		return java.getAbsolutePath();
+	}
+
+	private void mkDirs(File file) throws IOException {
+		if (!file.exists() && !file.mkdirs()) {
+			throw new IOException("Unable to create directory " + file);
+		}
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.jarmode.layertools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.ZipEntry;
+
+import org.springframework.util.StreamUtils;
+
+/**
+ * Content-addressed cache of extracted jar files, shared between extractions. Files are
+ * keyed by their name, size and CRC-32 as recorded in the archive. As a CRC-32 does not
+ * identify content, the entry is compared with the cached file before it is used, which
+ * only requires the entry to be read rather than written. Extracted files are copied into
+ * the cache with the time attributes of their entry. Cached files are hard linked into
+ * place when the file system allows it and copied otherwise, so files created from the
+ * cache must not be modified in place and keep the time attributes of the extraction that
+ * cached them.
+ *
+ * @author Phillip Webb
+ */
+class ExtractCache {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final File directory;
+
+	ExtractCache(File directory) throws IOException {
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("Unable to create cache directory " + directory);
+		}
+		this.directory = directory;
+	}
+
+	/**
+	 * Create the given file from the cache if an identical entry has previously been
+	 * extracted. If a cached file has the same name, size and CRC-32 as the entry but
+	 * different content, the file is written from the content that has been compared and
+	 * the remainder of the entry instead.
+	 * @param entry the entry being extracted
+	 * @param content the content of the entry, only read if a cached file is found
+	 * @param file the file to create
+	 * @return {@code true} if the file was created
+	 * @throws IOException on IO error
+	 */
+	boolean extract(ZipEntry entry, InputStream content, File file) throws IOException {
+		File cacheFile = getCacheFile(entry);
+		if (cacheFile == null || !cacheFile.isFile()) {
+			return false;
+		}
+		Path target = file.toPath();
+		Files.deleteIfExists(target);
+		byte[] entryBuffer = new byte[BUFFER_SIZE];
+		byte[] cacheBuffer = new byte[BUFFER_SIZE];
+		long matched = 0;
+		try (InputStream cached = new FileInputStream(cacheFile)) {
+			int length;
+			do {
+				length = read(content, entryBuffer);
+				if (read(cached, cacheBuffer) != length || !equals(entryBuffer, cacheBuffer, length)) {
+					write(entry, cacheFile, matched, entryBuffer, length, content, file);
+					return true;
+				}
+				matched += length;
+			}
+			while (length == BUFFER_SIZE);
+		}
+		if (!link(target, cacheFile.toPath())) {
+			Files.copy(cacheFile.toPath(), target, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.COPY_ATTRIBUTES);
+		}
+		return true;
+	}
+
+	private int read(InputStream inputStream, byte[] buffer) throws IOException {
+		int length = 0;
+		while (length < buffer.length) {
+			int read = inputStream.read(buffer, length, buffer.length - length);
+			if (read == -1) {
+				break;
+			}
+			length += read;
+		}
+		return length;
+	}
+
+	private boolean equals(byte[] left, byte[] right, int length) {
+		for (int i = 0; i < length; i++) {
+			if (left[i] != right[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void write(ZipEntry entry, File cacheFile, long matched, byte[] buffer, int length, InputStream content,
+			File file) throws IOException {
+		try (OutputStream out = new FileOutputStream(file)) {
+			if (matched > 0) {
+				try (InputStream cached = new FileInputStream(cacheFile)) {
+					StreamUtils.copyRange(cached, out, 0, matched - 1);
+				}
+			}
+			out.write(buffer, 0, length);
+			StreamUtils.copy(content, out);
+		}
+		ExtractCommand.setTimes(entry, file.toPath());
+	}
+
+	/**
+	 * Add a file that has been extracted from the given entry to the cache. The file is
+	 * copied rather than linked so that the cache is not affected if the extracted file
+	 * is later replaced or its time attributes are changed.
+	 * @param entry the entry that was extracted
+	 * @param file the extracted file
+	 * @throws IOException on IO error
+	 */
+	void add(ZipEntry entry, File file) throws IOException {
+		File cacheFile = getCacheFile(entry);
+		if (cacheFile == null || cacheFile.exists()) {
+			return;
+		}
+		Path tempPath = Files.createTempFile(this.directory.toPath(), "extract", ".tmp");
+		try {
+			Files.copy(file.toPath(), tempPath, StandardCopyOption.REPLACE_EXISTING);
+			ExtractCommand.setTimes(entry, tempPath);
+			Files.move(tempPath, cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (FileAlreadyExistsException ex) {
+			// Added concurrently by another extraction
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	private boolean link(Path link, Path existing) throws IOException {
+		try {
+			Files.createLink(link, existing);
+			return true;
+		}
+		catch (UnsupportedOperationException | IOException ex) {
+			return false;
+		}
+	}
+
+	private File getCacheFile(ZipEntry entry) {
+		String name = entry.getName();
+		if (!name.endsWith(".jar") || entry.getSize() < 0 || entry.getCrc() < 0) {
+			return null;
+		}
+		String fileName = name.substring(name.lastIndexOf('/') + 1, name.length() - 4);
+		return new File(this.directory,
+				fileName + "-" + Long.toHexString(entry.getCrc()) + "-" + entry.getSize() + ".jar");
+	}
+
+}
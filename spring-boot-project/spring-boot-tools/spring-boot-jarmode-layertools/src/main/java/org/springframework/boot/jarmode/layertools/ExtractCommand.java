@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,12 +20,22 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributeView;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import org.springframework.util.Assert;
@@ -40,6 +50,11 @@ class ExtractCommand extends Command {
 
 	static final Option DESTINATION_OPTION = Option.of("destination", "string", "The destination to extract files to");
 
+	static final Option PARALLEL_OPTION = Option.flag("parallel", "Extract each layer on a separate thread");
+
+	static final Option CACHE_OPTION = Option.of("cache", "string",
+			"A directory used to share identical jar files between extractions");
+
 	private final Context context;
 
 	private final Layers layers;
@@ -49,8 +64,8 @@ class ExtractCommand extends Command {
 	}
 
 	ExtractCommand(Context context, Layers layers) {
-		super("extract", "Extracts layers from the jar for image creation", Options.of(DESTINATION_OPTION),
-				Parameters.of("[<layer>...]"));
+		super("extract", "Extracts layers from the jar for image creation",
+				Options.of(DESTINATION_OPTION, PARALLEL_OPTION, CACHE_OPTION), Parameters.of("[<layer>...]"));
 		this.context = context;
 		this.layers = layers;
 	}
@@ -65,27 +80,101 @@ class ExtractCommand extends Command {
 					mkDirs(new File(destination, layer));
 				}
 			}
-			try (ZipInputStream zip = new ZipInputStream(new FileInputStream(this.context.getArchiveFile()))) {
-				ZipEntry entry = zip.getNextEntry();
-				Assert.state(entry != null, "File '" + this.context.getArchiveFile().toString()
-						+ "' is not compatible with layertools; ensure jar file is valid and launch script is not enabled");
-				while (entry != null) {
-					if (!entry.isDirectory()) {
-						String layer = this.layers.getLayer(entry);
-						if (parameters.isEmpty() || parameters.contains(layer)) {
-							write(zip, entry, new File(destination, layer));
+			ExtractCache cache = options.containsKey(CACHE_OPTION)
+					? new ExtractCache(new File(options.get(CACHE_OPTION))) : null;
+			if (options.containsKey(PARALLEL_OPTION)) {
+				extractInParallel(destination, parameters, cache);
+			}
+			else {
+				extract(destination, parameters, cache);
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private void extract(File destination, List<String> parameters, ExtractCache cache) throws IOException {
+		try (ZipInputStream zip = new ZipInputStream(new FileInputStream(this.context.getArchiveFile()))) {
+			ZipEntry entry = zip.getNextEntry();
+			assertCompatible(entry != null);
+			while (entry != null) {
+				if (!entry.isDirectory()) {
+					String layer = this.layers.getLayer(entry);
+					if (parameters.isEmpty() || parameters.contains(layer)) {
+						write(zip, entry, new File(destination, layer), cache);
+					}
+				}
+				entry = zip.getNextEntry();
+			}
+		}
+	}
+
+	private void extractInParallel(File destination, List<String> parameters, ExtractCache cache) throws IOException {
+		try (ZipFile zipFile = new ZipFile(this.context.getArchiveFile())) {
+			Map<String, List<ZipEntry>> layerEntries = new LinkedHashMap<>();
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			assertCompatible(entries.hasMoreElements());
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				if (!entry.isDirectory()) {
+					String layer = this.layers.getLayer(entry);
+					if (parameters.isEmpty() || parameters.contains(layer)) {
+						layerEntries.computeIfAbsent(layer, (key) -> new ArrayList<>()).add(entry);
+					}
+				}
+			}
+			if (layerEntries.isEmpty()) {
+				return;
+			}
+			ExecutorService executor = Executors.newFixedThreadPool(layerEntries.size());
+			try {
+				List<Future<Void>> writes = new ArrayList<>();
+				layerEntries.forEach((layer, layerEntryList) -> writes.add(executor.submit(() -> {
+					for (ZipEntry entry : layerEntryList) {
+						try (InputStream inputStream = zipFile.getInputStream(entry)) {
+							write(inputStream, entry, new File(destination, layer), cache);
 						}
 					}
-					entry = zip.getNextEntry();
+					return null;
+				})));
+				for (Future<Void> write : writes) {
+					waitFor(write);
 				}
 			}
+			finally {
+				executor.shutdownNow();
+			}
 		}
-		catch (IOException ex) {
-			throw new IllegalStateException(ex);
+	}
+
+	private void waitFor(Future<Void> write) throws IOException {
+		try {
+			write.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while extracting layers", ex);
 		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private void assertCompatible(boolean hasEntries) {
+		Assert.state(hasEntries, () -> "File '" + this.context.getArchiveFile().toString()
+				+ "' is not compatible with layertools; ensure jar file is valid and launch script is not enabled");
 	}
 
-	private void write(ZipInputStream zip, ZipEntry entry, File destination) throws IOException {
+	private void write(InputStream inputStream, ZipEntry entry, File destination, ExtractCache cache)
+			throws IOException {
 		String canonicalOutputPath = destination.getCanonicalPath() + File.separator;
 		File file = new File(destination, entry.getName());
 		String canonicalEntryPath = file.getCanonicalPath();
@@ -94,12 +183,24 @@ class ExtractCommand extends Command {
 						+ "'. This is outside the output location of '" + canonicalOutputPath
 						+ "'. Verify the contents of your archive.");
 		mkParentDirs(file);
+		if (cache != null && cache.extract(entry, inputStream, file)) {
+			return;
+		}
+		// The file may be a link to a cached file from a previous extraction
+		Files.deleteIfExists(file.toPath());
 		try (OutputStream out = new FileOutputStream(file)) {
-			StreamUtils.copy(zip, out);
+			StreamUtils.copy(inputStream, out);
+		}
+		if (cache != null) {
+			cache.add(entry, file);
 		}
+		setTimes(entry, file.toPath());
+	}
+
+	static void setTimes(ZipEntry entry, Path path) {
 		try {
-			Files.getFileAttributeView(file.toPath(), BasicFileAttributeView.class)
-					.setTimes(entry.getLastModifiedTime(), entry.getLastAccessTime(), entry.getCreationTime());
+			Files.getFileAttributeView(path, BasicFileAttributeView.class).setTimes(entry.getLastModifiedTime(),
+					entry.getLastAccessTime(), entry.getCreationTime());
 		}
 		catch (IOException ex) {
 			// File system does not support setting time attributes. Continue.
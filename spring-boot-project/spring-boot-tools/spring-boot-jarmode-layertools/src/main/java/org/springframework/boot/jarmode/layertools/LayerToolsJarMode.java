@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2020 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -108,6 +108,7 @@ public class LayerToolsJarMode implements JarMode {
 			List<Command> commands = new ArrayList<>();
 			commands.add(new ListCommand(context));
 			commands.add(new ExtractCommand(context));
+			commands.add(new CdsCommand(context));
 			return Collections.unmodifiableList(commands);
 		}
 
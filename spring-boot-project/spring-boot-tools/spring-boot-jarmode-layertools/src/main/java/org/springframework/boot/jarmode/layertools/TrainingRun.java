@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.jarmode.layertools;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Main class used by the {@link CdsCommand} training run. Starts the application and
+ * exits as soon as its main method returns so that the JVM writes the shared archive.
+ * Only depends on the JDK as it is copied into the extracted application.
+ *
+ * @author Phillip Webb
+ * @since 2.6.14
+ */
+public final class TrainingRun {
+
+	private TrainingRun() {
+	}
+
+	public static void main(String[] args) throws Throwable {
+		if (args.length == 0) {
+			throw new IllegalArgumentException("No main class specified");
+		}
+		Class<?> mainClass = Class.forName(args[0], false, Thread.currentThread().getContextClassLoader());
+		Method mainMethod = mainClass.getDeclaredMethod("main", String[].class);
+		mainMethod.setAccessible(true);
+		try {
+			mainMethod.invoke(null, new Object[] { Arrays.copyOfRange(args, 1, args.length) });
+		}
+		catch (InvocationTargetException ex) {
+			throw ex.getTargetException();
+		}
+		System.exit(0);
+	}
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.jarmode.layertools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Tests for {@link CdsCommand}.
+ *
+ * @author Phillip Webb
+ */
+@ExtendWith(MockitoExtension.class)
+class CdsCommandTests {
+
+	@TempDir
+	File temp;
+
+	@Mock
+	private Context context;
+
+	private File jarFile;
+
+	private File destination;
+
+	@BeforeEach
+	void setup() throws Exception {
+		this.jarFile = createJarFile("test.jar");
+		this.destination = new File(this.temp, "cds");
+		this.destination.mkdir();
+	}
+
+	@Test
+	void runWhenNoTrainingExtractsApplication() throws Exception {
+		given(this.context.getArchiveFile()).willReturn(this.jarFile);
+		given(this.context.getWorkingDir()).willReturn(this.destination);
+		TestCdsCommand command = new TestCdsCommand(this.context, 17);
+		command.run(Collections.singletonMap(CdsCommand.NO_TRAINING_OPTION, null), Collections.emptyList());
+		assertThat(command.commands).isEmpty();
+		assertThat(this.destination.list()).containsOnly("application.jar", "lib", "run.sh");
+		assertThat(new File(this.destination, "lib").list()).containsOnly("a.jar", "b c.jar");
+		try (JarFile applicationJar = new JarFile(new File(this.destination, "application.jar"))) {
+			Attributes attributes = applicationJar.getManifest().getMainAttributes();
+			assertThat(attributes.getValue(Attributes.Name.MAIN_CLASS)).isEqualTo("com.example.Application");
+			assertThat(attributes.getValue(Attributes.Name.CLASS_PATH)).isEqualTo("lib/a.jar lib/b%20c.jar");
+			assertThat(applicationJar.getEntry("com/example/Application.class")).isNotNull();
+			assertThat(applicationJar.getEntry("application.properties")).isNotNull();
+			assertThat(applicationJar.getEntry("BOOT-INF/classes/application.properties")).isNull();
+			assertThat(applicationJar.getEntry("org/springframework/boot/jarmode/layertools/TrainingRun.class"))
+					.isNotNull();
+		}
+		File script = new File(this.destination, "run.sh");
+		assertThat(script.canExecute()).isTrue();
+		assertThat(new String(Files.readAllBytes(script.toPath()), StandardCharsets.UTF_8))
+				.contains("-XX:SharedArchiveFile=application.jsa").contains("-jar application.jar");
+	}
+
+	@Test
+	void runWhenHasClassPathIndexUsesIndexOrder() throws Exception {
+		this.jarFile = createJarFile("indexed.jar", "- \"BOOT-INF/lib/b c.jar\"\n- \"BOOT-INF/lib/a.jar\"\n");
+		given(this.context.getArchiveFile()).willReturn(this.jarFile);
+		given(this.context.getWorkingDir()).willReturn(this.destination);
+		TestCdsCommand command = new TestCdsCommand(this.context, 17);
+		command.run(Collections.singletonMap(CdsCommand.NO_TRAINING_OPTION, null), Collections.emptyList());
+		try (JarFile applicationJar = new JarFile(new File(this.destination, "application.jar"))) {
+			Attributes attributes = applicationJar.getManifest().getMainAttributes();
+			assertThat(attributes.getValue(Attributes.Name.CLASS_PATH)).isEqualTo("lib/b%20c.jar lib/a.jar");
+		}
+	}
+
+	@Test
+	void runWhenHasDestinationOptionExtractsToDestination() {
+		given(this.context.getArchiveFile()).willReturn(this.jarFile);
+		File out = new File(this.destination, "out");
+		TestCdsCommand command = new TestCdsCommand(this.context, 17);
+		command.run(Collections.singletonMap(CdsCommand.DESTINATION_OPTION, out.getAbsolutePath()),
+				Collections.emptyList());
+		assertThat(this.destination.list()).containsOnly("out");
+		assertThat(new File(out, "application.jar")).exists();
+		assertThat(new File(out, "lib/a.jar")).exists();
+	}
+
+	@Test
+	void runPerformsTrainingRun() {
+		given(this.context.getArchiveFile()).willReturn(this.jarFile);
+		given(this.context.getWorkingDir()).willReturn(this.destination);
+		TestCdsCommand command = new TestCdsCommand(this.context, 17);
+		command.run(Collections.emptyMap(), Collections.emptyList());
+		assertThat(command.commands).hasSize(1);
+		List<String> trainingCommand = command.commands.get(0);
+		assertThat(trainingCommand.get(0)).endsWith("java");
+		assertThat(trainingCommand.subList(1, trainingCommand.size())).containsExactly(
+				"-XX:ArchiveClassesAtExit=application.jsa", "-cp", "application.jar", TrainingRun.class.getName(),
+				"com.example.Application");
+		assertThat(new File(this.destination, "application.jsa")).exists();
+	}
+
+	@Test
+	void runWhenJavaDoesNotSupportDynamicArchiveSkipsTrainingRun() {
+		given(this.context.getArchiveFile()).willReturn(this.jarFile);
+		given(this.context.getWorkingDir()).willReturn(this.destination);
+		TestCdsCommand command = new TestCdsCommand(this.context, 11);
+		command.run(Collections.emptyMap(), Collections.emptyList());
+		assertThat(command.commands).isEmpty();
+		assertThat(new File(this.destination, "application.jar")).exists();
+	}
+
+	@Test
+	void runWhenTrainingRunFailsThrowsException() {
+		given(this.context.getArchiveFile()).willReturn(this.jarFile);
+		given(this.context.getWorkingDir()).willReturn(this.destination);
+		TestCdsCommand command = new TestCdsCommand(this.context, 17);
+		command.exitCode = 1;
+		assertThatIllegalStateException().isThrownBy(() -> command.run(Collections.emptyMap(), Collections.emptyList()))
+				.withMessageContaining("exit code 1");
+	}
+
+	@Test
+	void runWithJarFileThatIsNotExecutableFails() throws IOException {
+		File file = new File(this.temp, "plain.jar");
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+			out.putNextEntry(new ZipEntry("a.txt"));
+			out.closeEntry();
+		}
+		given(this.context.getArchiveFile()).willReturn(file);
+		given(this.context.getWorkingDir()).willReturn(this.destination);
+		assertThatIllegalStateException()
+				.isThrownBy(
+						() -> new TestCdsCommand(this.context, 17).run(Collections.emptyMap(), Collections.emptyList()))
+				.withMessageContaining("not compatible with cds");
+	}
+
+	@Test
+	void runWithFileThatIsNotAJarFails() throws IOException {
+		File file = new File(this.temp, "empty.jar");
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write("text");
+		}
+		given(this.context.getArchiveFile()).willReturn(file);
+		given(this.context.getWorkingDir()).willReturn(this.destination);
+		assertThatIllegalStateException().isThrownBy(
+				() -> new TestCdsCommand(this.context, 17).run(Collections.emptyMap(), Collections.emptyList()));
+	}
+
+	private File createJarFile(String name) throws Exception {
+		return createJarFile(name, null);
+	}
+
+	private File createJarFile(String name, String classPathIndex) throws Exception {
+		File file = new File(this.temp, name);
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+			Manifest manifest = new Manifest();
+			Attributes attributes = manifest.getMainAttributes();
+			attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+			attributes.put(Attributes.Name.MAIN_CLASS, "org.springframework.boot.loader.JarLauncher");
+			attributes.putValue("Start-Class", "com.example.Application");
+			attributes.putValue("Spring-Boot-Classes", "BOOT-INF/classes/");
+			attributes.putValue("Spring-Boot-Lib", "BOOT-INF/lib/");
+			if (classPathIndex != null) {
+				attributes.putValue("Spring-Boot-Classpath-Index", "BOOT-INF/classpath.idx");
+			}
+			out.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+			manifest.write(out);
+			out.closeEntry();
+			if (classPathIndex != null) {
+				out.putNextEntry(new ZipEntry("BOOT-INF/classpath.idx"));
+				out.write(classPathIndex.getBytes(StandardCharsets.UTF_8));
+				out.closeEntry();
+			}
+			out.putNextEntry(new ZipEntry("BOOT-INF/classes/"));
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry("BOOT-INF/classes/com/example/Application.class"));
+			out.write(new byte[] { 1, 2, 3 });
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry("BOOT-INF/classes/application.properties"));
+			out.write("test=value".getBytes(StandardCharsets.UTF_8));
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry("BOOT-INF/lib/a.jar"));
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry("BOOT-INF/lib/b c.jar"));
+			out.closeEntry();
+		}
+		return file;
+	}
+
+	static class TestCdsCommand extends CdsCommand {
+
+		private final int javaVersion;
+
+		private final List<List<String>> commands = new ArrayList<>();
+
+		private int exitCode;
+
+		TestCdsCommand(Context context, int javaVersion) {
+			super(context);
+			this.javaVersion = javaVersion;
+		}
+
+		@Override
+		int runTraining(File destination, List<String> command) throws IOException {
+			this.commands.add(command);
+			if (this.exitCode == 0) {
+				new File(destination, SHARED_ARCHIVE).createNewFile();
+			}
+			return this.exitCode;
+		}
+
+		@Override
+		int getJavaVersion() {
+			return this.javaVersion;
+		}
+
+	}
+
+}
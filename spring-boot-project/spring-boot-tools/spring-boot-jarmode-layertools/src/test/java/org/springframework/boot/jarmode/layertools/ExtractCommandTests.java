@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,7 +30,9 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
@@ -43,6 +45,7 @@ import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.boot.jarmode.layertools.Command.Option;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.util.FileCopyUtils;
 
@@ -167,11 +170,144 @@ class ExtractCommandTests {
 			}
 		});
 		given(this.context.getArchiveFile()).willReturn(this.jarFile);
+		given(this.context.getWorkingDir()).willReturn(this.extract);
 		assertThatIllegalStateException()
 				.isThrownBy(() -> this.command.run(Collections.emptyMap(), Collections.emptyList()))
 				.withMessageContaining("Entry 'e/../../e.jar' would be written");
 	}
 
+	@Test
+	void runWhenParallelExtractsLayers() throws Exception {
+		given(this.context.getArchiveFile()).willReturn(this.jarFile);
+		given(this.context.getWorkingDir()).willReturn(this.extract);
+		this.command.run(Collections.singletonMap(ExtractCommand.PARALLEL_OPTION, null), Collections.emptyList());
+		assertThat(this.extract.list()).containsOnly("a", "b", "c", "d");
+		assertThat(new File(this.extract, "a/a/a.jar")).exists().satisfies(this::lastModifiedTime);
+		assertThat(new File(this.extract, "b/b/b.jar")).exists().satisfies(this::lastModifiedTime);
+		assertThat(new File(this.extract, "c/c/c.jar")).exists().satisfies(this::lastModifiedTime);
+		assertThat(new File(this.extract, "c/META-INF/MANIFEST.MF")).exists();
+		assertThat(new File(this.extract, "d")).isDirectory();
+		assertThat(new File(this.extract.getParentFile(), "e.jar")).doesNotExist();
+	}
+
+	@Test
+	void runWhenParallelAndHasLayerParamsExtractsLimitedLayers() {
+		given(this.context.getArchiveFile()).willReturn(this.jarFile);
+		given(this.context.getWorkingDir()).willReturn(this.extract);
+		this.command.run(Collections.singletonMap(ExtractCommand.PARALLEL_OPTION, null), Arrays.asList("a", "c"));
+		assertThat(this.extract.list()).containsOnly("a", "c");
+		assertThat(new File(this.extract, "a/a/a.jar")).exists();
+		assertThat(new File(this.extract, "c/c/c.jar")).exists();
+	}
+
+	@Test
+	void runWhenParallelWithJarFileThatWouldWriteEntriesOutsideDestinationFails() throws Exception {
+		this.jarFile = createJarFile("test.jar", (out) -> {
+			try {
+				out.putNextEntry(new ZipEntry("e/../../e.jar"));
+				out.closeEntry();
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException(ex);
+			}
+		});
+		given(this.context.getArchiveFile()).willReturn(this.jarFile);
+		given(this.context.getWorkingDir()).willReturn(this.extract);
+		assertThatIllegalStateException().isThrownBy(() -> this.command
+				.run(Collections.singletonMap(ExtractCommand.PARALLEL_OPTION, null), Collections.emptyList()))
+				.withMessageContaining("Entry 'e/../../e.jar' would be written");
+	}
+
+	@Test
+	void runWhenHasCacheOptionLinksIdenticalJarFiles() throws Exception {
+		given(this.context.getArchiveFile()).willReturn(this.jarFile);
+		File cache = new File(this.temp, "cache");
+		Map<Option, String> options = new HashMap<>();
+		options.put(ExtractCommand.PARALLEL_OPTION, null);
+		options.put(ExtractCommand.CACHE_OPTION, cache.getAbsolutePath());
+		File first = new File(this.extract, "first");
+		options.put(ExtractCommand.DESTINATION_OPTION, first.getAbsolutePath());
+		this.command.run(options, Collections.emptyList());
+		assertThat(cache.list()).hasSize(3);
+		File second = new File(this.extract, "second");
+		options.put(ExtractCommand.DESTINATION_OPTION, second.getAbsolutePath());
+		this.command.run(options, Collections.emptyList());
+		assertThat(cache.list()).hasSize(3);
+		File[] cachedFiles = cache.listFiles((dir, name) -> name.startsWith("a-"));
+		assertThat(cachedFiles).hasSize(1);
+		assertThat(Files.isSameFile(new File(second, "a/a/a.jar").toPath(), cachedFiles[0].toPath())).isTrue();
+		assertThat(new File(second, "b/b/b.jar")).exists();
+		assertThat(new File(second, "c/META-INF/MANIFEST.MF")).exists();
+	}
+
+	@Test
+	void runWhenHasCacheOptionAddsExtractedJarFilesToCache() {
+		given(this.context.getArchiveFile()).willReturn(this.jarFile);
+		given(this.context.getWorkingDir()).willReturn(this.extract);
+		File cache = new File(this.temp, "cache");
+		this.command.run(Collections.singletonMap(ExtractCommand.CACHE_OPTION, cache.getAbsolutePath()),
+				Collections.emptyList());
+		assertThat(new File(this.extract, "a/a/a.jar")).exists().satisfies(this::timeAttributes);
+		assertThat(cache.list()).hasSize(3);
+	}
+
+	@Test
+	void runWhenHasCacheOptionAndDestinationIsReusedDoesNotModifyCachedFiles() throws Exception {
+		File cache = new File(this.temp, "cache");
+		Map<Option, String> options = new HashMap<>();
+		options.put(ExtractCommand.PARALLEL_OPTION, null);
+		options.put(ExtractCommand.CACHE_OPTION, cache.getAbsolutePath());
+		options.put(ExtractCommand.DESTINATION_OPTION, this.extract.getAbsolutePath());
+		File first = createJarFile("first.jar", (out) -> writeEntry(out, "e/e.jar", "first"));
+		given(this.context.getArchiveFile()).willReturn(first);
+		this.command.run(options, Collections.emptyList());
+		this.command.run(options, Collections.emptyList());
+		File second = createJarFile("second.jar", (out) -> writeEntry(out, "e/e.jar", "second content"));
+		given(this.context.getArchiveFile()).willReturn(second);
+		this.command.run(options, Collections.emptyList());
+		assertThat(new File(this.extract, "c/e/e.jar")).hasContent("second content");
+		File[] cachedFiles = cache.listFiles((dir, name) -> name.startsWith("e-"));
+		assertThat(cachedFiles).hasSize(2);
+		assertThat(cachedFiles).anySatisfy((cachedFile) -> assertThat(cachedFile).hasContent("first"));
+		assertThat(cachedFiles).anySatisfy((cachedFile) -> assertThat(cachedFile).hasContent("second content"));
+	}
+
+	@Test
+	void runWhenHasCacheOptionAndCachedFileHasSameCrcButDifferentContentDoesNotLinkIt() throws Exception {
+		File cache = new File(this.temp, "cache");
+		Map<Option, String> options = new HashMap<>();
+		options.put(ExtractCommand.CACHE_OPTION, cache.getAbsolutePath());
+		File jar = createJarFile("e.jar", (out) -> writeEntry(out, "e/e.jar", "same content"));
+		given(this.context.getArchiveFile()).willReturn(jar);
+		options.put(ExtractCommand.DESTINATION_OPTION, new File(this.extract, "first").getAbsolutePath());
+		this.command.run(options, Collections.emptyList());
+		File[] cachedFiles = cache.listFiles((dir, name) -> name.startsWith("e-"));
+		assertThat(cachedFiles).hasSize(1);
+		FileCopyUtils.copy("same CONTENT".getBytes(), cachedFiles[0]);
+		File second = new File(this.extract, "second");
+		options.put(ExtractCommand.DESTINATION_OPTION, second.getAbsolutePath());
+		this.command.run(options, Collections.emptyList());
+		File extracted = new File(second, "c/e/e.jar");
+		assertThat(extracted).hasContent("same content");
+		assertThat(Files.isSameFile(extracted.toPath(), cachedFiles[0].toPath())).isFalse();
+		assertThat(cachedFiles[0]).hasContent("same CONTENT");
+	}
+
+	private void writeEntry(ZipOutputStream out, String name, String content) {
+		try {
+			out.putNextEntry(entry(name));
+			out.write(content.getBytes());
+			out.closeEntry();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private void lastModifiedTime(File file) {
+		assertThat(file.lastModified() / 1000).isEqualTo(LAST_MODIFIED_TIME.to(TimeUnit.SECONDS));
+	}
+
 	private File createJarFile(String name) throws Exception {
 		return createJarFile(name, (out) -> {
 		});
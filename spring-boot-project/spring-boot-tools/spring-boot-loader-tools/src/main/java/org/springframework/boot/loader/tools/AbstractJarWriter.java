@@ -18,8 +18,6 @@ package org.springframework.boot.loader.tools;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -40,6 +38,7 @@ import java.util.zip.ZipEntry;
 
 import org.apache.commons.compress.archivers.jar.JarArchiveEntry;
 import org.apache.commons.compress.archivers.zip.UnixStat;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 
 /**
  * Abstract base class for JAR writers.
@@ -65,6 +64,10 @@ public abstract class AbstractJarWriter implements LoaderClassesWriter {
 
 	private LayersIndex layersIndex;
 
+	private PreviousArchive previousArchive;
+
+	private EntriesIndex entriesIndex;
+
 	/**
 	 * Update this writer to use specific layers.
 	 * @param layers the layers to use
@@ -75,6 +78,22 @@ public abstract class AbstractJarWriter implements LoaderClassesWriter {
 		this.layersIndex = layersIndex;
 	}
 
+	/**
+	 * Update this writer to copy unchanged nested libraries from a previous archive.
+	 * @param previousArchive the previous archive
+	 */
+	void usePreviousArchive(PreviousArchive previousArchive) {
+		this.previousArchive = previousArchive;
+	}
+
+	/**
+	 * Update this writer to add the nested libraries that it writes to an entries index.
+	 * @param entriesIndex the entries index to update
+	 */
+	void useEntriesIndex(EntriesIndex entriesIndex) {
+		this.entriesIndex = entriesIndex;
+	}
+
 	/**
 	 * Write the specified manifest.
 	 * @param manifest the manifest to write
@@ -156,7 +175,22 @@ public abstract class AbstractJarWriter implements LoaderClassesWriter {
 	public void writeNestedLibrary(String location, Library library) throws IOException {
 		JarArchiveEntry entry = new JarArchiveEntry(location + library.getName());
 		entry.setTime(getNestedLibraryTime(library));
-		new CrcAndSize(library::openStream).setupStoredEntry(entry);
+		EntriesIndex.NestedJar nestedJar = (this.entriesIndex != null)
+				? this.entriesIndex.nestedJar(entry.getName(), library::openStream) : null;
+		CrcAndSize crcAndSize = new CrcAndSize((nestedJar != null) ? nestedJar : library::openStream);
+		if (nestedJar != null) {
+			nestedJar.add(crcAndSize.crc.getValue(),
+					(this.previousArchive != null) ? this.previousArchive.getEntriesIndex() : null);
+		}
+		if (this.previousArchive != null) {
+			ZipArchiveEntry previousEntry = this.previousArchive.getReusableEntry(entry.getName(), crcAndSize.size,
+					crcAndSize.crc.getValue(), library.isUnpackRequired());
+			if (previousEntry != null) {
+				writeReusedEntry(previousEntry, entry.getTime(), library);
+				return;
+			}
+		}
+		crcAndSize.setupStoredEntry(entry);
 		try (InputStream inputStream = library.openStream()) {
 			writeEntry(entry, library, new InputStreamEntryWriter(inputStream), new LibraryUnpackHandler(library));
 		}
@@ -268,6 +302,19 @@ public abstract class AbstractJarWriter implements LoaderClassesWriter {
 		}
 	}
 
+	private void writeReusedEntry(ZipArchiveEntry previousEntry, long time, Library library) throws IOException {
+		String name = previousEntry.getName();
+		if (this.writtenEntries.add(name)) {
+			writeParentDirectoryEntries(name);
+			JarArchiveEntry entry = new JarArchiveEntry(previousEntry);
+			entry.setTime(time);
+			updateLayerIndex(entry, library);
+			try (InputStream rawContent = this.previousArchive.getRawInputStream(previousEntry)) {
+				writeRawToArchive(entry, rawContent);
+			}
+		}
+	}
+
 	private void updateLayerIndex(JarArchiveEntry entry, Library library) {
 		if (this.layers != null && !entry.getName().endsWith("/")) {
 			Layer layer = (library != null) ? this.layers.getLayer(library) : this.layers.getLayer(entry.getName());
@@ -277,6 +324,18 @@ public abstract class AbstractJarWriter implements LoaderClassesWriter {
 
 	protected abstract void writeToArchive(ZipEntry entry, EntryWriter entryWriter) throws IOException;
 
+	/**
+	 * Write an entry whose content has already been compressed. Only called by writers
+	 * that have been {@link #usePreviousArchive(PreviousArchive) given a previous
+	 * archive}.
+	 * @param entry the entry to write, with its CRC and sizes set
+	 * @param rawContent the compressed content of the entry
+	 * @throws IOException in case of I/O errors
+	 */
+	void writeRawToArchive(JarArchiveEntry entry, InputStream rawContent) throws IOException {
+		throw new IllegalStateException("Raw entries are not supported by " + getClass().getName());
+	}
+
 	private void writeParentDirectoryEntries(String name) throws IOException {
 		String parent = name.endsWith("/") ? name.substring(0, name.length() - 1) : name;
 		while (parent.lastIndexOf('/') != -1) {
@@ -292,10 +351,8 @@ public abstract class AbstractJarWriter implements LoaderClassesWriter {
 		if (entryWriter == null || !unpackHandler.requiresUnpack(entry.getName())) {
 			return entryWriter;
 		}
-		ByteArrayOutputStream output = new ByteArrayOutputStream();
-		entryWriter.write(output);
 		entry.setComment("UNPACK:" + unpackHandler.sha1Hash(entry.getName()));
-		return new InputStreamEntryWriter(new ByteArrayInputStream(output.toByteArray()));
+		return entryWriter;
 	}
 
 	/**
@@ -0,0 +1,441 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.tools;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Binary index of the central directory entries of nested jars. The index is read by
+ * {@code org.springframework.boot.loader.jar.JarFile} so that a nested jar can be opened
+ * without parsing its central directory. The index starts with a magic number, a format
+ * version and the number of indexed jars. Each jar is then written as its entry name,
+ * size and CRC (used to check that the index is still valid), a signed flag, the
+ * multi-release versions that it contains and finally the entry name hash codes, central
+ * directory offsets and positions in the form that the loader keeps them in memory. Jars
+ * that cannot be indexed (for example, zip64 jars) are omitted and will be parsed as
+ * usual.
+ * <p>
+ * Nested jars are added from the content that the writer reads when it writes them. The
+ * end of that content is retained so that, in most cases, the central directory can be
+ * indexed without reading the jar again.
+ *
+ * @author Phillip Webb
+ * @see Layout#getEntriesIndexFileLocation()
+ * @see AbstractJarWriter#useEntriesIndex(EntriesIndex)
+ */
+final class EntriesIndex {
+
+	static final int MAGIC = 0x53424549;
+
+	static final int VERSION = 1;
+
+	private static final int DEFAULT_TAIL_SIZE = 1024 * 1024;
+
+	private final Map<String, IndexedJar> jars = new LinkedHashMap<>();
+
+	private final int tailSize;
+
+	private byte[] tail;
+
+	EntriesIndex() {
+		this(DEFAULT_TAIL_SIZE);
+	}
+
+	EntriesIndex(int tailSize) {
+		this.tailSize = tailSize;
+	}
+
+	/**
+	 * Start adding a nested jar to the index. The jar is added once its content has been
+	 * read from the returned {@link NestedJar} and {@link NestedJar#add(long)} has been
+	 * called. Nested jars must be added one at a time.
+	 * @param name the name of the nested jar entry
+	 * @param supplier supplies the content of the nested jar
+	 * @return the nested jar
+	 */
+	NestedJar nestedJar(String name, InputStreamSupplier supplier) {
+		if (this.tail == null) {
+			this.tail = new byte[this.tailSize];
+		}
+		return new NestedJar(name, supplier);
+	}
+
+	/**
+	 * Read an index that was previously {@link #writeTo(OutputStream) written}.
+	 * @param in the source stream
+	 * @return the index or {@code null} if the stream does not contain an index in the
+	 * current format
+	 * @throws IOException on IO error
+	 */
+	static EntriesIndex read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+			return null;
+		}
+		EntriesIndex index = new EntriesIndex();
+		int numberOfJars = data.readInt();
+		for (int i = 0; i < numberOfJars; i++) {
+			index.jars.put(data.readUTF(), IndexedJar.read(data));
+		}
+		return index;
+	}
+
+	/**
+	 * Write the index to an output stream.
+	 * @param out the destination stream
+	 * @throws IOException on IO error
+	 */
+	void writeTo(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(this.jars.size());
+		for (Map.Entry<String, IndexedJar> entry : this.jars.entrySet()) {
+			data.writeUTF(entry.getKey());
+			entry.getValue().writeTo(data);
+		}
+		data.flush();
+	}
+
+	/**
+	 * A nested jar that is being added to the index. The end of the content that is read
+	 * from the {@link #openStream() stream} is retained in the tail of the index.
+	 */
+	final class NestedJar implements InputStreamSupplier {
+
+		private final String name;
+
+		private final InputStreamSupplier supplier;
+
+		private long size;
+
+		private NestedJar(String name, InputStreamSupplier supplier) {
+			this.name = name;
+			this.supplier = supplier;
+		}
+
+		@Override
+		public InputStream openStream() throws IOException {
+			this.size = 0;
+			return new FilterInputStream(this.supplier.openStream()) {
+
+				@Override
+				public int read() throws IOException {
+					int b = super.read();
+					if (b != -1) {
+						capture(new byte[] { (byte) b }, 0, 1);
+					}
+					return b;
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					int count = super.read(b, off, len);
+					if (count > 0) {
+						capture(b, off, count);
+					}
+					return count;
+				}
+
+				@Override
+				public long skip(long n) throws IOException {
+					throw new UnsupportedOperationException("Skip is not supported");
+				}
+
+			};
+		}
+
+		private void capture(byte[] bytes, int off, int len) {
+			byte[] tail = EntriesIndex.this.tail;
+			this.size += len;
+			int length = Math.min(len, tail.length);
+			int position = (int) ((this.size - length) % tail.length);
+			int first = Math.min(length, tail.length - position);
+			System.arraycopy(bytes, off + len - length, tail, position, first);
+			System.arraycopy(bytes, off + len - length + first, tail, 0, length - first);
+		}
+
+		/**
+		 * Add the nested jar to the index once its content has been read.
+		 * @param crc the CRC-32 of the content
+		 * @throws IOException on IO error
+		 */
+		void add(long crc) throws IOException {
+			add(crc, null);
+		}
+
+		/**
+		 * Add the nested jar to the index once its content has been read, reusing the
+		 * entries of a previous index when it holds the same jar.
+		 * @param crc the CRC-32 of the content
+		 * @param previous the previous index or {@code null}
+		 * @throws IOException on IO error
+		 */
+		void add(long crc, EntriesIndex previous) throws IOException {
+			IndexedJar jar = (previous != null) ? previous.jars.get(this.name) : null;
+			if (jar == null || jar.size != this.size || jar.crc != crc) {
+				jar = IndexedJar.load(this.size, crc, this::read);
+			}
+			if (jar != null) {
+				EntriesIndex.this.jars.put(this.name, jar);
+			}
+		}
+
+		private byte[] read(long offset, int length) throws IOException {
+			byte[] tail = EntriesIndex.this.tail;
+			byte[] bytes = new byte[length];
+			if (this.size - offset <= Math.min(this.size, tail.length)) {
+				int position = (int) (offset % tail.length);
+				int first = Math.min(length, tail.length - position);
+				System.arraycopy(tail, position, bytes, 0, first);
+				System.arraycopy(tail, 0, bytes, first, length - first);
+				return bytes;
+			}
+			try (InputStream inputStream = this.supplier.openStream()) {
+				long remaining = offset;
+				while (remaining > 0) {
+					long skipped = inputStream.skip(remaining);
+					if (skipped <= 0) {
+						if (inputStream.read() == -1) {
+							throw new EOFException();
+						}
+						skipped = 1;
+					}
+					remaining -= skipped;
+				}
+				int read = 0;
+				while (read < length) {
+					int count = inputStream.read(bytes, read, length - read);
+					if (count == -1) {
+						throw new EOFException();
+					}
+					read += count;
+				}
+			}
+			return bytes;
+		}
+
+	}
+
+	/**
+	 * Reads a range of the content of a nested jar.
+	 */
+	@FunctionalInterface
+	private interface ContentReader {
+
+		byte[] read(long offset, int length) throws IOException;
+
+	}
+
+	/**
+	 * The pre-parsed central directory of a single nested jar.
+	 */
+	private static final class IndexedJar {
+
+		private static final int END_RECORD_SIGNATURE = 0x06054b50;
+
+		private static final int END_RECORD_MINIMUM_SIZE = 22;
+
+		private static final int END_RECORD_MAXIMUM_SIZE = END_RECORD_MINIMUM_SIZE + 0xFFFF;
+
+		private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+		private static final int ZIP64_LOCATOR_SIZE = 20;
+
+		private static final int FILE_HEADER_SIGNATURE = 0x02014b50;
+
+		private static final int FILE_HEADER_BASE_SIZE = 46;
+
+		private static final String META_INF = "META-INF/";
+
+		private static final String VERSIONS = META_INF + "versions/";
+
+		private final long size;
+
+		private final long crc;
+
+		private final boolean signed;
+
+		private final int[] versions;
+
+		private final int[] hashCodes;
+
+		private final int[] offsets;
+
+		private final int[] positions;
+
+		private IndexedJar(long size, long crc, boolean signed, int[] versions, int[] hashCodes, int[] offsets,
+				int[] positions) {
+			this.size = size;
+			this.crc = crc;
+			this.signed = signed;
+			this.versions = versions;
+			this.hashCodes = hashCodes;
+			this.offsets = offsets;
+			this.positions = positions;
+		}
+
+		void writeTo(DataOutputStream data) throws IOException {
+			data.writeLong(this.size);
+			data.writeLong(this.crc);
+			data.writeBoolean(this.signed);
+			data.writeInt(this.versions.length);
+			writeInts(data, this.versions);
+			data.writeInt(this.hashCodes.length);
+			writeInts(data, this.hashCodes);
+			writeInts(data, this.offsets);
+			writeInts(data, this.positions);
+		}
+
+		private void writeInts(DataOutputStream data, int[] values) throws IOException {
+			for (int value : values) {
+				data.writeInt(value);
+			}
+		}
+
+		static IndexedJar read(DataInputStream data) throws IOException {
+			long size = data.readLong();
+			long crc = data.readLong();
+			boolean signed = data.readBoolean();
+			int[] versions = readInts(data, data.readInt());
+			int numberOfRecords = data.readInt();
+			int[] hashCodes = readInts(data, numberOfRecords);
+			int[] offsets = readInts(data, numberOfRecords);
+			int[] positions = readInts(data, numberOfRecords);
+			return new IndexedJar(size, crc, signed, versions, hashCodes, offsets, positions);
+		}
+
+		private static int[] readInts(DataInputStream data, int length) throws IOException {
+			int[] values = new int[length];
+			for (int i = 0; i < length; i++) {
+				values[i] = data.readInt();
+			}
+			return values;
+		}
+
+		static IndexedJar load(long size, long crc, ContentReader reader) throws IOException {
+			int tailLength = (int) Math.min(size, END_RECORD_MAXIMUM_SIZE + ZIP64_LOCATOR_SIZE);
+			byte[] tail = reader.read(size - tailLength, tailLength);
+			int endRecord = findEndRecord(tail);
+			if (endRecord == -1 || isZip64(tail, endRecord)) {
+				return null;
+			}
+			int numberOfRecords = (int) littleEndianValue(tail, endRecord + 10, 2);
+			long centralDirectoryLength = littleEndianValue(tail, endRecord + 12, 4);
+			long centralDirectoryStart = size - (tailLength - endRecord) - centralDirectoryLength;
+			if (centralDirectoryStart < 0) {
+				return null;
+			}
+			byte[] centralDirectory = reader.read(centralDirectoryStart, (int) centralDirectoryLength);
+			return load(size, crc, centralDirectory, numberOfRecords);
+		}
+
+		private static IndexedJar load(long size, long crc, byte[] centralDirectory, int numberOfRecords) {
+			long[] sortKeys = new long[numberOfRecords];
+			int[] offsets = new int[numberOfRecords];
+			boolean signed = false;
+			TreeSet<Integer> versions = new TreeSet<>();
+			int offset = 0;
+			for (int i = 0; i < numberOfRecords; i++) {
+				if (offset + FILE_HEADER_BASE_SIZE > centralDirectory.length
+						|| littleEndianValue(centralDirectory, offset, 4) != FILE_HEADER_SIGNATURE
+						|| littleEndianValue(centralDirectory, offset + 42, 4) == 0xFFFFFFFFL) {
+					return null;
+				}
+				int nameLength = (int) littleEndianValue(centralDirectory, offset + 28, 2);
+				int extraLength = (int) littleEndianValue(centralDirectory, offset + 30, 2);
+				int commentLength = (int) littleEndianValue(centralDirectory, offset + 32, 2);
+				String name = new String(centralDirectory, offset + FILE_HEADER_BASE_SIZE, nameLength,
+						StandardCharsets.UTF_8);
+				signed = signed || (name.startsWith(META_INF) && name.endsWith(".SF"));
+				addVersion(name, versions);
+				sortKeys[i] = ((long) name.hashCode() << 32) | i;
+				offsets[i] = offset;
+				offset += FILE_HEADER_BASE_SIZE + nameLength + extraLength + commentLength;
+			}
+			Arrays.sort(sortKeys);
+			int[] hashCodes = new int[numberOfRecords];
+			int[] sortedOffsets = new int[numberOfRecords];
+			int[] positions = new int[numberOfRecords];
+			for (int sortedIndex = 0; sortedIndex < numberOfRecords; sortedIndex++) {
+				int index = (int) sortKeys[sortedIndex];
+				hashCodes[sortedIndex] = (int) (sortKeys[sortedIndex] >> 32);
+				sortedOffsets[sortedIndex] = offsets[index];
+				positions[index] = sortedIndex;
+			}
+			int[] versionsArray = versions.descendingSet().stream().mapToInt(Integer::intValue).toArray();
+			return new IndexedJar(size, crc, signed, versionsArray, hashCodes, sortedOffsets, positions);
+		}
+
+		private static void addVersion(String name, TreeSet<Integer> versions) {
+			if (name.startsWith(VERSIONS)) {
+				int end = name.indexOf('/', VERSIONS.length());
+				if (end != -1) {
+					try {
+						versions.add(Integer.parseInt(name.substring(VERSIONS.length(), end)));
+					}
+					catch (NumberFormatException ex) {
+						// Not a versioned entry
+					}
+				}
+			}
+		}
+
+		private static int findEndRecord(byte[] tail) {
+			for (int offset = tail.length - END_RECORD_MINIMUM_SIZE; offset >= 0; offset--) {
+				if (littleEndianValue(tail, offset, 4) == END_RECORD_SIGNATURE) {
+					long commentLength = littleEndianValue(tail, offset + 20, 2);
+					if (offset + END_RECORD_MINIMUM_SIZE + commentLength == tail.length) {
+						return offset;
+					}
+				}
+			}
+			return -1;
+		}
+
+		private static boolean isZip64(byte[] tail, int endRecord) {
+			if (littleEndianValue(tail, endRecord + 10, 2) == 0xFFFF
+					|| littleEndianValue(tail, endRecord + 12, 4) == 0xFFFFFFFFL
+					|| littleEndianValue(tail, endRecord + 16, 4) == 0xFFFFFFFFL) {
+				return true;
+			}
+			int locator = endRecord - ZIP64_LOCATOR_SIZE;
+			return locator >= 0 && littleEndianValue(tail, locator, 4) == ZIP64_LOCATOR_SIGNATURE;
+		}
+
+		private static long littleEndianValue(byte[] bytes, int offset, int length) {
+			long value = 0;
+			for (int i = length - 1; i >= 0; i--) {
+				value = ((value << 8) | (bytes[offset + i] & 0xFF));
+			}
+			return value;
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,25 @@
 
 package org.springframework.boot.loader.tools;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 
@@ -39,10 +53,24 @@ import org.apache.commons.compress.archivers.jar.JarArchiveOutputStream;
  */
 public class JarWriter extends AbstractJarWriter implements AutoCloseable {
 
+	private static final int MAX_PENDING_ENTRIES_PER_THREAD = 8;
+
+	private static final long MAX_DEFERRED_ENTRY_SIZE = 8 * 1024 * 1024;
+
+	private static final int BUFFER_SIZE = 32 * 1024;
+
 	private final JarArchiveOutputStream jarOutputStream;
 
 	private final FileTime lastModifiedTime;
 
+	private final ExecutorService deflateExecutor;
+
+	private final int maxPendingEntries;
+
+	private final Deque<Future<DeflatedEntry>> pendingEntries = new ArrayDeque<>();
+
+	private boolean firstEntryWritten;
+
 	/**
 	 * Create a new {@link JarWriter} instance.
 	 * @param file the file to write
@@ -76,6 +104,25 @@ public class JarWriter extends AbstractJarWriter implements AutoCloseable {
 	 */
 	public JarWriter(File file, LaunchScript launchScript, FileTime lastModifiedTime)
 			throws FileNotFoundException, IOException {
+		this(file, launchScript, lastModifiedTime, 1);
+	}
+
+	/**
+	 * Create a new {@link JarWriter} instance. When more than one compression thread is
+	 * requested, compressed entries are deflated in parallel and then written in the
+	 * order in which they were added so that the content of the jar remains
+	 * deterministic.
+	 * @param file the file to write
+	 * @param launchScript an optional launch script to prepend to the front of the jar
+	 * @param lastModifiedTime an optional last modified time to apply to the written
+	 * entries
+	 * @param compressionThreads the number of threads used to compress entries
+	 * @throws IOException if the file cannot be opened
+	 * @throws FileNotFoundException if the file cannot be found
+	 * @since 2.6.14
+	 */
+	public JarWriter(File file, LaunchScript launchScript, FileTime lastModifiedTime, int compressionThreads)
+			throws FileNotFoundException, IOException {
 		this.jarOutputStream = new JarArchiveOutputStream(new FileOutputStream(file));
 		if (launchScript != null) {
 			this.jarOutputStream.writePreamble(launchScript.toByteArray());
@@ -83,6 +130,9 @@ public class JarWriter extends AbstractJarWriter implements AutoCloseable {
 		}
 		this.jarOutputStream.setEncoding("UTF-8");
 		this.lastModifiedTime = lastModifiedTime;
+		this.deflateExecutor = (compressionThreads > 1)
+				? Executors.newFixedThreadPool(compressionThreads, new DeflateThreadFactory()) : null;
+		this.maxPendingEntries = compressionThreads * MAX_PENDING_ENTRIES_PER_THREAD;
 	}
 
 	@Override
@@ -91,11 +141,97 @@ public class JarWriter extends AbstractJarWriter implements AutoCloseable {
 		if (this.lastModifiedTime != null) {
 			jarEntry.setLastModifiedTime(this.lastModifiedTime);
 		}
+		if (isDeferrable(jarEntry, entryWriter)) {
+			deferWrite(jarEntry, entryWriter);
+			return;
+		}
+		writePendingEntries();
 		this.jarOutputStream.putArchiveEntry(jarEntry);
 		if (entryWriter != null) {
 			entryWriter.write(this.jarOutputStream);
 		}
 		this.jarOutputStream.closeArchiveEntry();
+		this.firstEntryWritten = true;
+	}
+
+	@Override
+	void writeRawToArchive(JarArchiveEntry entry, InputStream rawContent) throws IOException {
+		if (this.lastModifiedTime != null) {
+			entry.setLastModifiedTime(this.lastModifiedTime);
+		}
+		writePendingEntries();
+		this.jarOutputStream.addRawArchiveEntry(entry, rawContent);
+		this.firstEntryWritten = true;
+	}
+
+	private boolean isDeferrable(JarArchiveEntry entry, EntryWriter entryWriter) {
+		// The first entry is always written directly so that it carries the jar marker
+		if (this.deflateExecutor == null || !this.firstEntryWritten) {
+			return false;
+		}
+		if (entryWriter == null) {
+			return !this.pendingEntries.isEmpty();
+		}
+		return entry.getMethod() != ZipEntry.STORED && entry.getSize() <= MAX_DEFERRED_ENTRY_SIZE;
+	}
+
+	private void deferWrite(JarArchiveEntry entry, EntryWriter entryWriter) throws IOException {
+		if (entryWriter == null) {
+			this.pendingEntries.add(CompletableFuture.completedFuture(new DeflatedEntry(entry, null)));
+		}
+		else {
+			int size = (int) entry.getSize();
+			ByteArrayOutputStream content = new ByteArrayOutputStream((size > 0) ? size : BUFFER_SIZE);
+			entryWriter.write(content);
+			this.pendingEntries.add(this.deflateExecutor.submit(() -> deflate(entry, content.toByteArray())));
+		}
+		while (this.pendingEntries.size() > this.maxPendingEntries) {
+			writePendingEntry(this.pendingEntries.removeFirst());
+		}
+	}
+
+	private void writePendingEntries() throws IOException {
+		while (!this.pendingEntries.isEmpty()) {
+			writePendingEntry(this.pendingEntries.removeFirst());
+		}
+	}
+
+	private void writePendingEntry(Future<DeflatedEntry> pendingEntry) throws IOException {
+		DeflatedEntry deflatedEntry;
+		try {
+			deflatedEntry = pendingEntry.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while compressing jar entries", ex);
+		}
+		catch (ExecutionException ex) {
+			throw new IOException("Failed to compress jar entry", ex.getCause());
+		}
+		deflatedEntry.writeTo(this.jarOutputStream);
+	}
+
+	private static DeflatedEntry deflate(JarArchiveEntry entry, byte[] content) {
+		CRC32 crc = new CRC32();
+		crc.update(content, 0, content.length);
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			deflater.setInput(content);
+			deflater.finish();
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(content.length / 2, 64));
+			byte[] buffer = new byte[BUFFER_SIZE];
+			while (!deflater.finished()) {
+				compressed.write(buffer, 0, deflater.deflate(buffer));
+			}
+			entry.setMethod(ZipEntry.DEFLATED);
+			entry.setSize(content.length);
+			entry.setCompressedSize(compressed.size());
+			entry.setCrc(crc.getValue());
+			return new DeflatedEntry(entry, compressed.toByteArray());
+		}
+		finally {
+			deflater.end();
+		}
 	}
 
 	private JarArchiveEntry asJarArchiveEntry(ZipEntry entry) throws ZipException {
@@ -111,7 +247,56 @@ public class JarWriter extends AbstractJarWriter implements AutoCloseable {
 	 */
 	@Override
 	public void close() throws IOException {
-		this.jarOutputStream.close();
+		try {
+			writePendingEntries();
+		}
+		finally {
+			if (this.deflateExecutor != null) {
+				this.deflateExecutor.shutdownNow();
+			}
+			this.jarOutputStream.close();
+		}
+	}
+
+	/**
+	 * An entry whose content has already been compressed.
+	 */
+	private static final class DeflatedEntry {
+
+		private final JarArchiveEntry entry;
+
+		private final byte[] compressedContent;
+
+		DeflatedEntry(JarArchiveEntry entry, byte[] compressedContent) {
+			this.entry = entry;
+			this.compressedContent = compressedContent;
+		}
+
+		void writeTo(JarArchiveOutputStream outputStream) throws IOException {
+			if (this.compressedContent == null) {
+				outputStream.putArchiveEntry(this.entry);
+				outputStream.closeArchiveEntry();
+				return;
+			}
+			outputStream.addRawArchiveEntry(this.entry, new ByteArrayInputStream(this.compressedContent));
+		}
+
+	}
+
+	/**
+	 * {@link ThreadFactory} for the daemon threads used to compress entries.
+	 */
+	private static final class DeflateThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "jar-writer-deflate-" + this.threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
 	}
 
 }
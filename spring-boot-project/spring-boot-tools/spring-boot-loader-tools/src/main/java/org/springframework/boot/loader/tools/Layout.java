@@ -72,6 +72,19 @@ public interface Layout {
 		return null;
 	}
 
+	/**
+	 * Returns the location of the entries index file that should be written or
+	 * {@code null} if no index is required. The index holds the pre-parsed central
+	 * directory of each nested library so that it does not need to be parsed again when
+	 * the archive is launched. The result should include the filename and is relative to
+	 * the root of the jar.
+	 * @return the entries index file location
+	 * @since 2.6.14
+	 */
+	default String getEntriesIndexFileLocation() {
+		return null;
+	}
+
 	/**
 	 * Returns if loader classes should be included to make the archive executable.
 	 * @return if the layout is executable
@@ -94,6 +94,11 @@ public final class Layouts {
 			return "BOOT-INF/layers.idx";
 		}
 
+		@Override
+		public String getEntriesIndexFileLocation() {
+			return "BOOT-INF/entries.idx";
+		}
+
 		@Override
 		public boolean isExecutable() {
 			return true;
@@ -166,6 +171,11 @@ public final class Layouts {
 			return "WEB-INF/layers.idx";
 		}
 
+		@Override
+		public String getEntriesIndexFileLocation() {
+			return "WEB-INF/entries.idx";
+		}
+
 		@Override
 		public boolean isExecutable() {
 			return true;
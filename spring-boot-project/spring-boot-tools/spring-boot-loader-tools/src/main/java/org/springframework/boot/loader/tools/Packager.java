@@ -67,6 +67,8 @@ public abstract class Packager {
 
 	private static final String BOOT_LAYERS_INDEX_ATTRIBUTE = "Spring-Boot-Layers-Index";
 
+	static final String BOOT_ENTRIES_INDEX_ATTRIBUTE = "Spring-Boot-Entries-Index";
+
 	private static final byte[] ZIP_FILE_HEADER = new byte[] { 'P', 'K', 3, 4 };
 
 	private static final long FIND_WARNING_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
@@ -373,6 +375,7 @@ public abstract class Packager {
 		}
 		putIfHasLength(attributes, BOOT_LIB_ATTRIBUTE, getLayout().getLibraryLocation("", LibraryScope.COMPILE));
 		putIfHasLength(attributes, BOOT_CLASSPATH_INDEX_ATTRIBUTE, layout.getClasspathIndexFileLocation());
+		putIfHasLength(attributes, BOOT_ENTRIES_INDEX_ATTRIBUTE, layout.getEntriesIndexFileLocation());
 		if (isLayered()) {
 			putIfHasLength(attributes, BOOT_LAYERS_INDEX_ATTRIBUTE, layout.getLayersIndexFileLocation());
 		}
@@ -510,6 +513,8 @@ public abstract class Packager {
 		}
 
 		void write(AbstractJarWriter writer) throws IOException {
+			EntriesIndex entriesIndex = (getLayout().getEntriesIndexFileLocation() != null) ? new EntriesIndex() : null;
+			writer.useEntriesIndex(entriesIndex);
 			List<String> writtenPaths = new ArrayList<>();
 			for (Entry<String, Library> entry : this.libraries.entrySet()) {
 				String path = entry.getKey();
@@ -521,6 +526,7 @@ public abstract class Packager {
 				}
 			}
 			writeClasspathIndexIfNecessary(writtenPaths, getLayout(), writer);
+			writeEntriesIndexIfNecessary(entriesIndex, getLayout(), writer);
 		}
 
 		private void writeClasspathIndexIfNecessary(List<String> paths, Layout layout, AbstractJarWriter writer)
@@ -531,6 +537,14 @@ public abstract class Packager {
 			}
 		}
 
+		private void writeEntriesIndexIfNecessary(EntriesIndex index, Layout layout, AbstractJarWriter writer)
+				throws IOException {
+			if (index != null) {
+				writer.useEntriesIndex(null);
+				writer.writeEntry(layout.getEntriesIndexFileLocation(), index::writeTo);
+			}
+		}
+
 		/**
 		 * An {@link UnpackHandler} that determines that an entry needs to be unpacked if
 		 * a library that requires unpacking has a matching entry name.
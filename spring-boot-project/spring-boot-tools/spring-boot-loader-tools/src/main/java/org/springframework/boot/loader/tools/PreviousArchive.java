@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.tools;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+/**
+ * A previously packaged archive whose nested library entries can be copied, without being
+ * inflated or hashed again, when the library that they were created from is unchanged.
+ * The entries index of the archive, if any, is also available so that the index entries
+ * of unchanged libraries can be reused.
+ *
+ * @author Phillip Webb
+ */
+final class PreviousArchive implements Closeable {
+
+	private static final String UNPACK_COMMENT_PREFIX = "UNPACK:";
+
+	private static final String MANIFEST_NAME = "META-INF/MANIFEST.MF";
+
+	private final ZipFile zipFile;
+
+	private final EntriesIndex entriesIndex;
+
+	PreviousArchive(File file) throws IOException {
+		this.zipFile = new ZipFile(file);
+		this.entriesIndex = readEntriesIndex();
+	}
+
+	private EntriesIndex readEntriesIndex() throws IOException {
+		ZipArchiveEntry manifestEntry = this.zipFile.getEntry(MANIFEST_NAME);
+		if (manifestEntry == null) {
+			return null;
+		}
+		Manifest manifest;
+		try (InputStream inputStream = this.zipFile.getInputStream(manifestEntry)) {
+			manifest = new Manifest(inputStream);
+		}
+		String location = manifest.getMainAttributes().getValue(Packager.BOOT_ENTRIES_INDEX_ATTRIBUTE);
+		ZipArchiveEntry indexEntry = (location != null) ? this.zipFile.getEntry(location) : null;
+		if (indexEntry == null) {
+			return null;
+		}
+		try (InputStream inputStream = this.zipFile.getInputStream(indexEntry)) {
+			return EntriesIndex.read(inputStream);
+		}
+		catch (EOFException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Return the entries index of the archive.
+	 * @return the entries index or {@code null} if the archive does not have one in the
+	 * current format
+	 */
+	EntriesIndex getEntriesIndex() {
+		return this.entriesIndex;
+	}
+
+	/**
+	 * Return the entry with the given name if it holds a library with the given size and
+	 * CRC that was stored with matching unpack requirements.
+	 * @param name the name of the entry
+	 * @param size the size of the library
+	 * @param crc the CRC-32 of the library
+	 * @param unpackRequired if the library requires unpacking
+	 * @return the reusable entry or {@code null}
+	 */
+	ZipArchiveEntry getReusableEntry(String name, long size, long crc, boolean unpackRequired) {
+		ZipArchiveEntry entry = this.zipFile.getEntry(name);
+		if (entry == null || entry.getMethod() != ZipEntry.STORED || entry.getSize() != size || entry.getCrc() != crc) {
+			return null;
+		}
+		String comment = entry.getComment();
+		boolean unpack = comment != null && comment.startsWith(UNPACK_COMMENT_PREFIX);
+		return (unpack == unpackRequired) ? entry : null;
+	}
+
+	/**
+	 * Return the raw content of an entry returned from
+	 * {@link #getReusableEntry(String, long, long, boolean)}.
+	 * @param entry the entry
+	 * @return the raw content
+	 * @throws IOException on IO error
+	 */
+	InputStream getRawInputStream(ZipArchiveEntry entry) throws IOException {
+		return this.zipFile.getRawInputStream(entry);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.zipFile.close();
+	}
+
+}
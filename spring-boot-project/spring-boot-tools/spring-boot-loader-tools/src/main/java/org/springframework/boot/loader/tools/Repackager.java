@@ -18,6 +18,8 @@ package org.springframework.boot.loader.tools;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.FileTime;
 import java.util.jar.JarFile;
 
@@ -38,6 +40,10 @@ public class Repackager extends Packager {
 
 	private boolean backupSource = true;
 
+	private int compressionThreads = 1;
+
+	private boolean incremental;
+
 	/**
 	 * Create a new {@link Repackager} instance.
 	 * @param source the source archive file to package
@@ -66,6 +72,32 @@ public class Repackager extends Packager {
 		this.backupSource = backupSource;
 	}
 
+	/**
+	 * Sets the number of threads used to compress entries. Defaults to {@code 1}. Entries
+	 * are always written in the same order, regardless of the number of threads.
+	 * @param compressionThreads the number of compression threads
+	 * @since 2.6.14
+	 */
+	public void setCompressionThreads(int compressionThreads) {
+		Assert.isTrue(compressionThreads > 0, "CompressionThreads must be greater than 0");
+		this.compressionThreads = compressionThreads;
+	}
+
+	/**
+	 * Sets if repackaging should be incremental. Nested libraries whose size and CRC are
+	 * unchanged are copied as they are from a previously repackaged archive, rather than
+	 * being written again. When the destination differs from the source, the previous
+	 * archive is the destination itself. When repackaging in place, the destination is
+	 * overwritten by the source between builds so a copy of the repackaged archive is
+	 * kept next to it, in a file with a {@code .previous} suffix, for use by the next
+	 * repackage.
+	 * @param incremental if repackaging should be incremental
+	 * @since 2.6.14
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
 	/**
 	 * Repackage the source file so that it can be run using '{@literal java -jar}'.
 	 * @param libraries the libraries required to run the archive
@@ -125,22 +157,62 @@ public class Repackager extends Packager {
 			workingSource.delete();
 			renameFile(source, workingSource);
 		}
+		File previous = getPreviousArchiveFile(source, destination);
 		destination.delete();
 		try {
 			try (JarFile sourceJar = new JarFile(workingSource)) {
-				repackage(sourceJar, destination, libraries, launchScript, lastModifiedTime);
+				repackage(sourceJar, destination, libraries, launchScript, lastModifiedTime, previous);
 			}
 		}
 		finally {
 			if (!this.backupSource && !source.equals(workingSource)) {
 				deleteFile(workingSource);
 			}
+			if (previous != null) {
+				deleteFile(previous);
+			}
+		}
+		if (this.incremental && source.equals(destination)) {
+			Files.copy(destination.toPath(), getPreviousArchiveFile(destination).toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private File getPreviousArchiveFile(File source, File destination) {
+		if (!this.incremental) {
+			return null;
+		}
+		File previous = getPreviousArchiveFile(destination);
+		if (source.equals(destination)) {
+			return (previous.isFile() && isPreviouslyPackaged(previous)) ? previous : null;
+		}
+		if (!destination.isFile() || !isPreviouslyPackaged(destination)) {
+			return null;
+		}
+		previous.delete();
+		renameFile(destination, previous);
+		return previous;
+	}
+
+	private File getPreviousArchiveFile(File destination) {
+		return new File(destination.getParentFile(), destination.getName() + ".previous");
+	}
+
+	private boolean isPreviouslyPackaged(File file) {
+		try {
+			return isAlreadyPackaged(file);
+		}
+		catch (IllegalStateException ex) {
+			return false;
 		}
 	}
 
 	private void repackage(JarFile sourceJar, File destination, Libraries libraries, LaunchScript launchScript,
-			FileTime lastModifiedTime) throws IOException {
-		try (JarWriter writer = new JarWriter(destination, launchScript, lastModifiedTime)) {
+			FileTime lastModifiedTime, File previous) throws IOException {
+		try (PreviousArchive previousArchive = (previous != null) ? new PreviousArchive(previous) : null;
+				JarWriter writer = new JarWriter(destination, launchScript, lastModifiedTime,
+						this.compressionThreads)) {
+			writer.usePreviousArchive(previousArchive);
 			write(sourceJar, libraries, writer, lastModifiedTime != null);
 		}
 		if (lastModifiedTime != null) {
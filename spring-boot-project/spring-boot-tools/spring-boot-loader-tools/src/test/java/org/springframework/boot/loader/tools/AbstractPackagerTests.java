@@ -238,6 +238,19 @@ abstract class AbstractPackagerTests<P extends Packager> {
 		assertThat(Arrays.asList(libraries)).containsExactlyElementsOf(expected);
 	}
 
+	@Test
+	void entriesIndex() throws Exception {
+		TestJarFile libJar = new TestJarFile(this.tempDir);
+		libJar.addClass("a/b/C.class", ClassWithoutMainMethod.class, JAN_1_1985);
+		File libJarFile = libJar.getFile();
+		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		P packager = createPackager();
+		execute(packager, (callback) -> callback.library(newLibrary(libJarFile, LibraryScope.COMPILE, false)));
+		assertThat(hasPackagedEntry("BOOT-INF/entries.idx")).isTrue();
+		assertThat(getPackagedManifest().getMainAttributes().getValue("Spring-Boot-Entries-Index"))
+				.isEqualTo("BOOT-INF/entries.idx");
+	}
+
 	@Test
 	void layersIndex() throws Exception {
 		TestJarFile libJar1 = new TestJarFile(this.tempDir);
@@ -273,6 +286,7 @@ abstract class AbstractPackagerTests<P extends Packager> {
 		expectedLayers.add("- 'default':");
 		expectedLayers.add("  - 'BOOT-INF/classes/'");
 		expectedLayers.add("  - 'BOOT-INF/classpath.idx'");
+		expectedLayers.add("  - 'BOOT-INF/entries.idx'");
 		expectedLayers.add("  - 'BOOT-INF/layers.idx'");
 		expectedLayers.add("  - 'META-INF/'");
 		expectedLayers.add("  - 'org/'");
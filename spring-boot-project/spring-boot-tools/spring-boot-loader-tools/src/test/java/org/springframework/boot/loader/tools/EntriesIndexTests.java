@@ -0,0 +1,222 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.boot.loader.tools.sample.ClassWithMainMethod;
+import org.springframework.boot.loader.tools.sample.ClassWithoutMainMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link EntriesIndex}.
+ *
+ * @author Phillip Webb
+ */
+class EntriesIndexTests {
+
+	@TempDir
+	File tempDir;
+
+	@Test
+	void writeToWritesPreParsedCentralDirectory() throws Exception {
+		File file = createTestJar();
+		EntriesIndex index = new EntriesIndex();
+		add(index, "BOOT-INF/lib/test.jar", () -> new FileInputStream(file));
+		DataInputStream data = write(index);
+		assertThat(data.readInt()).isEqualTo(EntriesIndex.MAGIC);
+		assertThat(data.readInt()).isEqualTo(EntriesIndex.VERSION);
+		assertThat(data.readInt()).isEqualTo(1);
+		assertThat(data.readUTF()).isEqualTo("BOOT-INF/lib/test.jar");
+		assertThat(data.readLong()).isEqualTo(file.length());
+		assertThat(data.readLong()).isEqualTo(crc(file));
+		assertThat(data.readBoolean()).isFalse();
+		assertThat(readInts(data, data.readInt())).containsExactly(11, 9);
+		int numberOfRecords = data.readInt();
+		try (JarFile jarFile = new JarFile(file)) {
+			assertThat(numberOfRecords).isEqualTo(jarFile.size());
+		}
+		int[] hashCodes = readInts(data, numberOfRecords);
+		int[] sortedHashCodes = hashCodes.clone();
+		Arrays.sort(sortedHashCodes);
+		assertThat(hashCodes).isEqualTo(sortedHashCodes);
+		assertThat(readInts(data, numberOfRecords)).doesNotHaveDuplicates();
+		int[] positions = readInts(data, numberOfRecords);
+		Arrays.sort(positions);
+		for (int i = 0; i < numberOfRecords; i++) {
+			assertThat(positions[i]).isEqualTo(i);
+		}
+		assertThat(data.read()).isEqualTo(-1);
+	}
+
+	@Test
+	void writeToWhenContentIsNotAJarOmitsEntry() throws Exception {
+		EntriesIndex index = new EntriesIndex();
+		add(index, "BOOT-INF/lib/test.jar", () -> new ByteArrayInputStream("test".getBytes()));
+		DataInputStream data = write(index);
+		assertThat(data.readInt()).isEqualTo(EntriesIndex.MAGIC);
+		assertThat(data.readInt()).isEqualTo(EntriesIndex.VERSION);
+		assertThat(data.readInt()).isZero();
+		assertThat(data.read()).isEqualTo(-1);
+	}
+
+	@Test
+	void writeToWhenCentralDirectoryIsNotInTailReadsJarAgain() throws Exception {
+		File file = createTestJar();
+		EntriesIndex index = new EntriesIndex();
+		add(index, "BOOT-INF/lib/test.jar", () -> new FileInputStream(file));
+		EntriesIndex smallTailIndex = new EntriesIndex(64);
+		AtomicInteger opened = new AtomicInteger();
+		add(smallTailIndex, "BOOT-INF/lib/test.jar", () -> {
+			opened.incrementAndGet();
+			return new FileInputStream(file);
+		});
+		assertThat(opened).hasValueGreaterThan(1);
+		assertThat(toByteArray(smallTailIndex)).isEqualTo(toByteArray(index));
+	}
+
+	@Test
+	void writeToWhenCentralDirectoryIsInTailDoesNotReadJarAgain() throws Exception {
+		File file = createTestJar();
+		EntriesIndex index = new EntriesIndex();
+		AtomicInteger opened = new AtomicInteger();
+		add(index, "BOOT-INF/lib/test.jar", () -> {
+			opened.incrementAndGet();
+			return new FileInputStream(file);
+		});
+		assertThat(opened).hasValue(1);
+		DataInputStream data = write(index);
+		data.readInt();
+		data.readInt();
+		assertThat(data.readInt()).isEqualTo(1);
+	}
+
+	@Test
+	void readReadsWrittenIndex() throws Exception {
+		File file = createTestJar();
+		EntriesIndex index = new EntriesIndex();
+		add(index, "BOOT-INF/lib/test.jar", () -> new FileInputStream(file));
+		EntriesIndex read = EntriesIndex.read(new ByteArrayInputStream(toByteArray(index)));
+		assertThat(toByteArray(read)).isEqualTo(toByteArray(index));
+	}
+
+	@Test
+	void readWhenNotAnIndexReturnsNull() throws Exception {
+		assertThat(EntriesIndex.read(new ByteArrayInputStream(new byte[8]))).isNull();
+	}
+
+	@Test
+	void addWhenPreviousIndexHasSameJarReusesIt() throws Exception {
+		File file = createTestJar();
+		EntriesIndex previous = new EntriesIndex();
+		add(previous, "BOOT-INF/lib/test.jar", () -> new FileInputStream(file));
+		EntriesIndex index = new EntriesIndex(64);
+		AtomicInteger opened = new AtomicInteger();
+		EntriesIndex.NestedJar nestedJar = index.nestedJar("BOOT-INF/lib/test.jar", () -> {
+			opened.incrementAndGet();
+			return new FileInputStream(file);
+		});
+		nestedJar.add(readFully(nestedJar), previous);
+		assertThat(opened).hasValue(1);
+		assertThat(toByteArray(index)).isEqualTo(toByteArray(previous));
+	}
+
+	@Test
+	void addWhenPreviousIndexHasDifferentJarDoesNotReuseIt() throws Exception {
+		File file = createTestJar();
+		EntriesIndex previous = new EntriesIndex();
+		add(previous, "BOOT-INF/lib/test.jar", () -> new FileInputStream(file));
+		TestJarFile changedJar = new TestJarFile(this.tempDir);
+		changedJar.addClass("a/b/C.class", ClassWithMainMethod.class);
+		File changedFile = changedJar.getFile();
+		EntriesIndex index = new EntriesIndex();
+		EntriesIndex.NestedJar nestedJar = index.nestedJar("BOOT-INF/lib/test.jar",
+				() -> new FileInputStream(changedFile));
+		nestedJar.add(readFully(nestedJar), previous);
+		EntriesIndex expected = new EntriesIndex();
+		add(expected, "BOOT-INF/lib/test.jar", () -> new FileInputStream(changedFile));
+		assertThat(toByteArray(index)).isEqualTo(toByteArray(expected));
+	}
+
+	private File createTestJar() throws Exception {
+		TestJarFile testJarFile = new TestJarFile(this.tempDir);
+		testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		testJarFile.addClass("a/b/D.class", ClassWithoutMainMethod.class);
+		testJarFile.addClass("META-INF/versions/11/a/b/D.class", ClassWithoutMainMethod.class);
+		testJarFile.addClass("META-INF/versions/9/a/b/D.class", ClassWithoutMainMethod.class);
+		return testJarFile.getFile();
+	}
+
+	private void add(EntriesIndex index, String name, InputStreamSupplier supplier) throws IOException {
+		EntriesIndex.NestedJar nestedJar = index.nestedJar(name, supplier);
+		nestedJar.add(readFully(nestedJar));
+	}
+
+	private long readFully(InputStreamSupplier supplier) throws IOException {
+		CRC32 crc = new CRC32();
+		try (InputStream inputStream = supplier.openStream()) {
+			byte[] buffer = new byte[4096];
+			int bytesRead;
+			while ((bytesRead = inputStream.read(buffer)) != -1) {
+				crc.update(buffer, 0, bytesRead);
+			}
+		}
+		return crc.getValue();
+	}
+
+	private byte[] toByteArray(EntriesIndex index) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		index.writeTo(out);
+		return out.toByteArray();
+	}
+
+	private DataInputStream write(EntriesIndex index) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		index.writeTo(out);
+		return new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	private int[] readInts(DataInputStream data, int length) throws IOException {
+		int[] values = new int[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = data.readInt();
+		}
+		return values;
+	}
+
+	private long crc(File file) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(Files.readAllBytes(file.toPath()));
+		return crc.getValue();
+	}
+
+}
@@ -17,7 +17,9 @@
 package org.springframework.boot.loader.tools;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.attribute.FileTime;
@@ -25,18 +27,21 @@ import java.nio.file.attribute.PosixFilePermission;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.boot.loader.tools.sample.ClassWithMainMethod;
+import org.springframework.boot.loader.tools.sample.ClassWithoutMainMethod;
 import org.springframework.util.FileCopyUtils;
 import org.springframework.util.StopWatch;
 import org.springframework.util.StringUtils;
@@ -215,6 +220,131 @@ class RepackagerTests extends AbstractPackagerTests<Repackager> {
 		assertThat(stopWatch.getTotalTimeMillis()).isLessThan(5000);
 	}
 
+	@Test
+	void repackageWithCompressionThreadsWritesSameEntriesInSameOrder() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			this.testJarFile.addClass("a/b" + (i % 5) + "/C" + i + ".class", ClassWithoutMainMethod.class);
+		}
+		this.testJarFile.addClass("a/b/Main.class", ClassWithMainMethod.class);
+		TestJarFile libJar = new TestJarFile(this.tempDir);
+		libJar.addClass("x/y/Z.class", ClassWithoutMainMethod.class);
+		File libJarFile = libJar.getFile();
+		Libraries libraries = (callback) -> callback.library(new Library(libJarFile, LibraryScope.COMPILE));
+		FileTime lastModifiedTime = FileTime
+				.fromMillis(OffsetDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli());
+		File sequential = new File(this.tempDir, "sequential.jar");
+		new Repackager(this.testJarFile.getFile()).repackage(sequential, libraries, null, lastModifiedTime);
+		Repackager repackager = createRepackager(this.testJarFile.getFile(), true);
+		repackager.setCompressionThreads(4);
+		repackager.repackage(this.destination, libraries, null, lastModifiedTime);
+		assertThat(describeEntries(this.destination)).isEqualTo(describeEntries(sequential));
+		try (JarFile jarFile = new JarFile(this.destination)) {
+			assertThat(jarFile.getManifest().getMainAttributes().getValue("Start-Class")).isEqualTo("a.b.Main");
+		}
+	}
+
+	@Test
+	void setCompressionThreadsWhenZeroThrowsException() {
+		Repackager repackager = createRepackager(this.testJarFile.getFile(), true);
+		assertThatIllegalArgumentException().isThrownBy(() -> repackager.setCompressionThreads(0))
+				.withMessage("CompressionThreads must be greater than 0");
+	}
+
+	@Test
+	void incrementalRepackageCopiesUnchangedLibrariesFromPreviousArchive() throws Exception {
+		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		TestJarFile libJar = new TestJarFile(this.tempDir);
+		libJar.addClass("x/y/Z.class", ClassWithoutMainMethod.class);
+		File libJarFile = libJar.getFile();
+		TestJarFile unpackLibJar = new TestJarFile(this.tempDir);
+		unpackLibJar.addClass("x/y/U.class", ClassWithoutMainMethod.class);
+		File unpackLibJarFile = unpackLibJar.getFile();
+		List<CountingLibrary> libraries = new ArrayList<>();
+		libraries.add(new CountingLibrary(libJarFile, false));
+		libraries.add(new CountingLibrary(unpackLibJarFile, true));
+		Libraries allLibraries = (callback) -> {
+			for (Library library : libraries) {
+				callback.library(library);
+			}
+		};
+		Repackager repackager = createRepackager(this.testJarFile.getFile(), true);
+		repackager.setIncremental(true);
+		repackager.repackage(this.destination, allLibraries);
+		int initialOpenCount = libraries.stream().mapToInt((library) -> library.openCount).sum();
+		List<String> initialEntries = describeEntries(this.destination);
+		libraries.forEach((library) -> library.openCount = 0);
+		repackager.repackage(this.destination, allLibraries);
+		int incrementalOpenCount = libraries.stream().mapToInt((library) -> library.openCount).sum();
+		assertThat(incrementalOpenCount).isLessThan(initialOpenCount);
+		assertThat(describeEntries(this.destination)).isEqualTo(initialEntries);
+		assertThat(new File(this.destination.getParentFile(), this.destination.getName() + ".previous")).doesNotExist();
+		ZipEntry unpackEntry = getPackagedEntry("BOOT-INF/lib/" + unpackLibJarFile.getName());
+		assertThat(unpackEntry.getComment())
+				.isEqualTo("UNPACK:" + Digest.sha1(() -> new FileInputStream(unpackLibJarFile)));
+	}
+
+	@Test
+	void incrementalRepackageInPlaceCopiesUnchangedLibrariesFromPreviousArchive() throws Exception {
+		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		File source = this.testJarFile.getFile();
+		byte[] sourceContent = Files.readAllBytes(source.toPath());
+		TestJarFile libJar = new TestJarFile(this.tempDir);
+		libJar.addClass("x/y/Z.class", ClassWithoutMainMethod.class);
+		CountingLibrary library = new CountingLibrary(libJar.getFile(), false);
+		Libraries libraries = (callback) -> callback.library(library);
+		Repackager repackager = createRepackager(source, false);
+		repackager.setIncremental(true);
+		repackager.repackage(libraries);
+		File previous = new File(source.getParentFile(), source.getName() + ".previous");
+		assertThat(previous).exists();
+		int initialOpenCount = library.openCount;
+		List<String> initialEntries = describeEntries(source);
+		library.openCount = 0;
+		Files.write(source.toPath(), sourceContent);
+		repackager.repackage(libraries);
+		assertThat(library.openCount).isLessThan(initialOpenCount);
+		assertThat(describeEntries(source)).isEqualTo(initialEntries);
+		assertThat(Files.readAllBytes(previous.toPath())).isEqualTo(Files.readAllBytes(source.toPath()));
+	}
+
+	@Test
+	void incrementalRepackageWritesChangedLibrary() throws Exception {
+		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		File libJarFile = new File(this.tempDir, "library.jar");
+		TestJarFile libJar = new TestJarFile(this.tempDir);
+		libJar.addClass("x/y/Z.class", ClassWithoutMainMethod.class);
+		FileCopyUtils.copy(libJar.getFile(), libJarFile);
+		Repackager repackager = createRepackager(this.testJarFile.getFile(), true);
+		repackager.setIncremental(true);
+		Libraries libraries = (callback) -> callback.library(new Library(libJarFile, LibraryScope.COMPILE));
+		repackager.repackage(this.destination, libraries);
+		TestJarFile changedLibJar = new TestJarFile(this.tempDir);
+		changedLibJar.addClass("x/y/Z.class", ClassWithoutMainMethod.class);
+		changedLibJar.addClass("x/y/Y.class", ClassWithoutMainMethod.class);
+		FileCopyUtils.copy(changedLibJar.getFile(), libJarFile);
+		repackager.repackage(this.destination, libraries);
+		assertThat(getPackagedEntry("BOOT-INF/lib/library.jar").getSize()).isEqualTo(libJarFile.length());
+		try (ZipFile zip = new ZipFile(this.destination)) {
+			ZipArchiveEntry entry = zip.getEntry("BOOT-INF/lib/library.jar");
+			assertThat(FileCopyUtils.copyToByteArray(zip.getInputStream(entry)))
+					.isEqualTo(Files.readAllBytes(libJarFile.toPath()));
+		}
+	}
+
+	private List<String> describeEntries(File file) throws IOException {
+		List<String> descriptions = new ArrayList<>();
+		try (ZipFile zip = new ZipFile(file)) {
+			Enumeration<ZipArchiveEntry> entries = zip.getEntriesInPhysicalOrder();
+			while (entries.hasMoreElements()) {
+				ZipArchiveEntry entry = entries.nextElement();
+				byte[] content = FileCopyUtils.copyToByteArray(zip.getInputStream(entry));
+				descriptions.add(entry.getName() + " " + entry.getMethod() + " " + entry.getTime() + " "
+						+ entry.getUnixMode() + " " + entry.getComment() + " " + Arrays.hashCode(content));
+			}
+		}
+		return descriptions;
+	}
+
 	private boolean hasLauncherClasses(File file) throws IOException {
 		return hasEntry(file, "org/springframework/boot/")
 				&& hasEntry(file, "org/springframework/boot/loader/JarLauncher.class");
@@ -277,6 +407,22 @@ class RepackagerTests extends AbstractPackagerTests<Repackager> {
 		}
 	}
 
+	static class CountingLibrary extends Library {
+
+		private int openCount;
+
+		CountingLibrary(File file, boolean unpackRequired) {
+			super(null, file, LibraryScope.COMPILE, null, unpackRequired, false, true);
+		}
+
+		@Override
+		InputStream openStream() throws IOException {
+			this.openCount++;
+			return super.openStream();
+		}
+
+	}
+
 	static class MockLauncherScript implements LaunchScript {
 
 		private final byte[] bytes;
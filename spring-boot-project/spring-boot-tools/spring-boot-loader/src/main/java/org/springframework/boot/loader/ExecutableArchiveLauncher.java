@@ -43,6 +43,8 @@ public abstract class ExecutableArchiveLauncher extends Launcher {
 
 	private final ClassPathIndexFile classPathIndex;
 
+	private PackageIndex packageIndex;
+
 	public ExecutableArchiveLauncher() {
 		try {
 			// 为当前应用创建一个 Archive 对象，可用于解析 jar 包（当前应用）中所有的信息
@@ -94,9 +96,25 @@ public abstract class ExecutableArchiveLauncher extends Launcher {
 		if (this.classPathIndex != null) {
 			urls.addAll(this.classPathIndex.getUrls());
 		}
+		this.packageIndex = (!isExploded()) ? createPackageIndex(urls) : null;
 		return createClassLoader(urls.toArray(new URL[0]));
 	}
 
+	private PackageIndex createPackageIndex(List<URL> urls) {
+		for (URL url : urls) {
+			if (!"jar".equals(url.getProtocol())) {
+				return null;
+			}
+		}
+		return new PackageIndex(urls);
+	}
+
+	@Override
+	protected ClassLoader createClassLoader(URL[] urls) throws Exception {
+		return new LaunchedURLClassLoader(isExploded(), getArchive(), urls, this.packageIndex,
+				getClass().getClassLoader());
+	}
+
 	private int guessClassPathSize() {
 		if (this.classPathIndex != null) {
 			return this.classPathIndex.size() + 10;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2020 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,13 +20,18 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.JarURLConnection;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
 import java.security.AccessController;
+import java.security.CodeSource;
 import java.security.PrivilegedExceptionAction;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.function.Supplier;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 
@@ -57,6 +62,8 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 
 	private volatile DefinePackageCallType definePackageCallType;
 
+	private volatile PackageIndex packageIndex;
+
 	/**
 	 * Create a new {@link LaunchedURLClassLoader} instance.
 	 * @param urls the URLs from which to load classes and resources
@@ -85,9 +92,29 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 	 * @since 2.3.1
 	 */
 	public LaunchedURLClassLoader(boolean exploded, Archive rootArchive, URL[] urls, ClassLoader parent) {
+		this(exploded, rootArchive, urls, null, parent);
+	}
+
+	/**
+	 * Create a new {@link LaunchedURLClassLoader} instance.
+	 * @param exploded if the underlying archive is exploded
+	 * @param rootArchive the root archive or {@code null}
+	 * @param urls the URLs from which to load classes and resources
+	 * @param packageIndex the index of the packages in each URL or {@code null}
+	 * @param parent the parent class loader for delegation
+	 */
+	LaunchedURLClassLoader(boolean exploded, Archive rootArchive, URL[] urls, PackageIndex packageIndex,
+			ClassLoader parent) {
 		super(urls, parent);
 		this.exploded = exploded;
 		this.rootArchive = rootArchive;
+		this.packageIndex = (!exploded && packageIndex != null && packageIndex.isFor(urls)) ? packageIndex : null;
+	}
+
+	@Override
+	protected void addURL(URL url) {
+		this.packageIndex = null;
+		super.addURL(url);
 	}
 
 	@Override
@@ -97,6 +124,10 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		}
 		Handler.setUseFastConnectionExceptions(true);
 		try {
+			PackageIndex packageIndex = this.packageIndex;
+			if (packageIndex != null && packageIndex.isIndexable(name)) {
+				return findIndexedResource(packageIndex, name);
+			}
 			return super.findResource(name);
 		}
 		finally {
@@ -104,11 +135,49 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		}
 	}
 
+	private URL findIndexedResource(PackageIndex packageIndex, String name) {
+		Iterable<URL> urls = packageIndex.getUrls(name);
+		if (!urls.iterator().hasNext()) {
+			return null;
+		}
+		if (!isPlainName(name)) {
+			return super.findResource(name);
+		}
+		for (URL url : urls) {
+			if (packageIndex.getJarFile(url).getEntry(name) != null) {
+				try {
+					return new URL(url, name);
+				}
+				catch (MalformedURLException ex) {
+					return super.findResource(name);
+				}
+			}
+		}
+		return null;
+	}
+
+	private boolean isPlainName(String name) {
+		for (int i = 0; i < name.length(); i++) {
+			char ch = name.charAt(i);
+			boolean plain = (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9')
+					|| ch == '.' || ch == '-' || ch == '_' || ch == '$' || (ch == '/' && i > 0);
+			if (!plain) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public Enumeration<URL> findResources(String name) throws IOException {
 		if (this.exploded) {
 			return super.findResources(name);
 		}
+		PackageIndex packageIndex = this.packageIndex;
+		if (packageIndex != null && packageIndex.isIndexable(name)
+				&& !packageIndex.getUrls(name).iterator().hasNext()) {
+			return Collections.emptyEnumeration();
+		}
 		Handler.setUseFastConnectionExceptions(true);
 		try {
 			return new UseFastConnectionExceptionsEnumeration(super.findResources(name));
@@ -158,6 +227,80 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		}
 	}
 
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		PackageIndex packageIndex = this.packageIndex;
+		if (packageIndex == null) {
+			return super.findClass(name);
+		}
+		String entryName = name.replace('.', '/') + ".class";
+		for (URL url : packageIndex.getUrls(entryName)) {
+			JarFile jarFile = packageIndex.getJarFile(url);
+			JarEntry entry = jarFile.getJarEntry(entryName);
+			if (entry != null) {
+				return defineClass(name, url, jarFile, entry);
+			}
+		}
+		throw new ClassNotFoundException(name);
+	}
+
+	private Class<?> defineClass(String name, URL url, JarFile jarFile, JarEntry entry) throws ClassNotFoundException {
+		try (InputStream inputStream = jarFile.getInputStream(entry)) {
+			definePackageIfNecessary(name, url, jarFile.getManifest());
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream(
+					(entry.getSize() > 0) ? (int) entry.getSize() : BUFFER_SIZE);
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int bytesRead;
+			while ((bytesRead = inputStream.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, bytesRead);
+			}
+			byte[] bytes = outputStream.toByteArray();
+			return defineClass(name, bytes, 0, bytes.length, new CodeSource(url, entry.getCodeSigners()));
+		}
+		catch (IOException ex) {
+			throw new ClassNotFoundException("Cannot load resource for class [" + name + "]", ex);
+		}
+	}
+
+	/**
+	 * Define the package of a class that is defined from the given jar, as
+	 * {@link URLClassLoader} does, when {@link #definePackageIfNecessary(String)} has not
+	 * found a jar with a directory entry for it. Also verifies that a sealed package is
+	 * not extended by another jar.
+	 * @param className the class name being defined
+	 * @param url the URL of the jar
+	 * @param manifest the manifest of the jar or {@code null}
+	 */
+	private void definePackageIfNecessary(String className, URL url, Manifest manifest) {
+		int lastDot = className.lastIndexOf('.');
+		if (lastDot < 0) {
+			return;
+		}
+		String packageName = className.substring(0, lastDot);
+		Package pkg = getPackage(packageName);
+		if (pkg == null) {
+			try {
+				if (manifest != null) {
+					definePackage(packageName, manifest, url);
+				}
+				else {
+					definePackage(packageName, null, null, null, null, null, null, null);
+				}
+			}
+			catch (IllegalArgumentException ex) {
+				// Tolerate race condition due to being parallel capable
+				pkg = getPackage(packageName);
+				if (pkg == null) {
+					throw new AssertionError(
+							"Package " + packageName + " has already been defined but it could not be found");
+				}
+			}
+		}
+		if (pkg != null && pkg.isSealed() && !pkg.isSealed(url)) {
+			throw new SecurityException("sealing violation: package " + packageName + " is sealed");
+		}
+	}
+
 	private Class<?> loadClassInLaunchedClassLoader(String name) throws ClassNotFoundException {
 		String internalName = name.replace('.', '/') + ".class";
 		InputStream inputStream = getParent().getResourceAsStream(internalName);
@@ -226,11 +369,13 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 				String classEntryName = className.replace('.', '/') + ".class";
 
 				// 遍历所有的 URL（包括应用内部引入的所有 jar 包）
-				for (URL url : getURLs()) {
+				PackageIndex packageIndex = this.packageIndex;
+				Iterable<URL> urls = (packageIndex != null) ? packageIndex.getUrls(classEntryName)
+						: Arrays.asList(getURLs());
+				for (URL url : urls) {
 					try {
-						URLConnection connection = url.openConnection();
-						if (connection instanceof JarURLConnection) {
-							JarFile jarFile = ((JarURLConnection) connection).getJarFile();
+						JarFile jarFile = (packageIndex != null) ? packageIndex.getJarFile(url) : getJarFile(url);
+						if (jarFile != null) {
 
 							// 如果这个 jar 中存在这个类名，且有对应的 Manifest
 							if (jarFile.getEntry(classEntryName) != null && jarFile.getEntry(packageEntryName) != null
@@ -254,6 +399,11 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		}
 	}
 
+	private JarFile getJarFile(URL url) throws IOException {
+		URLConnection connection = url.openConnection();
+		return (connection instanceof JarURLConnection) ? ((JarURLConnection) connection).getJarFile() : null;
+	}
+
 	@Override
 	protected Package definePackage(String name, Manifest man, URL url) throws IllegalArgumentException {
 		if (!this.exploded) {
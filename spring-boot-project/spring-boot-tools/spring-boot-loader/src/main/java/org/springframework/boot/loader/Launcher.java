@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import java.util.List;
 import org.springframework.boot.loader.archive.Archive;
 import org.springframework.boot.loader.archive.ExplodedArchive;
 import org.springframework.boot.loader.archive.JarFileArchive;
+import org.springframework.boot.loader.jar.EntryCacheStatistics;
 import org.springframework.boot.loader.jar.JarFile;
 
 /**
@@ -67,7 +68,18 @@ public abstract class Launcher {
 		// getMainClass 是获取我们业务的main方法在的启动类, 重点
 		String launchClass = (jarMode != null && !jarMode.isEmpty()) ? JAR_MODE_LAUNCHER : getMainClass();
 		// 调用实际的引导类launch, 往下
-		launch(args, launchClass, classLoader);
+		try {
+			launch(args, launchClass, classLoader);
+		}
+		finally {
+			debugEntryCacheStatistics();
+		}
+	}
+
+	private void debugEntryCacheStatistics() {
+		if (EntryCacheStatistics.isEnabled() && !isExploded()) {
+			System.out.println(EntryCacheStatistics.describe());
+		}
 	}
 
 	/**
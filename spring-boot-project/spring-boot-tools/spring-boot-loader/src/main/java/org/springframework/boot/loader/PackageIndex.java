@@ -0,0 +1,220 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader;
+
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Index of the packages contained in each of the jar URLs of a
+ * {@link LaunchedURLClassLoader}, allowing class and resource lookups to go directly to
+ * the archives that may contain them. Packages are held as directory names ending with
+ * {@code /}, with entries in a multi-release {@code META-INF/versions/} directory also
+ * indexed under their unversioned package.
+ * <p>
+ * Jars are opened and indexed lazily, in class path order, only when a lookup needs a
+ * candidate that the jars indexed so far cannot provide. A lookup that is satisfied by an
+ * early jar therefore does not open the jars that follow it. A jar that cannot be opened
+ * does not contribute any package. Lookups do not lock: the candidates of each package
+ * are held in arrays that are replaced rather than modified and a lock is only taken to
+ * index the next jar.
+ *
+ * @author Phillip Webb
+ */
+final class PackageIndex {
+
+	private static final String VERSIONS_PREFIX = "META-INF/versions/";
+
+	private final URL[] urls;
+
+	private final Map<String, JarFile> jarFiles = new ConcurrentHashMap<>();
+
+	private final Map<String, URL[]> packages = new ConcurrentHashMap<>();
+
+	private final Object indexLock = new Object();
+
+	private volatile int indexed;
+
+	/**
+	 * Create a new {@link PackageIndex} for the given jar URLs. No jar is opened until
+	 * the index is used.
+	 * @param urls the jar URLs in class path order
+	 */
+	PackageIndex(List<URL> urls) {
+		this.urls = urls.toArray(new URL[0]);
+	}
+
+	/**
+	 * Return if the index was built for exactly the given URLs in the same order.
+	 * @param urls the class loader URLs
+	 * @return if the index can be used for the URLs
+	 */
+	boolean isFor(URL[] urls) {
+		if (urls.length != this.urls.length) {
+			return false;
+		}
+		for (int i = 0; i < urls.length; i++) {
+			if (!this.urls[i].toString().equals(urls[i].toString())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Return if the index can answer lookups for the given entry name. Empty names and
+	 * names that navigate into a nested jar must use a regular search.
+	 * @param name the entry name
+	 * @return if the index can be used
+	 */
+	boolean isIndexable(String name) {
+		return !name.isEmpty() && !name.contains("!/");
+	}
+
+	/**
+	 * Return the URLs, in class path order, of the jars that may contain the given entry.
+	 * Jars are indexed as the returned {@link Iterable} is iterated so that stopping at
+	 * the first suitable URL avoids opening the remaining jars.
+	 * @param name the entry name
+	 * @return the candidate URLs
+	 */
+	Iterable<URL> getUrls(String name) {
+		String packageName = getPackageName(name);
+		return () -> new CandidateIterator(packageName);
+	}
+
+	/**
+	 * Return the jar file for a URL returned by {@link #getUrls(String)}.
+	 * @param url the indexed URL
+	 * @return the jar file
+	 */
+	JarFile getJarFile(URL url) {
+		return this.jarFiles.get(url.toString());
+	}
+
+	private URL getCandidate(String packageName, int position) {
+		while (true) {
+			int indexed = this.indexed;
+			URL[] candidates = this.packages.get(packageName);
+			if (candidates != null && candidates.length > position) {
+				return candidates[position];
+			}
+			if (indexed == this.urls.length) {
+				return null;
+			}
+			indexNext(indexed);
+		}
+	}
+
+	private void indexNext(int indexed) {
+		synchronized (this.indexLock) {
+			if (this.indexed == indexed) {
+				index(this.urls[indexed]);
+				this.indexed = indexed + 1;
+			}
+		}
+	}
+
+	private void index(URL url) {
+		try {
+			URLConnection connection = url.openConnection();
+			if (connection instanceof JarURLConnection) {
+				index(url, ((JarURLConnection) connection).getJarFile());
+			}
+		}
+		catch (IOException ex) {
+			// Ignore and continue with the next jar
+		}
+	}
+
+	private void index(URL url, JarFile jarFile) {
+		this.jarFiles.put(url.toString(), jarFile);
+		Set<String> added = new HashSet<>();
+		Enumeration<JarEntry> entries = jarFile.entries();
+		while (entries.hasMoreElements()) {
+			String packageName = getPackageName(entries.nextElement().getName());
+			if (added.add(packageName)) {
+				URL[] candidates = this.packages.get(packageName);
+				candidates = (candidates != null) ? Arrays.copyOf(candidates, candidates.length + 1) : new URL[1];
+				candidates[candidates.length - 1] = url;
+				this.packages.put(packageName, candidates);
+			}
+		}
+	}
+
+	private static String getPackageName(String name) {
+		if (name.startsWith(VERSIONS_PREFIX)) {
+			int versionEnd = name.indexOf('/', VERSIONS_PREFIX.length());
+			if (versionEnd != -1) {
+				name = name.substring(versionEnd + 1);
+			}
+		}
+		int end = name.endsWith("/") ? name.length() - 1 : name.length();
+		return name.substring(0, name.lastIndexOf('/', end - 1) + 1);
+	}
+
+	/**
+	 * {@link Iterator} over the candidate URLs of a package that indexes further jars
+	 * when needed.
+	 */
+	private final class CandidateIterator implements Iterator<URL> {
+
+		private final String packageName;
+
+		private int position;
+
+		private URL next;
+
+		private CandidateIterator(String packageName) {
+			this.packageName = packageName;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (this.next == null) {
+				this.next = getCandidate(this.packageName, this.position);
+			}
+			return this.next != null;
+		}
+
+		@Override
+		public URL next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			URL next = this.next;
+			this.next = null;
+			this.position++;
+			return next;
+		}
+
+	}
+
+}
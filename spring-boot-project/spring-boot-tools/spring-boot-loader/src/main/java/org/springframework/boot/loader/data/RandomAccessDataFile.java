@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2019 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,9 +22,20 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
- * {@link RandomAccessData} implementation backed by a {@link RandomAccessFile}.
+ * {@link RandomAccessData} implementation backed by a {@link RandomAccessFile}. The file
+ * may optionally be memory mapped in which case reads are served directly from the
+ * mapping rather than via positioned file reads. The mapping is released when the file is
+ * {@link #close() closed} so that it no longer holds a lock on the file.
  *
  * @author Phillip Webb
  * @author Andy Wilkinson
@@ -44,10 +55,22 @@ public class RandomAccessDataFile implements RandomAccessData {
 	 * @throws IllegalArgumentException if the file is null or does not exist
 	 */
 	public RandomAccessDataFile(File file) {
+		this(file, false);
+	}
+
+	/**
+	 * Create a new {@link RandomAccessDataFile} backed by the specified file.
+	 * @param file the underlying file
+	 * @param memoryMapped if the file should be memory mapped. Files larger than 2GB
+	 * cannot be mapped and are always read using a {@link RandomAccessFile}
+	 * @throws IllegalArgumentException if the file is null or does not exist
+	 * @since 2.6.14
+	 */
+	public RandomAccessDataFile(File file, boolean memoryMapped) {
 		if (file == null) {
 			throw new IllegalArgumentException("File must not be null");
 		}
-		this.fileAccess = new FileAccess(file);
+		this.fileAccess = new FileAccess(file, memoryMapped && file.length() <= Integer.MAX_VALUE);
 		this.offset = 0L;
 		this.length = file.length();
 	}
@@ -72,6 +95,15 @@ public class RandomAccessDataFile implements RandomAccessData {
 		return this.fileAccess.file;
 	}
 
+	/**
+	 * Returns if the underlying file is memory mapped.
+	 * @return if the file is memory mapped
+	 * @since 2.6.14
+	 */
+	public boolean isMemoryMapped() {
+		return this.fileAccess.memoryMapped;
+	}
+
 	@Override
 	public InputStream getInputStream() throws IOException {
 		return new DataInputStream();
@@ -206,16 +238,33 @@ public class RandomAccessDataFile implements RandomAccessData {
 
 		private final Object monitor = new Object();
 
+		private final ReadWriteLock mappedBufferLock = new ReentrantReadWriteLock();
+
 		private final File file;
 
+		private final boolean memoryMapped;
+
 		private RandomAccessFile randomAccessFile;
 
-		private FileAccess(File file) {
+		private volatile ByteBuffer mappedBuffer;
+
+		private FileAccess(File file, boolean memoryMapped) {
 			this.file = file;
+			this.memoryMapped = memoryMapped;
 			openIfNecessary();
 		}
 
 		private int read(byte[] bytes, long position, int offset, int length) throws IOException {
+			if (this.memoryMapped) {
+				Lock lock = this.mappedBufferLock.readLock();
+				lock.lock();
+				try {
+					return read(getMappedBuffer(), bytes, position, offset, length);
+				}
+				finally {
+					lock.unlock();
+				}
+			}
 			synchronized (this.monitor) {
 				openIfNecessary();
 				this.randomAccessFile.seek(position);
@@ -223,28 +272,129 @@ public class RandomAccessDataFile implements RandomAccessData {
 			}
 		}
 
+		/**
+		 * Return the mapped buffer, mapping the file again if it has been closed. Must be
+		 * called with the read lock held so that the buffer cannot be unmapped while it
+		 * is in use.
+		 * @return the mapped buffer
+		 */
+		private ByteBuffer getMappedBuffer() {
+			ByteBuffer mappedBuffer = this.mappedBuffer;
+			if (mappedBuffer != null) {
+				return mappedBuffer;
+			}
+			synchronized (this.monitor) {
+				openIfNecessary();
+				return this.mappedBuffer;
+			}
+		}
+
+		private int read(ByteBuffer mappedBuffer, byte[] bytes, long position, int offset, int length) {
+			if (position >= mappedBuffer.limit()) {
+				return -1;
+			}
+			ByteBuffer buffer = mappedBuffer.duplicate();
+			buffer.position((int) position);
+			int read = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, read);
+			return read;
+		}
+
 		private void openIfNecessary() {
-			if (this.randomAccessFile == null) {
+			if (this.randomAccessFile == null && this.mappedBuffer == null) {
 				try {
 					this.randomAccessFile = new RandomAccessFile(this.file, "r");
+					if (this.memoryMapped) {
+						this.mappedBuffer = map(this.randomAccessFile);
+						this.randomAccessFile.close();
+						this.randomAccessFile = null;
+					}
 				}
 				catch (FileNotFoundException ex) {
 					throw new IllegalArgumentException(
 							String.format("File %s must exist", this.file.getAbsolutePath()));
 				}
+				catch (IOException ex) {
+					throw new IllegalStateException(
+							String.format("Unable to memory map file %s", this.file.getAbsolutePath()), ex);
+				}
 			}
 		}
 
+		private ByteBuffer map(RandomAccessFile randomAccessFile) throws IOException {
+			FileChannel channel = randomAccessFile.getChannel();
+			// The mapping remains valid once the channel has been closed
+			return channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+
 		private void close() throws IOException {
-			synchronized (this.monitor) {
-				if (this.randomAccessFile != null) {
-					this.randomAccessFile.close();
-					this.randomAccessFile = null;
+			Lock lock = this.mappedBufferLock.writeLock();
+			lock.lock();
+			try {
+				synchronized (this.monitor) {
+					if (this.mappedBuffer != null) {
+						unmap(this.mappedBuffer);
+						this.mappedBuffer = null;
+					}
+					if (this.randomAccessFile != null) {
+						this.randomAccessFile.close();
+						this.randomAccessFile = null;
+					}
+				}
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Release the given mapping rather than waiting for it to be garbage collected.
+		 * Until it is released, the mapping prevents the file from being deleted or
+		 * replaced on some platforms, notably Windows. If the mapping cannot be released
+		 * it is left to the garbage collector.
+		 * @param mappedBuffer the mapped buffer to release
+		 */
+		private static void unmap(ByteBuffer mappedBuffer) {
+			try {
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+				theUnsafe.setAccessible(true);
+				invokeCleaner.invoke(theUnsafe.get(null), mappedBuffer);
+			}
+			catch (NoSuchMethodException ex) {
+				unmapOnJava8(mappedBuffer);
+			}
+			catch (Exception ex) {
+				// Leave the mapping to the garbage collector
+			}
+		}
+
+		private static void unmapOnJava8(ByteBuffer mappedBuffer) {
+			try {
+				Method cleanerMethod = mappedBuffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(mappedBuffer);
+				if (cleaner != null) {
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
 				}
 			}
+			catch (Exception ex) {
+				// Leave the mapping to the garbage collector
+			}
 		}
 
 		private int readByte(long position) throws IOException {
+			if (this.memoryMapped) {
+				Lock lock = this.mappedBufferLock.readLock();
+				lock.lock();
+				try {
+					return readByte(getMappedBuffer(), position);
+				}
+				finally {
+					lock.unlock();
+				}
+			}
 			synchronized (this.monitor) {
 				openIfNecessary();
 				this.randomAccessFile.seek(position);
@@ -252,6 +402,13 @@ public class RandomAccessDataFile implements RandomAccessData {
 			}
 		}
 
+		private int readByte(ByteBuffer mappedBuffer, long position) {
+			if (position >= mappedBuffer.limit()) {
+				return -1;
+			}
+			return mappedBuffer.get((int) position) & 0xFF;
+		}
+
 	}
 
 }
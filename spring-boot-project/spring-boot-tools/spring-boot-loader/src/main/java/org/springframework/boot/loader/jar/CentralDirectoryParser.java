@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -48,13 +48,33 @@ class CentralDirectoryParser {
 	 * @throws IOException on error
 	 */
 	RandomAccessData parse(RandomAccessData data, boolean skipPrefixBytes) throws IOException {
+		return parse(data, skipPrefixBytes, null);
+	}
+
+	/**
+	 * Parse the source data, triggering {@link CentralDirectoryVisitor visitors}. If an
+	 * {@link EntriesIndex.IndexedJar} is provided and matches the data, it is used
+	 * instead of parsing each file header.
+	 * @param data the source data
+	 * @param skipPrefixBytes if prefix bytes should be skipped
+	 * @param indexedJar the pre-parsed entries or {@code null}
+	 * @return the actual archive data without any prefix bytes
+	 * @throws IOException on error
+	 */
+	RandomAccessData parse(RandomAccessData data, boolean skipPrefixBytes, EntriesIndex.IndexedJar indexedJar)
+			throws IOException {
 		CentralDirectoryEndRecord endRecord = new CentralDirectoryEndRecord(data);
 		if (skipPrefixBytes) {
 			data = getArchiveData(endRecord, data);
 		}
 		RandomAccessData centralDirectoryData = endRecord.getCentralDirectory(data);
 		visitStart(endRecord, centralDirectoryData);
-		parseEntries(endRecord, centralDirectoryData);
+		if (indexedJar != null && indexedJar.isFor(endRecord)) {
+			visitIndexedJar(indexedJar);
+		}
+		else {
+			parseEntries(endRecord, centralDirectoryData);
+		}
 		visitEnd();
 		return data;
 	}
@@ -92,6 +112,12 @@ class CentralDirectoryParser {
 		}
 	}
 
+	private void visitIndexedJar(EntriesIndex.IndexedJar indexedJar) {
+		for (CentralDirectoryVisitor visitor : this.visitors) {
+			visitor.visitIndexedJar(indexedJar);
+		}
+	}
+
 	private void visitEnd() {
 		for (CentralDirectoryVisitor visitor : this.visitors) {
 			visitor.visitEnd();
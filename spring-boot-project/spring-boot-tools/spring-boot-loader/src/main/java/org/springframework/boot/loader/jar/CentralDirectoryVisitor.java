@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,6 +29,15 @@ interface CentralDirectoryVisitor {
 
 	void visitFileHeader(CentralDirectoryFileHeader fileHeader, long dataOffset);
 
+	/**
+	 * Visit pre-parsed entries from an {@link EntriesIndex}. Called instead of
+	 * {@link #visitFileHeader(CentralDirectoryFileHeader, long)} when the parser has been
+	 * given a matching {@link EntriesIndex.IndexedJar}.
+	 * @param indexedJar the indexed jar
+	 */
+	default void visitIndexedJar(EntriesIndex.IndexedJar indexedJar) {
+	}
+
 	void visitEnd();
 
 }
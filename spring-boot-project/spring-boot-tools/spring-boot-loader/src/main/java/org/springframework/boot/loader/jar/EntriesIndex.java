@@ -0,0 +1,189 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pre-parsed central directory entries of the nested jars of an archive, as written by
+ * spring-boot-loader-tools. An {@link IndexedJar} is only returned when the size and CRC
+ * of the nested jar match the values that were recorded when the index was written.
+ *
+ * @author Phillip Webb
+ * @see JarFile#getNestedJarFile(JarEntry)
+ */
+final class EntriesIndex {
+
+	static final EntriesIndex NONE = new EntriesIndex(new byte[0], Collections.emptyMap());
+
+	private static final int MAGIC = 0x53424549;
+
+	private static final int VERSION = 1;
+
+	private static final int BUFFER_SIZE = 4096;
+
+	private final byte[] bytes;
+
+	private final Map<String, Integer> jarOffsets;
+
+	private EntriesIndex(byte[] bytes, Map<String, Integer> jarOffsets) {
+		this.bytes = bytes;
+		this.jarOffsets = jarOffsets;
+	}
+
+	/**
+	 * Return the {@link IndexedJar} for the given nested jar entry or {@code null} if the
+	 * entry is not indexed or the index is no longer valid for it.
+	 * @param entry the nested jar entry
+	 * @return the indexed jar or {@code null}
+	 */
+	IndexedJar get(JarEntry entry) {
+		Integer offset = this.jarOffsets.get(entry.getName());
+		if (offset == null) {
+			return null;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(this.bytes);
+		buffer.position(offset);
+		long size = buffer.getLong();
+		long crc = buffer.getLong();
+		if (size != entry.getSize() || crc != entry.getCrc()) {
+			return null;
+		}
+		boolean signed = buffer.get() != 0;
+		int[] versions = getInts(buffer, buffer.getInt());
+		int numberOfRecords = buffer.getInt();
+		int[] hashCodes = getInts(buffer, numberOfRecords);
+		int[] offsets = getInts(buffer, numberOfRecords);
+		int[] positions = getInts(buffer, numberOfRecords);
+		return new IndexedJar(signed, versions, hashCodes, offsets, positions);
+	}
+
+	private int[] getInts(ByteBuffer buffer, int length) {
+		int[] values = new int[length];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + length * 4);
+		return values;
+	}
+
+	/**
+	 * Load an {@link EntriesIndex} from the given input stream.
+	 * @param inputStream the source input stream (will be closed)
+	 * @return the loaded index or {@link #NONE} if the content is not a supported index
+	 * @throws IOException on IO error
+	 */
+	static EntriesIndex load(InputStream inputStream) throws IOException {
+		byte[] bytes;
+		try {
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = inputStream.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, read);
+			}
+			bytes = outputStream.toByteArray();
+		}
+		finally {
+			inputStream.close();
+		}
+		DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes));
+		if (bytes.length < 12 || data.readInt() != MAGIC || data.readInt() != VERSION) {
+			return NONE;
+		}
+		int numberOfJars = data.readInt();
+		Map<String, Integer> jarOffsets = new HashMap<>(numberOfJars * 2);
+		for (int i = 0; i < numberOfJars; i++) {
+			String name = data.readUTF();
+			jarOffsets.put(name, bytes.length - data.available());
+			data.skipBytes(17);
+			int numberOfVersions = data.readInt();
+			data.skipBytes(numberOfVersions * 4);
+			int numberOfRecords = data.readInt();
+			data.skipBytes(numberOfRecords * 12);
+		}
+		return new EntriesIndex(bytes, jarOffsets);
+	}
+
+	/**
+	 * The pre-parsed central directory of a single nested jar. Hash codes and offsets are
+	 * stored in hash code order and positions map the original entry order to that order,
+	 * exactly as {@link JarFileEntries} holds them once a central directory has been
+	 * parsed.
+	 */
+	static final class IndexedJar {
+
+		private final boolean signed;
+
+		private final int[] versions;
+
+		private final int[] hashCodes;
+
+		private final int[] offsets;
+
+		private final int[] positions;
+
+		IndexedJar(boolean signed, int[] versions, int[] hashCodes, int[] offsets, int[] positions) {
+			this.signed = signed;
+			this.versions = versions;
+			this.hashCodes = hashCodes;
+			this.offsets = offsets;
+			this.positions = positions;
+		}
+
+		/**
+		 * Return if the indexed data can be used for the given end record.
+		 * @param endRecord the end record of the nested jar
+		 * @return if the indexed data matches
+		 */
+		boolean isFor(CentralDirectoryEndRecord endRecord) {
+			return !endRecord.isZip64() && endRecord.getNumberOfRecords() == this.hashCodes.length;
+		}
+
+		boolean isSigned() {
+			return this.signed;
+		}
+
+		/**
+		 * Return the multi-release versions contained in the jar, in descending order.
+		 * @return the multi-release versions
+		 */
+		int[] getVersions() {
+			return this.versions;
+		}
+
+		int[] getHashCodes() {
+			return this.hashCodes;
+		}
+
+		int[] getOffsets() {
+			return this.offsets;
+		}
+
+		int[] getPositions() {
+			return this.positions;
+		}
+
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit and miss counts for the entry caches of all {@link JarFile} instances. The size of
+ * each cache can be configured using the {@code loader.entryCacheSize} system property.
+ * Counts are only recorded when the {@code loader.debug} system property is
+ * {@code true} so that cache lookups do not pay for them otherwise.
+ *
+ * @author Phillip Webb
+ * @since 2.6.14
+ */
+public final class EntryCacheStatistics {
+
+	private static final String DEBUG = "loader.debug";
+
+	private static volatile boolean enabled = Boolean.getBoolean(DEBUG);
+
+	private static final LongAdder hits = new LongAdder();
+
+	private static final LongAdder misses = new LongAdder();
+
+	private EntryCacheStatistics() {
+	}
+
+	static void hit() {
+		if (enabled) {
+			hits.increment();
+		}
+	}
+
+	static void miss() {
+		if (enabled) {
+			misses.increment();
+		}
+	}
+
+	/**
+	 * Return if hits and misses are being recorded.
+	 * @return if the statistics are enabled
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	static void setEnabled(boolean enabled) {
+		EntryCacheStatistics.enabled = enabled;
+	}
+
+	/**
+	 * Return the number of entry lookups that were served from a cache.
+	 * @return the hit count
+	 */
+	public static long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Return the number of entry lookups that had to read the central directory.
+	 * @return the miss count
+	 */
+	public static long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Reset the hit and miss counts.
+	 */
+	public static void reset() {
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * Return a description of the current statistics.
+	 * @return the statistics description
+	 */
+	public static String describe() {
+		long hitCount = getHitCount();
+		long missCount = getMissCount();
+		long total = hitCount + missCount;
+		long hitPercentage = (total > 0) ? (hitCount * 100) / total : 0;
+		return "Jar entry cache: " + hitCount + " hits, " + missCount + " misses (" + hitPercentage + "% hit rate)";
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.util.Arrays;
+
+/**
+ * Bounded cache of {@link FileHeader} instances keyed by entry index. The cache is
+ * direct-mapped so that each index can only occupy a single slot. Slots hold immutable
+ * {@link Slot} instances which means that reads and writes need no locking; a racing
+ * write can only cause a later lookup to miss.
+ *
+ * @author Phillip Webb
+ * @see EntryCacheStatistics
+ */
+final class FileHeaderCache {
+
+	private final Slot[] slots;
+
+	private final int mask;
+
+	/**
+	 * Create a new {@link FileHeaderCache} instance.
+	 * @param size the minimum number of slots, rounded up to the next power of two, or
+	 * {@code 0} to disable caching
+	 */
+	FileHeaderCache(int size) {
+		int capacity = (size > 0) ? Integer.highestOneBit(Math.max(size - 1, 1)) << 1 : 0;
+		this.slots = new Slot[capacity];
+		this.mask = capacity - 1;
+	}
+
+	FileHeader get(int index) {
+		Slot[] slots = this.slots;
+		if (slots.length == 0) {
+			return null;
+		}
+		Slot slot = slots[index & this.mask];
+		if (slot != null && slot.index == index) {
+			EntryCacheStatistics.hit();
+			return slot.fileHeader;
+		}
+		EntryCacheStatistics.miss();
+		return null;
+	}
+
+	void put(int index, FileHeader fileHeader) {
+		Slot[] slots = this.slots;
+		if (slots.length > 0) {
+			slots[index & this.mask] = new Slot(index, fileHeader);
+		}
+	}
+
+	void clear() {
+		Arrays.fill(this.slots, null);
+	}
+
+	int capacity() {
+		return this.slots.length;
+	}
+
+	/**
+	 * A single cached file header.
+	 */
+	private static final class Slot {
+
+		private final int index;
+
+		private final FileHeader fileHeader;
+
+		Slot(int index, FileHeader fileHeader) {
+			this.index = index;
+			this.fileHeader = fileHeader;
+		}
+
+	}
+
+}
@@ -31,6 +31,7 @@ import java.util.Iterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.function.Supplier;
+import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -57,6 +58,8 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 
 	private static final String MANIFEST_NAME = "META-INF/MANIFEST.MF";
 
+	private static final Attributes.Name ENTRIES_INDEX_ATTRIBUTE = new Attributes.Name("Spring-Boot-Entries-Index");
+
 	private static final String PROTOCOL_HANDLER = "java.protocol.handler.pkgs";
 
 	private static final String HANDLERS_PACKAGE = "org.springframework.boot.loader";
@@ -67,6 +70,11 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 
 	private static final String READ_ACTION = "read";
 
+	/**
+	 * System property used to indicate that the root jar file should be memory mapped.
+	 */
+	static final String MEMORY_MAPPED_PROPERTY = "loader.mmap";
+
 	private final RandomAccessDataFile rootFile;
 
 	private final String pathFromRoot;
@@ -93,13 +101,20 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 
 	private volatile JarFileWrapper wrapper;
 
+	private volatile EntriesIndex entriesIndex;
+
+	private final NestedJarFileRegistry nestedJarFiles = new NestedJarFileRegistry();
+
+	private final JarFile shared;
+
 	/**
-	 * Create a new {@link JarFile} backed by the specified file.
+	 * Create a new {@link JarFile} backed by the specified file. The file is memory
+	 * mapped when the {@code loader.mmap} system property is {@code true}.
 	 * @param file the root jar file
 	 * @throws IOException if the file cannot be read
 	 */
 	public JarFile(File file) throws IOException {
-		this(new RandomAccessDataFile(file));
+		this(new RandomAccessDataFile(file, Boolean.getBoolean(MEMORY_MAPPED_PROPERTY)));
 	}
 
 	/**
@@ -122,15 +137,17 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 	 */
 	private JarFile(RandomAccessDataFile rootFile, String pathFromRoot, RandomAccessData data, JarFileType type)
 			throws IOException {
-		this(rootFile, pathFromRoot, data, null, type, null);
+		this(rootFile, pathFromRoot, data, null, type, null, null);
 	}
 
 	private JarFile(RandomAccessDataFile rootFile, String pathFromRoot, RandomAccessData data, JarEntryFilter filter,
-			JarFileType type, Supplier<Manifest> manifestSupplier) throws IOException {
+			JarFileType type, Supplier<Manifest> manifestSupplier, EntriesIndex.IndexedJar indexedJar)
+			throws IOException {
 		super(rootFile.getFile());
 		if (System.getSecurityManager() == null) {
 			super.close();
 		}
+		this.shared = null;
 		this.rootFile = rootFile;
 		this.pathFromRoot = pathFromRoot;
 		CentralDirectoryParser parser = new CentralDirectoryParser();
@@ -138,7 +155,7 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 		this.type = type;
 		parser.addVisitor(centralDirectoryVisitor());
 		try {
-			this.data = parser.parse(data, filter == null);
+			this.data = parser.parse(data, filter == null, indexedJar);
 		}
 		catch (RuntimeException ex) {
 			try {
@@ -162,6 +179,28 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 		};
 	}
 
+	/**
+	 * Private constructor used to create a view of a shared nested {@link JarFile} that
+	 * reuses its parsed entries but that can be closed independently.
+	 * @param shared the shared nested jar file
+	 * @throws IOException if the file cannot be read
+	 */
+	private JarFile(JarFile shared) throws IOException {
+		super(shared.rootFile.getFile());
+		if (System.getSecurityManager() == null) {
+			super.close();
+		}
+		this.shared = shared;
+		this.rootFile = shared.rootFile;
+		this.pathFromRoot = shared.pathFromRoot;
+		this.data = shared.data;
+		this.type = shared.type;
+		this.entries = shared.entries;
+		this.manifestSupplier = shared.manifestSupplier;
+		this.signed = shared.signed;
+		this.comment = shared.comment;
+	}
+
 	private CentralDirectoryVisitor centralDirectoryVisitor() {
 		return new CentralDirectoryVisitor() {
 
@@ -178,6 +217,11 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 				}
 			}
 
+			@Override
+			public void visitIndexedJar(EntriesIndex.IndexedJar indexedJar) {
+				JarFile.this.signed = indexedJar.isSigned();
+			}
+
 			@Override
 			public void visitEnd() {
 			}
@@ -293,14 +337,31 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 	}
 
 	/**
-	 * Return a nested {@link JarFile} loaded from the specified entry.
+	 * Return a nested {@link JarFile} loaded from the specified entry. The parsed content
+	 * of a nested jar file is shared for as long as it is referenced so that it is only
+	 * parsed once, but each caller gets its own instance that it can close without
+	 * affecting the others.
 	 * @param entry the zip entry
 	 * @return a {@link JarFile} for the entry
 	 * @throws IOException if the nested jar file cannot be read
 	 */
 	public synchronized JarFile getNestedJarFile(JarEntry entry) throws IOException {
+		return new JarFile(getSharedNestedJarFile(entry));
+	}
+
+	/**
+	 * Return the shared nested {@link JarFile} for the specified entry. Only for callers,
+	 * such as {@link JarURLConnection}, that never close it.
+	 * @param entry the zip entry
+	 * @return the shared {@link JarFile} for the entry
+	 * @throws IOException if the nested jar file cannot be read
+	 */
+	synchronized JarFile getSharedNestedJarFile(JarEntry entry) throws IOException {
+		if (this.shared != null) {
+			return this.shared.getSharedNestedJarFile(entry);
+		}
 		try {
-			return createJarFileFromEntry(entry);
+			return this.nestedJarFiles.get(entry.getName(), () -> createJarFileFromEntry(entry));
 		}
 		catch (Exception ex) {
 			throw new IOException("Unable to open nested jar file '" + entry.getName() + "'", ex);
@@ -323,7 +384,7 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 			return null;
 		};
 		return new JarFile(this.rootFile, this.pathFromRoot + "!/" + entry.getName().substring(0, name.length() - 1),
-				this.data, filter, JarFileType.NESTED_DIRECTORY, this.manifestSupplier);
+				this.data, filter, JarFileType.NESTED_DIRECTORY, this.manifestSupplier, null);
 	}
 
 	private JarFile createJarFileFromFileEntry(JarEntry entry) throws IOException {
@@ -334,8 +395,33 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 							+ "mechanism used to create your executable jar file");
 		}
 		RandomAccessData entryData = this.entries.getEntryData(entry.getName());
-		return new JarFile(this.rootFile, this.pathFromRoot + "!/" + entry.getName(), entryData,
-				JarFileType.NESTED_JAR);
+		return new JarFile(this.rootFile, this.pathFromRoot + "!/" + entry.getName(), entryData, null,
+				JarFileType.NESTED_JAR, null, getEntriesIndex().get(entry));
+	}
+
+	private EntriesIndex getEntriesIndex() {
+		EntriesIndex entriesIndex = this.entriesIndex;
+		if (entriesIndex == null) {
+			entriesIndex = loadEntriesIndex();
+			this.entriesIndex = entriesIndex;
+		}
+		return entriesIndex;
+	}
+
+	private EntriesIndex loadEntriesIndex() {
+		if (this.type != JarFileType.DIRECT) {
+			return EntriesIndex.NONE;
+		}
+		try {
+			Manifest manifest = getManifest();
+			String location = (manifest != null) ? manifest.getMainAttributes().getValue(ENTRIES_INDEX_ATTRIBUTE)
+					: null;
+			InputStream inputStream = (location != null) ? getInputStream(location) : null;
+			return (inputStream != null) ? EntriesIndex.load(inputStream) : EntriesIndex.NONE;
+		}
+		catch (IOException ex) {
+			return EntriesIndex.NONE;
+		}
 	}
 
 	@Override
@@ -356,6 +442,7 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 			return;
 		}
 		super.close();
+		this.nestedJarFiles.close();
 		if (this.type == JarFileType.DIRECT) {
 			this.rootFile.close();
 		}
@@ -363,13 +450,13 @@ public class JarFile extends AbstractJarFile implements Iterable<java.util.jar.J
 	}
 
 	private void ensureOpen() {
-		if (this.closed) {
+		if (isClosed()) {
 			throw new IllegalStateException("zip file closed");
 		}
 	}
 
 	boolean isClosed() {
-		return this.closed;
+		return this.closed || (this.shared != null && this.shared.isClosed());
 	}
 
 	String getUrlString() throws MalformedURLException {
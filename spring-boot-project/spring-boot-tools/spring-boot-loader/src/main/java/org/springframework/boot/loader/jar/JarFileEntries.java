@@ -19,10 +19,7 @@ package org.springframework.boot.loader.jar;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.jar.Attributes;
 import java.util.jar.Attributes.Name;
@@ -42,6 +39,12 @@ import org.springframework.boot.loader.data.RandomAccessData;
  * <p>
  * A typical Spring Boot application will have somewhere in the region of 10,500 entries
  * which should consume about 122K.
+ * <p>
+ * When an {@link EntriesIndex} is available the arrays are loaded directly from it rather
+ * than being built from the individual file headers.
+ * <p>
+ * Recently used entries are held in a small lock-free {@link FileHeaderCache}. Its size
+ * can be tuned using the {@code loader.entryCacheSize} system property.
  *
  * @author Phillip Webb
  * @author Andy Wilkinson
@@ -79,6 +82,11 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 
 	protected static final int ENTRY_CACHE_SIZE = 25;
 
+	static final String ENTRY_CACHE_SIZE_PROPERTY = "loader.entryCacheSize";
+
+	private static final int CONFIGURED_ENTRY_CACHE_SIZE = Integer.getInteger(ENTRY_CACHE_SIZE_PROPERTY,
+			ENTRY_CACHE_SIZE);
+
 	private final JarFile jarFile;
 
 	private final JarEntryFilter filter;
@@ -95,17 +103,13 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 
 	private Boolean multiReleaseJar;
 
-	private JarEntryCertification[] certifications;
+	private int[] multiReleaseVersions;
 
-	private final Map<Integer, FileHeader> entriesCache = Collections
-			.synchronizedMap(new LinkedHashMap<Integer, FileHeader>(16, 0.75f, true) {
+	private boolean indexed;
 
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<Integer, FileHeader> eldest) {
-					return size() >= ENTRY_CACHE_SIZE;
-				}
+	private JarEntryCertification[] certifications;
 
-			});
+	private final FileHeaderCache entriesCache = new FileHeaderCache(CONFIGURED_ENTRY_CACHE_SIZE);
 
 	JarFileEntries(JarFile jarFile, JarEntryFilter filter) {
 		this.jarFile = jarFile;
@@ -139,8 +143,24 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 		this.size++;
 	}
 
+	@Override
+	public void visitIndexedJar(EntriesIndex.IndexedJar indexedJar) {
+		this.size = indexedJar.getHashCodes().length;
+		this.hashCodes = indexedJar.getHashCodes();
+		this.centralDirectoryOffsets = new ZipOffsets(indexedJar.getOffsets());
+		this.positions = indexedJar.getPositions();
+		this.multiReleaseVersions = indexedJar.getVersions();
+		if (this.multiReleaseVersions.length == 0) {
+			this.multiReleaseJar = false;
+		}
+		this.indexed = true;
+	}
+
 	@Override
 	public void visitEnd() {
+		if (this.indexed) {
+			return;
+		}
 		sort(0, this.size - 1);
 		int[] positions = this.positions;
 		this.positions = new int[positions.length];
@@ -247,9 +267,12 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 			AsciiBytes nameAlias = (entry instanceof JarEntry) ? ((JarEntry) entry).getAsciiBytesName()
 					: new AsciiBytes(name.toString());
 			while (version > BASE_VERSION) {
-				T versionedEntry = doGetEntry("META-INF/versions/" + version + "/" + name, type, cacheEntry, nameAlias);
-				if (versionedEntry != null) {
-					return versionedEntry;
+				if (hasMultiReleaseVersion(version)) {
+					T versionedEntry = doGetEntry("META-INF/versions/" + version + "/" + name, type, cacheEntry,
+							nameAlias);
+					if (versionedEntry != null) {
+						return versionedEntry;
+					}
 				}
 				version--;
 			}
@@ -257,6 +280,18 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 		return entry;
 	}
 
+	private boolean hasMultiReleaseVersion(int version) {
+		if (this.multiReleaseVersions == null) {
+			return true;
+		}
+		for (int candidate : this.multiReleaseVersions) {
+			if (candidate == version) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private boolean isMetaInfEntry(CharSequence name) {
 		return name.toString().startsWith(META_INF_PREFIX);
 	}
@@ -458,6 +493,10 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 			this.offsets = new int[size];
 		}
 
+		private ZipOffsets(int[] offsets) {
+			this.offsets = offsets;
+		}
+
 		@Override
 		public void swap(int i, int j) {
 			JarFileEntries.swap(this.offsets, i, j);
@@ -255,7 +255,7 @@ final class JarURLConnection extends java.net.JarURLConnection {
 			if (jarEntry == null) {
 				return JarURLConnection.notFound(jarFile, entryName);
 			}
-			jarFile = jarFile.getNestedJarFile(jarEntry);
+			jarFile = jarFile.getSharedNestedJarFile(jarEntry);
 			index = separator + SEPARATOR.length();
 		}
 		JarEntryName jarEntryName = JarEntryName.get(spec, index);
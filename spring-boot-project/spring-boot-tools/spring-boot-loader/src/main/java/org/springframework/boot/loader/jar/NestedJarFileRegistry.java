@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the nested {@link JarFile} instances that have been opened from a parent
+ * {@link JarFile}, keyed by entry name. Instances are weakly referenced so that a nested
+ * jar that is still in use is only parsed once while unused jars can be garbage
+ * collected. Closed instances are never returned and closing the registry closes every
+ * nested jar that is still registered.
+ *
+ * @author Phillip Webb
+ */
+final class NestedJarFileRegistry {
+
+	private final Map<String, NestedJarFileReference> jarFiles = new ConcurrentHashMap<>();
+
+	private final ReferenceQueue<JarFile> queue = new ReferenceQueue<>();
+
+	/**
+	 * Return the registered nested jar file for the given entry, creating and registering
+	 * it if necessary.
+	 * @param name the entry name
+	 * @param factory the factory used to create the jar file
+	 * @return the nested jar file
+	 * @throws IOException on IO error
+	 */
+	JarFile get(String name, JarFileFactory factory) throws IOException {
+		purge();
+		NestedJarFileReference reference = this.jarFiles.get(name);
+		JarFile jarFile = (reference != null) ? reference.get() : null;
+		if (jarFile == null || jarFile.isClosed()) {
+			jarFile = factory.create();
+			this.jarFiles.put(name, new NestedJarFileReference(name, jarFile, this.queue));
+		}
+		return jarFile;
+	}
+
+	/**
+	 * Close all registered nested jar files and clear the registry.
+	 * @throws IOException on IO error
+	 */
+	void close() throws IOException {
+		List<NestedJarFileReference> references = new ArrayList<>(this.jarFiles.values());
+		this.jarFiles.clear();
+		IOException failure = null;
+		for (NestedJarFileReference reference : references) {
+			JarFile jarFile = reference.get();
+			if (jarFile != null) {
+				try {
+					jarFile.close();
+				}
+				catch (IOException ex) {
+					failure = (failure != null) ? failure : ex;
+				}
+			}
+		}
+		purge();
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	int size() {
+		purge();
+		return this.jarFiles.size();
+	}
+
+	private void purge() {
+		NestedJarFileReference reference;
+		while ((reference = (NestedJarFileReference) this.queue.poll()) != null) {
+			this.jarFiles.remove(reference.name, reference);
+		}
+	}
+
+	/**
+	 * Factory used to create a nested jar file.
+	 */
+	@FunctionalInterface
+	interface JarFileFactory {
+
+		JarFile create() throws IOException;
+
+	}
+
+	/**
+	 * Weak reference to a nested jar file that remembers its entry name.
+	 */
+	private static final class NestedJarFileReference extends WeakReference<JarFile> {
+
+		private final String name;
+
+		NestedJarFileReference(String name, JarFile jarFile, ReferenceQueue<JarFile> queue) {
+			super(jarFile, queue);
+			this.name = name;
+		}
+
+	}
+
+}
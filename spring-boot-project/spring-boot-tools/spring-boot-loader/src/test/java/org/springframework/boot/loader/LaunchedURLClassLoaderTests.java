@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2019 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,10 +17,28 @@
 package org.springframework.boot.loader;
 
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -28,6 +46,7 @@ import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.loader.jar.JarFile;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 /**
  * Tests for {@link LaunchedURLClassLoader}.
@@ -108,4 +127,135 @@ class LaunchedURLClassLoaderTests {
 		}
 	}
 
+	@Test
+	void resolveResourceFromIndexedArchive() throws Exception {
+		File file = new File(this.tempDir, "test.jar");
+		TestJarCreator.createTestJar(file);
+		try (JarFile jarFile = new JarFile(file)) {
+			URL url = jarFile.getUrl();
+			try (LaunchedURLClassLoader loader = createIndexedClassLoader(url)) {
+				URL resource = loader.getResource("d/9.dat");
+				assertThat(resource.toString()).isEqualTo(url + "d/9.dat");
+				try (InputStream input = resource.openConnection().getInputStream()) {
+					assertThat(input.read()).isEqualTo(9);
+				}
+				assertThat(loader.getResource("d/missing.dat")).isNull();
+				assertThat(loader.getResource("missing/9.dat")).isNull();
+				assertThat(loader.getResources("missing/9.dat").hasMoreElements()).isFalse();
+				assertThat(loader.getResource("nested.jar!/3.dat")).isNotNull();
+			}
+		}
+	}
+
+	@Test
+	void loadClassFromIndexedArchive() throws Exception {
+		URL url = new JarFile(createClassesJar()).getUrl();
+		try (LaunchedURLClassLoader loader = createIndexedClassLoader(url)) {
+			Class<?> loaded = loader.loadClass(TestJarCreator.class.getName());
+			assertThat(loaded.getClassLoader()).isSameAs(loader);
+			assertThat(loaded.getProtectionDomain().getCodeSource().getLocation()).isEqualTo(url);
+			assertThat(loaded.getPackage()).isNotNull();
+			assertThatExceptionOfType(ClassNotFoundException.class)
+					.isThrownBy(() -> loader.loadClass("org.springframework.boot.loader.Missing"));
+			assertThatExceptionOfType(ClassNotFoundException.class)
+					.isThrownBy(() -> loader.loadClass("com.example.Missing"));
+		}
+	}
+
+	@Test
+	void loadClassConcurrentlyFromIndexedArchive() throws Exception {
+		URL url = new JarFile(createClassesJar()).getUrl();
+		try (LaunchedURLClassLoader loader = createIndexedClassLoader(url)) {
+			int threads = 8;
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				CountDownLatch latch = new CountDownLatch(1);
+				List<Future<Class<?>>> results = new ArrayList<>();
+				for (int i = 0; i < threads; i++) {
+					results.add(executor.submit(() -> {
+						latch.await();
+						loader.loadClass(TestJarCreator.class.getName());
+						return loader.loadClass(TestJarCreator.class.getName());
+					}));
+				}
+				latch.countDown();
+				Set<Class<?>> loaded = Collections.newSetFromMap(new ConcurrentHashMap<>());
+				for (Future<Class<?>> result : results) {
+					loaded.add(result.get(30, TimeUnit.SECONDS));
+				}
+				assertThat(loaded).hasSize(1);
+			}
+			finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	@Test
+	void loadClassFromIndexedArchiveOnlyOpensLaterArchivesWhenNeeded() throws Exception {
+		URL url = new JarFile(createClassesJar()).getUrl();
+		AtomicInteger connections = new AtomicInteger();
+		URL missing = new URL(null, "jar:file:missing.jar!/", new URLStreamHandler() {
+
+			@Override
+			protected URLConnection openConnection(URL url) throws IOException {
+				connections.incrementAndGet();
+				throw new FileNotFoundException(url.toString());
+			}
+
+		});
+		try (LaunchedURLClassLoader loader = createIndexedClassLoader(url, missing)) {
+			assertThat(loader.loadClass(TestJarCreator.class.getName()).getClassLoader()).isSameAs(loader);
+			assertThat(connections).hasValue(0);
+			assertThatExceptionOfType(ClassNotFoundException.class)
+					.isThrownBy(() -> loader.loadClass("com.example.Missing"));
+			assertThat(connections).hasValue(1);
+			assertThatExceptionOfType(ClassNotFoundException.class)
+					.isThrownBy(() -> loader.loadClass("com.example.other.Missing"));
+			assertThat(connections).hasValue(1);
+		}
+	}
+
+	@Test
+	void loadClassFromIndexedArchiveWithoutDirectoryEntriesDefinesPackageFromManifest() throws Exception {
+		File jar = createClassesJar("Manifest-Version: 1.0\r\nImplementation-Version: 1.2.3\r\n", false);
+		URL url = new JarFile(jar).getUrl();
+		try (LaunchedURLClassLoader loader = createIndexedClassLoader(url)) {
+			Class<?> loaded = loader.loadClass(TestJarCreator.class.getName());
+			assertThat(loaded.getPackage().getImplementationVersion()).isEqualTo("1.2.3");
+		}
+	}
+
+	private LaunchedURLClassLoader createIndexedClassLoader(URL... urls) throws Exception {
+		PackageIndex packageIndex = new PackageIndex(Arrays.asList(urls));
+		return new LaunchedURLClassLoader(false, null, urls, packageIndex, null);
+	}
+
+	private File createClassesJar() throws Exception {
+		return createClassesJar("Manifest-Version: 1.0\r\n", true);
+	}
+
+	private File createClassesJar(String manifest, boolean directoryEntries) throws Exception {
+		File file = new File(this.tempDir, "classes.jar");
+		String name = TestJarCreator.class.getName().replace('.', '/') + ".class";
+		try (JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(file));
+				InputStream inputStream = getClass().getClassLoader().getResourceAsStream(name)) {
+			jarOutputStream.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+			jarOutputStream.write(manifest.getBytes());
+			jarOutputStream.closeEntry();
+			if (directoryEntries) {
+				jarOutputStream.putNextEntry(new ZipEntry("org/springframework/boot/loader/"));
+				jarOutputStream.closeEntry();
+			}
+			jarOutputStream.putNextEntry(new ZipEntry(name));
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = inputStream.read(buffer)) != -1) {
+				jarOutputStream.write(buffer, 0, read);
+			}
+			jarOutputStream.closeEntry();
+		}
+		return file;
+	}
+
 }
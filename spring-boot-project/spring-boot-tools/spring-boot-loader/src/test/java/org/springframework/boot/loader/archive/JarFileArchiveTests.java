@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2020 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,7 +20,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.net.URLConnection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -104,6 +106,20 @@ class JarFileArchiveTests {
 		}
 	}
 
+	@Test
+	void closeNestedArchiveDoesNotAffectUrlConnectionToSameNestedJar() throws Exception {
+		JarFile jarFile = new JarFile(this.rootJarFile);
+		try (JarFileArchive archive = new JarFileArchive(jarFile)) {
+			URLConnection connection = new URL(jarFile.getUrl(), "nested.jar!/3.dat").openConnection();
+			Entry entry = getEntriesMap(archive).get("nested.jar");
+			Archive nested = archive.getNestedArchive(entry);
+			nested.close();
+			try (InputStream inputStream = connection.getInputStream()) {
+				assertThat(inputStream.read()).isEqualTo(3);
+			}
+		}
+	}
+
 	@Test
 	void getNestedUnpackedArchive() throws Exception {
 		setup(true);
@@ -288,4 +288,77 @@ class RandomAccessDataFileTests {
 		}
 	}
 
+	@Test
+	void isMemoryMappedWhenNotMapped() {
+		assertThat(this.file.isMemoryMapped()).isFalse();
+	}
+
+	@Test
+	void memoryMappedRead() throws Exception {
+		RandomAccessDataFile file = new RandomAccessDataFile(this.tempFile, true);
+		try {
+			assertThat(file.isMemoryMapped()).isTrue();
+			assertThat(file.read()).isEqualTo(BYTES);
+			assertThat(file.read(2, 3)).isEqualTo(new byte[] { 2, 3, 4 });
+			assertThat(file.getSubsection(1, 2).read()).isEqualTo(new byte[] { 1, 2 });
+		}
+		finally {
+			file.close();
+		}
+	}
+
+	@Test
+	void memoryMappedInputStreamRead() throws Exception {
+		RandomAccessDataFile file = new RandomAccessDataFile(this.tempFile, true);
+		try (InputStream inputStream = file.getSubsection(254, 2).getInputStream()) {
+			assertThat(inputStream.read()).isEqualTo(0xFE);
+			assertThat(inputStream.read()).isEqualTo(0xFF);
+			assertThat(inputStream.read()).isEqualTo(-1);
+		}
+		finally {
+			file.close();
+		}
+	}
+
+	@Test
+	void memoryMappedCloseWhileReading() throws Exception {
+		RandomAccessDataFile file = new RandomAccessDataFile(this.tempFile, true);
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				results.add(executorService.submit(() -> {
+					for (int j = 0; j < 1000; j++) {
+						if (!Arrays.equals(file.read(), BYTES)) {
+							return false;
+						}
+					}
+					return true;
+				}));
+			}
+			for (int i = 0; i < 100; i++) {
+				file.close();
+			}
+			for (Future<Boolean> future : results) {
+				assertThat(future.get()).isTrue();
+			}
+		}
+		finally {
+			executorService.shutdown();
+			file.close();
+		}
+	}
+
+	@Test
+	void memoryMappedReadAfterClose() throws Exception {
+		RandomAccessDataFile file = new RandomAccessDataFile(this.tempFile, true);
+		file.close();
+		try {
+			assertThat(file.read(2, 3)).isEqualTo(new byte[] { 2, 3, 4 });
+		}
+		finally {
+			file.close();
+		}
+	}
+
 }
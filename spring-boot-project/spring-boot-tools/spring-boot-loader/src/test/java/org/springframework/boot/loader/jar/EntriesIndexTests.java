@@ -0,0 +1,235 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.boot.loader.TestJarCreator;
+import org.springframework.boot.loader.data.RandomAccessData;
+import org.springframework.boot.loader.data.RandomAccessDataFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link EntriesIndex}.
+ *
+ * @author Phillip Webb
+ */
+class EntriesIndexTests {
+
+	private static final String INDEX_LOCATION = "BOOT-INF/entries.idx";
+
+	@TempDir
+	File tempDir;
+
+	private byte[] nestedJarData;
+
+	private byte[] multiReleaseJarData;
+
+	private byte[] indexedJarData;
+
+	@BeforeEach
+	void setup() throws Exception {
+		File testJar = new File(this.tempDir, "test.jar");
+		TestJarCreator.createTestJar(testJar);
+		try (java.util.zip.ZipFile zipFile = new java.util.zip.ZipFile(testJar)) {
+			this.nestedJarData = readAll(zipFile.getInputStream(zipFile.getEntry("nested.jar")));
+			this.multiReleaseJarData = readAll(zipFile.getInputStream(zipFile.getEntry("multi-release.jar")));
+		}
+	}
+
+	@Test
+	void loadWhenNotAnIndexReturnsNone() throws Exception {
+		EntriesIndex index = EntriesIndex.load(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+		assertThat(index).isSameAs(EntriesIndex.NONE);
+	}
+
+	@Test
+	void getNestedJarFileWhenIndexedUsesIndex() throws Exception {
+		// The index claims that the jar is signed so that we can tell it has been used
+		File rootJar = createRootJar(index(this.nestedJarData, 0, true, new int[0]));
+		try (JarFile jarFile = new JarFile(rootJar);
+				JarFile nestedJarFile = jarFile.getNestedJarFile(jarFile.getEntry("nested.jar"))) {
+			assertThat(nestedJarFile.isSigned()).isTrue();
+			assertThat(entryNames(nestedJarFile)).containsExactly("META-INF/", "META-INF/MANIFEST.MF", "3.dat", "4.dat",
+					"ä.dat");
+			assertThat(nestedJarFile.getInputStream(nestedJarFile.getEntry("ä.dat")).read()).isEqualTo(0xE4);
+			assertThat(nestedJarFile.getEntry("missing.dat")).isNull();
+		}
+	}
+
+	@Test
+	void getNestedJarFileWhenIndexDoesNotMatchParsesCentralDirectory() throws Exception {
+		File rootJar = createRootJar(index(this.nestedJarData, 1, true, new int[0]));
+		try (JarFile jarFile = new JarFile(rootJar);
+				JarFile nestedJarFile = jarFile.getNestedJarFile(jarFile.getEntry("nested.jar"))) {
+			assertThat(nestedJarFile.isSigned()).isFalse();
+			assertThat(entryNames(nestedJarFile)).containsExactly("META-INF/", "META-INF/MANIFEST.MF", "3.dat", "4.dat",
+					"ä.dat");
+		}
+	}
+
+	@Test
+	void getNestedJarFileWhenIndexedMultiReleaseJarFindsVersionedEntry() throws Exception {
+		int runtimeVersion = runtimeVersion();
+		File rootJar = createRootJar(index(this.multiReleaseJarData, 0, false, new int[] { runtimeVersion }));
+		try (JarFile jarFile = new JarFile(rootJar);
+				JarFile nestedJarFile = jarFile.getNestedJarFile(jarFile.getEntry("nested.jar"))) {
+			ZipEntry entry = nestedJarFile.getEntry("multi-release.dat");
+			assertThat(nestedJarFile.getInputStream(entry).read()).isEqualTo(runtimeVersion);
+		}
+	}
+
+	private File createRootJar(byte[] index) throws Exception {
+		File file = new File(this.tempDir, "root.jar");
+		try (JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(file))) {
+			Manifest manifest = new Manifest();
+			manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+			manifest.getMainAttributes().putValue("Spring-Boot-Entries-Index", INDEX_LOCATION);
+			jarOutputStream.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+			manifest.write(jarOutputStream);
+			jarOutputStream.closeEntry();
+			jarOutputStream.putNextEntry(new ZipEntry(INDEX_LOCATION));
+			jarOutputStream.write(index);
+			jarOutputStream.closeEntry();
+			ZipEntry nestedEntry = new ZipEntry("nested.jar");
+			nestedEntry.setMethod(ZipEntry.STORED);
+			nestedEntry.setSize(this.indexedJarData.length);
+			nestedEntry.setCompressedSize(this.indexedJarData.length);
+			nestedEntry.setCrc(crc(this.indexedJarData));
+			jarOutputStream.putNextEntry(nestedEntry);
+			jarOutputStream.write(this.indexedJarData);
+			jarOutputStream.closeEntry();
+		}
+		return file;
+	}
+
+	private byte[] index(byte[] jarData, long crcAdjustment, boolean signed, int[] versions) throws Exception {
+		this.indexedJarData = jarData;
+		File file = new File(this.tempDir, "indexed.jar");
+		Files.write(file.toPath(), jarData);
+		List<long[]> records = new ArrayList<>();
+		RandomAccessDataFile data = new RandomAccessDataFile(file);
+		try {
+			CentralDirectoryParser parser = new CentralDirectoryParser();
+			parser.addVisitor(new CentralDirectoryVisitor() {
+
+				@Override
+				public void visitStart(CentralDirectoryEndRecord endRecord, RandomAccessData centralDirectoryData) {
+				}
+
+				@Override
+				public void visitFileHeader(CentralDirectoryFileHeader fileHeader, long dataOffset) {
+					records.add(new long[] { fileHeader.getName().hashCode(), dataOffset, records.size() });
+				}
+
+				@Override
+				public void visitEnd() {
+				}
+
+			});
+			parser.parse(data, false);
+		}
+		finally {
+			data.close();
+		}
+		List<long[]> sorted = new ArrayList<>(records);
+		Collections.sort(sorted, (left, right) -> Long.compare(left[0], right[0]));
+		int[] positions = new int[records.size()];
+		for (int i = 0; i < sorted.size(); i++) {
+			positions[(int) sorted.get(i)[2]] = i;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0x53424549);
+		out.writeInt(1);
+		out.writeInt(1);
+		out.writeUTF("nested.jar");
+		out.writeLong(jarData.length);
+		out.writeLong(crc(jarData) + crcAdjustment);
+		out.writeBoolean(signed);
+		out.writeInt(versions.length);
+		for (int version : versions) {
+			out.writeInt(version);
+		}
+		out.writeInt(sorted.size());
+		for (long[] record : sorted) {
+			out.writeInt((int) record[0]);
+		}
+		for (long[] record : sorted) {
+			out.writeInt((int) record[1]);
+		}
+		for (int position : positions) {
+			out.writeInt(position);
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private List<String> entryNames(JarFile jarFile) {
+		List<String> names = new ArrayList<>();
+		jarFile.stream().forEach((entry) -> names.add(entry.getName()));
+		return names;
+	}
+
+	private long crc(byte[] data) {
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		return crc.getValue();
+	}
+
+	private byte[] readAll(InputStream inputStream) throws Exception {
+		try (InputStream stream = inputStream) {
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = stream.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, read);
+			}
+			return outputStream.toByteArray();
+		}
+	}
+
+	private int runtimeVersion() {
+		try {
+			Object runtimeVersion = Runtime.class.getMethod("version").invoke(null);
+			return (int) runtimeVersion.getClass().getMethod("major").invoke(runtimeVersion);
+		}
+		catch (Throwable ex) {
+			return 8;
+		}
+	}
+
+}
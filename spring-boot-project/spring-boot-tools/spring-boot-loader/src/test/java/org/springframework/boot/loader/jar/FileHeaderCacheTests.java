@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link FileHeaderCache}.
+ *
+ * @author Phillip Webb
+ */
+class FileHeaderCacheTests {
+
+	@BeforeEach
+	void enableStatistics() {
+		EntryCacheStatistics.setEnabled(true);
+		EntryCacheStatistics.reset();
+	}
+
+	@AfterEach
+	void disableStatistics() {
+		EntryCacheStatistics.setEnabled(false);
+		EntryCacheStatistics.reset();
+	}
+
+	@Test
+	void capacityIsRoundedUpToPowerOfTwo() {
+		assertThat(new FileHeaderCache(25).capacity()).isEqualTo(32);
+		assertThat(new FileHeaderCache(32).capacity()).isEqualTo(32);
+		assertThat(new FileHeaderCache(0).capacity()).isZero();
+	}
+
+	@Test
+	void getWhenCachedReturnsFileHeader() {
+		FileHeaderCache cache = new FileHeaderCache(8);
+		FileHeader fileHeader = mock(FileHeader.class);
+		cache.put(3, fileHeader);
+		assertThat(cache.get(3)).isSameAs(fileHeader);
+		assertThat(cache.get(4)).isNull();
+		assertThat(EntryCacheStatistics.getHitCount()).isEqualTo(1);
+		assertThat(EntryCacheStatistics.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	void putWhenSlotIsTakenReplacesFileHeader() {
+		FileHeaderCache cache = new FileHeaderCache(8);
+		FileHeader first = mock(FileHeader.class);
+		FileHeader second = mock(FileHeader.class);
+		cache.put(1, first);
+		cache.put(9, second);
+		assertThat(cache.get(1)).isNull();
+		assertThat(cache.get(9)).isSameAs(second);
+	}
+
+	@Test
+	void clearRemovesFileHeaders() {
+		FileHeaderCache cache = new FileHeaderCache(8);
+		cache.put(1, mock(FileHeader.class));
+		cache.clear();
+		assertThat(cache.get(1)).isNull();
+	}
+
+	@Test
+	void getWhenDisabledReturnsNull() {
+		FileHeaderCache cache = new FileHeaderCache(0);
+		cache.put(1, mock(FileHeader.class));
+		assertThat(cache.get(1)).isNull();
+		assertThat(EntryCacheStatistics.getMissCount()).isZero();
+	}
+
+	@Test
+	void getWhenStatisticsAreDisabledDoesNotRecordCounts() {
+		EntryCacheStatistics.setEnabled(false);
+		FileHeaderCache cache = new FileHeaderCache(8);
+		cache.put(1, mock(FileHeader.class));
+		cache.get(1);
+		cache.get(2);
+		assertThat(EntryCacheStatistics.getHitCount()).isZero();
+		assertThat(EntryCacheStatistics.getMissCount()).isZero();
+	}
+
+	@Test
+	void describeIncludesCounts() {
+		FileHeaderCache cache = new FileHeaderCache(8);
+		cache.put(1, mock(FileHeader.class));
+		cache.get(1);
+		cache.get(1);
+		cache.get(1);
+		cache.get(2);
+		assertThat(EntryCacheStatistics.describe()).isEqualTo("Jar entry cache: 3 hits, 1 misses (75% hit rate)");
+	}
+
+}
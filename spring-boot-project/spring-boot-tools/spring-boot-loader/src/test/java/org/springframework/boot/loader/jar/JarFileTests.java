@@ -525,6 +525,66 @@ class JarFileTests {
 		}
 	}
 
+	@Test
+	void getNestedJarFileSharesParsedContent() throws Exception {
+		JarEntry entry = this.jarFile.getJarEntry("nested.jar");
+		JarFile nestedJarFile = this.jarFile.getNestedJarFile(entry);
+		JarFile anotherNestedJarFile = this.jarFile.getNestedJarFile(entry);
+		assertThat(anotherNestedJarFile).isNotSameAs(nestedJarFile);
+		assertThat(anotherNestedJarFile.getData()).isSameAs(nestedJarFile.getData());
+		assertThat(this.jarFile.getNestedJarFile(this.jarFile.getJarEntry("d/")).getData())
+				.isNotSameAs(nestedJarFile.getData());
+	}
+
+	@Test
+	void closeNestedJarFileDoesNotCloseOtherInstances() throws Exception {
+		JarEntry entry = this.jarFile.getJarEntry("nested.jar");
+		JarFile nestedJarFile = this.jarFile.getNestedJarFile(entry);
+		JarFile anotherNestedJarFile = this.jarFile.getNestedJarFile(entry);
+		nestedJarFile.close();
+		assertThat(nestedJarFile.isClosed()).isTrue();
+		assertThat(anotherNestedJarFile.isClosed()).isFalse();
+		assertThat(anotherNestedJarFile.getEntry("3.dat")).isNotNull();
+	}
+
+	@Test
+	void getNestedJarFileWhenPreviousInstanceClosedReturnsNewInstance() throws Exception {
+		JarEntry entry = this.jarFile.getJarEntry("nested.jar");
+		JarFile nestedJarFile = this.jarFile.getNestedJarFile(entry);
+		nestedJarFile.close();
+		JarFile reopened = this.jarFile.getNestedJarFile(entry);
+		assertThat(reopened).isNotSameAs(nestedJarFile);
+		assertThat(reopened.isClosed()).isFalse();
+		assertThat(reopened.getEntry("3.dat")).isNotNull();
+	}
+
+	@Test
+	void closeClosesNestedJarFiles() throws Exception {
+		JarFile jarFile = new JarFile(this.rootJarFile);
+		JarFile nestedJarFile = jarFile.getNestedJarFile(jarFile.getEntry("nested.jar"));
+		JarFile nestedDirectory = jarFile.getNestedJarFile(jarFile.getEntry("d/"));
+		jarFile.close();
+		assertThat(nestedJarFile.isClosed()).isTrue();
+		assertThat(nestedDirectory.isClosed()).isTrue();
+	}
+
+	@Test
+	void getNestedJarFileWhenMemoryMapped() throws Exception {
+		System.setProperty(JarFile.MEMORY_MAPPED_PROPERTY, "true");
+		try (JarFile jarFile = new JarFile(this.rootJarFile)) {
+			assertThat(jarFile.getRootJarFile().isMemoryMapped()).isTrue();
+			try (JarFile nestedJarFile = jarFile.getNestedJarFile(jarFile.getEntry("nested.jar"))) {
+				assertThat(nestedJarFile.getComment()).isEqualTo("nested");
+				InputStream inputStream = nestedJarFile.getInputStream(nestedJarFile.getEntry("3.dat"));
+				assertThat(inputStream.read()).isEqualTo(3);
+				assertThat(inputStream.read()).isEqualTo(-1);
+			}
+		}
+		finally {
+			System.clearProperty(JarFile.MEMORY_MAPPED_PROPERTY);
+		}
+	}
+
 	@Test
 	void jarFileCanBeDeletedOnceItHasBeenClosed() throws Exception {
 		File jar = new File(this.tempDir, "test.jar");
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.maven;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.artifact.filter.collection.ArtifactsFilter;
+import org.apache.maven.shared.artifact.filter.collection.ScopeFilter;
+
+import org.springframework.boot.loader.tools.JavaExecutable;
+import org.springframework.boot.loader.tools.RunProcess;
+
+/**
+ * Create an index of the auto-configuration classes that cannot match on the runtime
+ * class path of the application so that they can be skipped at startup. The index is
+ * written to the classes directory and is ignored at runtime if the jars or the classes
+ * on the class path have changed.
+ * <p>
+ * The indexed class path is made of the classes directory and of the dependencies that
+ * the {@code repackage} goal nests in the archive. It uses the same resolution scope and
+ * the same filters, i.e. {@code includes}, {@code excludes}, {@code excludeGroupIds},
+ * {@code excludeDevtools} and {@code includeSystemScope}, so these must be configured
+ * identically for both goals. When they are, the indexed jars are exactly the ones in
+ * {@code BOOT-INF/lib}, or in {@code WEB-INF/lib} and {@code WEB-INF/lib-provided} for a
+ * war. Dependencies whose file names clash are renamed when they are packaged, in which
+ * case the index is not used.
+ *
+ * @author Stephane Nicoll
+ * @since 2.6.14
+ */
+@Mojo(name = "autoconfigure-candidates", defaultPhase = LifecyclePhase.PREPARE_PACKAGE, requiresProject = true,
+		threadSafe = true, requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME,
+		requiresDependencyCollection = ResolutionScope.COMPILE_PLUS_RUNTIME)
+public class AutoConfigurationCandidatesMojo extends AbstractDependencyFilterMojo {
+
+	private static final String INDEX_CLASS_NAME = "org.springframework.boot.autoconfigure.AutoConfigurationCandidatesIndex";
+
+	private static final String INDEX_LOCATION = "META-INF/spring-autoconfigure-candidates.properties";
+
+	/**
+	 * The Maven project.
+	 * @since 2.6.14
+	 */
+	@Parameter(defaultValue = "${project}", readonly = true, required = true)
+	private MavenProject project;
+
+	/**
+	 * Directory containing the classes and resource files that should be packaged into
+	 * the archive. The index is written to this directory.
+	 * @since 2.6.14
+	 */
+	@Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+	private File classesDirectory;
+
+	/**
+	 * Exclude Spring Boot devtools from the indexed class path. Should match the
+	 * configuration of the repackage goal.
+	 * @since 2.6.14
+	 */
+	@Parameter(property = "spring-boot.repackage.excludeDevtools", defaultValue = "true")
+	private boolean excludeDevtools = true;
+
+	/**
+	 * Include system scoped dependencies in the indexed class path. Should match the
+	 * configuration of the repackage goal.
+	 * @since 2.6.14
+	 */
+	@Parameter(defaultValue = "false")
+	private boolean includeSystemScope;
+
+	/**
+	 * Skip the execution.
+	 * @since 2.6.14
+	 */
+	@Parameter(property = "spring-boot.autoconfigure-candidates.skip", defaultValue = "false")
+	private boolean skip;
+
+	@Override
+	public void execute() throws MojoExecutionException, MojoFailureException {
+		if (this.skip) {
+			getLog().debug("skipping autoconfigure-candidates as per configuration.");
+			return;
+		}
+		if ("pom".equals(this.project.getPackaging())) {
+			getLog().debug("autoconfigure-candidates goal could not be applied to pom project.");
+			return;
+		}
+		File index = new File(this.classesDirectory, INDEX_LOCATION);
+		List<String> args = new ArrayList<>();
+		args.add("-cp");
+		args.add(getClassPath());
+		args.add(INDEX_CLASS_NAME);
+		args.add(index.getAbsolutePath());
+		try {
+			RunProcess runProcess = new RunProcess(this.project.getBasedir(), new JavaExecutable().toString());
+			int exitCode = runProcess.run(true, args.toArray(new String[0]));
+			if (exitCode != 0) {
+				throw new MojoExecutionException(
+						"Creating the auto-configuration candidates index failed with exit code " + exitCode);
+			}
+		}
+		catch (MojoExecutionException ex) {
+			throw ex;
+		}
+		catch (Exception ex) {
+			throw new MojoExecutionException("Could not create the auto-configuration candidates index", ex);
+		}
+	}
+
+	private String getClassPath() throws MojoExecutionException {
+		StringBuilder classPath = new StringBuilder(this.classesDirectory.getAbsolutePath());
+		Set<Artifact> artifacts = filterDependencies(this.project.getArtifacts(), getFilters(getAdditionalFilters()));
+		for (Artifact artifact : artifacts) {
+			if (artifact.getFile() != null) {
+				classPath.append(File.pathSeparator).append(artifact.getFile().getAbsolutePath());
+			}
+		}
+		return classPath.toString();
+	}
+
+	private ArtifactsFilter[] getAdditionalFilters() {
+		List<ArtifactsFilter> filters = new ArrayList<>();
+		if (this.excludeDevtools) {
+			Exclude exclude = new Exclude();
+			exclude.setGroupId("org.springframework.boot");
+			exclude.setArtifactId("spring-boot-devtools");
+			filters.add(new ExcludeFilter(exclude));
+		}
+		if (!this.includeSystemScope) {
+			filters.add(new ScopeFilter(null, Artifact.SCOPE_SYSTEM));
+		}
+		return filters.toArray(new ArtifactsFilter[0]);
+	}
+
+}
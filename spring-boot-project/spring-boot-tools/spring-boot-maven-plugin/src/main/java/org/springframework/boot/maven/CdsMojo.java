@@ -0,0 +1,146 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.maven;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import org.springframework.boot.loader.tools.JavaExecutable;
+import org.springframework.boot.loader.tools.RunProcess;
+
+/**
+ * Extract an executable jar into a layout suitable for class data sharing (CDS) and
+ * create a shared archive by performing a training run of the application. Requires the
+ * jar to have been repackaged with the layer tools included.
+ *
+ * @author Stephane Nicoll
+ * @since 2.6.14
+ */
+@Mojo(name = "cds", defaultPhase = LifecyclePhase.PACKAGE, requiresProject = true, threadSafe = true)
+public class CdsMojo extends AbstractMojo {
+
+	/**
+	 * The Maven project.
+	 * @since 2.6.14
+	 */
+	@Parameter(defaultValue = "${project}", readonly = true, required = true)
+	private MavenProject project;
+
+	/**
+	 * Directory containing the source archive.
+	 * @since 2.6.14
+	 */
+	@Parameter(defaultValue = "${project.build.directory}", required = true)
+	private File sourceDirectory;
+
+	/**
+	 * Name of the source archive.
+	 * @since 2.6.14
+	 */
+	@Parameter(defaultValue = "${project.build.finalName}", readonly = true)
+	private String finalName;
+
+	/**
+	 * Classifier used when finding the source archive.
+	 * @since 2.6.14
+	 */
+	@Parameter
+	private String classifier;
+
+	/**
+	 * Directory that the application and its shared archive are written to.
+	 * @since 2.6.14
+	 */
+	@Parameter(property = "spring-boot.cds.outputDirectory", defaultValue = "${project.build.directory}/cds",
+			required = true)
+	private File outputDirectory;
+
+	/**
+	 * Whether to perform a training run of the application to create the shared archive.
+	 * The training run starts the application and exits once its main method returns.
+	 * Requires Java 13 or later.
+	 * @since 2.6.14
+	 */
+	@Parameter(property = "spring-boot.cds.training", defaultValue = "true")
+	private boolean training;
+
+	/**
+	 * Skip the execution.
+	 * @since 2.6.14
+	 */
+	@Parameter(property = "spring-boot.cds.skip", defaultValue = "false")
+	private boolean skip;
+
+	@Override
+	public void execute() throws MojoExecutionException, MojoFailureException {
+		if (this.skip) {
+			getLog().debug("skipping cds as per configuration.");
+			return;
+		}
+		if ("pom".equals(this.project.getPackaging())) {
+			getLog().debug("cds goal could not be applied to pom project.");
+			return;
+		}
+		File archiveFile = getArchiveFile();
+		List<String> args = new ArrayList<>();
+		args.add("-Djarmode=layertools");
+		args.add("-jar");
+		args.add(archiveFile.getAbsolutePath());
+		args.add("cds");
+		args.add("--destination");
+		args.add(this.outputDirectory.getAbsolutePath());
+		if (!this.training) {
+			args.add("--no-training");
+		}
+		try {
+			this.outputDirectory.mkdirs();
+			RunProcess runProcess = new RunProcess(this.outputDirectory, new JavaExecutable().toString());
+			int exitCode = runProcess.run(true, args.toArray(new String[0]));
+			if (exitCode != 0) {
+				throw new MojoExecutionException("Creating the shared archive failed with exit code " + exitCode);
+			}
+		}
+		catch (MojoExecutionException ex) {
+			throw ex;
+		}
+		catch (Exception ex) {
+			throw new MojoExecutionException("Could not create the shared archive", ex);
+		}
+	}
+
+	private File getArchiveFile() throws MojoExecutionException {
+		String classifierSuffix = (this.classifier != null) ? this.classifier.trim() : "";
+		if (!classifierSuffix.isEmpty() && !classifierSuffix.startsWith("-")) {
+			classifierSuffix = "-" + classifierSuffix;
+		}
+		File archiveFile = new File(this.sourceDirectory, this.finalName + classifierSuffix + ".jar");
+		if (!archiveFile.isFile()) {
+			throw new MojoExecutionException("An executable jar is required to create a shared archive");
+		}
+		return archiveFile;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -172,6 +172,24 @@ public class RepackageMojo extends AbstractPackagerMojo {
 	@Parameter
 	private LayoutFactory layoutFactory;
 
+	/**
+	 * The number of threads used to compress the entries of the archive. Entries are
+	 * written in the same order regardless of the number of threads.
+	 * @since 2.6.14
+	 */
+	@Parameter(property = "spring-boot.repackage.compressionThreads", defaultValue = "1")
+	private int compressionThreads = 1;
+
+	/**
+	 * Whether to copy nested libraries that are unchanged from the archive produced by a
+	 * previous execution rather than writing them again. When the source is repackaged in
+	 * place, a copy of the repackaged archive is kept next to it, with a
+	 * {@code .previous} suffix, for use by the next execution.
+	 * @since 2.6.14
+	 */
+	@Parameter(property = "spring-boot.repackage.incremental", defaultValue = "false")
+	private boolean incremental;
+
 	/**
 	 * Return the type of archive that should be packaged by this MOJO.
 	 * @return the value of the {@code layout} parameter, or {@code null} if the parameter
@@ -255,7 +273,10 @@ public class RepackageMojo extends AbstractPackagerMojo {
 	private Repackager getRepackager(File source) {
 		//  new Repackager(source) 新建打包器
 		// getConfiguredPackager 往下
-		return getConfiguredPackager(() -> new Repackager(source));
+		Repackager repackager = getConfiguredPackager(() -> new Repackager(source));
+		repackager.setCompressionThreads(this.compressionThreads);
+		repackager.setIncremental(this.incremental);
+		return repackager;
 	}
 
 	private LaunchScript getLaunchScript() throws IOException {
@@ -22,6 +22,10 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 
@@ -34,7 +38,10 @@ import org.springframework.boot.context.properties.bind.BindException;
 import org.springframework.boot.context.properties.bind.Bindable;
 import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.context.properties.bind.PlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyCaching;
 import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.env.ConfigTreePropertySource;
+import org.springframework.boot.env.ConfigTreePropertySource.RefreshListener;
 import org.springframework.boot.logging.DeferredLogFactory;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
@@ -81,6 +88,13 @@ class ConfigDataEnvironment {
 	 */
 	static final String ON_NOT_FOUND_PROPERTY = "spring.config.on-not-found";
 
+	/**
+	 * Property used to set the number of threads used to load config data resources.
+	 * Values greater than {@code 1} load the resources resolved from the imports of a
+	 * single contributor concurrently.
+	 */
+	static final String LOAD_PARALLELISM_PROPERTY = "spring.config.load-parallelism";
+
 	/**
 	 * Default search locations used if not {@link #LOCATION_PROPERTY} is found.
 	 */
@@ -123,6 +137,10 @@ class ConfigDataEnvironment {
 
 	private final ConfigDataEnvironmentContributors contributors;
 
+	private final ConfigDataEnvironmentSnapshot snapshot;
+
+	private final int loadParallelism;
+
 	/**
 	 * Create a new {@link ConfigDataEnvironment} instance.
 	 * @param logFactory the deferred log factory
@@ -145,6 +163,7 @@ class ConfigDataEnvironment {
 				.orElse(ConfigDataNotFoundAction.FAIL);
 		this.bootstrapContext = bootstrapContext;
 		this.environment = environment;
+		this.loadParallelism = binder.bind(LOAD_PARALLELISM_PROPERTY, Integer.class).orElse(1);
 
 		// 从spring.factories中拿到ConfigDataLocationResolver，默认会有两个：
 		// ConfigTreeConfigDataLocationResolver和StandardConfigDataLocationResolver
@@ -159,6 +178,8 @@ class ConfigDataEnvironment {
 
 		// 每个Contributor要么对应一个PropertySource，要么对应一个location（配置文件路径或所在目录）
 		this.contributors = createContributors(binder);
+		this.snapshot = ConfigDataEnvironmentSnapshot.get(this.logger, bootstrapContext, binder, environment,
+				resourceLoader, additionalProfiles);
 	}
 
 	protected ConfigDataLocationResolvers createConfigDataLocationResolvers(DeferredLogFactory logFactory,
@@ -248,10 +269,42 @@ class ConfigDataEnvironment {
 	 * {@link Environment}.
 	 */
 	void processAndApply() {
+		if (this.snapshot != null
+				&& this.snapshot.restore(this.environment, this.environmentUpdateListener, this.additionalProfiles)) {
+			this.bootstrapContext.register(Binder.class,
+					InstanceSupplier.from(() -> Binder.get(this.environment)).withScope(Scope.PROTOTYPE));
+			return;
+		}
+		ExecutorService loadExecutor = createLoadExecutor();
+		try {
+			processAndApply(loadExecutor);
+		}
+		finally {
+			if (loadExecutor != null) {
+				loadExecutor.shutdownNow();
+			}
+		}
+	}
+
+	private ExecutorService createLoadExecutor() {
+		if (this.loadParallelism <= 1) {
+			return null;
+		}
+		this.logger.trace(LogMessage.format("Loading config data with %d threads", this.loadParallelism));
+		AtomicInteger threadNumber = new AtomicInteger();
+		ThreadFactory threadFactory = (runnable) -> {
+			Thread thread = new Thread(runnable, "config-data-loader-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		return Executors.newFixedThreadPool(this.loadParallelism, threadFactory);
+	}
+
+	private void processAndApply(ExecutorService loadExecutor) {
 		// importer 是一个很关键的对象，包含了扫描的目录、扫描到的文件
 		// 当然这里只是进行了实例化，还没有任何数据
 		ConfigDataImporter importer = new ConfigDataImporter(this.logFactory, this.notFoundAction, this.resolvers,
-				this.loaders);
+				this.loaders, loadExecutor);
 		registerBootstrapBinder(this.contributors, null, DENY_INACTIVE_BINDING);
 
 		// 处理INITIAL_IMPORT状态的ConfigDataEnvironmentContributor
@@ -277,8 +330,11 @@ class ConfigDataEnvironment {
 		// spring.config.activate.on-profile=dev
 		// spring.config.activate.on-cloudPlatform=CLOUD_FOUNDRY
 		// 符合激活条件则将PropertySource添加到Environment中去
-		applyToEnvironment(contributors, activationContext, importer.getLoadedLocations(),
-				importer.getOptionalLocations());
+		List<ConfigDataEnvironmentContributor> applied = applyToEnvironment(contributors, activationContext,
+				importer.getLoadedLocations(), importer.getOptionalLocations());
+		if (this.snapshot != null) {
+			this.snapshot.save(contributors, applied, this.environment);
+		}
 	}
 
 	private ConfigDataEnvironmentContributors processInitial(ConfigDataEnvironmentContributors contributors,
@@ -367,7 +423,7 @@ class ConfigDataEnvironment {
 				.from(() -> contributors.getBinder(activationContext, binderOptions)).withScope(Scope.PROTOTYPE));
 	}
 
-	private void applyToEnvironment(ConfigDataEnvironmentContributors contributors,
+	private List<ConfigDataEnvironmentContributor> applyToEnvironment(ConfigDataEnvironmentContributors contributors,
 			ConfigDataActivationContext activationContext, Set<ConfigDataLocation> loadedLocations,
 			Set<ConfigDataLocation> optionalLocations) {
 		checkForInvalidProperties(contributors);
@@ -376,7 +432,8 @@ class ConfigDataEnvironment {
 		MutablePropertySources propertySources = this.environment.getPropertySources();
 
 		// 把配置文件对应的PropertySource添加到environment中去
-		applyContributor(contributors, activationContext, propertySources);
+		List<ConfigDataEnvironmentContributor> applied = applyContributor(contributors, activationContext,
+				propertySources);
 
 		// 把defaultProperties移至最后
 		DefaultPropertiesPropertySource.moveToEnd(propertySources);
@@ -386,11 +443,13 @@ class ConfigDataEnvironment {
 		this.logger.trace(LogMessage.format("Setting active profiles: %s", profiles.getActive()));
 		this.environment.setActiveProfiles(StringUtils.toStringArray(profiles.getActive()));
 		this.environmentUpdateListener.onSetProfiles(profiles);
+		return applied;
 	}
 
-	private void applyContributor(ConfigDataEnvironmentContributors contributors,
+	private List<ConfigDataEnvironmentContributor> applyContributor(ConfigDataEnvironmentContributors contributors,
 			ConfigDataActivationContext activationContext, MutablePropertySources propertySources) {
 		this.logger.trace("Applying config data environment contributions");
+		List<ConfigDataEnvironmentContributor> applied = new ArrayList<>();
 		for (ConfigDataEnvironmentContributor contributor : contributors) {
 			PropertySource<?> propertySource = contributor.getPropertySource();
 			if (contributor.getKind() == ConfigDataEnvironmentContributor.Kind.BOUND_IMPORT && propertySource != null) {
@@ -405,11 +464,29 @@ class ConfigDataEnvironment {
 
 					// 把contributor中的propertySource添加到Environment中的propertySources
 					propertySources.addLast(propertySource);
+					if (propertySource instanceof ConfigTreePropertySource) {
+						((ConfigTreePropertySource) propertySource)
+								.addRefreshListener(clearCachingOnRefresh(this.environment));
+					}
 					this.environmentUpdateListener.onPropertySourceAdded(propertySource, contributor.getLocation(),
 							contributor.getResource());
+					applied.add(contributor);
 				}
 			}
 		}
+		return applied;
+	}
+
+	private static RefreshListener clearCachingOnRefresh(ConfigurableEnvironment environment) {
+		// Only capture the environment so that this instance can be garbage collected
+		return (propertySource, names) -> {
+			try {
+				ConfigurationPropertyCaching.get(environment, propertySource).clear();
+			}
+			catch (IllegalStateException ex) {
+				// The property source is no longer in the environment
+			}
+		};
 	}
 
 	private void checkForInvalidProperties(ConfigDataEnvironmentContributors contributors) {
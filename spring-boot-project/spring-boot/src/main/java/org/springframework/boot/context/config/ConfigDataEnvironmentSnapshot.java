@@ -0,0 +1,728 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+
+import org.springframework.boot.BootstrapRegistry.InstanceSupplier;
+import org.springframework.boot.BootstrapRegistry.Scope;
+import org.springframework.boot.ConfigurableBootstrapContext;
+import org.springframework.boot.DefaultPropertiesPropertySource;
+import org.springframework.boot.cloud.CloudPlatform;
+import org.springframework.boot.context.config.LocationResourceLoader.ResourceType;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.env.OriginTrackedMapPropertySource;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.log.LogMessage;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Snapshot of the property sources and profiles applied to the
+ * {@link org.springframework.core.env.Environment} by {@link ConfigDataEnvironment}. A
+ * snapshot is created by a training run with {@value #CREATE_PROPERTY} set to
+ * {@code true}. Later runs use the snapshot instead of locating, loading and parsing
+ * config data, as long as the properties that influence config data processing are
+ * unchanged and every candidate resource that was considered resolves to the same
+ * resources, with the same content. Any difference, including an optional resource that
+ * was missing and has appeared, causes normal processing.
+ * <p>
+ * The properties that are compared are the {@code spring.config.*} and
+ * {@code spring.profiles.*} properties, the active {@link CloudPlatform} and any
+ * properties under the prefixes listed by {@value #FINGERPRINT_PROPERTIES_PROPERTY}.
+ * Resources are compared by their length and last modification time and are only read
+ * again when either differs.
+ * <p>
+ * Restored property sources are checked for invalid properties in the same way as loaded
+ * ones but do not carry {@link org.springframework.boot.origin.Origin origins}. Snapshots
+ * are only created when every imported resource is a {@link StandardConfigDataResource}
+ * and every value is a simple scalar.
+ *
+ * @author Madhura Bhave
+ */
+final class ConfigDataEnvironmentSnapshot {
+
+	/**
+	 * Property used to set the location of the snapshot file.
+	 */
+	static final String LOCATION_PROPERTY = "spring.config.snapshot.location";
+
+	/**
+	 * Property used to request that a snapshot is created.
+	 */
+	static final String CREATE_PROPERTY = "spring.config.snapshot.create";
+
+	/**
+	 * Property used to list the prefixes of additional properties that invalidate a
+	 * snapshot when they change.
+	 */
+	static final String FINGERPRINT_PROPERTIES_PROPERTY = "spring.config.snapshot.fingerprint-properties";
+
+	private static final String PROPERTY_PREFIX = "spring.config.snapshot";
+
+	private static final List<String> FINGERPRINT_PREFIXES = Arrays.asList("spring.config", "spring.profiles");
+
+	private static final int MAGIC = 0x53424353;
+
+	private static final int VERSION = 3;
+
+	private static final byte STRING = 0;
+
+	private static final byte INTEGER = 1;
+
+	private static final byte LONG = 2;
+
+	private static final byte DOUBLE = 3;
+
+	private static final byte FLOAT = 4;
+
+	private static final byte BOOLEAN = 5;
+
+	private static final byte BIG_INTEGER = 6;
+
+	private static final byte BIG_DECIMAL = 7;
+
+	private final Log logger;
+
+	private final File file;
+
+	private final boolean create;
+
+	private final ResourceLoader resourceLoader;
+
+	private final LocationResourceLoader locationResourceLoader;
+
+	private final byte[] fingerprint;
+
+	private final Candidates candidates;
+
+	private ConfigDataEnvironmentSnapshot(Log logger, File file, boolean create, ResourceLoader resourceLoader,
+			byte[] fingerprint, Candidates candidates) {
+		this.logger = logger;
+		this.file = file;
+		this.create = create;
+		this.resourceLoader = resourceLoader;
+		this.locationResourceLoader = new LocationResourceLoader(resourceLoader);
+		this.fingerprint = fingerprint;
+		this.candidates = candidates;
+	}
+
+	/**
+	 * Restore the snapshot to the environment if it exists and matches.
+	 * @param environment the environment to restore to
+	 * @param environmentUpdateListener the listener to notify of updates
+	 * @param additionalProfiles any additional profiles to activate
+	 * @return {@code true} if the snapshot was restored
+	 */
+	boolean restore(ConfigurableEnvironment environment, ConfigDataEnvironmentUpdateListener environmentUpdateListener,
+			Collection<String> additionalProfiles) {
+		if (this.create || !this.file.isFile()) {
+			return false;
+		}
+		Snapshot snapshot;
+		try {
+			snapshot = read();
+		}
+		catch (IOException ex) {
+			this.logger.debug(LogMessage.format("Ignoring unreadable config data snapshot '%s'", this.file), ex);
+			return false;
+		}
+		String mismatch = findMismatch(snapshot);
+		if (mismatch != null) {
+			this.logger.info(LogMessage.format("Ignoring config data snapshot '%s' as %s", this.file, mismatch));
+			return false;
+		}
+		this.logger.debug(LogMessage.format("Restoring config data snapshot '%s'", this.file));
+		for (PropertySource<?> propertySource : environment.getPropertySources()) {
+			InvalidConfigDataPropertyException.throwOrWarn(this.logger,
+					ConfigurationPropertySource.from(propertySource), false, null);
+		}
+		List<PropertySource<?>> propertySources = new ArrayList<>();
+		for (SnapshotPropertySource snapshotPropertySource : snapshot.propertySources) {
+			PropertySource<?> propertySource = new OriginTrackedMapPropertySource(snapshotPropertySource.name,
+					snapshotPropertySource.properties, true);
+			InvalidConfigDataPropertyException.throwOrWarn(this.logger,
+					ConfigurationPropertySource.from(propertySource), snapshotPropertySource.profileSpecific, null);
+			if (snapshotPropertySource.active) {
+				propertySources.add(propertySource);
+			}
+		}
+		for (PropertySource<?> propertySource : propertySources) {
+			environment.getPropertySources().addLast(propertySource);
+			environmentUpdateListener.onPropertySourceAdded(propertySource, null, null);
+		}
+		DefaultPropertiesPropertySource.moveToEnd(environment.getPropertySources());
+		environment.setDefaultProfiles(snapshot.defaultProfiles.toArray(new String[0]));
+		environment.setActiveProfiles(snapshot.activeProfiles.toArray(new String[0]));
+		environmentUpdateListener.onSetProfiles(new Profiles(environment, Binder.get(environment), additionalProfiles));
+		return true;
+	}
+
+	private String findMismatch(Snapshot snapshot) {
+		if (!MessageDigest.isEqual(this.fingerprint, snapshot.fingerprint)) {
+			return "the environment has changed";
+		}
+		for (Map.Entry<String, List<String>> entry : snapshot.candidates.entrySet()) {
+			try {
+				if (!getResourceUrls(entry.getKey()).equals(entry.getValue())) {
+					return "the resources of '" + entry.getKey() + "' have changed";
+				}
+			}
+			catch (IOException ex) {
+				return "'" + entry.getKey() + "' cannot be read";
+			}
+		}
+		long snapshotLastModified = this.file.lastModified();
+		for (Map.Entry<String, SnapshotResource> entry : snapshot.resources.entrySet()) {
+			Resource resource = this.resourceLoader.getResource(entry.getKey());
+			try {
+				if (!resource.exists() || entry.getValue().hasChanged(resource, snapshotLastModified)) {
+					return "'" + entry.getKey() + "' has changed";
+				}
+			}
+			catch (IOException ex) {
+				return "'" + entry.getKey() + "' cannot be read";
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Save a snapshot of the given contributors if a snapshot was requested.
+	 * @param contributors the processed contributors
+	 * @param applied the contributors that were applied to the environment
+	 * @param environment the environment
+	 */
+	void save(ConfigDataEnvironmentContributors contributors, List<ConfigDataEnvironmentContributor> applied,
+			ConfigurableEnvironment environment) {
+		if (!this.create) {
+			return;
+		}
+		Snapshot snapshot = new Snapshot(this.fingerprint);
+		snapshot.activeProfiles.addAll(Arrays.asList(environment.getActiveProfiles()));
+		snapshot.defaultProfiles.addAll(Arrays.asList(environment.getDefaultProfiles()));
+		try {
+			for (ConfigDataEnvironmentContributor contributor : contributors) {
+				if (contributor.getKind() == ConfigDataEnvironmentContributor.Kind.BOUND_IMPORT
+						&& contributor.getPropertySource() != null) {
+					String reason = addContributor(snapshot, contributor, applied.contains(contributor));
+					if (reason != null) {
+						this.logger.info(LogMessage.format("Config data snapshot not created as %s", reason));
+						return;
+					}
+				}
+			}
+			for (String location : this.candidates.getLocations()) {
+				addCandidate(snapshot, location);
+			}
+			write(snapshot);
+			this.logger.info(LogMessage.format("Created config data snapshot '%s'", this.file));
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unable to create config data snapshot '" + this.file + "'", ex);
+		}
+	}
+
+	private String addContributor(Snapshot snapshot, ConfigDataEnvironmentContributor contributor, boolean active)
+			throws IOException {
+		PropertySource<?> propertySource = contributor.getPropertySource();
+		if (!(contributor.getResource() instanceof StandardConfigDataResource)) {
+			return "'" + contributor.getResource() + "' is not a standard resource";
+		}
+		if (!(propertySource instanceof EnumerablePropertySource)) {
+			return "'" + propertySource.getName() + "' is not enumerable";
+		}
+		Resource resource = ((StandardConfigDataResource) contributor.getResource()).getResource();
+		snapshot.resources.put(resource.getURL().toString(), SnapshotResource.of(resource));
+		Map<String, Object> properties = new LinkedHashMap<>();
+		for (String name : ((EnumerablePropertySource<?>) propertySource).getPropertyNames()) {
+			Object value = propertySource.getProperty(name);
+			if (getType(value) == -1) {
+				return "the value of '" + name + "' in '" + propertySource.getName() + "' is not a simple type";
+			}
+			properties.put(name, value);
+		}
+		snapshot.propertySources.add(new SnapshotPropertySource(propertySource.getName(), active,
+				InvalidConfigDataPropertyException.isProfileSpecific(contributor), properties));
+		return null;
+	}
+
+	private void addCandidate(Snapshot snapshot, String location) throws IOException {
+		List<String> urls = new ArrayList<>();
+		for (Resource resource : getResources(location)) {
+			String url = resource.getURL().toString();
+			urls.add(url);
+			snapshot.resources.put(url, SnapshotResource.of(resource));
+		}
+		snapshot.candidates.put(location, urls);
+	}
+
+	private List<String> getResourceUrls(String location) throws IOException {
+		List<String> urls = new ArrayList<>();
+		for (Resource resource : getResources(location)) {
+			urls.add(resource.getURL().toString());
+		}
+		return urls;
+	}
+
+	private List<Resource> getResources(String location) {
+		if (this.locationResourceLoader.isPattern(location)) {
+			return Arrays.asList(this.locationResourceLoader.getResources(location, ResourceType.FILE));
+		}
+		Resource resource = this.locationResourceLoader.getResource(location);
+		return resource.exists() ? Collections.singletonList(resource) : Collections.emptyList();
+	}
+
+	private Snapshot read() throws IOException {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+			if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+				throw new IOException("Unsupported snapshot format");
+			}
+			Snapshot snapshot = new Snapshot(readBytes(input));
+			int resourceCount = input.readInt();
+			for (int i = 0; i < resourceCount; i++) {
+				snapshot.resources.put(readString(input),
+						new SnapshotResource(input.readLong(), input.readLong(), readBytes(input)));
+			}
+			int candidateCount = input.readInt();
+			for (int i = 0; i < candidateCount; i++) {
+				String location = readString(input);
+				List<String> urls = new ArrayList<>();
+				readStrings(input, urls);
+				snapshot.candidates.put(location, urls);
+			}
+			readStrings(input, snapshot.activeProfiles);
+			readStrings(input, snapshot.defaultProfiles);
+			int propertySourceCount = input.readInt();
+			for (int i = 0; i < propertySourceCount; i++) {
+				String name = readString(input);
+				boolean active = input.readBoolean();
+				boolean profileSpecific = input.readBoolean();
+				int propertyCount = input.readInt();
+				Map<String, Object> properties = new LinkedHashMap<>(propertyCount);
+				for (int j = 0; j < propertyCount; j++) {
+					properties.put(readString(input), readValue(input));
+				}
+				snapshot.propertySources.add(new SnapshotPropertySource(name, active, profileSpecific, properties));
+			}
+			return snapshot;
+		}
+	}
+
+	private void write(Snapshot snapshot) throws IOException {
+		File parent = this.file.getAbsoluteFile().getParentFile();
+		if (!parent.exists() && !parent.mkdirs()) {
+			throw new IOException("Unable to create directory " + parent);
+		}
+		File temp = new File(parent, this.file.getName() + ".tmp");
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			writeBytes(output, snapshot.fingerprint);
+			output.writeInt(snapshot.resources.size());
+			for (Map.Entry<String, SnapshotResource> entry : snapshot.resources.entrySet()) {
+				writeString(output, entry.getKey());
+				output.writeLong(entry.getValue().contentLength);
+				output.writeLong(entry.getValue().lastModified);
+				writeBytes(output, entry.getValue().digest);
+			}
+			output.writeInt(snapshot.candidates.size());
+			for (Map.Entry<String, List<String>> entry : snapshot.candidates.entrySet()) {
+				writeString(output, entry.getKey());
+				writeStrings(output, entry.getValue());
+			}
+			writeStrings(output, snapshot.activeProfiles);
+			writeStrings(output, snapshot.defaultProfiles);
+			output.writeInt(snapshot.propertySources.size());
+			for (SnapshotPropertySource propertySource : snapshot.propertySources) {
+				writeString(output, propertySource.name);
+				output.writeBoolean(propertySource.active);
+				output.writeBoolean(propertySource.profileSpecific);
+				output.writeInt(propertySource.properties.size());
+				for (Map.Entry<String, Object> property : propertySource.properties.entrySet()) {
+					writeString(output, property.getKey());
+					writeValue(output, property.getValue());
+				}
+			}
+		}
+		Files.move(temp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static byte getType(Object value) {
+		if (value instanceof String) {
+			return STRING;
+		}
+		if (value instanceof Integer) {
+			return INTEGER;
+		}
+		if (value instanceof Long) {
+			return LONG;
+		}
+		if (value instanceof Double) {
+			return DOUBLE;
+		}
+		if (value instanceof Float) {
+			return FLOAT;
+		}
+		if (value instanceof Boolean) {
+			return BOOLEAN;
+		}
+		if (value instanceof BigInteger) {
+			return BIG_INTEGER;
+		}
+		if (value instanceof BigDecimal) {
+			return BIG_DECIMAL;
+		}
+		return -1;
+	}
+
+	private static void writeValue(DataOutputStream output, Object value) throws IOException {
+		byte type = getType(value);
+		output.writeByte(type);
+		switch (type) {
+			case INTEGER:
+				output.writeInt((Integer) value);
+				break;
+			case LONG:
+				output.writeLong((Long) value);
+				break;
+			case DOUBLE:
+				output.writeDouble((Double) value);
+				break;
+			case FLOAT:
+				output.writeFloat((Float) value);
+				break;
+			case BOOLEAN:
+				output.writeBoolean((Boolean) value);
+				break;
+			default:
+				writeString(output, value.toString());
+		}
+	}
+
+	private static Object readValue(DataInputStream input) throws IOException {
+		byte type = input.readByte();
+		switch (type) {
+			case STRING:
+				return readString(input);
+			case INTEGER:
+				return input.readInt();
+			case LONG:
+				return input.readLong();
+			case DOUBLE:
+				return input.readDouble();
+			case FLOAT:
+				return input.readFloat();
+			case BOOLEAN:
+				return input.readBoolean();
+			case BIG_INTEGER:
+				return new BigInteger(readString(input));
+			case BIG_DECIMAL:
+				return new BigDecimal(readString(input));
+			default:
+				throw new IOException("Unknown value type " + type);
+		}
+	}
+
+	private static void writeStrings(DataOutputStream output, List<String> values) throws IOException {
+		output.writeInt(values.size());
+		for (String value : values) {
+			writeString(output, value);
+		}
+	}
+
+	private static void readStrings(DataInputStream input, List<String> values) throws IOException {
+		int size = input.readInt();
+		for (int i = 0; i < size; i++) {
+			values.add(readString(input));
+		}
+	}
+
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		writeBytes(output, value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		return new String(readBytes(input), StandardCharsets.UTF_8);
+	}
+
+	private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static byte[] readBytes(DataInputStream input) throws IOException {
+		byte[] bytes = new byte[input.readInt()];
+		input.readFully(bytes);
+		return bytes;
+	}
+
+	private static byte[] digest(Resource resource) throws IOException {
+		MessageDigest digest = createDigest();
+		try (InputStream inputStream = resource.getInputStream()) {
+			digest.update(StreamUtils.copyToByteArray(inputStream));
+		}
+		return digest.digest();
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Return a {@link ConfigDataEnvironmentSnapshot} for the environment or {@code null}
+	 * if no snapshot location has been set. Must be called before config data is applied
+	 * to the environment. When a snapshot is created, {@link Candidates} are registered
+	 * with the bootstrap context so that resolved resources can be recorded.
+	 * @param logger the logger to use
+	 * @param bootstrapContext the bootstrap context
+	 * @param binder a binder for the environment
+	 * @param environment the environment
+	 * @param resourceLoader the resource loader used to check imported resources
+	 * @param additionalProfiles any additional profiles to activate
+	 * @return a snapshot instance or {@code null}
+	 */
+	static ConfigDataEnvironmentSnapshot get(Log logger, ConfigurableBootstrapContext bootstrapContext, Binder binder,
+			ConfigurableEnvironment environment, ResourceLoader resourceLoader, Collection<String> additionalProfiles) {
+		File file = binder.bind(LOCATION_PROPERTY, File.class).orElse(null);
+		if (file == null) {
+			return null;
+		}
+		boolean create = binder.bind(CREATE_PROPERTY, Boolean.class).orElse(false);
+		if (!create && !file.isFile()) {
+			return null;
+		}
+		List<String> fingerprintPrefixes = new ArrayList<>(FINGERPRINT_PREFIXES);
+		fingerprintPrefixes.addAll(binder.bind(FINGERPRINT_PROPERTIES_PROPERTY, Bindable.listOf(String.class))
+				.orElse(Collections.emptyList()));
+		byte[] fingerprint = fingerprint(environment, additionalProfiles, fingerprintPrefixes);
+		Candidates candidates = new Candidates();
+		if (create) {
+			bootstrapContext.register(Candidates.class, InstanceSupplier.of(candidates).withScope(Scope.PROTOTYPE));
+		}
+		return new ConfigDataEnvironmentSnapshot(logger, file, create, resourceLoader, fingerprint, candidates);
+	}
+
+	private static byte[] fingerprint(ConfigurableEnvironment environment, Collection<String> additionalProfiles,
+			List<String> prefixes) {
+		MessageDigest digest = createDigest();
+		update(digest, additionalProfiles);
+		update(digest, Arrays.asList(environment.getActiveProfiles()));
+		update(digest, Arrays.asList(environment.getDefaultProfiles()));
+		update(digest, String.valueOf(CloudPlatform.getActive(environment)));
+		for (PropertySource<?> propertySource : environment.getPropertySources()) {
+			update(digest, propertySource.getName());
+			if (propertySource instanceof EnumerablePropertySource) {
+				for (String name : ((EnumerablePropertySource<?>) propertySource).getPropertyNames()) {
+					String normalized = normalize(name);
+					if (hasPrefix(normalized, prefixes) && !hasPrefix(normalized, PROPERTY_PREFIX)) {
+						update(digest, name);
+						update(digest, String.valueOf(propertySource.getProperty(name)));
+					}
+				}
+			}
+		}
+		return digest.digest();
+	}
+
+	private static boolean hasPrefix(String name, List<String> prefixes) {
+		for (String prefix : prefixes) {
+			if (hasPrefix(name, normalize(prefix))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasPrefix(String name, String prefix) {
+		return name.equals(prefix) || (name.startsWith(prefix) && name.charAt(prefix.length()) == '.');
+	}
+
+	private static String normalize(String name) {
+		return name.toLowerCase(Locale.ENGLISH).replace('_', '.');
+	}
+
+	private static void update(MessageDigest digest, Collection<String> values) {
+		update(digest, String.valueOf(values.size()));
+		for (String value : values) {
+			update(digest, value);
+		}
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		digest.update((byte) (bytes.length >> 24));
+		digest.update((byte) (bytes.length >> 16));
+		digest.update((byte) (bytes.length >> 8));
+		digest.update((byte) bytes.length);
+		digest.update(bytes);
+	}
+
+	/**
+	 * The content of a snapshot file.
+	 */
+	private static final class Snapshot {
+
+		private final byte[] fingerprint;
+
+		private final Map<String, SnapshotResource> resources = new LinkedHashMap<>();
+
+		private final Map<String, List<String>> candidates = new LinkedHashMap<>();
+
+		private final List<String> activeProfiles = new ArrayList<>();
+
+		private final List<String> defaultProfiles = new ArrayList<>();
+
+		private final List<SnapshotPropertySource> propertySources = new ArrayList<>();
+
+		Snapshot(byte[] fingerprint) {
+			this.fingerprint = fingerprint;
+		}
+
+	}
+
+	/**
+	 * The state of a resource when a snapshot was created.
+	 */
+	private static final class SnapshotResource {
+
+		private final long contentLength;
+
+		private final long lastModified;
+
+		private final byte[] digest;
+
+		SnapshotResource(long contentLength, long lastModified, byte[] digest) {
+			this.contentLength = contentLength;
+			this.lastModified = lastModified;
+			this.digest = digest;
+		}
+
+		/**
+		 * Return whether the given resource has changed. The content is only digested
+		 * again if the length or last modification time differ, or if the resource was
+		 * last modified so close to the creation of the snapshot that a later change
+		 * might not have updated its last modification time.
+		 * @param resource the resource to check
+		 * @param snapshotLastModified the last modification time of the snapshot
+		 * @return {@code true} if the resource has changed
+		 * @throws IOException on IO error
+		 */
+		boolean hasChanged(Resource resource, long snapshotLastModified) throws IOException {
+			if (this.lastModified > 0 && this.lastModified < snapshotLastModified
+					&& this.contentLength == resource.contentLength() && this.lastModified == resource.lastModified()) {
+				return false;
+			}
+			return !MessageDigest.isEqual(this.digest, digest(resource));
+		}
+
+		static SnapshotResource of(Resource resource) throws IOException {
+			return new SnapshotResource(resource.contentLength(), resource.lastModified(), digest(resource));
+		}
+
+	}
+
+	/**
+	 * A property source of a snapshot, whether or not it was applied to the environment.
+	 */
+	private static final class SnapshotPropertySource {
+
+		private final String name;
+
+		private final boolean active;
+
+		private final boolean profileSpecific;
+
+		private final Map<String, Object> properties;
+
+		SnapshotPropertySource(String name, boolean active, boolean profileSpecific, Map<String, Object> properties) {
+			this.name = name;
+			this.active = active;
+			this.profileSpecific = profileSpecific;
+			this.properties = properties;
+		}
+
+	}
+
+	/**
+	 * Records the location of every candidate resource considered by
+	 * {@link StandardConfigDataLocationResolver} while a snapshot is created, including
+	 * optional resources that do not exist.
+	 */
+	static final class Candidates {
+
+		private final Set<String> locations = new LinkedHashSet<>();
+
+		synchronized void add(String location) {
+			this.locations.add(location);
+		}
+
+		synchronized List<String> getLocations() {
+			return new ArrayList<>(this.locations);
+		}
+
+		/**
+		 * Return the {@link Candidates} registered with the bootstrap context of the
+		 * given resolver context or {@code null} if no snapshot is being created.
+		 * @param context the resolver context
+		 * @return the candidates or {@code null}
+		 */
+		static Candidates get(ConfigDataLocationResolverContext context) {
+			ConfigurableBootstrapContext bootstrapContext = context.getBootstrapContext();
+			return (bootstrapContext != null) ? bootstrapContext.getOrElse(Candidates.class, null) : null;
+		}
+
+	}
+
+}
@@ -24,6 +24,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import org.apache.commons.logging.Log;
 
@@ -32,7 +35,9 @@ import org.springframework.boot.logging.DeferredLogFactory;
 /**
  * Imports {@link ConfigData} by {@link ConfigDataLocationResolver resolving} and
  * {@link ConfigDataLoader loading} locations. {@link ConfigDataResource resources} are
- * tracked to ensure that they are not imported multiple times.
+ * tracked to ensure that they are not imported multiple times. When an {@link Executor}
+ * is provided, the resources resolved from a single set of locations are loaded
+ * concurrently, with results still applied in the same order as sequential loading.
  *
  * @author Phillip Webb
  * @author Madhura Bhave
@@ -47,6 +52,8 @@ class ConfigDataImporter {
 
 	private final ConfigDataNotFoundAction notFoundAction;
 
+	private final Executor executor;
+
 	private final Set<ConfigDataResource> loaded = new HashSet<>();
 
 	private final Set<ConfigDataLocation> loadedLocations = new HashSet<>();
@@ -62,10 +69,25 @@ class ConfigDataImporter {
 	 */
 	ConfigDataImporter(DeferredLogFactory logFactory, ConfigDataNotFoundAction notFoundAction,
 			ConfigDataLocationResolvers resolvers, ConfigDataLoaders loaders) {
+		this(logFactory, notFoundAction, resolvers, loaders, null);
+	}
+
+	/**
+	 * Create a new {@link ConfigDataImporter} instance.
+	 * @param logFactory the log factory
+	 * @param notFoundAction the action to take when a location cannot be found
+	 * @param resolvers the config data location resolvers
+	 * @param loaders the config data loaders
+	 * @param executor the executor used to load resources concurrently or {@code null} to
+	 * load them sequentially
+	 */
+	ConfigDataImporter(DeferredLogFactory logFactory, ConfigDataNotFoundAction notFoundAction,
+			ConfigDataLocationResolvers resolvers, ConfigDataLoaders loaders, Executor executor) {
 		this.logger = logFactory.getLog(getClass());
 		this.resolvers = resolvers;
 		this.loaders = loaders;
 		this.notFoundAction = notFoundAction;
+		this.executor = executor;
 	}
 
 	/**
@@ -112,6 +134,8 @@ class ConfigDataImporter {
 
 	private Map<ConfigDataResolutionResult, ConfigData> load(ConfigDataLoaderContext loaderContext,
 			List<ConfigDataResolutionResult> candidates) throws IOException {
+		Map<ConfigDataResource, FutureTask<ConfigData>> concurrentLoads = startConcurrentLoads(loaderContext,
+				candidates);
 		Map<ConfigDataResolutionResult, ConfigData> result = new LinkedHashMap<>();
 		for (int i = candidates.size() - 1; i >= 0; i--) {
 			ConfigDataResolutionResult candidate = candidates.get(i);
@@ -125,7 +149,8 @@ class ConfigDataImporter {
 			}
 			else {
 				try {
-					ConfigData loaded = this.loaders.load(loaderContext, resource);
+					ConfigData loaded = (concurrentLoads != null) ? getResult(concurrentLoads.get(resource))
+							: this.loaders.load(loaderContext, resource);
 					if (loaded != null) {
 						this.loaded.add(resource);
 						this.loadedLocations.add(location);
@@ -140,6 +165,48 @@ class ConfigDataImporter {
 		return Collections.unmodifiableMap(result);
 	}
 
+	private Map<ConfigDataResource, FutureTask<ConfigData>> startConcurrentLoads(ConfigDataLoaderContext loaderContext,
+			List<ConfigDataResolutionResult> candidates) {
+		if (this.executor == null) {
+			return null;
+		}
+		Map<ConfigDataResource, FutureTask<ConfigData>> loads = new LinkedHashMap<>();
+		for (int i = candidates.size() - 1; i >= 0; i--) {
+			ConfigDataResource resource = candidates.get(i).getResource();
+			if (!this.loaded.contains(resource)) {
+				loads.computeIfAbsent(resource, (key) -> new FutureTask<>(() -> this.loaders.load(loaderContext, key)));
+			}
+		}
+		if (loads.size() < 2) {
+			return null;
+		}
+		loads.values().forEach(this.executor::execute);
+		return loads;
+	}
+
+	private ConfigData getResult(FutureTask<ConfigData> load) throws IOException {
+		try {
+			return load.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while loading config data", ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
 	private void handle(ConfigDataNotFoundException ex, ConfigDataLocation location, ConfigDataResource resource) {
 		if (ex instanceof ConfigDataResourceNotFoundException) {
 			ex = ((ConfigDataResourceNotFoundException) ex).withLocation(location);
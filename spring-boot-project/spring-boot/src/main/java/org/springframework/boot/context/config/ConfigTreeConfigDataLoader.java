@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2020 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,11 +20,18 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collections;
 
+import org.springframework.boot.BootstrapContext;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.env.ConfigTreePropertySource;
 import org.springframework.boot.env.ConfigTreePropertySource.Option;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
 
 /**
- * {@link ConfigDataLoader} for config tree locations.
+ * {@link ConfigDataLoader} for config tree locations. Config trees can be watched for
+ * changes by setting {@code spring.config.configtree.watch} to {@code true}, in which
+ * case they are watched until the application context is closed.
  *
  * @author Madhura Bhave
  * @author Phillip Webb
@@ -32,14 +39,53 @@ import org.springframework.boot.env.ConfigTreePropertySource.Option;
  */
 public class ConfigTreeConfigDataLoader implements ConfigDataLoader<ConfigTreeConfigDataResource> {
 
+	static final String WATCH_PROPERTY = "spring.config.configtree.watch";
+
 	@Override
 	public ConfigData load(ConfigDataLoaderContext context, ConfigTreeConfigDataResource resource)
 			throws IOException, ConfigDataResourceNotFoundException {
 		Path path = resource.getPath();
 		ConfigDataResourceNotFoundException.throwIfDoesNotExist(resource, path);
 		String name = "Config tree '" + path + "'";
-		ConfigTreePropertySource source = new ConfigTreePropertySource(name, path, Option.AUTO_TRIM_TRAILING_NEW_LINE);
+		boolean watch = isWatch(context);
+		ConfigTreePropertySource source = watch
+				? new ConfigTreePropertySource(name, path, Option.AUTO_TRIM_TRAILING_NEW_LINE, Option.WATCH_FOR_CHANGES)
+				: new ConfigTreePropertySource(name, path, Option.AUTO_TRIM_TRAILING_NEW_LINE);
+		if (watch) {
+			context.getBootstrapContext().addCloseListener((event) -> event.getApplicationContext()
+					.addApplicationListener(new WatchCloser(event.getApplicationContext(), source)));
+		}
 		return new ConfigData(Collections.singletonList(source));
 	}
 
+	private boolean isWatch(ConfigDataLoaderContext context) {
+		BootstrapContext bootstrapContext = context.getBootstrapContext();
+		Binder binder = (bootstrapContext != null) ? bootstrapContext.getOrElse(Binder.class, null) : null;
+		return binder != null && binder.bind(WATCH_PROPERTY, Boolean.class).orElse(false);
+	}
+
+	/**
+	 * {@link ApplicationListener} that stops watching a config tree when the application
+	 * context that uses it is closed.
+	 */
+	private static final class WatchCloser implements ApplicationListener<ContextClosedEvent> {
+
+		private final ApplicationContext applicationContext;
+
+		private final ConfigTreePropertySource propertySource;
+
+		private WatchCloser(ApplicationContext applicationContext, ConfigTreePropertySource propertySource) {
+			this.applicationContext = applicationContext;
+			this.propertySource = propertySource;
+		}
+
+		@Override
+		public void onApplicationEvent(ContextClosedEvent event) {
+			if (event.getApplicationContext() == this.applicationContext) {
+				this.propertySource.close();
+			}
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -109,26 +109,52 @@ public class InvalidConfigDataPropertyException extends ConfigDataException {
 	 * @param contributor the contributor to check
 	 */
 	static void throwOrWarn(Log logger, ConfigDataEnvironmentContributor contributor) {
-		ConfigurationPropertySource propertySource = contributor.getConfigurationPropertySource();
+		throwOrWarn(logger, contributor.getConfigurationPropertySource(), isProfileSpecific(contributor),
+				contributor.getResource());
+	}
+
+	/**
+	 * Throw an {@link InvalidConfigDataPropertyException} or log a warning if the given
+	 * {@link ConfigurationPropertySource} contains any invalid property.
+	 * @param logger the logger to use for warnings
+	 * @param propertySource the property source to check or {@code null}
+	 * @param profileSpecific if the property source was imported from a profile specific
+	 * resource
+	 * @param resource the resource that the property source was loaded from or
+	 * {@code null}
+	 * @see #isProfileSpecific(ConfigDataEnvironmentContributor)
+	 */
+	static void throwOrWarn(Log logger, ConfigurationPropertySource propertySource, boolean profileSpecific,
+			ConfigDataResource resource) {
 		if (propertySource != null) {
 			WARNINGS.forEach((name, replacement) -> {
 				ConfigurationProperty property = propertySource.getConfigurationProperty(name);
 				if (property != null) {
-					logger.warn(getMessage(property, false, replacement, contributor.getResource()));
+					logger.warn(getMessage(property, false, replacement, resource));
 				}
 			});
-			if (contributor.isFromProfileSpecificImport()
-					&& !contributor.hasConfigDataOption(ConfigData.Option.IGNORE_PROFILES)) {
+			if (profileSpecific) {
 				PROFILE_SPECIFIC_ERRORS.forEach((name) -> {
 					ConfigurationProperty property = propertySource.getConfigurationProperty(name);
 					if (property != null) {
-						throw new InvalidConfigDataPropertyException(property, true, null, contributor.getResource());
+						throw new InvalidConfigDataPropertyException(property, true, null, resource);
 					}
 				});
 			}
 		}
 	}
 
+	/**
+	 * Return if the properties of the given contributor are subject to the checks of
+	 * profile specific resources.
+	 * @param contributor the contributor
+	 * @return if the contributor is profile specific
+	 */
+	static boolean isProfileSpecific(ConfigDataEnvironmentContributor contributor) {
+		return contributor.isFromProfileSpecificImport()
+				&& !contributor.hasConfigDataOption(ConfigData.Option.IGNORE_PROFILES);
+	}
+
 	private static String getMessage(ConfigurationProperty property, boolean profileSpecific,
 			ConfigurationPropertyName replacement, ConfigDataResource location) {
 		StringBuilder message = new StringBuilder("Property '");
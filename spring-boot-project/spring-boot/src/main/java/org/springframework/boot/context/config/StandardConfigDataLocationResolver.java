@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -116,7 +116,7 @@ public class StandardConfigDataLocationResolver
 	@Override
 	public List<StandardConfigDataResource> resolve(ConfigDataLocationResolverContext context,
 			ConfigDataLocation location) throws ConfigDataNotFoundException {
-		return resolve(getReferences(context, location.split()));
+		return resolve(context, getReferences(context, location.split()));
 	}
 
 	private Set<StandardConfigDataReference> getReferences(ConfigDataLocationResolverContext context,
@@ -145,7 +145,7 @@ public class StandardConfigDataLocationResolver
 	@Override
 	public List<StandardConfigDataResource> resolveProfileSpecific(ConfigDataLocationResolverContext context,
 			ConfigDataLocation location, Profiles profiles) {
-		return resolve(getProfileSpecificReferences(context, location.split(), profiles));
+		return resolve(context, getProfileSpecificReferences(context, location.split(), profiles));
 	}
 
 	private Set<StandardConfigDataReference> getProfileSpecificReferences(ConfigDataLocationResolverContext context,
@@ -243,9 +243,14 @@ public class StandardConfigDataLocationResolver
 		return resourceLocation.endsWith("/") || resourceLocation.endsWith(File.separator);
 	}
 
-	private List<StandardConfigDataResource> resolve(Set<StandardConfigDataReference> references) {
+	private List<StandardConfigDataResource> resolve(ConfigDataLocationResolverContext context,
+			Set<StandardConfigDataReference> references) {
+		ConfigDataEnvironmentSnapshot.Candidates candidates = ConfigDataEnvironmentSnapshot.Candidates.get(context);
 		List<StandardConfigDataResource> resolved = new ArrayList<>();
 		for (StandardConfigDataReference reference : references) {
+			if (candidates != null) {
+				candidates.add(reference.getResourceLocation());
+			}
 			resolved.addAll(resolve(reference));
 		}
 		if (resolved.isEmpty()) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -51,6 +51,10 @@ class BufferedStartupStep implements StartupStep {
 
 	private final AtomicBoolean ended = new AtomicBoolean();
 
+	private StartupStepAggregator.Node aggregatorNode;
+
+	private long childrenNanos;
+
 	BufferedStartupStep(BufferedStartupStep parent, String name, long id, Instant startTime,
 			Consumer<BufferedStartupStep> recorder) {
 		this.parent = parent;
@@ -110,6 +114,22 @@ class BufferedStartupStep implements StartupStep {
 		return this.ended.get();
 	}
 
+	StartupStepAggregator.Node getAggregatorNode() {
+		return this.aggregatorNode;
+	}
+
+	void setAggregatorNode(StartupStepAggregator.Node aggregatorNode) {
+		this.aggregatorNode = aggregatorNode;
+	}
+
+	long getChildrenNanos() {
+		return this.childrenNanos;
+	}
+
+	void addChildrenNanos(long nanos) {
+		this.childrenNanos += nanos;
+	}
+
 	static class DefaultTag implements Tag {
 
 		private final String key;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.boot.context.metrics.buffering;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -37,7 +38,8 @@ import org.springframework.util.Assert;
  * <p>
  * Once recording has been {@link #startRecording() started}, steps are buffered up until
  * the configured {@link #BufferingApplicationStartup(int) capacity}; after that, new
- * steps are not recorded.
+ * steps are not recorded. Alternatively, steps can be recorded in a compact
+ * {@link Mode#RING_BUFFER ring buffer} that keeps the most recent steps.
  * <p>
  * There are several ways to keep the buffer size low:
  * <ul>
@@ -45,6 +47,10 @@ import org.springframework.util.Assert;
  * relevant to us.
  * <li>{@link #drainBufferedTimeline() draining} the buffered steps.
  * </ul>
+ * <p>
+ * When {@link #BufferingApplicationStartup(int, Mode, boolean) enabled}, steps that match
+ * the filters are also aggregated in a {@link #getAnalysis() tree}, regardless of the
+ * capacity and of draining.
  *
  * @author Brian Clozel
  * @author Phillip Webb
@@ -68,19 +74,56 @@ public class BufferingApplicationStartup implements ApplicationStartup {
 
 	private final ConcurrentLinkedQueue<TimelineEvent> events = new ConcurrentLinkedQueue<>();
 
+	private final StartupStepRingBuffer ringBuffer;
+
+	private final StartupStepAggregator aggregator;
+
 	/**
 	 * Create a new buffered {@link ApplicationStartup} with a limited capacity and starts
 	 * the recording of steps.
 	 * @param capacity the configured capacity; once reached, new steps are not recorded.
 	 */
 	public BufferingApplicationStartup(int capacity) {
-		this(capacity, Clock.systemDefaultZone());
+		this(capacity, Mode.BUFFER);
+	}
+
+	/**
+	 * Create a new buffered {@link ApplicationStartup} with a limited capacity and the
+	 * given recording mode and starts the recording of steps.
+	 * @param capacity the configured capacity
+	 * @param mode the recording mode that determines what happens once the capacity is
+	 * reached
+	 * @since 2.6.14
+	 */
+	public BufferingApplicationStartup(int capacity, Mode mode) {
+		this(capacity, mode, false);
+	}
+
+	/**
+	 * Create a new buffered {@link ApplicationStartup} with a limited capacity and the
+	 * given recording mode and starts the recording of steps.
+	 * @param capacity the configured capacity
+	 * @param mode the recording mode that determines what happens once the capacity is
+	 * reached
+	 * @param analyze if the recorded steps should be aggregated in an
+	 * {@link #getAnalysis() analysis}
+	 * @since 2.6.14
+	 */
+	public BufferingApplicationStartup(int capacity, Mode mode, boolean analyze) {
+		this(capacity, mode, analyze, Clock.systemDefaultZone());
 	}
 
 	BufferingApplicationStartup(int capacity, Clock clock) {
+		this(capacity, Mode.BUFFER, false, clock);
+	}
+
+	BufferingApplicationStartup(int capacity, Mode mode, boolean analyze, Clock clock) {
+		Assert.notNull(mode, "Mode must not be null");
 		this.capacity = capacity;
 		this.clock = clock;
 		this.startTime = clock.instant();
+		this.ringBuffer = (mode == Mode.RING_BUFFER) ? new StartupStepRingBuffer(capacity) : null;
+		this.aggregator = analyze ? new StartupStepAggregator() : null;
 	}
 
 	/**
@@ -91,7 +134,8 @@ public class BufferingApplicationStartup implements ApplicationStartup {
 	 * already.
 	 */
 	public void startRecording() {
-		Assert.state(this.events.isEmpty(), "Cannot restart recording once steps have been buffered.");
+		Assert.state(this.events.isEmpty() && (this.ringBuffer == null || this.ringBuffer.isEmpty()),
+				"Cannot restart recording once steps have been buffered.");
 		this.startTime = this.clock.instant();
 	}
 
@@ -120,9 +164,19 @@ public class BufferingApplicationStartup implements ApplicationStartup {
 	}
 
 	private void record(BufferedStartupStep step) {
-		if (this.filter.test(step) && this.estimatedSize.get() < this.capacity) {
-			this.estimatedSize.incrementAndGet();
-			this.events.add(new TimelineEvent(step, this.clock.instant()));
+		Predicate<StartupStep> filter = this.filter;
+		if (filter.test(step)) {
+			Instant endTime = this.clock.instant();
+			if (this.aggregator != null) {
+				this.aggregator.record(step, Duration.between(step.getStartTime(), endTime).toNanos(), filter);
+			}
+			if (this.ringBuffer != null) {
+				this.ringBuffer.add(step, endTime);
+			}
+			else if (this.estimatedSize.get() < this.capacity) {
+				this.estimatedSize.incrementAndGet();
+				this.events.add(new TimelineEvent(step, endTime));
+			}
 		}
 		while (true) {
 			BufferedStartupStep current = this.current.get();
@@ -149,6 +203,9 @@ public class BufferingApplicationStartup implements ApplicationStartup {
 	 * @return a snapshot of currently buffered steps.
 	 */
 	public StartupTimeline getBufferedTimeline() {
+		if (this.ringBuffer != null) {
+			return new StartupTimeline(this.startTime, this.ringBuffer.getEvents());
+		}
 		return new StartupTimeline(this.startTime, new ArrayList<>(this.events));
 	}
 
@@ -160,6 +217,9 @@ public class BufferingApplicationStartup implements ApplicationStartup {
 	 * @return buffered steps drained from the buffer.
 	 */
 	public StartupTimeline drainBufferedTimeline() {
+		if (this.ringBuffer != null) {
+			return new StartupTimeline(this.startTime, this.ringBuffer.drainEvents());
+		}
 		List<TimelineEvent> events = new ArrayList<>();
 		Iterator<TimelineEvent> iterator = this.events.iterator();
 		while (iterator.hasNext()) {
@@ -170,4 +230,40 @@ public class BufferingApplicationStartup implements ApplicationStartup {
 		return new StartupTimeline(this.startTime, events);
 	}
 
+	/**
+	 * Return a {@link StartupAnalysis} of the steps recorded so far, with their self and
+	 * total times. Unlike the {@link #getBufferedTimeline() timeline}, the analysis
+	 * includes the steps that were not buffered because the capacity was reached and the
+	 * steps that were drained.
+	 * @return a snapshot of the analysis of the recorded steps or {@code null} if the
+	 * analysis is not {@link #BufferingApplicationStartup(int, Mode, boolean) enabled}
+	 * @since 2.6.14
+	 */
+	public StartupAnalysis getAnalysis() {
+		return (this.aggregator != null) ? this.aggregator.getAnalysis() : null;
+	}
+
+	/**
+	 * Modes of recording of the {@link StartupStep steps}.
+	 *
+	 * @since 2.6.14
+	 */
+	public enum Mode {
+
+		/**
+		 * Buffer the steps as {@link TimelineEvent events} until the capacity is reached,
+		 * after which new steps are not recorded.
+		 */
+		BUFFER,
+
+		/**
+		 * Record the steps in a compact ring buffer of primitive values that keeps the
+		 * most recent steps once the capacity is reached. Steps are decoded to
+		 * {@link TimelineEvent events} when the {@link StartupTimeline timeline} is
+		 * accessed.
+		 */
+		RING_BUFFER
+
+	}
+
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.metrics.buffering;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.metrics.StartupStep;
+
+/**
+ * Aggregated view of the {@link StartupStep steps} recorded by
+ * {@link BufferingApplicationStartup}. Steps are arranged in a tree that follows their
+ * parent/child relationship and steps with the same name and detail under the same parent
+ * are merged. Each {@link Step} has a total time, including the time of its children, and
+ * a self time, excluding it.
+ *
+ * @author Brian Clozel
+ * @since 2.6.14
+ * @see BufferingApplicationStartup#getAnalysis()
+ */
+public final class StartupAnalysis {
+
+	private static final Comparator<Step> HOT_SPOT_ORDER = Comparator.comparing(Step::getSelfTime)
+			.thenComparing(Step::getTotalTime).reversed();
+
+	private final List<Step> steps;
+
+	StartupAnalysis(List<Step> steps) {
+		this.steps = Collections.unmodifiableList(steps);
+	}
+
+	/**
+	 * Return the root steps of the tree, i.e. the steps that have no recorded parent.
+	 * @return the root steps
+	 */
+	public List<Step> getSteps() {
+		return this.steps;
+	}
+
+	/**
+	 * Return the steps with the highest self time, in descending order.
+	 * @param limit the maximum number of hot spots to return
+	 * @return the hot spots
+	 */
+	public List<HotSpot> getHotSpots(int limit) {
+		List<Step> steps = new ArrayList<>();
+		collect(this.steps, steps);
+		steps.sort(HOT_SPOT_ORDER);
+		List<HotSpot> hotSpots = new ArrayList<>();
+		for (int i = 0; i < steps.size() && i < limit; i++) {
+			hotSpots.add(new HotSpot(steps.get(i)));
+		}
+		return hotSpots;
+	}
+
+	private void collect(List<Step> steps, List<Step> result) {
+		for (Step step : steps) {
+			result.add(step);
+			collect(step.getChildren(), result);
+		}
+	}
+
+	/**
+	 * Return the tree in the folded stack format that is used to render flame graphs.
+	 * Each line holds the labels of a step and of its ancestors, separated by {@code ;},
+	 * followed by a space and the self time of the step in microseconds. Steps with no
+	 * measurable self time are omitted.
+	 * @return the folded stacks
+	 */
+	public String getFoldedStacks() {
+		StringBuilder result = new StringBuilder();
+		appendFoldedStacks(this.steps, "", result);
+		return result.toString();
+	}
+
+	private void appendFoldedStacks(List<Step> steps, String prefix, StringBuilder result) {
+		for (Step step : steps) {
+			String stack = prefix + getFrame(step);
+			long selfTime = TimeUnit.NANOSECONDS.toMicros(step.getSelfTime().toNanos());
+			if (selfTime > 0) {
+				result.append(stack).append(' ').append(selfTime).append('\n');
+			}
+			appendFoldedStacks(step.getChildren(), stack + ";", result);
+		}
+	}
+
+	private String getFrame(Step step) {
+		return step.getLabel().replace(';', ':').replace('\n', ' ').replace('\r', ' ');
+	}
+
+	/**
+	 * A node of the {@link StartupAnalysis} tree that aggregates all the steps with the
+	 * same name and detail under the same parent.
+	 */
+	public static final class Step {
+
+		private final String name;
+
+		private final String detail;
+
+		private final long count;
+
+		private final Duration totalTime;
+
+		private final Duration selfTime;
+
+		private final List<Step> children;
+
+		Step(String name, String detail, long count, Duration totalTime, Duration selfTime, List<Step> children) {
+			this.name = name;
+			this.detail = detail;
+			this.count = count;
+			this.totalTime = totalTime;
+			this.selfTime = selfTime;
+			this.children = Collections.unmodifiableList(children);
+		}
+
+		/**
+		 * Return the name of the step.
+		 * @return the name
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Return the value of the tag that identifies the step, such as the name of the
+		 * bean that is instantiated or the post-processor that is invoked.
+		 * @return the detail or {@code null}
+		 */
+		public String getDetail() {
+			return this.detail;
+		}
+
+		/**
+		 * Return the label of the step, composed of its name and of its detail, if any.
+		 * @return the label
+		 */
+		public String getLabel() {
+			return (this.detail != null) ? this.name + "[" + this.detail + "]" : this.name;
+		}
+
+		/**
+		 * Return the number of steps that ended and were merged in this node. May be zero
+		 * for an ancestor that is still running.
+		 * @return the number of steps
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * Return the time spent in the steps, including the time spent in their children.
+		 * @return the total time
+		 */
+		public Duration getTotalTime() {
+			return this.totalTime;
+		}
+
+		/**
+		 * Return the time spent in the steps, excluding the time spent in their children.
+		 * @return the self time
+		 */
+		public Duration getSelfTime() {
+			return this.selfTime;
+		}
+
+		/**
+		 * Return the children of the step.
+		 * @return the children
+		 */
+		public List<Step> getChildren() {
+			return this.children;
+		}
+
+	}
+
+	/**
+	 * A {@link Step} of the {@link StartupAnalysis} with a high self time.
+	 */
+	public static final class HotSpot {
+
+		private final Step step;
+
+		private HotSpot(Step step) {
+			this.step = step;
+		}
+
+		/**
+		 * Return the name of the step.
+		 * @return the name
+		 * @see Step#getName()
+		 */
+		public String getName() {
+			return this.step.getName();
+		}
+
+		/**
+		 * Return the value of the tag that identifies the step.
+		 * @return the detail or {@code null}
+		 * @see Step#getDetail()
+		 */
+		public String getDetail() {
+			return this.step.getDetail();
+		}
+
+		/**
+		 * Return the number of steps.
+		 * @return the number of steps
+		 * @see Step#getCount()
+		 */
+		public long getCount() {
+			return this.step.getCount();
+		}
+
+		/**
+		 * Return the time spent in the steps, excluding the time spent in their children.
+		 * @return the self time
+		 * @see Step#getSelfTime()
+		 */
+		public Duration getSelfTime() {
+			return this.step.getSelfTime();
+		}
+
+		/**
+		 * Return the time spent in the steps, including the time spent in their children.
+		 * @return the total time
+		 * @see Step#getTotalTime()
+		 */
+		public Duration getTotalTime() {
+			return this.step.getTotalTime();
+		}
+
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.metrics.buffering;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.springframework.boot.context.metrics.buffering.StartupAnalysis.Step;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.core.metrics.StartupStep.Tag;
+
+/**
+ * Aggregates the {@link BufferedStartupStep steps} recorded by
+ * {@link BufferingApplicationStartup} in a tree as they end. Steps are placed in the tree
+ * using their ancestors rather than the buffered events so that the aggregation is not
+ * affected by the capacity of the buffer or by draining it.
+ *
+ * @author Brian Clozel
+ */
+class StartupStepAggregator {
+
+	/**
+	 * Keys of the tags that identify a step, in order of preference.
+	 */
+	private static final List<String> DETAIL_TAGS = Arrays.asList("beanName", "postProcessor", "task");
+
+	private final Node root = new Node(null, null);
+
+	/**
+	 * Aggregate the given step that has ended.
+	 * @param step the step
+	 * @param durationNanos the duration of the step in nanoseconds
+	 * @param filter the filter that recorded steps match
+	 */
+	synchronized void record(BufferedStartupStep step, long durationNanos, Predicate<StartupStep> filter) {
+		Node node = getNode(step, filter);
+		node.count++;
+		node.totalNanos += durationNanos;
+		node.selfNanos += Math.max(0, durationNanos - step.getChildrenNanos());
+		BufferedStartupStep parent = getRecordedParent(step, filter);
+		if (parent != null) {
+			parent.addChildrenNanos(durationNanos);
+		}
+	}
+
+	private Node getNode(BufferedStartupStep step, Predicate<StartupStep> filter) {
+		Node node = step.getAggregatorNode();
+		if (node == null) {
+			BufferedStartupStep parent = getRecordedParent(step, filter);
+			Node parentNode = (parent != null) ? getNode(parent, filter) : this.root;
+			node = parentNode.getChild(step.getName(), getDetail(step));
+			step.setAggregatorNode(node);
+		}
+		return node;
+	}
+
+	private BufferedStartupStep getRecordedParent(BufferedStartupStep step, Predicate<StartupStep> filter) {
+		BufferedStartupStep parent = step.getParent();
+		while (parent != null && !filter.test(parent)) {
+			parent = parent.getParent();
+		}
+		return parent;
+	}
+
+	private String getDetail(StartupStep step) {
+		for (String key : DETAIL_TAGS) {
+			for (Tag tag : step.getTags()) {
+				if (key.equals(tag.getKey())) {
+					return tag.getValue();
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Return a snapshot of the steps aggregated so far.
+	 * @return the analysis
+	 */
+	synchronized StartupAnalysis getAnalysis() {
+		return new StartupAnalysis(this.root.getChildSteps());
+	}
+
+	/**
+	 * Mutable node of the tree.
+	 */
+	static final class Node {
+
+		private final String name;
+
+		private final String detail;
+
+		private final Map<String, Node> children = new LinkedHashMap<>();
+
+		private long count;
+
+		private long totalNanos;
+
+		private long selfNanos;
+
+		private Node(String name, String detail) {
+			this.name = name;
+			this.detail = detail;
+		}
+
+		private Node getChild(String name, String detail) {
+			String key = (detail != null) ? name + '\0' + detail : name;
+			return this.children.computeIfAbsent(key, (k) -> new Node(name, detail));
+		}
+
+		private Step toStep() {
+			List<Step> children = getChildSteps();
+			long totalNanos = this.totalNanos;
+			if (this.count == 0) {
+				for (Step child : children) {
+					totalNanos += child.getTotalTime().toNanos();
+				}
+			}
+			return new Step(this.name, this.detail, this.count, Duration.ofNanos(totalNanos),
+					Duration.ofNanos(this.selfNanos), children);
+		}
+
+		private List<Step> getChildSteps() {
+			List<Step> steps = new ArrayList<>();
+			for (Node child : this.children.values()) {
+				steps.add(child.toStep());
+			}
+			return steps;
+		}
+
+	}
+
+}
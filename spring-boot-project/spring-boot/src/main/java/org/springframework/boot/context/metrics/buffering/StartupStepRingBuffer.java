@@ -0,0 +1,313 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.metrics.buffering;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.metrics.buffering.BufferedStartupStep.DefaultTag;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.core.metrics.StartupStep.Tag;
+
+/**
+ * Compact ring buffer of the {@link BufferedStartupStep steps} recorded by
+ * {@link BufferingApplicationStartup}. The id, parent id, name and timestamps of each
+ * step are stored in primitive arrays and its name and tags are interned so that a
+ * recorded step does not retain any object. Once the capacity is reached, the oldest
+ * steps are overwritten. Interned strings are reference counted and released once no
+ * buffered step uses them, so the string table is bounded by the capacity rather than by
+ * the number of distinct steps. Steps are decoded to {@link TimelineEvent events} lazily,
+ * when the events of a snapshot are accessed.
+ *
+ * @author Brian Clozel
+ */
+class StartupStepRingBuffer {
+
+	private static final int NO_PARENT = -1;
+
+	private static final int[] NO_TAGS = {};
+
+	private final int capacity;
+
+	private final int[] ids;
+
+	private final int[] parentIds;
+
+	private final int[] names;
+
+	private final long[] startTimes;
+
+	private final long[] endTimes;
+
+	private final int[][] tags;
+
+	private final Map<String, Integer> stringIds = new HashMap<>();
+
+	private final List<String> strings = new ArrayList<>();
+
+	private int[] references = new int[16];
+
+	private final Deque<Integer> freeIds = new ArrayDeque<>();
+
+	private long count;
+
+	StartupStepRingBuffer(int capacity) {
+		this.capacity = Math.max(capacity, 0);
+		this.ids = new int[this.capacity];
+		this.parentIds = new int[this.capacity];
+		this.names = new int[this.capacity];
+		this.startTimes = new long[this.capacity];
+		this.endTimes = new long[this.capacity];
+		this.tags = new int[this.capacity][];
+	}
+
+	synchronized void add(BufferedStartupStep step, Instant endTime) {
+		if (this.capacity == 0) {
+			return;
+		}
+		int index = (int) (this.count % this.capacity);
+		if (this.count >= this.capacity) {
+			releaseSlot(index);
+		}
+		Long parentId = step.getParentId();
+		this.ids[index] = (int) step.getId();
+		this.parentIds[index] = (parentId != null) ? parentId.intValue() : NO_PARENT;
+		this.names[index] = intern(step.getName());
+		this.startTimes[index] = toNanos(step.getStartTime());
+		this.endTimes[index] = toNanos(endTime);
+		this.tags[index] = internTags(step);
+		this.count++;
+	}
+
+	private int[] internTags(StartupStep step) {
+		int[] tags = NO_TAGS;
+		int size = 0;
+		for (Tag tag : step.getTags()) {
+			if (size == tags.length) {
+				tags = Arrays.copyOf(tags, Math.max(size * 2, 2));
+			}
+			tags[size++] = intern(tag.getKey());
+			tags[size++] = intern(tag.getValue());
+		}
+		return (size != tags.length) ? Arrays.copyOf(tags, size) : tags;
+	}
+
+	private int intern(String value) {
+		Integer id = this.stringIds.get(value);
+		if (id == null) {
+			id = (!this.freeIds.isEmpty()) ? this.freeIds.pop() : this.strings.size();
+			if (id < this.strings.size()) {
+				this.strings.set(id, value);
+			}
+			else {
+				this.strings.add(value);
+			}
+			this.stringIds.put(value, id);
+			if (id >= this.references.length) {
+				this.references = Arrays.copyOf(this.references, this.references.length * 2);
+			}
+		}
+		this.references[id]++;
+		return id;
+	}
+
+	private void releaseSlot(int index) {
+		release(this.names[index]);
+		for (int id : this.tags[index]) {
+			release(id);
+		}
+		this.tags[index] = null;
+	}
+
+	private void release(int id) {
+		if (--this.references[id] == 0) {
+			this.stringIds.remove(this.strings.get(id));
+			this.strings.set(id, null);
+			this.freeIds.push(id);
+		}
+	}
+
+	/**
+	 * Return the number of interned strings that buffered steps use.
+	 * @return the number of strings
+	 */
+	synchronized int getStringCount() {
+		return this.stringIds.size();
+	}
+
+	synchronized boolean isEmpty() {
+		return this.count == 0;
+	}
+
+	/**
+	 * Return a snapshot of the buffered steps, from the oldest to the most recent.
+	 * @return the buffered events
+	 */
+	synchronized List<TimelineEvent> getEvents() {
+		int size = (int) Math.min(this.count, this.capacity);
+		Snapshot snapshot = new Snapshot(size, this.strings.toArray(new String[0]));
+		for (int i = 0; i < size; i++) {
+			int index = (int) ((this.count - size + i) % this.capacity);
+			snapshot.ids[i] = this.ids[index];
+			snapshot.parentIds[i] = this.parentIds[index];
+			snapshot.names[i] = this.names[index];
+			snapshot.startTimes[i] = this.startTimes[index];
+			snapshot.endTimes[i] = this.endTimes[index];
+			snapshot.tags[i] = this.tags[index];
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Return a snapshot of the buffered steps and remove them from the buffer.
+	 * @return the drained events
+	 */
+	synchronized List<TimelineEvent> drainEvents() {
+		List<TimelineEvent> events = getEvents();
+		Arrays.fill(this.tags, null);
+		this.stringIds.clear();
+		this.strings.clear();
+		Arrays.fill(this.references, 0);
+		this.freeIds.clear();
+		this.count = 0;
+		return events;
+	}
+
+	private static long toNanos(Instant instant) {
+		return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+	}
+
+	private static Instant toInstant(long nanos) {
+		return Instant.ofEpochSecond(0, nanos);
+	}
+
+	/**
+	 * Immutable copy of the content of the ring buffer that decodes its events on access.
+	 */
+	private static final class Snapshot extends AbstractList<TimelineEvent> {
+
+		private final int[] ids;
+
+		private final int[] parentIds;
+
+		private final int[] names;
+
+		private final long[] startTimes;
+
+		private final long[] endTimes;
+
+		private final int[][] tags;
+
+		private final String[] strings;
+
+		Snapshot(int size, String[] strings) {
+			this.ids = new int[size];
+			this.parentIds = new int[size];
+			this.names = new int[size];
+			this.startTimes = new long[size];
+			this.endTimes = new long[size];
+			this.tags = new int[size][];
+			this.strings = strings;
+		}
+
+		@Override
+		public TimelineEvent get(int index) {
+			Long parentId = (this.parentIds[index] != NO_PARENT) ? (long) this.parentIds[index] : null;
+			List<Tag> tags = new ArrayList<>(this.tags[index].length / 2);
+			for (int i = 0; i < this.tags[index].length; i += 2) {
+				tags.add(new DefaultTag(this.strings[this.tags[index][i]], this.strings[this.tags[index][i + 1]]));
+			}
+			StartupStep step = new RecordedStartupStep(this.strings[this.names[index]], this.ids[index], parentId,
+					tags);
+			return new TimelineEvent(step, toInstant(this.startTimes[index]), toInstant(this.endTimes[index]));
+		}
+
+		@Override
+		public int size() {
+			return this.ids.length;
+		}
+
+	}
+
+	/**
+	 * {@link StartupStep} decoded from the ring buffer. As it has already ended, it
+	 * cannot be tagged.
+	 */
+	static final class RecordedStartupStep implements StartupStep {
+
+		private final String name;
+
+		private final long id;
+
+		private final Long parentId;
+
+		private final List<Tag> tags;
+
+		RecordedStartupStep(String name, long id, Long parentId, List<Tag> tags) {
+			this.name = name;
+			this.id = id;
+			this.parentId = parentId;
+			this.tags = Collections.unmodifiableList(tags);
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public long getId() {
+			return this.id;
+		}
+
+		@Override
+		public Long getParentId() {
+			return this.parentId;
+		}
+
+		@Override
+		public Tags getTags() {
+			return this.tags::iterator;
+		}
+
+		@Override
+		public StartupStep tag(String key, Supplier<String> value) {
+			return tag(key, value.get());
+		}
+
+		@Override
+		public StartupStep tag(String key, String value) {
+			throw new IllegalStateException("StartupStep has already ended.");
+		}
+
+		@Override
+		public void end() {
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -65,16 +65,23 @@ public class StartupTimeline {
 	 */
 	public static class TimelineEvent {
 
-		private final BufferedStartupStep step;
+		private final StartupStep step;
+
+		private final Instant startTime;
 
 		private final Instant endTime;
 
 		private final Duration duration;
 
 		TimelineEvent(BufferedStartupStep step, Instant endTime) {
+			this(step, step.getStartTime(), endTime);
+		}
+
+		TimelineEvent(StartupStep step, Instant startTime, Instant endTime) {
 			this.step = step;
+			this.startTime = startTime;
 			this.endTime = endTime;
-			this.duration = Duration.between(step.getStartTime(), endTime);
+			this.duration = Duration.between(startTime, endTime);
 		}
 
 		/**
@@ -82,7 +89,7 @@ public class StartupTimeline {
 		 * @return the start time
 		 */
 		public Instant getStartTime() {
-			return this.step.getStartTime();
+			return this.startTime;
 		}
 
 		/**
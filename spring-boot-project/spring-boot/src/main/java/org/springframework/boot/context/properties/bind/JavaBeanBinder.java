@@ -36,6 +36,8 @@ import org.springframework.boot.context.properties.source.ConfigurationPropertyS
 import org.springframework.boot.context.properties.source.ConfigurationPropertyState;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ResolvableType;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * {@link DataObjectBinder} for mutable Java Beans.
@@ -113,7 +115,7 @@ class JavaBeanBinder implements DataObjectBinder {
 	 */
 	static class Bean<T> {
 
-		private static Bean<?> cached;
+		private static final Map<Object, Bean<?>> CACHE = new ConcurrentReferenceHashMap<>();
 
 		private final ResolvableType type;
 
@@ -221,10 +223,11 @@ class JavaBeanBinder implements DataObjectBinder {
 			if (instance == null && !isInstantiable(resolvedType)) {
 				return null;
 			}
-			Bean<?> bean = Bean.cached;
-			if (bean == null || !bean.isOfType(type, resolvedType)) {
+			Object key = getCacheKey(type, resolvedType);
+			Bean<?> bean = CACHE.get(key);
+			if (bean == null) {
 				bean = new Bean<>(type, resolvedType);
-				cached = bean;
+				CACHE.put(key, bean);
 			}
 			return (Bean<T>) bean;
 		}
@@ -242,11 +245,9 @@ class JavaBeanBinder implements DataObjectBinder {
 			}
 		}
 
-		private boolean isOfType(ResolvableType type, Class<?> resolvedType) {
-			if (this.type.hasGenerics() || type.hasGenerics()) {
-				return this.type.equals(type);
-			}
-			return this.resolvedType != null && this.resolvedType.equals(resolvedType);
+		private static Object getCacheKey(ResolvableType type, Class<?> resolvedType) {
+			// Property types are resolved against the generic type
+			return type.hasGenerics() ? Arrays.asList(type, resolvedType) : resolvedType;
 		}
 
 	}
@@ -286,6 +287,10 @@ class JavaBeanBinder implements DataObjectBinder {
 
 		private Field field;
 
+		private volatile ResolvableType type;
+
+		private volatile Annotation[] annotations;
+
 		BeanProperty(String name, ResolvableType declaringClassType) {
 			this.name = DataObjectPropertyName.toDashedForm(name);
 			this.declaringClassType = declaringClassType;
@@ -322,6 +327,15 @@ class JavaBeanBinder implements DataObjectBinder {
 		}
 
 		ResolvableType getType() {
+			ResolvableType type = this.type;
+			if (type == null) {
+				type = resolveType();
+				this.type = type;
+			}
+			return type;
+		}
+
+		private ResolvableType resolveType() {
 			if (this.setter != null) {
 				MethodParameter methodParameter = new MethodParameter(this.setter, 0);
 				return ResolvableType.forMethodParameter(methodParameter, this.declaringClassType);
@@ -331,12 +345,20 @@ class JavaBeanBinder implements DataObjectBinder {
 		}
 
 		Annotation[] getAnnotations() {
-			try {
-				return (this.field != null) ? this.field.getDeclaredAnnotations() : null;
-			}
-			catch (Exception ex) {
+			if (this.field == null) {
 				return null;
 			}
+			Annotation[] annotations = this.annotations;
+			if (annotations == null) {
+				try {
+					annotations = this.field.getDeclaredAnnotations();
+				}
+				catch (Exception ex) {
+					return null;
+				}
+				this.annotations = annotations;
+			}
+			return annotations;
 		}
 
 		Supplier<Object> getValue(Supplier<?> instance) {
@@ -345,7 +367,7 @@ class JavaBeanBinder implements DataObjectBinder {
 			}
 			return () -> {
 				try {
-					this.getter.setAccessible(true);
+					ReflectionUtils.makeAccessible(this.getter);
 					return this.getter.invoke(instance.get());
 				}
 				catch (Exception ex) {
@@ -360,7 +382,7 @@ class JavaBeanBinder implements DataObjectBinder {
 
 		void setValue(Supplier<?> instance, Object value) {
 			try {
-				this.setter.setAccessible(true);
+				ReflectionUtils.makeAccessible(this.setter);
 				this.setter.invoke(instance.get(), value);
 			}
 			catch (Exception ex) {
@@ -22,6 +22,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -44,6 +45,7 @@ import org.springframework.core.annotation.MergedAnnotation;
 import org.springframework.core.annotation.MergedAnnotations;
 import org.springframework.core.convert.ConversionException;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  * {@link DataObjectBinder} for immutable value objects.
@@ -168,6 +170,8 @@ class ValueObjectBinder implements DataObjectBinder {
 	 */
 	private abstract static class ValueObject<T> {
 
+		private static final Map<List<Object>, ValueObject<?>> CACHE = new ConcurrentReferenceHashMap<>();
+
 		private final Constructor<T> constructor;
 
 		protected ValueObject(Constructor<T> constructor) {
@@ -192,10 +196,24 @@ class ValueObjectBinder implements DataObjectBinder {
 			if (bindConstructor == null) {
 				return null;
 			}
+			// Parsed parameters depend only on the constructor and the type they are
+			// resolved against
+			List<Object> key = Arrays.asList(bindConstructor, bindable.getType());
+			ValueObject<?> valueObject = CACHE.get(key);
+			if (valueObject == null) {
+				valueObject = create(type, bindConstructor, bindable.getType());
+				CACHE.put(key, valueObject);
+			}
+			return (ValueObject<T>) valueObject;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T> ValueObject<T> create(Class<T> type, Constructor<?> bindConstructor,
+				ResolvableType resolvableType) {
 			if (KotlinDetector.isKotlinType(type)) {
-				return KotlinValueObject.get((Constructor<T>) bindConstructor, bindable.getType());
+				return KotlinValueObject.get((Constructor<T>) bindConstructor, resolvableType);
 			}
-			return DefaultValueObject.get(bindConstructor, bindable.getType());
+			return DefaultValueObject.get(bindConstructor, resolvableType);
 		}
 
 	}
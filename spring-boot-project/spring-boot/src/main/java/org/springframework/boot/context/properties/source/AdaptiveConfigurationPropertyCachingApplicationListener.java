@@ -0,0 +1,44 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.properties.source;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * {@link ApplicationListener} that enables unlimited {@link ConfigurationPropertyCaching
+ * caching} once the application is ready for the property sources whose names were
+ * refreshed during startup without ever changing. Only active when
+ * {@code spring.config.caching.adaptive} is {@code true}.
+ *
+ * @author Phillip Webb
+ * @see ConfigurationPropertyCaching#enableIfUnchanged()
+ */
+class AdaptiveConfigurationPropertyCachingApplicationListener implements ApplicationListener<ApplicationReadyEvent> {
+
+	static final String ADAPTIVE_PROPERTY = "spring.config.caching.adaptive";
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		ConfigurableEnvironment environment = event.getApplicationContext().getEnvironment();
+		if (environment.getProperty(ADAPTIVE_PROPERTY, Boolean.class, false)) {
+			ConfigurationPropertyCaching.get(environment).enableIfUnchanged();
+		}
+	}
+
+}
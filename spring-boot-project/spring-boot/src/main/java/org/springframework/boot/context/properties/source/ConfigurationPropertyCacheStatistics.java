@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.properties.source;
+
+import java.time.Duration;
+
+import org.springframework.core.style.ToStringCreator;
+
+/**
+ * Statistics for a {@link ConfigurationPropertyCaching configuration property cache}. The
+ * cache holds the mappings between the names of a property source and
+ * {@link ConfigurationPropertyName configuration property names}.
+ *
+ * @author Phillip Webb
+ * @since 2.6.14
+ * @see ConfigurationPropertyCaching#getStatistics()
+ */
+public final class ConfigurationPropertyCacheStatistics {
+
+	static final ConfigurationPropertyCacheStatistics NONE = new ConfigurationPropertyCacheStatistics(0, 0, 0, 0, 0);
+
+	private final long hitCount;
+
+	private final long missCount;
+
+	private final long refreshCount;
+
+	private final long changeCount;
+
+	private final long refreshTimeNanos;
+
+	ConfigurationPropertyCacheStatistics(long hitCount, long missCount, long refreshCount, long changeCount,
+			long refreshTimeNanos) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.refreshCount = refreshCount;
+		this.changeCount = changeCount;
+		this.refreshTimeNanos = refreshTimeNanos;
+	}
+
+	/**
+	 * Return the number of times that cached mappings were used as-is.
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return this.hitCount;
+	}
+
+	/**
+	 * Return the number of times that mappings had to be created because they were not
+	 * cached.
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return this.missCount;
+	}
+
+	/**
+	 * Return the number of times that expired mappings were refreshed.
+	 * @return the refresh count
+	 */
+	public long getRefreshCount() {
+		return this.refreshCount;
+	}
+
+	/**
+	 * Return the number of refreshes that found the names of the property source had
+	 * changed.
+	 * @return the change count
+	 */
+	public long getChangeCount() {
+		return this.changeCount;
+	}
+
+	/**
+	 * Return the total time spent creating and refreshing mappings.
+	 * @return the refresh time
+	 */
+	public Duration getRefreshTime() {
+		return Duration.ofNanos(this.refreshTimeNanos);
+	}
+
+	ConfigurationPropertyCacheStatistics add(ConfigurationPropertyCacheStatistics other) {
+		return new ConfigurationPropertyCacheStatistics(this.hitCount + other.hitCount,
+				this.missCount + other.missCount, this.refreshCount + other.refreshCount,
+				this.changeCount + other.changeCount, this.refreshTimeNanos + other.refreshTimeNanos);
+	}
+
+	@Override
+	public String toString() {
+		ToStringCreator creator = new ToStringCreator(this);
+		creator.append("hitCount", this.hitCount);
+		creator.append("missCount", this.missCount);
+		creator.append("refreshCount", this.refreshCount);
+		creator.append("changeCount", this.changeCount);
+		creator.append("refreshTime", getRefreshTime());
+		return creator.toString();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2020 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -51,6 +51,33 @@ public interface ConfigurationPropertyCaching {
 	 */
 	void clear();
 
+	/**
+	 * Enable caching with an unlimited time-to-live if the cache has been refreshed and
+	 * no refresh has found a change. Caches that have not been refreshed are left as they
+	 * are.
+	 * @since 2.6.14
+	 */
+	default void enableIfUnchanged() {
+	}
+
+	/**
+	 * Start recording {@link #getStatistics() statistics} for the cache. Statistics are
+	 * not recorded by default so that cache lookups do not pay for them.
+	 * @since 2.6.14
+	 */
+	default void enableStatistics() {
+	}
+
+	/**
+	 * Return the statistics recorded for the cache since {@link #enableStatistics()} was
+	 * called.
+	 * @return the cache statistics
+	 * @since 2.6.14
+	 */
+	default ConfigurationPropertyCacheStatistics getStatistics() {
+		return ConfigurationPropertyCacheStatistics.NONE;
+	}
+
 	/**
 	 * Get for all configuration property sources in the environment.
 	 * @param environment the spring environment
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.properties.source;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Table of interned {@link ConfigurationPropertyName} instances shared by the immutable
+ * property sources of an environment. Names are keyed on the raw property source name and
+ * the {@link PropertyMapper} used to adapt it, so each key is parsed once and every
+ * source that contains it uses the same instance. Names that are created elsewhere, such
+ * as those that the binder builds, can be {@link #intern(ConfigurationPropertyName)
+ * interned} against the table so that they share an instance with the names that the
+ * sources contain.
+ * <p>
+ * The table lives as long as the environment and is not trimmed when a property source is
+ * removed. It is therefore bounded: once it holds its maximum number of names, further
+ * names are mapped without being interned.
+ *
+ * @author Phillip Webb
+ * @see SpringConfigurationPropertySources
+ */
+final class ConfigurationPropertyNameTable {
+
+	static final int DEFAULT_MAX_SIZE = 8192;
+
+	private final Map<PropertyMapper, Map<String, ConfigurationPropertyName>> names = new ConcurrentHashMap<>(4);
+
+	private final Map<ConfigurationPropertyName, ConfigurationPropertyName> canonical = new ConcurrentHashMap<>();
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final int maxSize;
+
+	ConfigurationPropertyNameTable() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	ConfigurationPropertyNameTable(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Return the interned {@link ConfigurationPropertyName} that the given mapper maps
+	 * the property source name to.
+	 * @param mapper the property mapper
+	 * @param propertySourceName the name from the property source
+	 * @return the interned name, a name that is not interned if the table is full, or
+	 * {@code null} if the mapper does not map the name
+	 * @see PropertyMapper#map(String)
+	 */
+	ConfigurationPropertyName map(PropertyMapper mapper, String propertySourceName) {
+		Map<String, ConfigurationPropertyName> names = this.names.computeIfAbsent(mapper,
+				(key) -> new ConcurrentHashMap<>());
+		ConfigurationPropertyName name = names.get(propertySourceName);
+		if (name != null) {
+			return name;
+		}
+		name = mapper.map(propertySourceName);
+		if (name == null || this.size.get() >= this.maxSize) {
+			return name;
+		}
+		// Calculate the hash code up front so that it's cached by the shared instance
+		name.hashCode();
+		ConfigurationPropertyName existing = names.putIfAbsent(propertySourceName, name);
+		if (existing != null) {
+			return existing;
+		}
+		this.size.incrementAndGet();
+		if (name.toString().equals(propertySourceName)) {
+			this.canonical.putIfAbsent(name, name);
+		}
+		return name;
+	}
+
+	/**
+	 * Return the interned instance of the given name. Only names that a source contains
+	 * in their canonical form are interned and only an instance with exactly the same
+	 * string representation is returned, so the result can be used in place of the given
+	 * name.
+	 * @param name the name to intern
+	 * @return the interned name or the given name if there is no interned instance
+	 */
+	ConfigurationPropertyName intern(ConfigurationPropertyName name) {
+		ConfigurationPropertyName interned = this.canonical.get(name);
+		if (interned == null || interned == name || !interned.toString().equals(name.toString())) {
+			return name;
+		}
+		return interned;
+	}
+
+	/**
+	 * Return the number of interned names.
+	 * @return the number of names
+	 */
+	int size() {
+		return this.size.get();
+	}
+
+}
@@ -152,6 +152,23 @@ public final class ConfigurationPropertySources {
 		return new SpringConfigurationPropertySources(sources);
 	}
 
+	/**
+	 * Return the instance of the given name that is shared by the given sources. Sources
+	 * that are {@link #attach(Environment) attached} to an environment share the names of
+	 * their immutable property sources, other sources return the given name.
+	 * @param sources the configuration property sources
+	 * @param name the name to intern
+	 * @return the shared name or the given name
+	 * @since 2.6.14
+	 */
+	public static ConfigurationPropertyName intern(Iterable<ConfigurationPropertySource> sources,
+			ConfigurationPropertyName name) {
+		if (sources instanceof SpringConfigurationPropertySources) {
+			return ((SpringConfigurationPropertySources) sources).intern(name);
+		}
+		return name;
+	}
+
 	private static Stream<PropertySource<?>> streamPropertySources(PropertySources sources) {
 		return sources.stream().flatMap(ConfigurationPropertySources::flatten)
 				.filter(ConfigurationPropertySources::isIncluded);
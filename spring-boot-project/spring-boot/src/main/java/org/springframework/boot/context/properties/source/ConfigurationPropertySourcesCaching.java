@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2020 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -53,6 +53,23 @@ class ConfigurationPropertySourcesCaching implements ConfigurationPropertyCachin
 		forEach(ConfigurationPropertyCaching::clear);
 	}
 
+	@Override
+	public void enableIfUnchanged() {
+		forEach(ConfigurationPropertyCaching::enableIfUnchanged);
+	}
+
+	@Override
+	public void enableStatistics() {
+		forEach(ConfigurationPropertyCaching::enableStatistics);
+	}
+
+	@Override
+	public ConfigurationPropertyCacheStatistics getStatistics() {
+		ConfigurationPropertyCacheStatistics[] statistics = { ConfigurationPropertyCacheStatistics.NONE };
+		forEach((caching) -> statistics[0] = statistics[0].add(caching.getStatistics()));
+		return statistics[0];
+	}
+
 	private void forEach(Consumer<ConfigurationPropertyCaching> action) {
 		if (this.sources != null) {
 			for (ConfigurationPropertySource source : this.sources) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.boot.context.properties.source;
 import java.lang.ref.SoftReference;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
@@ -41,6 +42,22 @@ class SoftReferenceConfigurationPropertyCache<T> implements ConfigurationPropert
 
 	private volatile Instant lastAccessed = now();
 
+	private volatile boolean refreshed;
+
+	private volatile boolean changed;
+
+	private volatile boolean recordStatistics;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder refreshCount = new LongAdder();
+
+	private final LongAdder changeCount = new LongAdder();
+
+	private final LongAdder refreshTime = new LongAdder();
+
 	SoftReferenceConfigurationPropertyCache(boolean neverExpire) {
 		this.neverExpire = neverExpire;
 	}
@@ -65,6 +82,34 @@ class SoftReferenceConfigurationPropertyCache<T> implements ConfigurationPropert
 		this.lastAccessed = null;
 	}
 
+	@Override
+	public void enableIfUnchanged() {
+		if (this.refreshed && !this.changed) {
+			enable();
+		}
+	}
+
+	@Override
+	public void enableStatistics() {
+		this.recordStatistics = true;
+	}
+
+	@Override
+	public ConfigurationPropertyCacheStatistics getStatistics() {
+		return new ConfigurationPropertyCacheStatistics(this.hitCount.sum(), this.missCount.sum(),
+				this.refreshCount.sum(), this.changeCount.sum(), this.refreshTime.sum());
+	}
+
+	/**
+	 * Record that a refresh found that the cached value had changed.
+	 */
+	void recordChange() {
+		this.changed = true;
+		if (this.recordStatistics) {
+			this.changeCount.increment();
+		}
+	}
+
 	/**
 	 * Get a value from the cache, creating it if necessary.
 	 * @param factory a factory used to create the item if there is no reference to it.
@@ -74,12 +119,16 @@ class SoftReferenceConfigurationPropertyCache<T> implements ConfigurationPropert
 	T get(Supplier<T> factory, UnaryOperator<T> refreshAction) {
 		T value = getValue();
 		if (value == null) {
-			value = refreshAction.apply(factory.get());
-			setValue(value);
+			value = refresh(null, factory, refreshAction, this.missCount);
 		}
 		else if (hasExpired()) {
-			value = refreshAction.apply(value);
-			setValue(value);
+			if (!this.refreshed) {
+				this.refreshed = true;
+			}
+			value = refresh(value, factory, refreshAction, this.refreshCount);
+		}
+		else if (this.recordStatistics) {
+			this.hitCount.increment();
 		}
 		if (!this.neverExpire) {
 			this.lastAccessed = now();
@@ -87,6 +136,18 @@ class SoftReferenceConfigurationPropertyCache<T> implements ConfigurationPropert
 		return value;
 	}
 
+	private T refresh(T value, Supplier<T> factory, UnaryOperator<T> refreshAction, LongAdder count) {
+		boolean recordStatistics = this.recordStatistics;
+		long startTime = (recordStatistics) ? System.nanoTime() : 0;
+		T refreshed = refreshAction.apply((value != null) ? value : factory.get());
+		if (recordStatistics) {
+			this.refreshTime.add(System.nanoTime() - startTime);
+			count.increment();
+		}
+		setValue(refreshed);
+		return refreshed;
+	}
+
 	private boolean hasExpired() {
 		if (this.neverExpire) {
 			return false;
@@ -81,7 +81,7 @@ class SpringConfigurationPropertySource implements ConfigurationPropertySource {
 		for (PropertyMapper mapper : this.mappers) {
 			try {
 				for (String candidate : mapper.map(name)) {
-					Object value = getPropertySource().getProperty(candidate);
+					Object value = getPropertySourceProperty(candidate);
 					if (value != null) {
 						Origin origin = PropertySourceOrigin.get(this.propertySource, candidate);
 						return ConfigurationProperty.of(this, name, value, origin);
@@ -94,6 +94,16 @@ class SpringConfigurationPropertySource implements ConfigurationPropertySource {
 		return null;
 	}
 
+	/**
+	 * Return the value of the given mapped candidate name from the underlying property
+	 * source.
+	 * @param name the candidate name
+	 * @return the value or {@code null}
+	 */
+	protected Object getPropertySourceProperty(String name) {
+		return getPropertySource().getProperty(name);
+	}
+
 	@Override
 	public ConfigurationPropertyState containsDescendantOf(ConfigurationPropertyName name) {
 		PropertySource<?> source = getPropertySource();
@@ -142,10 +152,24 @@ class SpringConfigurationPropertySource implements ConfigurationPropertySource {
 	 * {@link SpringIterableConfigurationPropertySource} instance
 	 */
 	static SpringConfigurationPropertySource from(PropertySource<?> source) {
+		return from(source, null);
+	}
+
+	/**
+	 * Create a new {@link SpringConfigurationPropertySource} for the specified
+	 * {@link PropertySource}, interning mapped names in the given table when the source
+	 * is immutable.
+	 * @param source the source Spring {@link PropertySource}
+	 * @param nameTable the name table to use or {@code null}
+	 * @return a {@link SpringConfigurationPropertySource} or
+	 * {@link SpringIterableConfigurationPropertySource} instance
+	 */
+	static SpringConfigurationPropertySource from(PropertySource<?> source, ConfigurationPropertyNameTable nameTable) {
 		Assert.notNull(source, "Source must not be null");
 		PropertyMapper[] mappers = getPropertyMappers(source);
 		if (isFullEnumerable(source)) {
-			return new SpringIterableConfigurationPropertySource((EnumerablePropertySource<?>) source, mappers);
+			return new SpringIterableConfigurationPropertySource((EnumerablePropertySource<?>) source, nameTable,
+					mappers);
 		}
 		return new SpringConfigurationPropertySource(source, mappers);
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -45,6 +45,8 @@ class SpringConfigurationPropertySources implements Iterable<ConfigurationProper
 	private final Map<PropertySource<?>, ConfigurationPropertySource> cache = new ConcurrentReferenceHashMap<>(16,
 			ReferenceType.SOFT);
 
+	private final ConfigurationPropertyNameTable nameTable = new ConfigurationPropertyNameTable();
+
 	SpringConfigurationPropertySources(Iterable<PropertySource<?>> sources) {
 		Assert.notNull(sources, "Sources must not be null");
 		this.sources = sources;
@@ -54,6 +56,10 @@ class SpringConfigurationPropertySources implements Iterable<ConfigurationProper
 		return this.sources == sources;
 	}
 
+	ConfigurationPropertyName intern(ConfigurationPropertyName name) {
+		return this.nameTable.intern(name);
+	}
+
 	@Override
 	public Iterator<ConfigurationPropertySource> iterator() {
 		return new SourcesIterator(this.sources.iterator(), this::adapt);
@@ -66,7 +72,7 @@ class SpringConfigurationPropertySources implements Iterable<ConfigurationProper
 		if (result != null && result.getUnderlyingSource() == source) {
 			return result;
 		}
-		result = SpringConfigurationPropertySource.from(source);
+		result = SpringConfigurationPropertySource.from(source, this.nameTable);
 		if (source instanceof OriginLookup) {
 			result = result.withPrefix(((OriginLookup<?>) source).getPrefix());
 		}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,20 +16,25 @@
 
 package org.springframework.boot.context.properties.source;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiPredicate;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName.Form;
 import org.springframework.boot.origin.Origin;
 import org.springframework.boot.origin.OriginLookup;
 import org.springframework.boot.origin.PropertySourceOrigin;
@@ -57,13 +62,21 @@ class SpringIterableConfigurationPropertySource extends SpringConfigurationPrope
 
 	private final SoftReferenceConfigurationPropertyCache<Mappings> cache;
 
+	private final ConfigurationPropertyNameTable nameTable;
+
 	private volatile ConfigurationPropertyName[] configurationPropertyNames;
 
 	SpringIterableConfigurationPropertySource(EnumerablePropertySource<?> propertySource, PropertyMapper... mappers) {
+		this(propertySource, null, mappers);
+	}
+
+	SpringIterableConfigurationPropertySource(EnumerablePropertySource<?> propertySource,
+			ConfigurationPropertyNameTable nameTable, PropertyMapper... mappers) {
 		super(propertySource, mappers);
 		assertEnumerablePropertySource();
 		this.ancestorOfCheck = getAncestorOfCheck(mappers);
 		this.cache = new SoftReferenceConfigurationPropertyCache<>(isImmutablePropertySource());
+		this.nameTable = nameTable;
 	}
 
 	private BiPredicate<ConfigurationPropertyName, ConfigurationPropertyName> getAncestorOfCheck(
@@ -111,6 +124,17 @@ class SpringIterableConfigurationPropertySource extends SpringConfigurationPrope
 		return null;
 	}
 
+	@Override
+	protected Object getPropertySourceProperty(String name) {
+		// Immutable system environment sources can rule out most candidates without
+		// performing a relaxed lookup
+		if (getPropertySource() instanceof SystemEnvironmentPropertySource && isImmutablePropertySource()
+				&& !getMappings().mayContainRelaxed(name)) {
+			return null;
+		}
+		return super.getPropertySourceProperty(name);
+	}
+
 	@Override
 	public Stream<ConfigurationPropertyName> stream() {
 		ConfigurationPropertyName[] names = getConfigurationPropertyNames();
@@ -129,7 +153,7 @@ class SpringIterableConfigurationPropertySource extends SpringConfigurationPrope
 			return result;
 		}
 		if (this.ancestorOfCheck == PropertyMapper.DEFAULT_ANCESTOR_OF_CHECK) {
-			return getMappings().containsDescendantOf(name, this.ancestorOfCheck);
+			return getMappings().containsDescendantOf(name);
 		}
 		ConfigurationPropertyName[] candidates = getConfigurationPropertyNames();
 		for (ConfigurationPropertyName candidate : candidates) {
@@ -158,12 +182,17 @@ class SpringIterableConfigurationPropertySource extends SpringConfigurationPrope
 	}
 
 	private Mappings createMappings() {
-		return new Mappings(getMappers(), isImmutablePropertySource(),
-				this.ancestorOfCheck == PropertyMapper.DEFAULT_ANCESTOR_OF_CHECK);
+		boolean immutable = isImmutablePropertySource();
+		// Only immutable sources intern names so that the table does not grow as mutable
+		// sources change
+		return new Mappings(getMappers(), immutable, immutable ? this.nameTable : null,
+				immutable && getPropertySource() instanceof SystemEnvironmentPropertySource);
 	}
 
 	private Mappings updateMappings(Mappings mappings) {
-		mappings.updateMappings(getPropertySource()::getPropertyNames);
+		if (mappings.updateMappings(getPropertySource()::getPropertyNames)) {
+			this.cache.recordChange();
+		}
 		return mappings;
 	}
 
@@ -183,6 +212,14 @@ class SpringIterableConfigurationPropertySource extends SpringConfigurationPrope
 		return (EnumerablePropertySource<?>) super.getPropertySource();
 	}
 
+	/**
+	 * Mappings between property source names and {@link ConfigurationPropertyName
+	 * configuration property names}, held as a trie over the {@link Form#UNIFORM uniform}
+	 * name elements so that lookups are proportional to the depth of the name. Mutable
+	 * sources update the trie in place, touching only the names that have been added or
+	 * removed. Immutable system environment sources also index the relaxed form of each
+	 * name so that candidates that cannot match can be skipped.
+	 */
 	private static class Mappings {
 
 		private static final ConfigurationPropertyName[] EMPTY_NAMES_ARRAY = {};
@@ -191,31 +228,39 @@ class SpringIterableConfigurationPropertySource extends SpringConfigurationPrope
 
 		private final boolean immutable;
 
-		private final boolean trackDescendants;
+		private final ConfigurationPropertyNameTable nameTable;
 
-		private volatile Map<ConfigurationPropertyName, Set<String>> mappings;
+		private volatile Node root;
 
 		private volatile Map<String, ConfigurationPropertyName> reverseMappings;
 
-		private volatile Map<ConfigurationPropertyName, Set<ConfigurationPropertyName>> descendants;
-
 		private volatile ConfigurationPropertyName[] configurationPropertyNames;
 
 		private volatile String[] lastUpdated;
 
-		Mappings(PropertyMapper[] mappers, boolean immutable, boolean trackDescendants) {
+		private final boolean indexRelaxedNames;
+
+		private volatile Set<String> relaxedNames;
+
+		Mappings(PropertyMapper[] mappers, boolean immutable, ConfigurationPropertyNameTable nameTable,
+				boolean indexRelaxedNames) {
 			this.mappers = mappers;
 			this.immutable = immutable;
-			this.trackDescendants = trackDescendants;
+			this.nameTable = nameTable;
+			this.indexRelaxedNames = indexRelaxedNames;
 		}
 
-		void updateMappings(Supplier<String[]> propertyNames) {
-			if (this.mappings == null || !this.immutable) {
+		/**
+		 * Update the mappings from the given property names.
+		 * @param propertyNames the property names
+		 * @return {@code true} if previously mapped names have changed
+		 */
+		boolean updateMappings(Supplier<String[]> propertyNames) {
+			if (this.root == null || !this.immutable) {
 				int count = 0;
 				while (true) {
 					try {
-						updateMappings(propertyNames.get());
-						return;
+						return updateMappings(propertyNames.get());
 					}
 					catch (ConcurrentModificationException ex) {
 						if (count++ > 10) {
@@ -224,59 +269,94 @@ class SpringIterableConfigurationPropertySource extends SpringConfigurationPrope
 					}
 				}
 			}
+			return false;
 		}
 
-		private void updateMappings(String[] propertyNames) {
+		private synchronized boolean updateMappings(String[] propertyNames) {
 			String[] lastUpdated = this.lastUpdated;
 			if (lastUpdated != null && Arrays.equals(lastUpdated, propertyNames)) {
-				return;
+				return false;
 			}
-			int size = propertyNames.length;
-			Map<ConfigurationPropertyName, Set<String>> mappings = cloneOrCreate(this.mappings, size);
-			Map<String, ConfigurationPropertyName> reverseMappings = cloneOrCreate(this.reverseMappings, size);
-			Map<ConfigurationPropertyName, Set<ConfigurationPropertyName>> descendants = cloneOrCreate(this.descendants,
-					size);
-			for (PropertyMapper propertyMapper : this.mappers) {
-				for (String propertyName : propertyNames) {
-					if (!reverseMappings.containsKey(propertyName)) {
-						ConfigurationPropertyName configurationPropertyName = propertyMapper.map(propertyName);
-						if (configurationPropertyName != null && !configurationPropertyName.isEmpty()) {
-							add(mappings, configurationPropertyName, propertyName);
-							reverseMappings.put(propertyName, configurationPropertyName);
-							if (this.trackDescendants) {
-								addParents(descendants, configurationPropertyName);
-							}
-						}
+			Node root = this.root;
+			Map<String, ConfigurationPropertyName> reverseMappings = this.reverseMappings;
+			Set<String> relaxedNames = this.relaxedNames;
+			if (root == null) {
+				root = new Node(!this.immutable);
+				reverseMappings = createMap(propertyNames.length);
+				relaxedNames = this.indexRelaxedNames ? new HashSet<>(propertyNames.length) : null;
+			}
+			else if (lastUpdated != null) {
+				removeMappings(root, reverseMappings, lastUpdated, propertyNames);
+			}
+			for (String propertyName : propertyNames) {
+				if (relaxedNames != null) {
+					relaxedNames.add(getRelaxedName(propertyName));
+				}
+				if (!reverseMappings.containsKey(propertyName)) {
+					ConfigurationPropertyName configurationPropertyName = map(propertyName);
+					if (configurationPropertyName != null) {
+						root.add(configurationPropertyName, propertyName);
+						reverseMappings.put(propertyName, configurationPropertyName);
 					}
 				}
 			}
-			this.mappings = mappings;
+			this.root = root;
 			this.reverseMappings = reverseMappings;
-			this.descendants = descendants;
+			this.relaxedNames = relaxedNames;
 			this.lastUpdated = this.immutable ? null : propertyNames;
 			this.configurationPropertyNames = this.immutable
-					? reverseMappings.values().toArray(new ConfigurationPropertyName[0]) : null;
+					? getConfigurationPropertyNames(reverseMappings, propertyNames) : null;
+			return lastUpdated != null;
 		}
 
-		private <K, V> Map<K, V> cloneOrCreate(Map<K, V> source, int size) {
-			return (source != null) ? new LinkedHashMap<>(source) : new LinkedHashMap<>(size);
+		private void removeMappings(Node root, Map<String, ConfigurationPropertyName> reverseMappings,
+				String[] lastUpdated, String[] propertyNames) {
+			Set<String> current = new HashSet<>(Arrays.asList(propertyNames));
+			for (String propertyName : lastUpdated) {
+				if (!current.contains(propertyName)) {
+					ConfigurationPropertyName configurationPropertyName = reverseMappings.remove(propertyName);
+					if (configurationPropertyName != null) {
+						root.remove(configurationPropertyName, propertyName);
+					}
+				}
+			}
 		}
 
-		private void addParents(Map<ConfigurationPropertyName, Set<ConfigurationPropertyName>> descendants,
-				ConfigurationPropertyName name) {
-			ConfigurationPropertyName parent = name;
-			while (!parent.isEmpty()) {
-				add(descendants, parent, name);
-				parent = parent.getParent();
+		private ConfigurationPropertyName map(String propertyName) {
+			for (PropertyMapper propertyMapper : this.mappers) {
+				ConfigurationPropertyName configurationPropertyName = (this.nameTable != null)
+						? this.nameTable.map(propertyMapper, propertyName) : propertyMapper.map(propertyName);
+				if (configurationPropertyName != null && !configurationPropertyName.isEmpty()) {
+					return configurationPropertyName;
+				}
 			}
+			return null;
 		}
 
-		private <K, T> void add(Map<K, Set<T>> map, K key, T value) {
-			map.computeIfAbsent(key, (k) -> new HashSet<>()).add(value);
+		private <K, V> Map<K, V> createMap(int size) {
+			return this.immutable ? new HashMap<>(size) : new ConcurrentHashMap<>(size);
+		}
+
+		/**
+		 * Return if the source may contain the given name when it is resolved using the
+		 * relaxed rules of {@link SystemEnvironmentPropertySource}. Those rules only ever
+		 * match names that have the same {@link #getRelaxedName(String) relaxed name}.
+		 * @param name the name to check
+		 * @return {@code false} if the source cannot contain the name
+		 */
+		boolean mayContainRelaxed(String name) {
+			Set<String> relaxedNames = this.relaxedNames;
+			return relaxedNames == null || relaxedNames.contains(getRelaxedName(name));
+		}
+
+		private static String getRelaxedName(String name) {
+			// Uses the default locale to match SystemEnvironmentPropertySource
+			return name.toUpperCase(Locale.getDefault()).replace('.', '_').replace('-', '_');
 		}
 
 		Set<String> getMapped(ConfigurationPropertyName configurationPropertyName) {
-			return this.mappings.getOrDefault(configurationPropertyName, Collections.emptySet());
+			Node node = this.root.find(configurationPropertyName);
+			return (node != null) ? node.getMapped() : Collections.emptySet();
 		}
 
 		ConfigurationPropertyName[] getConfigurationPropertyNames(String[] propertyNames) {
@@ -295,18 +375,115 @@ class SpringIterableConfigurationPropertySource extends SpringConfigurationPrope
 			return names;
 		}
 
-		ConfigurationPropertyState containsDescendantOf(ConfigurationPropertyName name,
-				BiPredicate<ConfigurationPropertyName, ConfigurationPropertyName> ancestorOfCheck) {
-			if (name.isEmpty() && !this.descendants.isEmpty()) {
-				return ConfigurationPropertyState.PRESENT;
+		private ConfigurationPropertyName[] getConfigurationPropertyNames(
+				Map<String, ConfigurationPropertyName> reverseMappings, String[] propertyNames) {
+			List<ConfigurationPropertyName> names = new ArrayList<>(reverseMappings.size());
+			for (String propertyName : propertyNames) {
+				ConfigurationPropertyName name = reverseMappings.get(propertyName);
+				if (name != null) {
+					names.add(name);
+				}
 			}
-			Set<ConfigurationPropertyName> candidates = this.descendants.getOrDefault(name, Collections.emptySet());
-			for (ConfigurationPropertyName candidate : candidates) {
-				if (ancestorOfCheck.test(name, candidate)) {
-					return ConfigurationPropertyState.PRESENT;
+			return names.toArray(EMPTY_NAMES_ARRAY);
+		}
+
+		ConfigurationPropertyState containsDescendantOf(ConfigurationPropertyName name) {
+			Node node = this.root.find(name);
+			return (node != null && node.hasDescendants()) ? ConfigurationPropertyState.PRESENT
+					: ConfigurationPropertyState.ABSENT;
+		}
+
+	}
+
+	/**
+	 * A node in the {@link Mappings} trie. Each node holds the property source names that
+	 * map to the configuration property name ending at the node, along with a count of
+	 * the names held by the node and all of its descendants. Nodes used by mutable
+	 * sources can be read while they are being updated.
+	 */
+	private static final class Node {
+
+		private final boolean concurrent;
+
+		private volatile Map<String, Node> children;
+
+		private volatile Set<String> mapped;
+
+		private volatile int size;
+
+		Node(boolean concurrent) {
+			this.concurrent = concurrent;
+		}
+
+		void add(ConfigurationPropertyName name, String propertyName) {
+			Node node = this;
+			for (int i = 0; i < name.getNumberOfElements(); i++) {
+				node.size++;
+				node = node.getOrCreateChild(name.getElement(i, Form.UNIFORM));
+			}
+			node.size++;
+			node.getOrCreateMapped().add(propertyName);
+		}
+
+		void remove(ConfigurationPropertyName name, String propertyName) {
+			Node[] path = new Node[name.getNumberOfElements() + 1];
+			path[0] = this;
+			for (int i = 0; i < name.getNumberOfElements(); i++) {
+				path[i + 1] = path[i].getChild(name.getElement(i, Form.UNIFORM));
+				if (path[i + 1] == null) {
+					return;
 				}
 			}
-			return ConfigurationPropertyState.ABSENT;
+			Node node = path[path.length - 1];
+			if (node.mapped == null || !node.mapped.remove(propertyName)) {
+				return;
+			}
+			for (int i = path.length - 1; i >= 0; i--) {
+				if (--path[i].size == 0 && i > 0) {
+					path[i - 1].children.remove(name.getElement(i - 1, Form.UNIFORM));
+				}
+			}
+		}
+
+		Node find(ConfigurationPropertyName name) {
+			Node node = this;
+			for (int i = 0; i < name.getNumberOfElements() && node != null; i++) {
+				node = node.getChild(name.getElement(i, Form.UNIFORM));
+			}
+			return node;
+		}
+
+		boolean hasDescendants() {
+			Set<String> mapped = this.mapped;
+			return this.size > ((mapped != null) ? mapped.size() : 0);
+		}
+
+		Set<String> getMapped() {
+			Set<String> mapped = this.mapped;
+			return (mapped != null) ? mapped : Collections.emptySet();
+		}
+
+		private Node getChild(String element) {
+			Map<String, Node> children = this.children;
+			return (children != null) ? children.get(element) : null;
+		}
+
+		private Node getOrCreateChild(String element) {
+			Map<String, Node> children = this.children;
+			if (children == null) {
+				children = this.concurrent ? new ConcurrentHashMap<>(4) : new HashMap<>(4);
+				this.children = children;
+			}
+			return children.computeIfAbsent(element, (key) -> new Node(this.concurrent));
+		}
+
+		private Set<String> getOrCreateMapped() {
+			Set<String> mapped = this.mapped;
+			if (mapped == null) {
+				mapped = this.concurrent ? ConcurrentHashMap.newKeySet(1) : new HashSet<>(1);
+				this.mapped = mapped;
+			}
+			return mapped;
 		}
 
 	}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.env;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import org.springframework.boot.origin.OriginTrackedValue;
+import org.springframework.boot.origin.TextResourceOrigin;
+import org.springframework.boot.origin.TextResourceOrigin.Location;
+import org.springframework.core.io.Resource;
+
+/**
+ * Immutable map of {@code String} to {@link OriginTrackedValue} that stores all keys and
+ * values in a single {@link String} with entry offsets held in an {@code int[]}. Lookups
+ * use an open-addressed {@code int[]} index. {@link OriginTrackedValue Values} and their
+ * {@link TextResourceOrigin origins} are only created when they are requested and are not
+ * retained by the map.
+ *
+ * @author Madhura Bhave
+ * @see Builder
+ */
+final class CompactOriginTrackedMap extends AbstractMap<String, OriginTrackedValue> {
+
+	private static final int KEY_START = 0;
+
+	private static final int KEY_END = 1;
+
+	private static final int VALUE_START = 2;
+
+	private static final int VALUE_END = 3;
+
+	private static final int LINE = 4;
+
+	private static final int COLUMN = 5;
+
+	private static final int HASH = 6;
+
+	private static final int ENTRY_SIZE = 7;
+
+	private final Resource resource;
+
+	private final String text;
+
+	private final int[] entries;
+
+	private final int[] index;
+
+	private final int size;
+
+	private CompactOriginTrackedMap(Resource resource, String text, int[] entries, int[] index, int size) {
+		this.resource = resource;
+		this.text = text;
+		this.entries = entries;
+		this.index = index;
+		this.size = size;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return (key instanceof String) && find(this.text, this.entries, this.index, (String) key) != -1;
+	}
+
+	@Override
+	public OriginTrackedValue get(Object key) {
+		int entry = (key instanceof String) ? find(this.text, this.entries, this.index, (String) key) : -1;
+		return (entry != -1) ? getValue(entry) : null;
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return new EntrySet<>(this::getKey);
+	}
+
+	@Override
+	public Set<Entry<String, OriginTrackedValue>> entrySet() {
+		return new EntrySet<>((entry) -> new SimpleImmutableEntry<>(getKey(entry), getValue(entry)));
+	}
+
+	private String getKey(int entry) {
+		int offset = entry * ENTRY_SIZE;
+		return this.text.substring(this.entries[offset + KEY_START], this.entries[offset + KEY_END]);
+	}
+
+	private OriginTrackedValue getValue(int entry) {
+		int offset = entry * ENTRY_SIZE;
+		String value = this.text.substring(this.entries[offset + VALUE_START], this.entries[offset + VALUE_END]);
+		Resource resource = this.resource;
+		int line = this.entries[offset + LINE];
+		int column = this.entries[offset + COLUMN];
+		return OriginTrackedValue.ofLazy(value, () -> new TextResourceOrigin(resource, new Location(line, column)));
+	}
+
+	private static int find(CharSequence text, int[] entries, int[] index, String key) {
+		int hash = key.hashCode();
+		int mask = index.length - 1;
+		for (int slot = spread(hash) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+			int entry = index[slot] - 1;
+			int offset = entry * ENTRY_SIZE;
+			if (entries[offset + HASH] == hash
+					&& matches(text, entries[offset + KEY_START], entries[offset + KEY_END], key)) {
+				return entry;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean matches(CharSequence text, int start, int end, String key) {
+		if (end - start != key.length()) {
+			return false;
+		}
+		for (int i = 0; i < key.length(); i++) {
+			if (text.charAt(start + i) != key.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Read-only set view of the entries of the map, in insertion order.
+	 *
+	 * @param <E> the element type
+	 */
+	private final class EntrySet<E> extends AbstractSet<E> {
+
+		private final IntFunction<E> factory;
+
+		EntrySet(IntFunction<E> factory) {
+			this.factory = factory;
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			return new Iterator<E>() {
+
+				private int entry;
+
+				@Override
+				public boolean hasNext() {
+					return this.entry < CompactOriginTrackedMap.this.size;
+				}
+
+				@Override
+				public E next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return EntrySet.this.factory.apply(this.entry++);
+				}
+
+			};
+		}
+
+		@Override
+		public int size() {
+			return CompactOriginTrackedMap.this.size;
+		}
+
+	}
+
+	/**
+	 * Builder used to create a {@link CompactOriginTrackedMap}. Putting a key that has
+	 * already been added replaces its value but keeps its original position.
+	 */
+	static final class Builder {
+
+		private final Resource resource;
+
+		private final StringBuilder text = new StringBuilder();
+
+		private int[] entries = new int[ENTRY_SIZE * 8];
+
+		private int[] index = new int[16];
+
+		private int size;
+
+		Builder(Resource resource) {
+			this.resource = resource;
+		}
+
+		void put(String key, CharSequence value, int line, int column) {
+			int entry = find(this.text, this.entries, this.index, key);
+			if (entry == -1) {
+				entry = add(key);
+			}
+			int offset = entry * ENTRY_SIZE;
+			this.entries[offset + VALUE_START] = this.text.length();
+			this.text.append(value);
+			this.entries[offset + VALUE_END] = this.text.length();
+			this.entries[offset + LINE] = line;
+			this.entries[offset + COLUMN] = column;
+		}
+
+		private int add(String key) {
+			int entry = this.size++;
+			int offset = entry * ENTRY_SIZE;
+			if (offset + ENTRY_SIZE > this.entries.length) {
+				this.entries = Arrays.copyOf(this.entries, this.entries.length * 2);
+			}
+			this.entries[offset + KEY_START] = this.text.length();
+			this.text.append(key);
+			this.entries[offset + KEY_END] = this.text.length();
+			this.entries[offset + HASH] = key.hashCode();
+			if (this.size * 2 > this.index.length) {
+				this.index = new int[this.index.length * 2];
+				for (int i = 0; i < this.size; i++) {
+					addToIndex(i);
+				}
+			}
+			else {
+				addToIndex(entry);
+			}
+			return entry;
+		}
+
+		private void addToIndex(int entry) {
+			int mask = this.index.length - 1;
+			int slot = spread(this.entries[entry * ENTRY_SIZE + HASH]) & mask;
+			while (this.index[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			this.index[slot] = entry + 1;
+		}
+
+		boolean isEmpty() {
+			return this.size == 0;
+		}
+
+		CompactOriginTrackedMap build() {
+			return new CompactOriginTrackedMap(this.resource, this.text.toString(),
+					Arrays.copyOf(this.entries, this.size * ENTRY_SIZE), this.index.clone(), this.size);
+		}
+
+	}
+
+}
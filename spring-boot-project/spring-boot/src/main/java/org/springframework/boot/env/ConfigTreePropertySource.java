@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,19 +17,37 @@
 package org.springframework.boot.env;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import org.springframework.boot.convert.ApplicationConversionService;
 import org.springframework.boot.origin.Origin;
@@ -56,8 +74,10 @@ import org.springframework.util.StringUtils;
  * Directories are only scanned when the source is first created. The directory is not
  * monitored for updates, so files should not be added or removed. However, the contents
  * of a file can be updated as long as the property source was created with a
- * {@link Option#ALWAYS_READ} option. Nested directories are included in the source, but
- * with a {@code '.'} rather than {@code '/'} used as the path separator.
+ * {@link Option#ALWAYS_READ} option. Alternatively, the {@link Option#WATCH_FOR_CHANGES}
+ * option can be used to cache values and only refresh those that change. Nested
+ * directories are included in the source, but with a {@code '.'} rather than {@code '/'}
+ * used as the path separator.
  * <p>
  * Property values are returned as {@link Value} instances which allows them to be treated
  * either as an {@link InputStreamSource} or as a {@link CharSequence}. In addition, if
@@ -71,16 +91,23 @@ import org.springframework.util.StringUtils;
  * @author Phillip Webb
  * @since 2.4.0
  */
-public class ConfigTreePropertySource extends EnumerablePropertySource<Path> implements OriginLookup<String> {
+public class ConfigTreePropertySource extends EnumerablePropertySource<Path>
+		implements OriginLookup<String>, Closeable {
 
 	private static final int MAX_DEPTH = 100;
 
+	private static final Log logger = LogFactory.getLog(ConfigTreePropertySource.class);
+
 	private final Map<String, PropertyFile> propertyFiles;
 
 	private final String[] names;
 
 	private final Set<Option> options;
 
+	private final List<RefreshListener> refreshListeners = new CopyOnWriteArrayList<>();
+
+	private final PropertyFileWatcher watcher;
+
 	/**
 	 * Create a new {@link ConfigTreePropertySource} instance.
 	 * @param name the name of the property source
@@ -107,6 +134,8 @@ public class ConfigTreePropertySource extends EnumerablePropertySource<Path> imp
 		this.propertyFiles = PropertyFile.findAll(sourceDirectory, options);
 		this.options = options;
 		this.names = StringUtils.toStringArray(this.propertyFiles.keySet());
+		this.watcher = (options.contains(Option.WATCH_FOR_CHANGES) && !options.contains(Option.ALWAYS_READ))
+				? new PropertyFileWatcher(sourceDirectory, this.propertyFiles.values(), this::refreshed) : null;
 	}
 
 	@Override
@@ -128,7 +157,37 @@ public class ConfigTreePropertySource extends EnumerablePropertySource<Path> imp
 
 	@Override
 	public boolean isImmutable() {
-		return !this.options.contains(Option.ALWAYS_READ);
+		return !this.options.contains(Option.ALWAYS_READ) && !this.options.contains(Option.WATCH_FOR_CHANGES);
+	}
+
+	/**
+	 * Add a listener that will be called when the values of a source created with the
+	 * {@link Option#WATCH_FOR_CHANGES} option are refreshed.
+	 * @param listener the listener to add
+	 * @since 2.6.14
+	 */
+	public void addRefreshListener(RefreshListener listener) {
+		Assert.notNull(listener, "Listener must not be null");
+		this.refreshListeners.add(listener);
+	}
+
+	private void refreshed(Set<String> names) {
+		Set<String> refreshed = Collections.unmodifiableSet(names);
+		for (RefreshListener listener : this.refreshListeners) {
+			listener.onRefresh(this, refreshed);
+		}
+	}
+
+	/**
+	 * Stop watching the source directory for changes. Has no effect unless the source was
+	 * created with the {@link Option#WATCH_FOR_CHANGES} option.
+	 * @since 2.6.14
+	 */
+	@Override
+	public void close() {
+		if (this.watcher != null) {
+			this.watcher.close();
+		}
 	}
 
 	/**
@@ -151,7 +210,35 @@ public class ConfigTreePropertySource extends EnumerablePropertySource<Path> imp
 		/**
 		 * Automatically attempt trim trailing new-line characters.
 		 */
-		AUTO_TRIM_TRAILING_NEW_LINE
+		AUTO_TRIM_TRAILING_NEW_LINE,
+
+		/**
+		 * Cache the value of each file when it's first read and watch the source
+		 * directory for changes using a {@link WatchService}. Only values that have
+		 * changed are refreshed and {@link RefreshListener refresh listeners} are
+		 * notified. Files that are added after the source is created are not included.
+		 * This option has no effect when combined with {@link #ALWAYS_READ}.
+		 * @since 2.6.14
+		 */
+		WATCH_FOR_CHANGES
+
+	}
+
+	/**
+	 * Listener that can be used to react to refreshed property values.
+	 *
+	 * @since 2.6.14
+	 * @see ConfigTreePropertySource#addRefreshListener(RefreshListener)
+	 */
+	@FunctionalInterface
+	public interface RefreshListener {
+
+		/**
+		 * Called when the values of one or more properties have been refreshed.
+		 * @param propertySource the property source that was refreshed
+		 * @param names the names of the refreshed properties
+		 */
+		void onRefresh(ConfigTreePropertySource propertySource, Set<String> names);
 
 	}
 
@@ -171,30 +258,65 @@ public class ConfigTreePropertySource extends EnumerablePropertySource<Path> imp
 
 		private static final Location START_OF_FILE = new Location(0, 0);
 
+		private final String name;
+
 		private final Path path;
 
 		private final PathResource resource;
 
 		private final Origin origin;
 
-		private final PropertyFileContent cachedContent;
+		private volatile PropertyFileContent cachedContent;
 
 		private final boolean autoTrimTrailingNewLine;
 
-		private PropertyFile(Path path, Set<Option> options) {
+		private PropertyFile(String name, Path path, Set<Option> options) {
+			this.name = name;
 			this.path = path;
 			this.resource = new PathResource(path);
 			this.origin = new TextResourceOrigin(this.resource, START_OF_FILE);
 			this.autoTrimTrailingNewLine = options.contains(Option.AUTO_TRIM_TRAILING_NEW_LINE);
-			this.cachedContent = options.contains(Option.ALWAYS_READ) ? null
-					: new PropertyFileContent(path, this.resource, this.origin, true, this.autoTrimTrailingNewLine);
+			this.cachedContent = options.contains(Option.ALWAYS_READ) ? null : createContent(true);
+		}
+
+		private PropertyFileContent createContent(boolean cacheContent) {
+			return new PropertyFileContent(this.path, this.resource, this.origin, cacheContent,
+					this.autoTrimTrailingNewLine);
 		}
 
 		PropertyFileContent getContent() {
-			if (this.cachedContent != null) {
-				return this.cachedContent;
+			PropertyFileContent cachedContent = this.cachedContent;
+			if (cachedContent != null) {
+				return cachedContent;
+			}
+			return createContent(false);
+		}
+
+		/**
+		 * Refresh the cached content if it has been read and the file has since changed.
+		 * Content that has not been read yet doesn't need refreshing since it will be
+		 * read from the current file on first access.
+		 * @return {@code true} if the cached content was refreshed
+		 */
+		boolean refresh() {
+			PropertyFileContent cachedContent = this.cachedContent;
+			if (cachedContent == null || !cachedContent.isLoaded()) {
+				return false;
+			}
+			PropertyFileContent refreshedContent = createContent(true);
+			if (refreshedContent.hasSameContent(cachedContent)) {
+				return false;
 			}
-			return new PropertyFileContent(this.path, this.resource, this.origin, false, this.autoTrimTrailingNewLine);
+			this.cachedContent = refreshedContent;
+			return true;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		Path getPath() {
+			return this.path;
 		}
 
 		Origin getOrigin() {
@@ -211,7 +333,7 @@ public class ConfigTreePropertySource extends EnumerablePropertySource<Path> imp
 								if (options.contains(Option.USE_LOWERCASE_NAMES)) {
 									name = name.toLowerCase();
 								}
-								propertyFiles.put(name, new PropertyFile(path, options));
+								propertyFiles.put(name, new PropertyFile(name, path, options));
 							}
 						});
 				return Collections.unmodifiableMap(propertyFiles);
@@ -353,10 +475,164 @@ public class ConfigTreePropertySource extends EnumerablePropertySource<Path> imp
 			}
 		}
 
+		boolean isLoaded() {
+			return this.content != null;
+		}
+
+		boolean hasSameContent(PropertyFileContent other) {
+			try {
+				return Files.exists(this.path) && Arrays.equals(getBytes(), other.getBytes());
+			}
+			catch (IllegalStateException ex) {
+				return false;
+			}
+		}
+
 		private void assertStillExists() {
 			Assert.state(Files.exists(this.path), () -> "The property file '" + this.path + "' no longer exists");
 		}
 
 	}
 
+	/**
+	 * Watches the directories of a source for changes and refreshes the affected
+	 * {@link PropertyFile property files}. Changes to files that are not property files,
+	 * such as the {@code ..data} symlink swapped by Kubernetes when a volume is updated,
+	 * refresh all property files in the same directory.
+	 */
+	private static final class PropertyFileWatcher implements Runnable {
+
+		private static final long BATCH_DELAY = 100;
+
+		private final Path sourceDirectory;
+
+		private final Collection<PropertyFile> propertyFiles;
+
+		private final Set<Path> paths = new HashSet<>();
+
+		private final Consumer<Set<String>> refreshAction;
+
+		private final Map<WatchKey, Path> directories = new HashMap<>();
+
+		private final WatchService watchService;
+
+		PropertyFileWatcher(Path sourceDirectory, Collection<PropertyFile> propertyFiles,
+				Consumer<Set<String>> refreshAction) {
+			this.sourceDirectory = sourceDirectory;
+			this.propertyFiles = propertyFiles;
+			propertyFiles.forEach((propertyFile) -> this.paths.add(propertyFile.getPath()));
+			this.refreshAction = refreshAction;
+			try {
+				this.watchService = sourceDirectory.getFileSystem().newWatchService();
+				registerDirectories();
+			}
+			catch (IOException ex) {
+				throw new IllegalStateException("Unable to watch '" + sourceDirectory + "'", ex);
+			}
+			Thread thread = new Thread(this, "config-tree-watcher");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		private void registerDirectories() throws IOException {
+			try (Stream<Path> paths = Files.walk(this.sourceDirectory, MAX_DEPTH, FileVisitOption.FOLLOW_LINKS)) {
+				Iterator<Path> iterator = paths.iterator();
+				while (iterator.hasNext()) {
+					Path path = iterator.next();
+					if (Files.isDirectory(path)
+							&& !PropertyFile.hasHiddenPathElement(this.sourceDirectory.relativize(path))) {
+						WatchKey key = path.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+								StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+						this.directories.put(key, path);
+					}
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					Set<Path> changedFiles = new HashSet<>();
+					Set<Path> changedDirectories = new HashSet<>();
+					WatchKey key = this.watchService.take();
+					while (key != null) {
+						collectChanges(key, changedFiles, changedDirectories);
+						key = this.watchService.poll(BATCH_DELAY, TimeUnit.MILLISECONDS);
+					}
+					refresh(changedFiles, changedDirectories);
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			catch (ClosedWatchServiceException ex) {
+				// Closed
+			}
+		}
+
+		private void collectChanges(WatchKey key, Set<Path> changedFiles, Set<Path> changedDirectories) {
+			Path directory = this.directories.get(key);
+			for (WatchEvent<?> event : key.pollEvents()) {
+				Path path = (directory != null && event.context() instanceof Path)
+						? directory.resolve((Path) event.context()) : null;
+				if (path == null) {
+					changedDirectories.add(this.sourceDirectory);
+				}
+				else if (this.paths.contains(path)) {
+					changedFiles.add(path);
+				}
+				else {
+					changedDirectories.add(directory);
+				}
+			}
+			if (!key.reset()) {
+				this.directories.remove(key);
+			}
+		}
+
+		private void refresh(Set<Path> changedFiles, Set<Path> changedDirectories) {
+			try {
+				if (!changedDirectories.isEmpty()) {
+					registerDirectories();
+				}
+				Set<String> names = new LinkedHashSet<>();
+				for (PropertyFile propertyFile : this.propertyFiles) {
+					if (isAffected(propertyFile.getPath(), changedFiles, changedDirectories)
+							&& propertyFile.refresh()) {
+						names.add(propertyFile.getName());
+					}
+				}
+				if (!names.isEmpty()) {
+					this.refreshAction.accept(names);
+				}
+			}
+			catch (Exception ex) {
+				logger.warn("Unable to refresh config tree '" + this.sourceDirectory + "'", ex);
+			}
+		}
+
+		private boolean isAffected(Path path, Set<Path> changedFiles, Set<Path> changedDirectories) {
+			if (changedFiles.contains(path)) {
+				return true;
+			}
+			for (Path directory : changedDirectories) {
+				if (path.startsWith(directory)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void close() {
+			try {
+				this.watchService.close();
+			}
+			catch (IOException ex) {
+				// Ignore
+			}
+		}
+
+	}
+
 }
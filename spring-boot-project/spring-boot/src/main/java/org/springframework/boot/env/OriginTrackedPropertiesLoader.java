@@ -22,14 +22,11 @@ import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BooleanSupplier;
 
-import org.springframework.boot.origin.Origin;
 import org.springframework.boot.origin.OriginTrackedValue;
-import org.springframework.boot.origin.TextResourceOrigin;
 import org.springframework.boot.origin.TextResourceOrigin.Location;
 import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
@@ -75,7 +72,7 @@ class OriginTrackedPropertiesLoader {
 	 */
 	List<Document> load(boolean expandLists) throws IOException {
 		List<Document> documents = new ArrayList<>();
-		Document document = new Document();
+		Document document = new Document(this.resource);
 		StringBuilder buffer = new StringBuilder();
 		try (CharacterReader reader = new CharacterReader(this.resource)) {
 			while (reader.read()) {
@@ -85,7 +82,7 @@ class OriginTrackedPropertiesLoader {
 						if (!document.isEmpty()) {
 							documents.add(document);
 						}
-						document = new Document();
+						document = new Document(this.resource);
 					}
 					else {
 						if (document.isEmpty() && !documents.isEmpty()) {
@@ -115,8 +112,8 @@ class OriginTrackedPropertiesLoader {
 			key = key.substring(0, key.length() - 2);
 			int index = 0;
 			do {
-				OriginTrackedValue value = loadValue(buffer, reader, true);
-				document.put(key + "[" + (index++) + "]", value);
+				Location location = loadValue(buffer, reader, true);
+				document.put(key + "[" + (index++) + "]", buffer, location);
 				if (!reader.isEndOfLine()) {
 					reader.read();
 				}
@@ -124,8 +121,8 @@ class OriginTrackedPropertiesLoader {
 			while (!reader.isEndOfLine());
 		}
 		else {
-			OriginTrackedValue value = loadValue(buffer, reader, false);
-			document.put(key, value);
+			Location location = loadValue(buffer, reader, false);
+			document.put(key, buffer, location);
 		}
 	}
 
@@ -147,8 +144,7 @@ class OriginTrackedPropertiesLoader {
 		return buffer.toString();
 	}
 
-	private OriginTrackedValue loadValue(StringBuilder buffer, CharacterReader reader, boolean splitLists)
-			throws IOException {
+	private Location loadValue(StringBuilder buffer, CharacterReader reader, boolean splitLists) throws IOException {
 		buffer.setLength(0);
 		while (reader.isWhiteSpace() && !reader.isEndOfLine()) {
 			reader.read();
@@ -158,8 +154,7 @@ class OriginTrackedPropertiesLoader {
 			buffer.append(reader.getCharacter());
 			reader.read();
 		}
-		Origin origin = new TextResourceOrigin(this.resource, location);
-		return OriginTrackedValue.of(buffer.toString(), origin);
+		return location;
 	}
 
 	private boolean isNewDocument(CharacterReader reader) throws IOException {
@@ -322,15 +317,22 @@ class OriginTrackedPropertiesLoader {
 	}
 
 	/**
-	 * A single document within the properties file.
+	 * A single document within the properties file. Values are held in a
+	 * {@link CompactOriginTrackedMap}.
 	 */
 	static class Document {
 
-		private final Map<String, OriginTrackedValue> values = new LinkedHashMap<>();
+		private final CompactOriginTrackedMap.Builder values;
+
+		private Map<String, OriginTrackedValue> map;
 
-		void put(String key, OriginTrackedValue value) {
+		Document(Resource resource) {
+			this.values = new CompactOriginTrackedMap.Builder(resource);
+		}
+
+		void put(String key, CharSequence value, Location location) {
 			if (!key.isEmpty()) {
-				this.values.put(key, value);
+				this.values.put(key, value, location.getLine(), location.getColumn());
 			}
 		}
 
@@ -339,7 +341,10 @@ class OriginTrackedPropertiesLoader {
 		}
 
 		Map<String, OriginTrackedValue> asMap() {
-			return this.values;
+			if (this.map == null) {
+				this.map = this.values.build();
+			}
+			return this.map;
 		}
 
 	}
@@ -16,10 +16,16 @@
 
 package org.springframework.boot.env;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -30,12 +36,26 @@ import org.yaml.snakeyaml.constructor.BaseConstructor;
 import org.yaml.snakeyaml.constructor.Constructor;
 import org.yaml.snakeyaml.constructor.SafeConstructor;
 import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.CommentEvent;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
 import org.yaml.snakeyaml.nodes.CollectionNode;
 import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
 import org.yaml.snakeyaml.nodes.NodeTuple;
 import org.yaml.snakeyaml.nodes.ScalarNode;
 import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 import org.yaml.snakeyaml.representer.Representer;
 import org.yaml.snakeyaml.resolver.Resolver;
 
@@ -46,16 +66,22 @@ import org.springframework.boot.origin.TextResourceOrigin;
 import org.springframework.boot.origin.TextResourceOrigin.Location;
 import org.springframework.core.io.Resource;
 import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * Class to load {@code .yml} files into a map of {@code String} to
- * {@link OriginTrackedValue}.
+ * {@link OriginTrackedValue}. Documents are flattened directly from parser events where
+ * possible, with {@link TextResourceOrigin origins} only created when requested. YAML
+ * that needs a full node tree (for example, anchors, aliases or merge keys) is loaded
+ * using {@link YamlProcessor}.
  *
  * @author Madhura Bhave
  * @author Phillip Webb
  */
 class OriginTrackedYamlLoader extends YamlProcessor {
 
+	private static final int MAX_DEPTH = 50;
+
 	private static final boolean HAS_RESOLVER_LIMIT = ReflectionUtils.findMethod(Resolver.class, "addImplicitResolver",
 			Tag.class, Pattern.class, String.class, int.class) != null;
 
@@ -68,27 +94,220 @@ class OriginTrackedYamlLoader extends YamlProcessor {
 
 	@Override
 	protected Yaml createYaml() {
+		return createYaml(createLoaderOptions());
+	}
+
+	private LoaderOptions createLoaderOptions() {
 		LoaderOptions loaderOptions = new LoaderOptions();
 		loaderOptions.setAllowDuplicateKeys(false);
 		loaderOptions.setMaxAliasesForCollections(Integer.MAX_VALUE);
 		loaderOptions.setAllowRecursiveKeys(true);
-		return createYaml(loaderOptions);
+		return loaderOptions;
 	}
 
 	private Yaml createYaml(LoaderOptions loaderOptions) {
 		BaseConstructor constructor = new OriginTrackingConstructor(loaderOptions);
 		Representer representer = new Representer();
 		DumperOptions dumperOptions = new DumperOptions();
-		Resolver resolver = HAS_RESOLVER_LIMIT ? new NoTimestampResolverWithLimit() : new NoTimestampResolver();
-		return new Yaml(constructor, representer, dumperOptions, loaderOptions, resolver);
+		return new Yaml(constructor, representer, dumperOptions, loaderOptions, createResolver());
+	}
+
+	private Resolver createResolver() {
+		return HAS_RESOLVER_LIMIT ? new NoTimestampResolverWithLimit() : new NoTimestampResolver();
 	}
 
 	List<Map<String, Object>> load() {
+		List<Map<String, Object>> result = loadFromEvents();
+		return (result != null) ? result : loadFromNodes();
+	}
+
+	/**
+	 * Load documents by flattening parser events.
+	 * @return the loaded documents or {@code null} if the YAML must be loaded from nodes
+	 */
+	List<Map<String, Object>> loadFromEvents() {
+		try (Reader reader = new UnicodeReader(this.resource.getInputStream())) {
+			return new EventFlattener(createYaml().parse(reader).iterator()).load();
+		}
+		catch (NodeTreeRequiredException | YAMLException | IOException ex) {
+			// Loading from nodes gives the same result or reports the problem
+			return null;
+		}
+	}
+
+	/**
+	 * Load documents by constructing and flattening a node tree.
+	 * @return the loaded documents
+	 */
+	List<Map<String, Object>> loadFromNodes() {
 		final List<Map<String, Object>> result = new ArrayList<>();
 		process((properties, map) -> result.add(getFlattenedMap(map)));
 		return result;
 	}
 
+	/**
+	 * Flattens parser events into the same maps that {@link YamlProcessor} creates from
+	 * an {@link OriginTrackingConstructor} without building intermediate nodes. Throws
+	 * {@link NodeTreeRequiredException} for anything that could be handled differently by
+	 * the node tree.
+	 */
+	private class EventFlattener {
+
+		private final Iterator<Event> events;
+
+		private final ScalarConstructor constructor = new ScalarConstructor(createLoaderOptions());
+
+		private final Resolver resolver = createResolver();
+
+		EventFlattener(Iterator<Event> events) {
+			this.events = events;
+		}
+
+		List<Map<String, Object>> load() {
+			List<Map<String, Object>> result = new ArrayList<>();
+			while (this.events.hasNext()) {
+				Event event = next();
+				if (event instanceof DocumentStartEvent) {
+					Map<String, Object> document = loadDocument();
+					if (!document.isEmpty()) {
+						result.add(document);
+					}
+				}
+			}
+			return result;
+		}
+
+		private Map<String, Object> loadDocument() {
+			Map<String, Object> result = new LinkedHashMap<>();
+			Event root = next();
+			if (root instanceof MappingStartEvent) {
+				loadMapping((MappingStartEvent) root, "", false, 1, result);
+			}
+			else if (root instanceof ScalarEvent) {
+				Object value = constructTracked((ScalarEvent) root);
+				if (!(value instanceof CharSequence && ((CharSequence) value).length() == 0)) {
+					result.put("document", value);
+				}
+			}
+			else {
+				load(root, "document", false, 0, result);
+			}
+			if (!(next() instanceof DocumentEndEvent)) {
+				throw new NodeTreeRequiredException();
+			}
+			return result;
+		}
+
+		private void load(Event event, String path, boolean inSequence, int depth, Map<String, Object> result) {
+			if (event instanceof ScalarEvent) {
+				result.put(path, constructTracked((ScalarEvent) event));
+			}
+			else if (event instanceof SequenceStartEvent) {
+				loadSequence((SequenceStartEvent) event, path, depth + 1, result);
+			}
+			else if (event instanceof MappingStartEvent) {
+				loadMapping((MappingStartEvent) event, path, inSequence, depth + 1, result);
+			}
+			else {
+				throw new NodeTreeRequiredException();
+			}
+		}
+
+		private void loadSequence(SequenceStartEvent start, String path, int depth, Map<String, Object> result) {
+			checkCollection(start, depth);
+			int index = 0;
+			Event event = next();
+			while (!(event instanceof SequenceEndEvent)) {
+				load(event, path + "[" + index + "]", true, depth, result);
+				index++;
+				event = next();
+			}
+			if (index == 0) {
+				result.put(path, constructTracked(new ArrayList<>(), start));
+			}
+		}
+
+		private void loadMapping(MappingStartEvent start, String path, boolean inSequence, int depth,
+				Map<String, Object> result) {
+			checkCollection(start, depth);
+			Set<String> names = null;
+			Event event = next();
+			while (!(event instanceof MappingEndEvent)) {
+				String name = getName(event, inSequence);
+				names = (names != null) ? names : new HashSet<>();
+				if (!names.add(name)) {
+					throw new NodeTreeRequiredException();
+				}
+				String childPath = (path.isEmpty() || name.startsWith("[")) ? path + name : path + "." + name;
+				load(next(), childPath, inSequence, depth, result);
+				event = next();
+			}
+			if (names == null) {
+				// An empty root mapping is a document value rather than a set of keys
+				String key = path.isEmpty() ? "document" : path;
+				result.put(key, constructTracked(new LinkedHashMap<>(), start));
+			}
+		}
+
+		private void checkCollection(CollectionStartEvent event, int depth) {
+			if (depth > MAX_DEPTH || event.getAnchor() != null || event.getTag() != null) {
+				throw new NodeTreeRequiredException();
+			}
+		}
+
+		private String getName(Event event, boolean inSequence) {
+			if (!(event instanceof ScalarEvent)) {
+				throw new NodeTreeRequiredException();
+			}
+			ScalarNode node = createNode((ScalarEvent) event);
+			if (node.getTag().equals(Tag.MERGE)) {
+				throw new NodeTreeRequiredException();
+			}
+			Object key = this.constructor.construct(node);
+			if (key == null || (inSequence && !(key instanceof CharSequence))) {
+				throw new NodeTreeRequiredException();
+			}
+			String name = (key instanceof CharSequence) ? key.toString() : "[" + key + "]";
+			if (!StringUtils.hasText(name)) {
+				throw new NodeTreeRequiredException();
+			}
+			return name;
+		}
+
+		private Object constructTracked(ScalarEvent event) {
+			Object value = this.constructor.construct(createNode(event));
+			return constructTracked((value != null) ? value : "", event);
+		}
+
+		private Object constructTracked(Object value, NodeEvent event) {
+			Resource resource = OriginTrackedYamlLoader.this.resource;
+			Mark mark = event.getStartMark();
+			int line = mark.getLine();
+			int column = mark.getColumn();
+			return OriginTrackedValue.ofLazy(value, () -> new TextResourceOrigin(resource, new Location(line, column)));
+		}
+
+		private ScalarNode createNode(ScalarEvent event) {
+			if (event.getAnchor() != null) {
+				throw new NodeTreeRequiredException();
+			}
+			String tag = event.getTag();
+			Tag nodeTag = (tag != null && !tag.equals("!")) ? new Tag(tag) : this.resolver.resolve(NodeId.scalar,
+					event.getValue(), event.getImplicit().canOmitTagInPlainScalar());
+			return new ScalarNode(nodeTag, event.getValue(), event.getStartMark(), event.getEndMark(),
+					event.getScalarStyle());
+		}
+
+		private Event next() {
+			Event event = this.events.next();
+			while (event instanceof CommentEvent) {
+				event = this.events.next();
+			}
+			return event;
+		}
+
+	}
+
 	/**
 	 * {@link Constructor} that tracks property origins.
 	 */
@@ -144,6 +363,32 @@ class OriginTrackedYamlLoader extends YamlProcessor {
 
 	}
 
+	/**
+	 * {@link SafeConstructor} used to construct individual scalar values.
+	 */
+	private static class ScalarConstructor extends SafeConstructor {
+
+		ScalarConstructor(LoaderOptions loadingConfig) {
+			super(loadingConfig);
+		}
+
+		Object construct(ScalarNode node) {
+			return getConstructor(node).construct(node);
+		}
+
+	}
+
+	/**
+	 * Exception thrown when YAML can only be loaded from a node tree.
+	 */
+	private static class NodeTreeRequiredException extends RuntimeException {
+
+		NodeTreeRequiredException() {
+			super(null, null, false, false);
+		}
+
+	}
+
 	/**
 	 * {@link ScalarNode} that replaces the key node in a {@link NodeTuple}.
 	 */
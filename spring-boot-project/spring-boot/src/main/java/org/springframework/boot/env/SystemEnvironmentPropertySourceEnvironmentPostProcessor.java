@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,14 @@
 
 package org.springframework.boot.env;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
 import org.springframework.boot.origin.Origin;
 import org.springframework.boot.origin.OriginLookup;
 import org.springframework.boot.origin.SystemEnvironmentOrigin;
@@ -33,7 +38,12 @@ import org.springframework.util.StringUtils;
  * An {@link EnvironmentPostProcessor} that replaces the systemEnvironment
  * {@link SystemEnvironmentPropertySource} with an
  * {@link OriginAwareSystemEnvironmentPropertySource} that can track the
- * {@link SystemEnvironmentOrigin} for every system environment property.
+ * {@link SystemEnvironmentOrigin} for every system environment property. The replacement
+ * can optionally be restricted to the variables whose names start with one of the
+ * comma-separated prefixes specified by the
+ * {@code spring.system-environment.include-prefixes} property. Since the processor runs
+ * before config data is loaded, that property must be set as a system property,
+ * environment variable or command line argument.
  *
  * @author Madhura Bhave
  * @since 2.0.0
@@ -45,6 +55,8 @@ public class SystemEnvironmentPropertySourceEnvironmentPostProcessor implements
 	 */
 	public static final int DEFAULT_ORDER = SpringApplicationJsonEnvironmentPostProcessor.DEFAULT_ORDER - 1;
 
+	private static final String INCLUDE_PREFIXES_PROPERTY = "spring.system-environment.include-prefixes";
+
 	private int order = DEFAULT_ORDER;
 
 	@Override
@@ -52,17 +64,59 @@ public class SystemEnvironmentPropertySourceEnvironmentPostProcessor implements
 		String sourceName = StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME;
 		PropertySource<?> propertySource = environment.getPropertySources().get(sourceName);
 		if (propertySource != null) {
-			replacePropertySource(environment, sourceName, propertySource, application.getEnvironmentPrefix());
+			List<String> includePrefixes = getIncludePrefixes(environment);
+			replacePropertySource(environment, sourceName, propertySource, application.getEnvironmentPrefix(),
+					includePrefixes);
+		}
+	}
+
+	private List<String> getIncludePrefixes(ConfigurableEnvironment environment) {
+		// Read directly from the property sources to avoid adapting every variable
+		for (PropertySource<?> propertySource : environment.getPropertySources()) {
+			if (!ConfigurationPropertySources.isAttachedConfigurationPropertySource(propertySource)) {
+				Object value = propertySource.getProperty(INCLUDE_PREFIXES_PROPERTY);
+				if (value != null) {
+					return Arrays.asList(StringUtils.tokenizeToStringArray(value.toString(), ","));
+				}
+			}
 		}
+		return Collections.emptyList();
 	}
 
 	@SuppressWarnings("unchecked")
 	private void replacePropertySource(ConfigurableEnvironment environment, String sourceName,
-			PropertySource<?> propertySource, String environmentPrefix) {
+			PropertySource<?> propertySource, String environmentPrefix, List<String> includePrefixes) {
 		Map<String, Object> originalSource = (Map<String, Object>) propertySource.getSource();
-		SystemEnvironmentPropertySource source = new OriginAwareSystemEnvironmentPropertySource(sourceName,
-				originalSource, environmentPrefix);
-		environment.getPropertySources().replace(sourceName, source);
+		boolean immutable = isSystemEnvironment(originalSource);
+		Map<String, Object> source = originalSource;
+		if (!includePrefixes.isEmpty()) {
+			source = Collections.unmodifiableMap(filter(originalSource, includePrefixes));
+		}
+		environment.getPropertySources().replace(sourceName,
+				new OriginAwareSystemEnvironmentPropertySource(sourceName, source, environmentPrefix, immutable));
+	}
+
+	private Map<String, Object> filter(Map<String, Object> source, List<String> includePrefixes) {
+		Map<String, Object> filtered = new LinkedHashMap<>();
+		source.forEach((name, value) -> {
+			if (hasPrefix(name, includePrefixes)) {
+				filtered.put(name, value);
+			}
+		});
+		return filtered;
+	}
+
+	private boolean hasPrefix(String name, List<String> prefixes) {
+		for (String prefix : prefixes) {
+			if (name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isSystemEnvironment(Map<String, Object> source) {
+		return source == (Object) System.getenv();
 	}
 
 	@Override
@@ -82,9 +136,17 @@ public class SystemEnvironmentPropertySourceEnvironmentPostProcessor implements
 
 		private final String prefix;
 
+		private final boolean immutable;
+
 		OriginAwareSystemEnvironmentPropertySource(String name, Map<String, Object> source, String environmentPrefix) {
+			this(name, source, environmentPrefix, isSystemEnvironment(source));
+		}
+
+		OriginAwareSystemEnvironmentPropertySource(String name, Map<String, Object> source, String environmentPrefix,
+				boolean immutable) {
 			super(name, source);
 			this.prefix = determinePrefix(environmentPrefix);
+			this.immutable = immutable;
 		}
 
 		private String determinePrefix(String environmentPrefix) {
@@ -121,6 +183,11 @@ public class SystemEnvironmentPropertySourceEnvironmentPostProcessor implements
 			return this.prefix;
 		}
 
+		@Override
+		public boolean isImmutable() {
+			return this.immutable;
+		}
+
 	}
 
 }
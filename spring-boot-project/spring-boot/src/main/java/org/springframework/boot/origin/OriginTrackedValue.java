@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2019 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.boot.origin;
 
+import java.util.function.Supplier;
+
 import org.springframework.util.ObjectUtils;
 
 /**
@@ -31,11 +33,14 @@ public class OriginTrackedValue implements OriginProvider {
 
 	private final Object value;
 
-	private final Origin origin;
+	private Origin origin;
+
+	private final Supplier<? extends Origin> originSupplier;
 
-	private OriginTrackedValue(Object value, Origin origin) {
+	private OriginTrackedValue(Object value, Origin origin, Supplier<? extends Origin> originSupplier) {
 		this.value = value;
 		this.origin = origin;
+		this.originSupplier = originSupplier;
 	}
 
 	/**
@@ -48,7 +53,13 @@ public class OriginTrackedValue implements OriginProvider {
 
 	@Override
 	public Origin getOrigin() {
-		return this.origin;
+		Origin origin = this.origin;
+		if (origin == null && this.originSupplier != null) {
+			// Origins are immutable so a race only results in an equal duplicate
+			origin = this.originSupplier.get();
+			this.origin = origin;
+		}
+		return origin;
 	}
 
 	@Override
@@ -83,13 +94,32 @@ public class OriginTrackedValue implements OriginProvider {
 	 * {@code null}.
 	 */
 	public static OriginTrackedValue of(Object value, Origin origin) {
+		return create(value, origin, null);
+	}
+
+	/**
+	 * Create an {@link OriginTrackedValue} containing the specified {@code value} and an
+	 * origin that is obtained from the given supplier the first time that it is
+	 * requested. If the source value implements {@link CharSequence} then so will the
+	 * resulting {@link OriginTrackedValue}.
+	 * @param value the source value
+	 * @param originSupplier the supplier of the origin
+	 * @return an {@link OriginTrackedValue} or {@code null} if the source value was
+	 * {@code null}.
+	 * @since 2.6.14
+	 */
+	public static OriginTrackedValue ofLazy(Object value, Supplier<? extends Origin> originSupplier) {
+		return create(value, null, originSupplier);
+	}
+
+	private static OriginTrackedValue create(Object value, Origin origin, Supplier<? extends Origin> originSupplier) {
 		if (value == null) {
 			return null;
 		}
 		if (value instanceof CharSequence) {
-			return new OriginTrackedCharSequence((CharSequence) value, origin);
+			return new OriginTrackedCharSequence((CharSequence) value, origin, originSupplier);
 		}
-		return new OriginTrackedValue(value, origin);
+		return new OriginTrackedValue(value, origin, originSupplier);
 	}
 
 	/**
@@ -97,8 +127,8 @@ public class OriginTrackedValue implements OriginProvider {
 	 */
 	private static class OriginTrackedCharSequence extends OriginTrackedValue implements CharSequence {
 
-		OriginTrackedCharSequence(CharSequence value, Origin origin) {
-			super(value, origin);
+		OriginTrackedCharSequence(CharSequence value, Origin origin, Supplier<? extends Origin> originSupplier) {
+			super(value, origin, originSupplier);
 		}
 
 		@Override
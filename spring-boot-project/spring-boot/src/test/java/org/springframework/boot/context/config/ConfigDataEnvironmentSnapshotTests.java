@@ -0,0 +1,235 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.boot.MockApplicationEnvironment;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.testsupport.system.CapturedOutput;
+import org.springframework.boot.testsupport.system.OutputCaptureExtension;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.StringUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ConfigDataEnvironmentSnapshot}.
+ *
+ * @author Madhura Bhave
+ */
+@ExtendWith(OutputCaptureExtension.class)
+class ConfigDataEnvironmentSnapshotTests {
+
+	@TempDir
+	File temp;
+
+	@Test
+	void processAndApplyWhenCreateIsTrueWritesSnapshot() throws IOException {
+		writeConfig("app.name=test\n");
+		File snapshot = new File(this.temp, "snapshot/config.snapshot");
+		processAndApply(createEnvironment(snapshot, true));
+		assertThat(snapshot).isFile();
+	}
+
+	@Test
+	void processAndApplyWhenSnapshotMatchesRestoresSnapshot() throws IOException {
+		writeConfig("app.name=test\napp.count=3\nspring.profiles.active=dev\n");
+		File snapshot = new File(this.temp, "config.snapshot");
+		MockApplicationEnvironment original = createEnvironment(snapshot, true);
+		processAndApply(original);
+		MockApplicationEnvironment environment = createEnvironment(snapshot, false);
+		TestConfigDataEnvironmentUpdateListener listener = new TestConfigDataEnvironmentUpdateListener();
+		DefaultBootstrapContext bootstrapContext = processAndApply(environment, listener);
+		assertThat(environment.getProperty("app.name")).isEqualTo("test");
+		assertThat(environment.getProperty("app.count")).isEqualTo("3");
+		assertThat(environment.getActiveProfiles()).containsExactly("dev");
+		assertThat(listener.getAddedPropertySources()).hasSize(1);
+		PropertySource<?> restored = listener.getAddedPropertySources().get(0).getPropertySource();
+		PropertySource<?> loaded = original.getPropertySources().get(restored.getName());
+		assertThat(loaded).isNotNull();
+		assertThat(listener.getProfiles().getActive()).containsExactly("dev");
+		assertThat(bootstrapContext.get(Binder.class).bind("app.name", String.class).get()).isEqualTo("test");
+	}
+
+	@Test
+	void processAndApplyWhenEnvironmentChangedIgnoresSnapshot() throws IOException {
+		writeConfig("app.name=test\n");
+		File snapshot = new File(this.temp, "config.snapshot");
+		processAndApply(createEnvironment(snapshot, true));
+		MockApplicationEnvironment environment = createEnvironment(snapshot, false);
+		environment.setProperty("spring.profiles.include", "other");
+		TestConfigDataEnvironmentUpdateListener listener = new TestConfigDataEnvironmentUpdateListener();
+		processAndApply(environment, listener);
+		assertThat(environment.getProperty("app.name")).isEqualTo("test");
+		assertThat(listener.getAddedPropertySources().get(0).getResource()).isNotNull();
+	}
+
+	@Test
+	void processAndApplyWhenUnrelatedPropertyChangedRestoresSnapshot() throws IOException {
+		writeConfig("app.name=test\n");
+		File snapshot = new File(this.temp, "config.snapshot");
+		processAndApply(createEnvironment(snapshot, true));
+		MockApplicationEnvironment environment = createEnvironment(snapshot, false);
+		environment.setProperty("app.other", "changed");
+		TestConfigDataEnvironmentUpdateListener listener = new TestConfigDataEnvironmentUpdateListener();
+		processAndApply(environment, listener);
+		assertThat(environment.getProperty("app.name")).isEqualTo("test");
+		assertThat(listener.getAddedPropertySources().get(0).getResource()).isNull();
+	}
+
+	@Test
+	void processAndApplyWhenFingerprintPropertyChangedIgnoresSnapshot() throws IOException {
+		writeConfig("app.name=test\n");
+		File snapshot = new File(this.temp, "config.snapshot");
+		MockApplicationEnvironment original = createEnvironment(snapshot, true);
+		original.setProperty(ConfigDataEnvironmentSnapshot.FINGERPRINT_PROPERTIES_PROPERTY, "app");
+		processAndApply(original);
+		MockApplicationEnvironment environment = createEnvironment(snapshot, false);
+		environment.setProperty(ConfigDataEnvironmentSnapshot.FINGERPRINT_PROPERTIES_PROPERTY, "app");
+		environment.setProperty("APP_OTHER", "changed");
+		TestConfigDataEnvironmentUpdateListener listener = new TestConfigDataEnvironmentUpdateListener();
+		processAndApply(environment, listener);
+		assertThat(environment.getProperty("app.name")).isEqualTo("test");
+		assertThat(listener.getAddedPropertySources().get(0).getResource()).isNotNull();
+	}
+
+	@Test
+	void processAndApplyWhenResourceChangedIgnoresSnapshot() throws IOException {
+		writeConfig("app.name=test\n");
+		File snapshot = new File(this.temp, "config.snapshot");
+		processAndApply(createEnvironment(snapshot, true));
+		writeConfig("app.name=changed\n");
+		MockApplicationEnvironment environment = createEnvironment(snapshot, false);
+		processAndApply(environment);
+		assertThat(environment.getProperty("app.name")).isEqualTo("changed");
+	}
+
+	@Test
+	void processAndApplyWhenResourceRewrittenWithSameContentRestoresSnapshot() throws IOException {
+		File config = writeConfig("app.name=test\n");
+		config.setLastModified(System.currentTimeMillis() - 60000);
+		File snapshot = new File(this.temp, "config.snapshot");
+		processAndApply(createEnvironment(snapshot, true));
+		writeConfig("app.name=test\n");
+		MockApplicationEnvironment environment = createEnvironment(snapshot, false);
+		TestConfigDataEnvironmentUpdateListener listener = new TestConfigDataEnvironmentUpdateListener();
+		processAndApply(environment, listener);
+		assertThat(environment.getProperty("app.name")).isEqualTo("test");
+		assertThat(listener.getAddedPropertySources().get(0).getResource()).isNull();
+	}
+
+	@Test
+	void processAndApplyWhenResourceHasSameLengthAndLastModifiedDoesNotReadResource() throws IOException {
+		File config = writeConfig("app.name=test\n");
+		long lastModified = System.currentTimeMillis() - 60000;
+		config.setLastModified(lastModified);
+		File snapshot = new File(this.temp, "config.snapshot");
+		processAndApply(createEnvironment(snapshot, true));
+		writeConfig("app.name=tset\n").setLastModified(lastModified);
+		MockApplicationEnvironment environment = createEnvironment(snapshot, false);
+		processAndApply(environment);
+		assertThat(environment.getProperty("app.name")).isEqualTo("test");
+	}
+
+	@Test
+	void processAndApplyWhenMissingOptionalResourceAddedIgnoresSnapshot() throws IOException {
+		writeConfig("app.name=test\n");
+		File snapshot = new File(this.temp, "config.snapshot");
+		processAndApply(createEnvironment(snapshot, true));
+		Files.write(new File(this.temp, "config/application.yml").toPath(),
+				"app:\n  other: added\n".getBytes(StandardCharsets.UTF_8));
+		MockApplicationEnvironment environment = createEnvironment(snapshot, false);
+		TestConfigDataEnvironmentUpdateListener listener = new TestConfigDataEnvironmentUpdateListener();
+		processAndApply(environment, listener);
+		assertThat(environment.getProperty("app.name")).isEqualTo("test");
+		assertThat(environment.getProperty("app.other")).isEqualTo("added");
+		assertThat(listener.getAddedPropertySources().get(0).getResource()).isNotNull();
+	}
+
+	@Test
+	void processAndApplyWhenSnapshotRestoredChecksForInvalidProperties(CapturedOutput output) throws IOException {
+		writeConfig("app.name=test\n#---\nspring.profiles=dev\napp.name=dev\n");
+		File snapshot = new File(this.temp, "config.snapshot");
+		processAndApply(createEnvironment(snapshot, true));
+		assertThat(countInvalidPropertyWarnings(output)).isEqualTo(1);
+		MockApplicationEnvironment environment = createEnvironment(snapshot, false);
+		TestConfigDataEnvironmentUpdateListener listener = new TestConfigDataEnvironmentUpdateListener();
+		processAndApply(environment, listener);
+		assertThat(environment.getProperty("app.name")).isEqualTo("test");
+		assertThat(listener.getAddedPropertySources()).hasSize(1);
+		assertThat(listener.getAddedPropertySources().get(0).getResource()).isNull();
+		assertThat(countInvalidPropertyWarnings(output)).isEqualTo(2);
+	}
+
+	private int countInvalidPropertyWarnings(CapturedOutput output) {
+		return StringUtils.countOccurrencesOf(output.toString(),
+				"should be replaced with 'spring.config.activate.on-profile'");
+	}
+
+	@Test
+	void processAndApplyWhenSnapshotIsCorruptIgnoresSnapshot() throws IOException {
+		writeConfig("app.name=test\n");
+		File snapshot = new File(this.temp, "config.snapshot");
+		Files.write(snapshot.toPath(), "corrupt".getBytes(StandardCharsets.UTF_8));
+		MockApplicationEnvironment environment = createEnvironment(snapshot, false);
+		processAndApply(environment);
+		assertThat(environment.getProperty("app.name")).isEqualTo("test");
+	}
+
+	private File writeConfig(String content) throws IOException {
+		File config = new File(this.temp, "config");
+		config.mkdirs();
+		File file = new File(config, "application.properties");
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private MockApplicationEnvironment createEnvironment(File snapshot, boolean create) {
+		MockApplicationEnvironment environment = new MockApplicationEnvironment();
+		environment.setProperty("spring.config.location", "file:" + new File(this.temp, "config").getPath() + "/");
+		environment.setProperty(ConfigDataEnvironmentSnapshot.LOCATION_PROPERTY, snapshot.getPath());
+		if (create) {
+			environment.setProperty(ConfigDataEnvironmentSnapshot.CREATE_PROPERTY, "true");
+		}
+		return environment;
+	}
+
+	private DefaultBootstrapContext processAndApply(MockApplicationEnvironment environment) {
+		return processAndApply(environment, null);
+	}
+
+	private DefaultBootstrapContext processAndApply(MockApplicationEnvironment environment,
+			ConfigDataEnvironmentUpdateListener listener) {
+		DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+		new ConfigDataEnvironment(Supplier::get, bootstrapContext, environment, new DefaultResourceLoader(),
+				Collections.emptyList(), listener).processAndApply();
+		return bootstrapContext;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -325,6 +325,30 @@ class ConfigDataEnvironmentTests {
 		assertThat(listener.getProfiles().getActive()).containsExactly("one", "two", "three");
 	}
 
+	@Test
+	void processAndApplyWhenLoadParallelismIsSetAppliesSourcesInSameOrder() {
+		String prefix = "classpath:" + getClass().getName().replace('.', '/') + "-";
+		String location = prefix + "processAndApplyAddsImportedSourceToEnvironment.properties," + prefix
+				+ "processAndApplySetsActiveProfiles.properties," + prefix
+				+ "processAndApplySetsDefaultProfiles.properties";
+		this.environment.setProperty("spring.config.location", location);
+		new ConfigDataEnvironment(this.logFactory, this.bootstrapContext, this.environment, this.resourceLoader,
+				this.additionalProfiles, null).processAndApply();
+		MockApplicationEnvironment parallelEnvironment = new MockApplicationEnvironment();
+		parallelEnvironment.setProperty("spring.config.location", location);
+		parallelEnvironment.setProperty("spring.config.load-parallelism", "4");
+		new ConfigDataEnvironment(this.logFactory, new DefaultBootstrapContext(), parallelEnvironment,
+				this.resourceLoader, this.additionalProfiles, null).processAndApply();
+		assertThat(getPropertySourceNames(parallelEnvironment)).hasSize(4)
+				.containsExactlyElementsOf(getPropertySourceNames(this.environment));
+		assertThat(parallelEnvironment.getActiveProfiles()).containsExactly(this.environment.getActiveProfiles());
+		assertThat(parallelEnvironment.getProperty("spring")).isEqualTo("boot");
+	}
+
+	private List<String> getPropertySourceNames(ConfigurableEnvironment environment) {
+		return environment.getPropertySources().stream().map(PropertySource::getName).collect(Collectors.toList());
+	}
+
 	private String getConfigLocation(TestInfo info) {
 		return "optional:classpath:" + info.getTestClass().get().getName().replace('.', '/') + "-"
 				+ info.getTestMethod().get().getName() + ".properties";
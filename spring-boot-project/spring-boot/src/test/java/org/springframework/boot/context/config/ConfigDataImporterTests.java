@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -34,6 +38,7 @@ import org.springframework.mock.env.MockPropertySource;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
 
 /**
  * Tests for {@link ConfigDataImporter}.
@@ -125,6 +130,74 @@ class ConfigDataImporterTests {
 		assertThat(loaded2and3).containsExactly(configData3);
 	}
 
+	@Test
+	void loadImportsWhenHasExecutorLoadsConcurrentlyInOrder() throws Exception {
+		ConfigDataLocation location1 = ConfigDataLocation.of("test1");
+		ConfigDataLocation location2 = ConfigDataLocation.of("test2");
+		TestResource resource1 = new TestResource("r1");
+		TestResource resource2 = new TestResource("r2");
+		ConfigData configData1 = new ConfigData(Collections.singleton(new MockPropertySource()));
+		ConfigData configData2 = new ConfigData(Collections.singleton(new MockPropertySource()));
+		given(this.resolvers.resolve(this.locationResolverContext, location1, this.profiles))
+				.willReturn(Collections.singletonList(new ConfigDataResolutionResult(location1, resource1, false)));
+		given(this.resolvers.resolve(this.locationResolverContext, location2, this.profiles))
+				.willReturn(Collections.singletonList(new ConfigDataResolutionResult(location2, resource2, false)));
+		CountDownLatch resource1Loading = new CountDownLatch(1);
+		given(this.loaders.load(this.loaderContext, resource1)).willAnswer((invocation) -> {
+			resource1Loading.countDown();
+			return configData1;
+		});
+		given(this.loaders.load(this.loaderContext, resource2)).willAnswer((invocation) -> {
+			assertThat(resource1Loading.await(10, TimeUnit.SECONDS)).isTrue();
+			return configData2;
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			ConfigDataImporter importer = new ConfigDataImporter(this.logFactory, ConfigDataNotFoundAction.FAIL,
+					this.resolvers, this.loaders, executor);
+			Collection<ConfigData> loaded = importer.resolveAndLoad(this.activationContext,
+					this.locationResolverContext, this.loaderContext, Arrays.asList(location1, location2)).values();
+			assertThat(loaded).containsExactly(configData2, configData1);
+			assertThat(importer.getLoadedLocations()).containsOnly(location1, location2);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void loadImportsWhenHasExecutorAndSameResourceLoadsOnce() throws Exception {
+		ConfigDataLocation location1 = ConfigDataLocation.of("test1");
+		ConfigDataLocation location2 = ConfigDataLocation.of("test2");
+		ConfigDataLocation location3 = ConfigDataLocation.of("test3");
+		TestResource resource1 = new TestResource("r1");
+		TestResource resource2 = new TestResource("r2");
+		ConfigData configData1 = new ConfigData(Collections.singleton(new MockPropertySource()));
+		ConfigData configData2 = new ConfigData(Collections.singleton(new MockPropertySource()));
+		given(this.resolvers.resolve(this.locationResolverContext, location1, this.profiles))
+				.willReturn(Collections.singletonList(new ConfigDataResolutionResult(location1, resource1, false)));
+		given(this.resolvers.resolve(this.locationResolverContext, location2, this.profiles))
+				.willReturn(Collections.singletonList(new ConfigDataResolutionResult(location2, resource2, false)));
+		given(this.resolvers.resolve(this.locationResolverContext, location3, this.profiles))
+				.willReturn(Collections.singletonList(new ConfigDataResolutionResult(location3, resource1, false)));
+		given(this.loaders.load(this.loaderContext, resource1)).willReturn(configData1);
+		given(this.loaders.load(this.loaderContext, resource2)).willReturn(configData2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			ConfigDataImporter importer = new ConfigDataImporter(this.logFactory, ConfigDataNotFoundAction.FAIL,
+					this.resolvers, this.loaders, executor);
+			Collection<ConfigData> loaded = importer.resolveAndLoad(this.activationContext,
+					this.locationResolverContext, this.loaderContext, Arrays.asList(location1, location2, location3))
+					.values();
+			assertThat(loaded).containsExactly(configData1, configData2);
+			assertThat(importer.getLoadedLocations()).containsOnly(location1, location2, location3);
+			then(this.loaders).should().load(this.loaderContext, resource1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
 	static class TestResource extends ConfigDataResource {
 
 		private final String name;
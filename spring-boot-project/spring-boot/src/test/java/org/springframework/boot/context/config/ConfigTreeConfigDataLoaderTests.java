@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,15 +20,26 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import org.springframework.boot.BootstrapRegistry.InstanceSupplier;
+import org.springframework.boot.ConfigurableBootstrapContext;
+import org.springframework.boot.DefaultBootstrapContext;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.boot.env.ConfigTreePropertySource;
+import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.core.env.PropertySource;
 import org.springframework.util.FileCopyUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -59,6 +70,50 @@ class ConfigTreeConfigDataLoaderTests {
 		assertThat(source.getProperty("hello").toString()).isEqualTo("world");
 	}
 
+	@Test
+	void loadWhenWatchIsEnabledReturnsMutablePropertySource() throws IOException {
+		FileCopyUtils.copy("world\n".getBytes(StandardCharsets.UTF_8), this.directory.resolve("hello").toFile());
+		MapConfigurationPropertySource properties = new MapConfigurationPropertySource();
+		properties.put(ConfigTreeConfigDataLoader.WATCH_PROPERTY, "true");
+		ConfigurableBootstrapContext bootstrapContext = mock(ConfigurableBootstrapContext.class);
+		given(bootstrapContext.getOrElse(Binder.class, null)).willReturn(new Binder(properties));
+		given(this.loaderContext.getBootstrapContext()).willReturn(bootstrapContext);
+		ConfigTreeConfigDataResource location = new ConfigTreeConfigDataResource(this.directory.toString());
+		ConfigData configData = this.loader.load(this.loaderContext, location);
+		try (ConfigTreePropertySource source = (ConfigTreePropertySource) configData.getPropertySources().get(0)) {
+			assertThat(source.isImmutable()).isFalse();
+			assertThat(source.getProperty("hello").toString()).isEqualTo("world");
+		}
+	}
+
+	@Test
+	void loadWhenWatchIsEnabledStopsWatchingWhenApplicationContextIsClosed() throws Exception {
+		FileCopyUtils.copy("world\n".getBytes(StandardCharsets.UTF_8), this.directory.resolve("hello").toFile());
+		MapConfigurationPropertySource properties = new MapConfigurationPropertySource();
+		properties.put(ConfigTreeConfigDataLoader.WATCH_PROPERTY, "true");
+		DefaultBootstrapContext bootstrapContext = new DefaultBootstrapContext();
+		bootstrapContext.register(Binder.class, InstanceSupplier.of(new Binder(properties)));
+		given(this.loaderContext.getBootstrapContext()).willReturn(bootstrapContext);
+		Set<Thread> existingWatchers = getWatcherThreads();
+		this.loader.load(this.loaderContext, new ConfigTreeConfigDataResource(this.directory.toString()));
+		Set<Thread> watchers = getWatcherThreads();
+		watchers.removeAll(existingWatchers);
+		assertThat(watchers).hasSize(1);
+		Thread watcher = watchers.iterator().next();
+		GenericApplicationContext applicationContext = new GenericApplicationContext();
+		bootstrapContext.close(applicationContext);
+		applicationContext.refresh();
+		assertThat(watcher.isAlive()).isTrue();
+		applicationContext.close();
+		watcher.join(TimeUnit.SECONDS.toMillis(10));
+		assertThat(watcher.isAlive()).isFalse();
+	}
+
+	private Set<Thread> getWatcherThreads() {
+		return Thread.getAllStackTraces().keySet().stream()
+				.filter((thread) -> thread.getName().equals("config-tree-watcher")).collect(Collectors.toSet());
+	}
+
 	@Test
 	void loadWhenPathDoesNotExistThrowsException() {
 		File missing = this.directory.resolve("missing").toFile();
@@ -16,6 +16,10 @@
 
 package org.springframework.boot.context.metrics.buffering;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
@@ -23,11 +27,16 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup.Mode;
+import org.springframework.boot.context.metrics.buffering.StartupAnalysis.HotSpot;
+import org.springframework.boot.context.metrics.buffering.StartupAnalysis.Step;
 import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
 import org.springframework.core.metrics.StartupStep;
+import org.springframework.core.metrics.StartupStep.Tag;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 /**
  * Tests for {@link BufferingApplicationStartup}.
@@ -153,4 +162,266 @@ class BufferingApplicationStartupTests {
 		assertThat(errors).isEmpty();
 	}
 
+	@Test
+	void analysisShouldComputeSelfAndTotalTimes() {
+		TestClock clock = new TestClock();
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10, Mode.BUFFER, true, clock);
+		StartupStep refresh = applicationStartup.start("spring.context.refresh");
+		clock.advance(1);
+		StartupStep first = applicationStartup.start("spring.beans.instantiate").tag("beanName", "first");
+		clock.advance(2);
+		StartupStep second = applicationStartup.start("spring.beans.instantiate").tag("beanName", "second");
+		clock.advance(4);
+		second.end();
+		first.end();
+		clock.advance(8);
+		refresh.end();
+		List<Step> steps = applicationStartup.getAnalysis().getSteps();
+		assertThat(steps).hasSize(1);
+		Step refreshStep = steps.get(0);
+		assertThat(refreshStep.getLabel()).isEqualTo("spring.context.refresh");
+		assertThat(refreshStep.getTotalTime()).isEqualTo(Duration.ofMillis(15));
+		assertThat(refreshStep.getSelfTime()).isEqualTo(Duration.ofMillis(9));
+		Step firstStep = refreshStep.getChildren().get(0);
+		assertThat(firstStep.getLabel()).isEqualTo("spring.beans.instantiate[first]");
+		assertThat(firstStep.getTotalTime()).isEqualTo(Duration.ofMillis(6));
+		assertThat(firstStep.getSelfTime()).isEqualTo(Duration.ofMillis(2));
+		Step secondStep = firstStep.getChildren().get(0);
+		assertThat(secondStep.getDetail()).isEqualTo("second");
+		assertThat(secondStep.getTotalTime()).isEqualTo(Duration.ofMillis(4));
+		assertThat(secondStep.getSelfTime()).isEqualTo(Duration.ofMillis(4));
+	}
+
+	@Test
+	void analysisShouldMergeStepsWithSameLabelUnderSameParent() {
+		TestClock clock = new TestClock();
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10, Mode.BUFFER, true, clock);
+		StartupStep parent = applicationStartup.start("parent");
+		for (int i = 0; i < 3; i++) {
+			StartupStep child = applicationStartup.start("child");
+			clock.advance(1);
+			child.end();
+		}
+		parent.end();
+		Step step = applicationStartup.getAnalysis().getSteps().get(0).getChildren().get(0);
+		assertThat(step.getCount()).isEqualTo(3);
+		assertThat(step.getTotalTime()).isEqualTo(Duration.ofMillis(3));
+	}
+
+	@Test
+	void analysisShouldIncludeStepsOverCapacityAndDrainedSteps() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(1, Mode.BUFFER, true);
+		applicationStartup.start("first").end();
+		applicationStartup.start("second").end();
+		applicationStartup.drainBufferedTimeline();
+		applicationStartup.start("third").end();
+		assertThat(applicationStartup.getAnalysis().getSteps()).extracting(Step::getName).containsExactly("first",
+				"second", "third");
+	}
+
+	@Test
+	void analysisShouldSkipFilteredAncestors() {
+		TestClock clock = new TestClock();
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10, Mode.BUFFER, true, clock);
+		applicationStartup.addFilter((step) -> step.getName().startsWith("spring"));
+		StartupStep parent = applicationStartup.start("spring.parent");
+		StartupStep filtered = applicationStartup.start("filtered");
+		StartupStep child = applicationStartup.start("spring.child");
+		clock.advance(2);
+		child.end();
+		clock.advance(1);
+		filtered.end();
+		parent.end();
+		List<Step> steps = applicationStartup.getAnalysis().getSteps();
+		assertThat(steps).extracting(Step::getName).containsExactly("spring.parent");
+		assertThat(steps.get(0).getChildren()).extracting(Step::getName).containsExactly("spring.child");
+		assertThat(steps.get(0).getSelfTime()).isEqualTo(Duration.ofMillis(1));
+	}
+
+	@Test
+	void analysisShouldIncludeRunningAncestors() {
+		TestClock clock = new TestClock();
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10, Mode.BUFFER, true, clock);
+		applicationStartup.start("parent");
+		StartupStep child = applicationStartup.start("child");
+		clock.advance(2);
+		child.end();
+		Step parentStep = applicationStartup.getAnalysis().getSteps().get(0);
+		assertThat(parentStep.getCount()).isZero();
+		assertThat(parentStep.getTotalTime()).isEqualTo(Duration.ofMillis(2));
+		assertThat(parentStep.getSelfTime()).isZero();
+	}
+
+	@Test
+	void analysisShouldProvideHotSpots() {
+		TestClock clock = new TestClock();
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10, Mode.BUFFER, true, clock);
+		StartupStep parent = applicationStartup.start("parent");
+		clock.advance(1);
+		StartupStep slow = applicationStartup.start("spring.beans.instantiate").tag("beanName", "slow");
+		clock.advance(5);
+		slow.end();
+		StartupStep fast = applicationStartup.start("spring.beans.instantiate").tag("beanName", "fast");
+		clock.advance(2);
+		fast.end();
+		parent.end();
+		List<HotSpot> hotSpots = applicationStartup.getAnalysis().getHotSpots(2);
+		assertThat(hotSpots).extracting(HotSpot::getDetail).containsExactly("slow", "fast");
+		assertThat(hotSpots.get(0).getSelfTime()).isEqualTo(Duration.ofMillis(5));
+		assertThat(hotSpots.get(0).getCount()).isEqualTo(1);
+	}
+
+	@Test
+	void analysisShouldProvideFoldedStacks() {
+		TestClock clock = new TestClock();
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10, Mode.BUFFER, true, clock);
+		StartupStep parent = applicationStartup.start("parent");
+		clock.advance(1);
+		StartupStep child = applicationStartup.start("spring.beans.instantiate").tag("beanName", "a;b");
+		clock.advance(2);
+		child.end();
+		StartupStep empty = applicationStartup.start("empty");
+		empty.end();
+		parent.end();
+		assertThat(applicationStartup.getAnalysis().getFoldedStacks())
+				.isEqualTo("parent 1000\nparent;spring.beans.instantiate[a:b] 2000\n");
+	}
+
+	@Test
+	void analysisShouldBeNullWhenNotEnabled() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10);
+		applicationStartup.start("first").end();
+		assertThat(applicationStartup.getAnalysis()).isNull();
+	}
+
+	@Test
+	void ringBufferShouldKeepMostRecentEventsWhenOverCapacity() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(2, Mode.RING_BUFFER);
+		applicationStartup.start("first").end();
+		applicationStartup.start("second").end();
+		applicationStartup.start("third").end();
+		List<TimelineEvent> events = applicationStartup.getBufferedTimeline().getEvents();
+		assertThat(events).extracting((event) -> event.getStartupStep().getName()).containsExactly("second", "third");
+	}
+
+	@Test
+	void ringBufferShouldDecodeEvents() {
+		TestClock clock = new TestClock();
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(5, Mode.RING_BUFFER, false,
+				clock);
+		StartupStep parent = applicationStartup.start("parent");
+		clock.advance(1);
+		StartupStep child = applicationStartup.start("child").tag("beanName", "test").tag("beanType", "Test");
+		clock.advance(2);
+		child.end();
+		parent.end();
+		List<TimelineEvent> events = applicationStartup.getBufferedTimeline().getEvents();
+		assertThat(events).hasSize(2);
+		TimelineEvent childEvent = events.get(0);
+		assertThat(childEvent.getStartupStep().getName()).isEqualTo("child");
+		assertThat(childEvent.getStartupStep().getId()).isEqualTo(1);
+		assertThat(childEvent.getStartupStep().getParentId()).isEqualTo(0);
+		assertThat(childEvent.getStartupStep().getTags()).extracting(Tag::getKey, Tag::getValue)
+				.containsExactly(tuple("beanName", "test"), tuple("beanType", "Test"));
+		assertThat(childEvent.getStartTime()).isEqualTo(Instant.EPOCH.plusMillis(1));
+		assertThat(childEvent.getEndTime()).isEqualTo(Instant.EPOCH.plusMillis(3));
+		assertThat(childEvent.getDuration()).isEqualTo(Duration.ofMillis(2));
+		TimelineEvent parentEvent = events.get(1);
+		assertThat(parentEvent.getStartupStep().getParentId()).isNull();
+		assertThat(parentEvent.getStartupStep().getTags()).isEmpty();
+		assertThat(parentEvent.getDuration()).isEqualTo(Duration.ofMillis(3));
+	}
+
+	@Test
+	void ringBufferShouldBeEmptyWhenDraining() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(2, Mode.RING_BUFFER);
+		applicationStartup.start("first").end();
+		applicationStartup.start("second").end();
+		applicationStartup.start("third").end();
+		assertThat(applicationStartup.drainBufferedTimeline().getEvents()).hasSize(2);
+		assertThat(applicationStartup.getBufferedTimeline().getEvents()).isEmpty();
+		applicationStartup.start("fourth").end();
+		assertThat(applicationStartup.getBufferedTimeline().getEvents())
+				.extracting((event) -> event.getStartupStep().getName()).containsExactly("fourth");
+	}
+
+	@Test
+	void ringBufferShouldReleaseStringsOfOverwrittenSteps() {
+		StartupStepRingBuffer ringBuffer = new StartupStepRingBuffer(2);
+		for (int i = 0; i < 100; i++) {
+			BufferedStartupStep step = new BufferedStartupStep(null, "step" + i, i, Instant.EPOCH, (recorded) -> {
+			});
+			step.tag("index", String.valueOf(i));
+			ringBuffer.add(step, Instant.EPOCH);
+		}
+		assertThat(ringBuffer.getStringCount()).isEqualTo(5);
+		assertThat(ringBuffer.getEvents()).extracting((event) -> event.getStartupStep().getName())
+				.containsExactly("step98", "step99");
+		assertThat(ringBuffer.getEvents().get(1).getStartupStep().getTags()).extracting(Tag::getKey, Tag::getValue)
+				.containsExactly(tuple("index", "99"));
+	}
+
+	@Test
+	void ringBufferSnapshotShouldNotBeAffectedByNewSteps() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(1, Mode.RING_BUFFER);
+		applicationStartup.start("first").end();
+		StartupTimeline timeline = applicationStartup.drainBufferedTimeline();
+		applicationStartup.start("second").end();
+		assertThat(timeline.getEvents()).extracting((event) -> event.getStartupStep().getName())
+				.containsExactly("first");
+	}
+
+	@Test
+	void ringBufferStartRecordingShouldFailIfEventsWereRecorded() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(2, Mode.RING_BUFFER);
+		applicationStartup.start("first").end();
+		assertThatThrownBy(applicationStartup::startRecording).isInstanceOf(IllegalStateException.class)
+				.hasMessage("Cannot restart recording once steps have been buffered.");
+	}
+
+	@Test
+	void ringBufferTaggingShouldFailWhenEventAlreadyRecorded() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(2, Mode.RING_BUFFER);
+		applicationStartup.start("first").end();
+		StartupStep step = applicationStartup.getBufferedTimeline().getEvents().get(0).getStartupStep();
+		assertThatThrownBy(() -> step.tag("name", "value")).isInstanceOf(IllegalStateException.class)
+				.hasMessage("StartupStep has already ended.");
+	}
+
+	@Test
+	void ringBufferShouldProvideAnalysis() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(1, Mode.RING_BUFFER, true);
+		StartupStep parent = applicationStartup.start("parent");
+		applicationStartup.start("child").end();
+		parent.end();
+		List<Step> steps = applicationStartup.getAnalysis().getSteps();
+		assertThat(steps).extracting(Step::getName).containsExactly("parent");
+		assertThat(steps.get(0).getChildren()).extracting(Step::getName).containsExactly("child");
+	}
+
+	static class TestClock extends Clock {
+
+		private Instant instant = Instant.EPOCH;
+
+		void advance(long millis) {
+			this.instant = this.instant.plusMillis(millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneId.of("UTC");
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return this.instant;
+		}
+
+	}
+
 }
@@ -36,7 +36,9 @@ import org.springframework.boot.context.properties.bind.validation.ValidationBin
 import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
 import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
 import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.context.properties.source.IterableConfigurationPropertySource;
 import org.springframework.boot.context.properties.source.MockConfigurationPropertySource;
+import org.springframework.boot.env.OriginTrackedMapPropertySource;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.core.env.MapPropertySource;
@@ -337,6 +339,29 @@ class BinderTests {
 		assertThat(result.isBound()).isFalse();
 	}
 
+	@Test
+	void bindWhenSourcesAreAttachedUsesNamesOfImmutableSources() {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(
+				new OriginTrackedMapPropertySource("test", Collections.singletonMap("foo.value", "bar"), true));
+		ConfigurationPropertySources.attach(environment);
+		List<ConfigurationPropertyName> bound = new ArrayList<>();
+		Binder.get(environment).bind("foo", Bindable.of(JavaBean.class), new BindHandler() {
+
+			@Override
+			public Object onSuccess(ConfigurationPropertyName name, Bindable<?> target, BindContext context,
+					Object result) {
+				bound.add(name);
+				return result;
+			}
+
+		});
+		ConfigurationPropertyName name = ((IterableConfigurationPropertySource) ConfigurationPropertySources
+				.get(environment).iterator().next()).iterator().next();
+		assertThat(name).hasToString("foo.value");
+		assertThat(bound).anySatisfy((boundName) -> assertThat(boundName).isSameAs(name));
+	}
+
 	@Test
 	void bindToJavaBeanWithPublicConstructor() {
 		Bindable<JavaBeanWithPublicConstructor> bindable = Bindable.of(JavaBeanWithPublicConstructor.class);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -502,6 +502,25 @@ class JavaBeanBinderTests {
 		assertThat(bean.getProperty()).isEqualTo("some string");
 	}
 
+	@Test
+	void beanIsCachedPerType() {
+		Bean<ExampleValueBean> bean = Bean.get(Bindable.of(ExampleValueBean.class), false);
+		assertThat(Bean.get(Bindable.of(ExampleNestedBean.class), false)).isNotSameAs(bean);
+		assertThat(Bean.get(Bindable.of(ExampleValueBean.class), false)).isSameAs(bean);
+	}
+
+	@Test
+	void beanIsCachedPerGenericType() {
+		ResolvableType stringValueType = ResolvableType.forClassWithGenerics(GenericValue.class, String.class);
+		ResolvableType integerValueType = ResolvableType.forClassWithGenerics(GenericValue.class, Integer.class);
+		Bean<?> stringValueBean = Bean.get(Bindable.of(stringValueType), false);
+		Bean<?> integerValueBean = Bean.get(Bindable.of(integerValueType), false);
+		assertThat(integerValueBean).isNotSameAs(stringValueBean);
+		assertThat(stringValueBean.getProperties().get("value").getType().resolve()).isEqualTo(String.class);
+		assertThat(integerValueBean.getProperties().get("value").getType().resolve()).isEqualTo(Integer.class);
+		assertThat(Bean.get(Bindable.of(stringValueType), false)).isSameAs(stringValueBean);
+	}
+
 	@Test
 	void beanPropertiesPreferMatchingType() {
 		// gh-16206
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.properties.source;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link AdaptiveConfigurationPropertyCachingApplicationListener}.
+ *
+ * @author Phillip Webb
+ */
+class AdaptiveConfigurationPropertyCachingApplicationListenerTests {
+
+	private final AdaptiveConfigurationPropertyCachingApplicationListener listener = new AdaptiveConfigurationPropertyCachingApplicationListener();
+
+	private final StandardEnvironment environment = new StandardEnvironment();
+
+	private final Map<String, Object> source = new LinkedHashMap<>();
+
+	private MapPropertySource propertySource;
+
+	@BeforeEach
+	void setup() {
+		this.source.put("spring", "boot");
+		this.propertySource = new MapPropertySource("test", this.source);
+		this.environment.getPropertySources().addFirst(this.propertySource);
+		ConfigurationPropertySources.attach(this.environment);
+		getCaching().enableStatistics();
+	}
+
+	@Test
+	void onApplicationEventWhenUnchangedEnablesCaching() {
+		this.source.put(AdaptiveConfigurationPropertyCachingApplicationListener.ADAPTIVE_PROPERTY, "true");
+		readNames();
+		readNames();
+		this.listener.onApplicationEvent(createReadyEvent());
+		ConfigurationPropertyCacheStatistics before = getCaching().getStatistics();
+		readNames();
+		readNames();
+		ConfigurationPropertyCacheStatistics after = getCaching().getStatistics();
+		assertThat(after.getRefreshCount()).isEqualTo(before.getRefreshCount());
+		assertThat(after.getHitCount()).isEqualTo(before.getHitCount() + 2);
+	}
+
+	@Test
+	void onApplicationEventWhenChangedDoesNotEnableCaching() {
+		this.source.put(AdaptiveConfigurationPropertyCachingApplicationListener.ADAPTIVE_PROPERTY, "true");
+		readNames();
+		this.source.put("another", "value");
+		readNames();
+		this.listener.onApplicationEvent(createReadyEvent());
+		readNames();
+		ConfigurationPropertyCacheStatistics statistics = getCaching().getStatistics();
+		assertThat(statistics.getChangeCount()).isEqualTo(1);
+		assertThat(statistics.getHitCount()).isZero();
+	}
+
+	@Test
+	void onApplicationEventWhenNotAdaptiveDoesNotEnableCaching() {
+		readNames();
+		readNames();
+		this.listener.onApplicationEvent(createReadyEvent());
+		readNames();
+		assertThat(getCaching().getStatistics().getHitCount()).isZero();
+	}
+
+	private void readNames() {
+		for (ConfigurationPropertySource source : ConfigurationPropertySources.get(this.environment)) {
+			if (source.getUnderlyingSource() == this.propertySource) {
+				((IterableConfigurationPropertySource) source).stream().count();
+			}
+		}
+	}
+
+	private ConfigurationPropertyCaching getCaching() {
+		return ConfigurationPropertyCaching.get(this.environment, this.propertySource);
+	}
+
+	private ApplicationReadyEvent createReadyEvent() {
+		ConfigurableApplicationContext context = mock(ConfigurableApplicationContext.class);
+		given(context.getEnvironment()).willReturn(this.environment);
+		return new ApplicationReadyEvent(new SpringApplication(), new String[0], context, null);
+	}
+
+}
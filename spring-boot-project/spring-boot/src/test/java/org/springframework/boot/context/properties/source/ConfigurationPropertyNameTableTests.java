@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.properties.source;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ConfigurationPropertyNameTable}.
+ *
+ * @author Phillip Webb
+ */
+class ConfigurationPropertyNameTableTests {
+
+	private final ConfigurationPropertyNameTable table = new ConfigurationPropertyNameTable();
+
+	@Test
+	void mapReturnsSameInstanceForSameName() {
+		ConfigurationPropertyName name = this.table.map(DefaultPropertyMapper.INSTANCE, "server.port");
+		assertThat(name).hasToString("server.port");
+		assertThat(this.table.map(DefaultPropertyMapper.INSTANCE, "server.port")).isSameAs(name);
+		assertThat(this.table.size()).isEqualTo(1);
+	}
+
+	@Test
+	void mapKeepsOriginalFormOfEachName() {
+		ConfigurationPropertyName lowerCase = this.table.map(DefaultPropertyMapper.INSTANCE, "foo.bar");
+		ConfigurationPropertyName mixedCase = this.table.map(DefaultPropertyMapper.INSTANCE, "foo.Bar");
+		assertThat(mixedCase).isEqualTo(lowerCase).isNotSameAs(lowerCase);
+		assertThat(mixedCase.getLastElement(ConfigurationPropertyName.Form.ORIGINAL)).isEqualTo("Bar");
+	}
+
+	@Test
+	void mapSeparatesNamesByMapper() {
+		ConfigurationPropertyName mapped = this.table.map(SystemEnvironmentPropertyMapper.INSTANCE, "SERVER_PORT");
+		ConfigurationPropertyName defaultMapped = this.table.map(DefaultPropertyMapper.INSTANCE, "SERVER_PORT");
+		assertThat(mapped).hasToString("server.port");
+		assertThat(defaultMapped).hasToString("serverport");
+		assertThat(this.table.size()).isEqualTo(2);
+	}
+
+	@Test
+	void mapWhenTableIsFullDoesNotInternName() {
+		ConfigurationPropertyNameTable table = new ConfigurationPropertyNameTable(1);
+		ConfigurationPropertyName interned = table.map(DefaultPropertyMapper.INSTANCE, "server.port");
+		ConfigurationPropertyName name = table.map(DefaultPropertyMapper.INSTANCE, "server.address");
+		assertThat(table.map(DefaultPropertyMapper.INSTANCE, "server.port")).isSameAs(interned);
+		table.map(DefaultPropertyMapper.INSTANCE, "server.servlet.context-path");
+		assertThat(table.map(DefaultPropertyMapper.INSTANCE, "server.address")).isEqualTo(name).isNotSameAs(name);
+		assertThat(table.size()).isEqualTo(1);
+	}
+
+	@Test
+	void internReturnsMappedInstance() {
+		ConfigurationPropertyName mapped = this.table.map(DefaultPropertyMapper.INSTANCE, "server.port");
+		ConfigurationPropertyName name = ConfigurationPropertyName.of("server.port");
+		assertThat(this.table.intern(name)).isSameAs(mapped);
+	}
+
+	@Test
+	void internWhenNotMappedReturnsName() {
+		this.table.map(DefaultPropertyMapper.INSTANCE, "server.port");
+		ConfigurationPropertyName name = ConfigurationPropertyName.of("server.address");
+		assertThat(this.table.intern(name)).isSameAs(name);
+	}
+
+	@Test
+	void internWhenMappedNameIsNotInCanonicalFormReturnsName() {
+		this.table.map(DefaultPropertyMapper.INSTANCE, "foo.Bar");
+		this.table.map(SystemEnvironmentPropertyMapper.INSTANCE, "SERVER_PORT");
+		ConfigurationPropertyName fooBar = ConfigurationPropertyName.of("foo.bar");
+		ConfigurationPropertyName serverPort = ConfigurationPropertyName.of("server.port");
+		assertThat(this.table.intern(fooBar)).isSameAs(fooBar);
+		assertThat(this.table.intern(serverPort)).isSameAs(serverPort);
+	}
+
+	@Test
+	void internWhenMappedNameHasDifferentStringRepresentationReturnsName() {
+		this.table.map(DefaultPropertyMapper.INSTANCE, "foo.barbaz");
+		ConfigurationPropertyName name = ConfigurationPropertyName.of("foo.bar-baz");
+		assertThat(this.table.intern(name)).isSameAs(name);
+	}
+
+}
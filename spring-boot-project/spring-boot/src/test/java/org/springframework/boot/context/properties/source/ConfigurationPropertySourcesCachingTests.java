@@ -23,6 +23,7 @@ import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.mock;
@@ -108,6 +109,39 @@ class ConfigurationPropertySourcesCachingTests {
 		new ConfigurationPropertySourcesCaching(null).enable();
 	}
 
+	@Test
+	void enableIfUnchangedDelegatesToCachingConfigurationPropertySources() {
+		this.caching.enableIfUnchanged();
+		then(getCaching(0)).should().enableIfUnchanged();
+		then(getCaching(2)).should().enableIfUnchanged();
+	}
+
+	@Test
+	void enableStatisticsDelegatesToCachingConfigurationPropertySources() {
+		this.caching.enableStatistics();
+		then(getCaching(0)).should().enableStatistics();
+		then(getCaching(2)).should().enableStatistics();
+	}
+
+	@Test
+	void getStatisticsReturnsCombinedStatistics() {
+		given(getCaching(0).getStatistics()).willReturn(new ConfigurationPropertyCacheStatistics(1, 2, 3, 4, 5));
+		given(getCaching(2).getStatistics()).willReturn(new ConfigurationPropertyCacheStatistics(10, 20, 30, 40, 50));
+		ConfigurationPropertyCacheStatistics statistics = this.caching.getStatistics();
+		assertThat(statistics.getHitCount()).isEqualTo(11);
+		assertThat(statistics.getMissCount()).isEqualTo(22);
+		assertThat(statistics.getRefreshCount()).isEqualTo(33);
+		assertThat(statistics.getChangeCount()).isEqualTo(44);
+		assertThat(statistics.getRefreshTime()).isEqualTo(Duration.ofNanos(55));
+	}
+
+	@Test
+	void getStatisticsWhenSourcesIsNullReturnsEmptyStatistics() {
+		ConfigurationPropertyCacheStatistics statistics = new ConfigurationPropertySourcesCaching(null).getStatistics();
+		assertThat(statistics.getHitCount()).isZero();
+		assertThat(statistics.getRefreshTime()).isZero();
+	}
+
 	private ConfigurationPropertyCaching getCaching(int index) {
 		return CachingConfigurationPropertySource.find(this.sources.get(index));
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2020 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -100,6 +100,63 @@ class SoftReferenceConfigurationPropertyCacheTests {
 
 	}
 
+	@Test
+	void getStatisticsWhenNotEnabledReturnsZeroCounts() {
+		get(this.cache);
+		get(this.cache);
+		this.cache.enable();
+		get(this.cache);
+		this.cache.recordChange();
+		ConfigurationPropertyCacheStatistics statistics = this.cache.getStatistics();
+		assertThat(statistics.getMissCount()).isZero();
+		assertThat(statistics.getRefreshCount()).isZero();
+		assertThat(statistics.getHitCount()).isZero();
+		assertThat(statistics.getChangeCount()).isZero();
+		assertThat(statistics.getRefreshTime()).isZero();
+	}
+
+	@Test
+	void getStatisticsReturnsCounts() {
+		this.cache.enableStatistics();
+		get(this.cache);
+		get(this.cache);
+		this.cache.enable();
+		get(this.cache);
+		this.cache.recordChange();
+		ConfigurationPropertyCacheStatistics statistics = this.cache.getStatistics();
+		assertThat(statistics.getMissCount()).isEqualTo(1);
+		assertThat(statistics.getRefreshCount()).isEqualTo(1);
+		assertThat(statistics.getHitCount()).isEqualTo(1);
+		assertThat(statistics.getChangeCount()).isEqualTo(1);
+		assertThat(statistics.getRefreshTime().isNegative()).isFalse();
+	}
+
+	@Test
+	void enableIfUnchangedWhenRefreshedWithoutChangeEnablesCaching() {
+		get(this.cache);
+		get(this.cache).assertCounts(0, 1);
+		this.cache.enableIfUnchanged();
+		get(this.cache).assertCounts(0, 1);
+		tick(Duration.ofDays(300));
+		get(this.cache).assertCounts(0, 1);
+	}
+
+	@Test
+	void enableIfUnchangedWhenChangedDoesNotEnableCaching() {
+		get(this.cache);
+		get(this.cache);
+		this.cache.recordChange();
+		this.cache.enableIfUnchanged();
+		get(this.cache).assertCounts(0, 2);
+	}
+
+	@Test
+	void enableIfUnchangedWhenNotRefreshedDoesNotEnableCaching() {
+		get(this.cache);
+		this.cache.enableIfUnchanged();
+		get(this.cache).assertCounts(0, 1);
+	}
+
 	private Value get(SoftReferenceConfigurationPropertyCache<Value> cache) {
 		return cache.get(this::createValue, this::updateValue);
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.util.Iterator;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.boot.env.OriginTrackedMapPropertySource;
 import org.springframework.boot.env.RandomValuePropertySource;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.MapPropertySource;
@@ -172,4 +173,15 @@ class SpringConfigurationPropertySourcesTests {
 		assertThat(iterator.hasNext()).isFalse();
 	}
 
+	@Test
+	void shouldShareNamesBetweenImmutableSources() {
+		MutablePropertySources sources = new MutablePropertySources();
+		sources.addLast(new OriginTrackedMapPropertySource("test1", Collections.singletonMap("a.b", "s1"), true));
+		sources.addLast(new OriginTrackedMapPropertySource("test2", Collections.singletonMap("a.b", "s2"), true));
+		Iterator<ConfigurationPropertySource> iterator = new SpringConfigurationPropertySources(sources).iterator();
+		ConfigurationPropertyName name1 = ((IterableConfigurationPropertySource) iterator.next()).iterator().next();
+		ConfigurationPropertyName name2 = ((IterableConfigurationPropertySource) iterator.next()).iterator().next();
+		assertThat(name1).isSameAs(name2);
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2020 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -238,6 +238,112 @@ class SpringIterableConfigurationPropertySourceTests {
 				"test.map.bravo", "test.map.charlie", "test.map.delta");
 	}
 
+	@Test
+	void simpleMapPropertySourceKeyRemovalUpdatesMappings() {
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("foo.bar", "value1");
+		map.put("foo.baz", "value2");
+		EnumerablePropertySource<?> source = new MapPropertySource("test", map);
+		SpringIterableConfigurationPropertySource adapter = new SpringIterableConfigurationPropertySource(source,
+				DefaultPropertyMapper.INSTANCE);
+		ConfigurationPropertyName foo = ConfigurationPropertyName.of("foo");
+		assertThat(adapter.containsDescendantOf(foo)).isEqualTo(ConfigurationPropertyState.PRESENT);
+		map.remove("foo.bar");
+		assertThat(adapter.stream()).hasSize(1);
+		assertThat(adapter.containsDescendantOf(foo)).isEqualTo(ConfigurationPropertyState.PRESENT);
+		map.remove("foo.baz");
+		assertThat(adapter.stream()).isEmpty();
+		assertThat(adapter.containsDescendantOf(foo)).isEqualTo(ConfigurationPropertyState.ABSENT);
+		map.put("foo.bar", "value3");
+		assertThat(adapter.getConfigurationProperty(ConfigurationPropertyName.of("foo.bar")).getValue())
+				.isEqualTo("value3");
+	}
+
+	@Test
+	void getValueWhenNameHasRelaxedAndIndexedElementsShouldUseEnumerableMapping() {
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("my.Server_Name[0]", "value1");
+		source.put("my.map[Key.One]", "value2");
+		EnumerablePropertySource<?> propertySource = new MapPropertySource("test", source);
+		SpringIterableConfigurationPropertySource adapter = new SpringIterableConfigurationPropertySource(
+				propertySource, DefaultPropertyMapper.INSTANCE);
+		assertThat(adapter.getConfigurationProperty(ConfigurationPropertyName.of("my.server-name[0]")).getValue())
+				.isEqualTo("value1");
+		assertThat(adapter.getConfigurationProperty(ConfigurationPropertyName.of("my.map[Key.One]")).getValue())
+				.isEqualTo("value2");
+		assertThat(adapter.getConfigurationProperty(ConfigurationPropertyName.of("my.map[key.one]"))).isNull();
+		assertThat(adapter.containsDescendantOf(ConfigurationPropertyName.of("my.server-name")))
+				.isEqualTo(ConfigurationPropertyState.PRESENT);
+		assertThat(adapter.containsDescendantOf(ConfigurationPropertyName.of("my.map[Key.One]")))
+				.isEqualTo(ConfigurationPropertyState.ABSENT);
+	}
+
+	@Test
+	void getValueWhenImmutableSystemEnvironmentOnlyPerformsRelaxedLookupForIndexedNames() {
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("SERVER_PORT", "1234");
+		source.put("spring.application.name", "test");
+		source.put("MY_APP_NAME", "legacy");
+		source.put("HOST_0", "host");
+		ImmutableSystemEnvironmentPropertySource propertySource = new ImmutableSystemEnvironmentPropertySource(source);
+		SpringConfigurationPropertySource adapter = SpringConfigurationPropertySource.from(propertySource);
+		assertThat(adapter.getConfigurationProperty(ConfigurationPropertyName.of("server.port")).getValue())
+				.isEqualTo("1234");
+		assertThat(adapter.getConfigurationProperty(ConfigurationPropertyName.of("spring.application.name")).getValue())
+				.isEqualTo("test");
+		assertThat(adapter.getConfigurationProperty(ConfigurationPropertyName.of("my-app.name")).getValue())
+				.isEqualTo("legacy");
+		assertThat(adapter.getConfigurationProperty(ConfigurationPropertyName.of("host[0]")).getValue())
+				.isEqualTo("host");
+		propertySource.lookups.clear();
+		assertThat(adapter.getConfigurationProperty(ConfigurationPropertyName.of("server.address"))).isNull();
+		assertThat(adapter.getConfigurationProperty(ConfigurationPropertyName.of("my-app.port"))).isNull();
+		assertThat(propertySource.lookups).isEmpty();
+	}
+
+	@Test
+	void getValueWhenMutableSystemEnvironmentPerformsRelaxedLookup() {
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("SERVER_PORT", "1234");
+		SystemEnvironmentPropertySource propertySource = new SystemEnvironmentPropertySource(
+				StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME, source);
+		SpringConfigurationPropertySource adapter = SpringConfigurationPropertySource.from(propertySource);
+		assertThat(adapter.getConfigurationProperty(ConfigurationPropertyName.of("server.address"))).isNull();
+		source.put("SERVER_ADDRESS", "localhost");
+		assertThat(adapter.getConfigurationProperty(ConfigurationPropertyName.of("server.address")).getValue())
+				.isEqualTo("localhost");
+	}
+
+	/**
+	 * Test immutable {@link SystemEnvironmentPropertySource} that records lookups.
+	 */
+	static class ImmutableSystemEnvironmentPropertySource extends SystemEnvironmentPropertySource
+			implements OriginLookup<String> {
+
+		private final Set<String> lookups = new LinkedHashSet<>();
+
+		ImmutableSystemEnvironmentPropertySource(Map<String, Object> source) {
+			super(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME, source);
+		}
+
+		@Override
+		public Object getProperty(String name) {
+			this.lookups.add(name);
+			return super.getProperty(name);
+		}
+
+		@Override
+		public Origin getOrigin(String key) {
+			return null;
+		}
+
+		@Override
+		public boolean isImmutable() {
+			return true;
+		}
+
+	}
+
 	/**
 	 * Test {@link PropertySource} that's also an {@link OriginLookup}.
 	 *
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.env;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.origin.OriginTrackedValue;
+import org.springframework.boot.origin.TextResourceOrigin;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link CompactOriginTrackedMap}.
+ *
+ * @author Madhura Bhave
+ */
+class CompactOriginTrackedMapTests {
+
+	private final Resource resource = new ByteArrayResource(new byte[0]);
+
+	@Test
+	void getReturnsOriginTrackedValue() {
+		CompactOriginTrackedMap.Builder builder = new CompactOriginTrackedMap.Builder(this.resource);
+		builder.put("spring", "boot", 2, 7);
+		Map<String, OriginTrackedValue> map = builder.build();
+		OriginTrackedValue value = map.get("spring");
+		assertThat(value).hasToString("boot").isInstanceOf(CharSequence.class);
+		TextResourceOrigin origin = (TextResourceOrigin) value.getOrigin();
+		assertThat(origin.getResource()).isSameAs(this.resource);
+		assertThat(origin.getLocation()).hasToString("3:8");
+		assertThat(map.get("missing")).isNull();
+		assertThat(map.get(1)).isNull();
+	}
+
+	@Test
+	void putWhenKeyExistsReplacesValueAndKeepsPosition() {
+		CompactOriginTrackedMap.Builder builder = new CompactOriginTrackedMap.Builder(this.resource);
+		builder.put("a", "1", 0, 0);
+		builder.put("b", "2", 1, 0);
+		builder.put("a", "3", 2, 0);
+		Map<String, OriginTrackedValue> map = builder.build();
+		assertThat(map).hasSize(2);
+		assertThat(map.keySet()).containsExactly("a", "b");
+		assertThat(map.get("a")).hasToString("3");
+		assertThat(((TextResourceOrigin) map.get("a").getOrigin()).getLocation().getLine()).isEqualTo(2);
+	}
+
+	@Test
+	void mapWithManyEntriesEqualsLinkedHashMap() {
+		CompactOriginTrackedMap.Builder builder = new CompactOriginTrackedMap.Builder(this.resource);
+		Map<String, OriginTrackedValue> expected = new LinkedHashMap<>();
+		for (int i = 0; i < 5000; i++) {
+			String key = "message.key" + i;
+			String value = "Value é 中 " + i;
+			builder.put(key, value, i, 0);
+			expected.put(key, OriginTrackedValue.of(value));
+		}
+		Map<String, OriginTrackedValue> map = builder.build();
+		assertThat(map).isEqualTo(expected);
+		assertThat(map.keySet()).containsExactlyElementsOf(expected.keySet());
+		assertThat(map.containsKey("message.key4999")).isTrue();
+		assertThat(map.containsKey("message.key5000")).isFalse();
+	}
+
+	@Test
+	void emptyKeyAndValueAreSupported() {
+		CompactOriginTrackedMap.Builder builder = new CompactOriginTrackedMap.Builder(this.resource);
+		assertThat(builder.isEmpty()).isTrue();
+		builder.put("", "", 0, 0);
+		assertThat(builder.isEmpty()).isFalse();
+		Map<String, OriginTrackedValue> map = builder.build();
+		assertThat(map.get("")).hasToString("");
+	}
+
+	@Test
+	void mapIsImmutable() {
+		CompactOriginTrackedMap.Builder builder = new CompactOriginTrackedMap.Builder(this.resource);
+		builder.put("a", "1", 0, 0);
+		Map<String, OriginTrackedValue> map = builder.build();
+		assertThatExceptionOfType(UnsupportedOperationException.class)
+				.isThrownBy(() -> map.put("b", OriginTrackedValue.of("2")));
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> map.keySet().remove("a"));
+	}
+
+}
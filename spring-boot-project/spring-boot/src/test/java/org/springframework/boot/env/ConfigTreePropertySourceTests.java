@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,11 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -201,6 +206,50 @@ class ConfigTreePropertySourceTests {
 		assertThat(propertySource.getProperty("fa.b")).hasToString("XX");
 	}
 
+	@Test
+	void getPropertyWhenWatchForChangesRefreshesChangedValues() throws Exception {
+		addNested();
+		try (ConfigTreePropertySource propertySource = new ConfigTreePropertySource("test", this.directory,
+				Option.WATCH_FOR_CHANGES)) {
+			BlockingQueue<Set<String>> refreshed = new LinkedBlockingQueue<>();
+			propertySource.addRefreshListener((source, names) -> refreshed.add(names));
+			assertThat(propertySource.isImmutable()).isFalse();
+			Value v1 = propertySource.getProperty("fa.b");
+			assertThat(v1).hasToString("AB");
+			assertThat(propertySource.getProperty("fb.a")).hasToString("BA");
+			assertThat(propertySource.getProperty("fa.b")).isSameAs(v1);
+			addProperty("fa/b", "XX");
+			assertThat(refreshed.poll(10, TimeUnit.SECONDS)).containsExactly("fa.b");
+			assertThat(v1).hasToString("AB");
+			assertThat(propertySource.getProperty("fa.b")).hasToString("XX");
+			assertThat(propertySource.getProperty("fb.a")).hasToString("BA");
+		}
+	}
+
+	@Test
+	void getPropertyWhenWatchForChangesAndDataSymlinkSwappedRefreshesChangedValues() throws Exception {
+		addProperty("..2022_01/a", "A1");
+		addProperty("..2022_01/b", "B");
+		createSymbolicLink("..data", "..2022_01");
+		createSymbolicLink("a", "..data/a");
+		createSymbolicLink("b", "..data/b");
+		try (ConfigTreePropertySource propertySource = new ConfigTreePropertySource("test", this.directory,
+				Option.WATCH_FOR_CHANGES)) {
+			BlockingQueue<Set<String>> refreshed = new LinkedBlockingQueue<>();
+			propertySource.addRefreshListener((source, names) -> refreshed.add(names));
+			assertThat(propertySource.getProperty("a")).hasToString("A1");
+			assertThat(propertySource.getProperty("b")).hasToString("B");
+			addProperty("..2022_02/a", "A2");
+			addProperty("..2022_02/b", "B");
+			createSymbolicLink("..data_tmp", "..2022_02");
+			Files.move(this.directory.resolve("..data_tmp"), this.directory.resolve("..data"),
+					StandardCopyOption.ATOMIC_MOVE);
+			assertThat(refreshed.poll(10, TimeUnit.SECONDS)).containsExactly("a");
+			assertThat(propertySource.getProperty("a")).hasToString("A2");
+			assertThat(propertySource.getProperty("b")).hasToString("B");
+		}
+	}
+
 	@Test
 	void getPropertyWhenLowercaseReturnsValue() throws Exception {
 		addProperty("SpRiNg", "boot");
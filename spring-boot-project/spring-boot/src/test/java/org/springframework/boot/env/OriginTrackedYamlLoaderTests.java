@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,11 +18,14 @@ package org.springframework.boot.env;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.yaml.snakeyaml.constructor.ConstructorException;
 
 import org.springframework.boot.origin.OriginTrackedValue;
@@ -173,6 +176,55 @@ class OriginTrackedYamlLoaderTests {
 		assertThat(loaded.get("test.b.boot")).hasToString("b");
 	}
 
+	@Test
+	void loadFromEventsMatchesLoadFromNodes() {
+		assertLoadFromEventsMatchesLoadFromNodes(new ClassPathResource("test-yaml.yml", getClass()));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "a: 1\nb: 2.5\nc: true\nd: ~\ne: '1'\nf: 0x1F\ng: 123456789012\n",
+			"1: one\ntrue: yes\n1.5: half\n'[x]': y\nnested:\n  2: two\n  '[z]': w\n",
+			"list:\n  - - a\n    - []\n  - {}\n  - name: n\n    value:\n      - v\n", "- a\n- b: c\n", "[]\n", "{}\n",
+			"scalar\n", "a: 1\n---\n---\n~\n---\nb: 2\n", "a: !!str 1\nb: !!binary aGVsbG8=\n",
+			"a.b: 1\na: {b: 2, c: 3}\n" })
+	void loadFromEventsMatchesLoadFromNodesForYaml(String yaml) {
+		assertLoadFromEventsMatchesLoadFromNodes(new ByteArrayResource(yaml.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "a: &a 1\nb: *a\n", "base: &base\n  a: 1\nchild:\n  <<: *base\n", "a: !!set {b, c}\n",
+			"? [a]\n: b\n", "a: 1\na: 2\n", "list:\n  - 1: a\n", "'': {a: 1}\n", "a: b: c\n" })
+	void loadFromEventsWhenNodeTreeRequiredReturnsNull(String yaml) {
+		Resource resource = new ByteArrayResource(yaml.getBytes(StandardCharsets.UTF_8));
+		assertThat(new OriginTrackedYamlLoader(resource).loadFromEvents()).isNull();
+	}
+
+	@Test
+	void loadWhenHasAliasLoadsFromNodes() {
+		String yaml = "a: &a 1\nb: *a\n";
+		Resource resource = new ByteArrayResource(yaml.getBytes(StandardCharsets.UTF_8));
+		Map<String, Object> loaded = new OriginTrackedYamlLoader(resource).load().get(0);
+		assertThat(loaded.get("a")).hasToString("1");
+		assertThat(loaded.get("b")).hasToString("1");
+	}
+
+	private void assertLoadFromEventsMatchesLoadFromNodes(Resource resource) {
+		OriginTrackedYamlLoader loader = new OriginTrackedYamlLoader(resource);
+		List<Map<String, Object>> fromEvents = loader.loadFromEvents();
+		List<Map<String, Object>> fromNodes = loader.loadFromNodes();
+		assertThat(fromEvents).isNotNull().hasSameSizeAs(fromNodes);
+		for (int i = 0; i < fromNodes.size(); i++) {
+			assertThat(fromEvents.get(i)).containsExactlyEntriesOf(fromNodes.get(i));
+			Iterator<Object> expected = fromNodes.get(i).values().iterator();
+			for (Object actual : fromEvents.get(i).values()) {
+				OriginTrackedValue expectedValue = (OriginTrackedValue) expected.next();
+				assertThat(actual).isInstanceOf(expectedValue.getClass());
+				assertThat(((OriginTrackedValue) actual).getValue()).isEqualTo(expectedValue.getValue());
+				assertThat(((OriginTrackedValue) actual).getOrigin()).isEqualTo(expectedValue.getOrigin());
+			}
+		}
+	}
+
 	private OriginTrackedValue getValue(String name) {
 		if (this.result == null) {
 			this.result = this.loader.load();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2021 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.boot.env;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
@@ -25,6 +26,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.env.SystemEnvironmentPropertySourceEnvironmentPostProcessor.OriginAwareSystemEnvironmentPropertySource;
 import org.springframework.boot.origin.SystemEnvironmentOrigin;
 import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.PropertySource;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.env.SystemEnvironmentPropertySource;
@@ -101,4 +103,44 @@ class SystemEnvironmentPropertySourceEnvironmentPostProcessorTests {
 		assertThat(replaced.getPrefix()).isEqualTo("my");
 	}
 
+	@Test
+	void replacedPropertySourceWhenSystemEnvironmentIsImmutable() {
+		SystemEnvironmentPropertySourceEnvironmentPostProcessor postProcessor = new SystemEnvironmentPropertySourceEnvironmentPostProcessor();
+		postProcessor.postProcessEnvironment(this.environment, this.application);
+		OriginAwareSystemEnvironmentPropertySource replaced = (OriginAwareSystemEnvironmentPropertySource) this.environment
+				.getPropertySources().get("systemEnvironment");
+		assertThat(replaced.isImmutable()).isTrue();
+	}
+
+	@Test
+	void replacedPropertySourceWhenNotSystemEnvironmentIsMutable() {
+		Map<String, Object> source = Collections.singletonMap("FOO_BAR", "test");
+		this.environment.getPropertySources().replace("systemEnvironment",
+				new SystemEnvironmentPropertySource("systemEnvironment", source));
+		SystemEnvironmentPropertySourceEnvironmentPostProcessor postProcessor = new SystemEnvironmentPropertySourceEnvironmentPostProcessor();
+		postProcessor.postProcessEnvironment(this.environment, this.application);
+		OriginAwareSystemEnvironmentPropertySource replaced = (OriginAwareSystemEnvironmentPropertySource) this.environment
+				.getPropertySources().get("systemEnvironment");
+		assertThat(replaced.isImmutable()).isFalse();
+	}
+
+	@Test
+	void postProcessWhenIncludePrefixesSetFiltersVariables() {
+		Map<String, Object> source = new LinkedHashMap<>();
+		source.put("MYAPP_NAME", "test");
+		source.put("myapp_port", "8080");
+		source.put("SPRING_PROFILES_ACTIVE", "dev");
+		source.put("OTHER_SERVICE_HOST", "localhost");
+		this.environment.getPropertySources().replace("systemEnvironment",
+				new SystemEnvironmentPropertySource("systemEnvironment", source));
+		this.environment.getPropertySources().addFirst(new MapPropertySource("test",
+				Collections.singletonMap("spring.system-environment.include-prefixes", "MYAPP_, spring_")));
+		SystemEnvironmentPropertySourceEnvironmentPostProcessor postProcessor = new SystemEnvironmentPropertySourceEnvironmentPostProcessor();
+		postProcessor.postProcessEnvironment(this.environment, this.application);
+		OriginAwareSystemEnvironmentPropertySource replaced = (OriginAwareSystemEnvironmentPropertySource) this.environment
+				.getPropertySources().get("systemEnvironment");
+		assertThat(replaced.getPropertyNames()).containsExactly("MYAPP_NAME", "myapp_port", "SPRING_PROFILES_ACTIVE");
+		assertThat(replaced.getProperty("OTHER_SERVICE_HOST")).isNull();
+	}
+
 }
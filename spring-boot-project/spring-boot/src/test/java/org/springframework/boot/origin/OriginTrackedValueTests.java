@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2019 the original author or authors.
+ * Copyright 2012-2022 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.boot.origin;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -63,6 +65,26 @@ class OriginTrackedValueTests {
 		assertThat(OriginTrackedValue.of(null, mock(Origin.class))).isNull();
 	}
 
+	@Test
+	void ofLazyShouldCreateOriginOnceWhenRequested() {
+		Origin origin = mock(Origin.class);
+		AtomicInteger calls = new AtomicInteger();
+		OriginTrackedValue tracked = OriginTrackedValue.ofLazy("foo", () -> {
+			calls.incrementAndGet();
+			return origin;
+		});
+		assertThat(calls).hasValue(0);
+		assertThat(tracked).isInstanceOf(CharSequence.class);
+		assertThat(tracked.getOrigin()).isSameAs(origin);
+		assertThat(tracked.getOrigin()).isSameAs(origin);
+		assertThat(calls).hasValue(1);
+	}
+
+	@Test
+	void ofLazyWhenValueIsNullShouldReturnNull() {
+		assertThat(OriginTrackedValue.ofLazy(null, () -> mock(Origin.class))).isNull();
+	}
+
 	@Test
 	void ofWhenValueIsCharSequenceShouldReturnCharSequence() {
 		String value = "foo";